@@ -1,7 +1,11 @@
 package de.uni_mannheim.informatik.dws.melt.matching_base;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageMeasurement;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.RepresentationCache;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,12 +15,20 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Executes all matchers one after the other.
+ * All matchers share the same sets of representations for source and target as well as one {@link RepresentationCache},
+ * thus each ontology is transformed only once during one execution.
+ * The alignment is handed over in memory to the next matcher whenever possible. Matchers which are based on files/URLs
+ * (like MatcherYAAA) are called in memory only if they also implement {@link IMatcher}.
+ * For each matcher, the runtime, memory and alignment size statistics are reported to the {@link PipelineStageListener}s
+ * (see {@link PipelineInstrumentation}).
  */
 public class MatcherPipelineSequential implements IMatcherCaller {
     private static final Logger LOGGER = LoggerFactory.getLogger(MatcherPipelineSequential.class);
     
     protected List<Object> matchers;
     
+    protected PipelineInstrumentation instrumentation = new PipelineInstrumentation(getClass().getSimpleName());
+    
     public MatcherPipelineSequential(){
         this.matchers = new ArrayList<>();
     }
@@ -32,17 +44,35 @@ public class MatcherPipelineSequential implements IMatcherCaller {
     
     @Override
     public AlignmentAndParameters match(Set<Object> sourceRepresentations, Set<Object> targetRepresentations, Object inputAlignment, Object parameters) throws Exception {
-        for(Object matcher : this.matchers){
-            AlignmentAndParameters matcherResult = GenericMatcherCaller.runMatcherMultipleRepresentations(matcher, sourceRepresentations, targetRepresentations, inputAlignment, parameters);
+        RepresentationCache cache = new RepresentationCache();
+        for(int i = 0; i < this.matchers.size(); i++){
+            Object matcher = this.matchers.get(i);
+            long transformationTime = cache.getTransformationTime();
+            PipelineStageMeasurement measurement = this.instrumentation.startStage(i, matcher, inputAlignment);
+            AlignmentAndParameters matcherResult = GenericMatcherCaller.runMatcherMultipleRepresentations(matcher, sourceRepresentations, targetRepresentations, inputAlignment, parameters, cache);
             if(matcherResult.getAlignment() == null){
                 throw new IllegalArgumentException("A matcher returned null from the match method. No matcher should do this. Please repair the matcher " + matcher.getClass());
             }
             if(matcherResult.getParameters() == null){
                 throw new IllegalArgumentException("A matcher set the parameters object to null. No matcher should do this. Please repair the matcher " + matcher.getClass());
             }
+            this.instrumentation.stopStage(measurement, matcherResult.getAlignment(), cache.getTransformationTime() - transformationTime);
             inputAlignment = matcherResult.getAlignment();
             parameters = matcherResult.getParameters();
         }
+        LOGGER.debug("Representation cache of the pipeline: {} hits, {} misses", cache.getHitCount(), cache.getMissCount());
         return new AlignmentAndParameters(inputAlignment, parameters);
     }
+    
+    /**
+     * Adds a listener which is notified after each matcher of this pipeline.
+     * @param listener the listener
+     */
+    public void addPipelineStageListener(PipelineStageListener listener){
+        this.instrumentation.addListener(listener);
+    }
+    
+    public void removePipelineStageListener(PipelineStageListener listener){
+        this.instrumentation.removeListener(listener);
+    }
 }
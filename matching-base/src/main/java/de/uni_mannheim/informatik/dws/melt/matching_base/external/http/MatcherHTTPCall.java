@@ -4,30 +4,46 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
 import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
-import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.util.EntityUtils;
@@ -44,22 +60,118 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
 
     public static boolean CHECK_URL = true;
     
-    private static CloseableHttpClient httpClient = HttpClients.createDefault();
+    /**
+     * Response header of the matching server which contains a comma separated list of supported features (like {@link #CAPABILITY_GZIP_PARTS}).
+     */
+    public static final String HEADER_CAPABILITIES = "X-MELT-Capabilities";
+    /**
+     * Response header of the matching server which contains the (comma separated) content hashes which the server holds in its upload cache.
+     */
+    public static final String HEADER_CACHED_CONTENT = "X-MELT-Cached-Content";
+    /**
+     * Response header of the matching server (together with status 412) which contains the content hashes which are not available on the server.
+     */
+    public static final String HEADER_MISSING_CONTENT = "X-MELT-Missing-Content";
+    /**
+     * Capability of the server to decompress multipart file parts which have content type application/gzip.
+     */
+    public static final String CAPABILITY_GZIP_PARTS = "gzip-parts";
+    /**
+     * Capability of the server to cache uploaded files by their content hash such that only the hash needs to be transferred for repeated uploads.
+     */
+    public static final String CAPABILITY_CONTENT_HASH = "content-hash";
+    /**
+     * The suffix of the multipart field which contains the content hash of a file part (e.g. sourceHash for the part source).
+     */
+    public static final String CONTENT_HASH_SUFFIX = "Hash";
+    
+    private static boolean checkSSLCertificates = true;
+    private static int maxConnectionsTotal = 100;
+    private static int maxConnectionsPerRoute = 20;
+    private static volatile CloseableHttpClient httpClient = createHttpClient();
+    
+    /**
+     * The capabilities of the matching servers (key is the URI of the matcher service).
+     */
+    private static final Map<URI, Set<String>> SERVER_CAPABILITIES = new ConcurrentHashMap<>();
+    /**
+     * The content hashes which are known to be available on the matching servers (key is the URI of the matcher service).
+     */
+    private static final Map<URI, Set<String>> SERVER_CONTENT_HASHES = new ConcurrentHashMap<>();
+    /**
+     * The maximum number of local files for which the content hash is cached.
+     */
+    private static final int MAX_FILE_CONTENT_HASHES = 1000;
+    /**
+     * Content hashes of local files (key is the absolute path) such that they are computed only once per file version.
+     * A new version of a file replaces the old entry and the least recently used files are removed if the cache is full.
+     */
+    private static final Map<String, FileContentHash> FILE_CONTENT_HASHES = Collections.synchronizedMap(
+            new LinkedHashMap<String, FileContentHash>(16, 0.75f, true){
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FileContentHash> eldest) {
+                    return size() > MAX_FILE_CONTENT_HASHES;
+                }
+            });
+    
+    /**
+     * Enables or disables the validation of SSL certificates.
+     * The shared HTTP client is replaced and the connections of the old client are closed.
+     * Thus it should be called when no matcher calls are running.
+     * @param checkSSLCertificates true if SSL certificates should be checked
+     */
+    public static synchronized void setSSLValidation(boolean checkSSLCertificates){
+        MatcherHTTPCall.checkSSLCertificates = checkSSLCertificates;
+        replaceHttpClient();
+    }
     
-    public static void setSSLValidation(boolean checkSSLCertificates){
+    /**
+     * Sets the size of the connection pool which is shared by all instances of this class.
+     * The default is 100 connections in total and 20 connections per route (matching server).
+     * Increase it if more matcher calls should run in parallel (e.g. with ExecutorParallel) against the same server.
+     * The shared HTTP client is replaced and the connections of the old client are closed.
+     * Thus it should be called when no matcher calls are running.
+     * @param maxTotal the maximum number of connections in total
+     * @param maxPerRoute the maximum number of connections per route (matching server)
+     */
+    public static synchronized void setConnectionPoolSize(int maxTotal, int maxPerRoute){
+        maxConnectionsTotal = maxTotal;
+        maxConnectionsPerRoute = maxPerRoute;
+        replaceHttpClient();
+    }
+    
+    private static void replaceHttpClient(){
+        CloseableHttpClient oldClient = httpClient;
+        httpClient = createHttpClient();
+        try {
+            oldClient.close();
+        } catch (IOException ex) {
+            LOGGER.warn("Could not close the previous HTTP client.", ex);
+        }
+    }
+    
+    private static CloseableHttpClient createHttpClient(){
+        PoolingHttpClientConnectionManager connectionManager;
         if(checkSSLCertificates){
-            httpClient = HttpClients.createDefault();
+            connectionManager = new PoolingHttpClientConnectionManager();
         }else{
             try {
-                httpClient = HttpClients.custom()
-                        .setSSLContext(SSLContextBuilder.create().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build())
-                        .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", new SSLConnectionSocketFactory(
+                                SSLContextBuilder.create().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build(),
+                                NoopHostnameVerifier.INSTANCE))
                         .build();
+                connectionManager = new PoolingHttpClientConnectionManager(registry);
             } catch (NoSuchAlgorithmException|KeyStoreException|KeyManagementException ex) {
                 LOGGER.error("Could not create SSLContext while disabeling ssl validation. It will still check ssl certificates. Error Message: {}", ex.getMessage());
-                httpClient = HttpClients.createDefault();
+                connectionManager = new PoolingHttpClientConnectionManager();
             }
         }
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        //content compression (gzip responses) is enabled by default
+        return HttpClients.custom().setConnectionManager(connectionManager).build();
     }
     
     /**
@@ -71,6 +183,12 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
      * The amount of seconds to sleep when an exception occurred before retrying.
      */
     private int sleepTimeInSeconds = 10;
+
+    /**
+     * The number of retries when the server is busy (status 503 Service Unavailable, e.g. its matching queue is full).
+     * Before each retry, the client waits as long as the server requests in the Retry-After header.
+     */
+    private int maxServiceUnavailableTrials = 100;
     /**
      * URI where the matching service is located.
      */
@@ -82,6 +200,17 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
      */
     private boolean sendContent;
 
+    /**
+     * If true, the file parts are compressed with gzip (only if the server supports it).
+     */
+    private boolean compressContent = true;
+    
+    /**
+     * If true, the content hashes of local files are transferred and the content itself is only transferred
+     * if the server does not already hold it (only if the server supports it).
+     */
+    private boolean useContentHashes = true;
+
     /**
      * The RequestConfig which contains timeouts to be used in http call.
      */
@@ -156,6 +285,8 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
         //https://stackoverflow.com/questions/1378920/how-can-i-make-a-multipart-form-data-post-request-using-java?rq=1
 
         int currentTrials = 0;
+        int missingContentTrials = 0;
+        int serviceUnavailableTrials = 0;
         boolean isStatusCodeError = false;
 
         while (currentTrials < maxTrials) {
@@ -163,19 +294,19 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
             HttpPost request = new HttpPost(uri);
 
             if (this.sendContent) {
+                boolean compress = this.compressContent && 
+                        SERVER_CAPABILITIES.getOrDefault(this.uri, Collections.emptySet()).contains(CAPABILITY_GZIP_PARTS);
                 MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-                builder.addBinaryBody("source", source.openStream(), ContentType.DEFAULT_BINARY, getFileName(source.getPath())); //TODO: close stream?
-                builder.addBinaryBody("target", target.openStream(), ContentType.DEFAULT_BINARY, getFileName(target.getPath()));
+                addContent(builder, "source", source, compress);
+                addContent(builder, "target", target, compress);
 
                 if (inputAlignment != null){
-                    String filename = getFileName(inputAlignment.getPath());
-                    LOGGER.info("Add input alignment to HTTP request: {}", filename);
-                    builder.addBinaryBody("inputAlignment", inputAlignment.openStream(), ContentType.DEFAULT_BINARY, filename);
+                    LOGGER.info("Add input alignment to HTTP request: {}", getFileName(inputAlignment.getPath()));
+                    addContent(builder, "inputAlignment", inputAlignment, compress);
                 }
                 if (parameters != null){
-                    String filename = getFileName(parameters.getPath());
-                    LOGGER.info("Add parameters to HTTP request: {}", filename);
-                    builder.addBinaryBody("parameters", parameters.openStream(), ContentType.DEFAULT_BINARY, filename);
+                    LOGGER.info("Add parameters to HTTP request: {}", getFileName(parameters.getPath()));
+                    addContent(builder, "parameters", parameters, compress);
                 }
                 request.setEntity(builder.build());
             } else {
@@ -198,10 +329,35 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
 
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                updateServerState(response);
                 HttpEntity entity = response.getEntity();
                 if (entity == null) {
                     throw new Exception("No server response.");
                 } else {
+                    if (response.getStatusLine().getStatusCode() == HttpStatus.SC_PRECONDITION_FAILED && 
+                            response.containsHeader(HEADER_MISSING_CONTENT) && missingContentTrials < maxTrials) {
+                        //the server evicted some content from its cache - send the request again with the full content
+                        EntityUtils.consume(entity);
+                        missingContentTrials++;
+                        LOGGER.info("The server does not hold the content with hash(es) {} anymore. Transfer the content again.", 
+                                response.getFirstHeader(HEADER_MISSING_CONTENT).getValue());
+                        continue;
+                    }
+                    if (response.getStatusLine().getStatusCode() == HttpStatus.SC_SERVICE_UNAVAILABLE && 
+                            serviceUnavailableTrials < maxServiceUnavailableTrials) {
+                        //the server is busy - wait and send the request again
+                        EntityUtils.consume(entity);
+                        serviceUnavailableTrials++;
+                        int waitSeconds = getRetryAfterSeconds(response);
+                        LOGGER.info("The server is busy. Waiting {} seconds. Trial {}/{}", 
+                                waitSeconds, serviceUnavailableTrials, maxServiceUnavailableTrials);
+                        try {
+                            Thread.sleep(waitSeconds * 1000L);
+                        } catch (InterruptedException ie) {
+                            LOGGER.error("Problem occurred while trying to sleep.", ie);
+                        }
+                        continue;
+                    }
                     if (response.getStatusLine().getStatusCode() != 200) {
                         LOGGER.error("Server returned a non 200 status code: {}", EntityUtils.toString(entity));
                         isStatusCodeError = true;
@@ -239,6 +395,150 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
         throw new Exception("The service could not be reached after " + maxTrials + ".");
     }
 
+    /**
+     * Returns the number of seconds the server requests to wait before the next request (Retry-After header in seconds).
+     * @param response the response of the server
+     * @return the seconds to wait or the sleep time of this matcher if the header is not given or not a number
+     */
+    private int getRetryAfterSeconds(CloseableHttpResponse response){
+        Header retryAfter = response.getFirstHeader("Retry-After");
+        if(retryAfter != null){
+            try{
+                return Math.max(0, Integer.parseInt(retryAfter.getValue().trim()));
+            }catch(NumberFormatException e){
+                LOGGER.debug("Could not parse the Retry-After header {}. Use the default sleep time.", retryAfter.getValue());
+            }
+        }
+        return this.sleepTimeInSeconds;
+    }
+
+    /**
+     * Adds the content of the URL as a file part to the multipart request.
+     * If content hashes are used, the hash of the content is added and the content itself is omitted if the server already holds it.
+     * @param builder the multipart builder
+     * @param name the name of the part
+     * @param url the URL to transfer
+     * @param compress true if the content should be compressed with gzip
+     */
+    private void addContent(MultipartEntityBuilder builder, String name, URL url, boolean compress){
+        String filename = getFileName(url.getPath());
+        String hash = this.useContentHashes ? getContentHash(url) : null;
+        if(hash != null){
+            builder.addTextBody(name + CONTENT_HASH_SUFFIX, hash);
+            if(SERVER_CONTENT_HASHES.getOrDefault(this.uri, Collections.emptySet()).contains(hash)){
+                LOGGER.debug("The server already holds the content of {} ({}). Only the content hash is transferred.", name, filename);
+                return;
+            }
+        }
+        builder.addPart(name, new URLContentBody(url, filename, compress));
+    }
+    
+    /**
+     * Updates the capabilities and the content hashes of the server based on the response headers.
+     * @param response the response of the server
+     */
+    private void updateServerState(CloseableHttpResponse response){
+        Header capabilities = response.getFirstHeader(HEADER_CAPABILITIES);
+        if(capabilities != null){
+            SERVER_CAPABILITIES.put(this.uri, splitHeader(capabilities));
+        }
+        Header cached = response.getFirstHeader(HEADER_CACHED_CONTENT);
+        if(cached != null){
+            //the server only reports the hashes of the content of this request, thus they are added to the known hashes.
+            //A hash is only removed when the server answers that the content is missing (see below).
+            SERVER_CONTENT_HASHES.computeIfAbsent(this.uri, k -> ConcurrentHashMap.newKeySet()).addAll(splitHeader(cached));
+        }
+        Header missing = response.getFirstHeader(HEADER_MISSING_CONTENT);
+        if(missing != null){
+            Set<String> knownHashes = SERVER_CONTENT_HASHES.get(this.uri);
+            if(knownHashes != null)
+                knownHashes.removeAll(splitHeader(missing));
+        }
+    }
+    
+    private static Set<String> splitHeader(Header header){
+        Set<String> values = new HashSet<>();
+        for(String value : header.getValue().split(",")){
+            value = value.trim();
+            if(value.isEmpty() == false)
+                values.add(value);
+        }
+        return values;
+    }
+    
+    /**
+     * Returns the content hash of a local file. The hash is computed once per file version (last modified time and length).
+     * @param url the url of the file
+     * @return the content hash or null if the URL is not a local file
+     */
+    private static String getContentHash(URL url){
+        if("file".equals(url.getProtocol()) == false)
+            return null;
+        File file;
+        try {
+            file = new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return null;
+        }
+        if(file.isFile() == false)
+            return null;
+        String path = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        FileContentHash cached = FILE_CONTENT_HASHES.get(path);
+        if(cached != null && cached.lastModified == lastModified && cached.length == length)
+            return cached.hash;
+        String hash;
+        try (InputStream in = new FileInputStream(file)) {
+            hash = computeContentHash(in);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not compute the content hash of {}. The content is transferred without hash.", file, ex);
+            return null;
+        }
+        FILE_CONTENT_HASHES.put(path, new FileContentHash(lastModified, length, hash));
+        return hash;
+    }
+    
+    /**
+     * The content hash of one version (last modified time and length) of a local file.
+     */
+    private static class FileContentHash {
+        private final long lastModified;
+        private final long length;
+        private final String hash;
+
+        FileContentHash(long lastModified, long length, String hash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+        }
+    }
+    
+    /**
+     * Computes the content hash (SHA-256 as lowercase hex string) which is used to identify files on the matching server.
+     * @param in the input stream to read the content from (not closed by this method)
+     * @return the content hash
+     * @throws IOException in case the stream can not be read
+     */
+    public static String computeContentHash(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 is not available", ex);
+        }
+        byte[] buffer = new byte[8192];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, bytesRead);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
     public void setTimeout(int socketTimeout, int connectTimeout, int connectionRequestTimeout) {
         this.requestConfig = RequestConfig.custom()
                 .setSocketTimeout(socketTimeout)
@@ -265,6 +565,32 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
         return sendContent;
     }
 
+    public boolean isCompressContent() {
+        return compressContent;
+    }
+
+    /**
+     * If true, the transferred files are compressed with gzip. This is only applied if the server supports it
+     * (it is announced in the response header {@value #HEADER_CAPABILITIES}, thus the first request is never compressed).
+     * @param compressContent true to compress the files
+     */
+    public void setCompressContent(boolean compressContent) {
+        this.compressContent = compressContent;
+    }
+
+    public boolean isUseContentHashes() {
+        return useContentHashes;
+    }
+
+    /**
+     * If true, the content hashes of the local files are transferred as well.
+     * The content itself is only transferred if the server does not already hold it in its upload cache.
+     * @param useContentHashes true to use the content hashes
+     */
+    public void setUseContentHashes(boolean useContentHashes) {
+        this.useContentHashes = useContentHashes;
+    }
+
     public int getMaxTrials() {
         return maxTrials;
     }
@@ -280,6 +606,20 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
     public void setSleepTimeInSeconds(int sleepTimeInSeconds) {
         this.sleepTimeInSeconds = sleepTimeInSeconds;
     }
+
+    public int getMaxServiceUnavailableTrials() {
+        return maxServiceUnavailableTrials;
+    }
+
+    /**
+     * Sets the number of retries when the server is busy (status 503 Service Unavailable).
+     * Before each retry, the client waits as long as the server requests in the Retry-After header
+     * (or the sleep time if the header is not given).
+     * @param maxServiceUnavailableTrials the number of retries (zero to fail directly)
+     */
+    public void setMaxServiceUnavailableTrials(int maxServiceUnavailableTrials) {
+        this.maxServiceUnavailableTrials = maxServiceUnavailableTrials;
+    }
     
     private String getFileName(String fullPath){        
         if (fullPath == null) {
@@ -0,0 +1,88 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.external.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.zip.GZIPOutputStream;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+/**
+ * A multipart body which streams the content of a URL.
+ * The stream is opened when the body is written (and closed afterwards), thus the body can be written multiple times (e.g. for retries).
+ * Optionally, the content is compressed with gzip on the fly (the content type is then application/gzip).
+ */
+class URLContentBody extends AbstractContentBody {
+
+    /**
+     * The content type of gzip compressed parts.
+     */
+    static final ContentType GZIP = ContentType.create("application/gzip");
+
+    private final URL url;
+    private final String filename;
+    private final boolean compress;
+
+    /**
+     * Constructor
+     * @param url the url to read the content from
+     * @param filename the filename which is transferred to the server
+     * @param compress true if the content should be compressed with gzip
+     */
+    URLContentBody(URL url, String filename, boolean compress) {
+        super(compress ? GZIP : ContentType.DEFAULT_BINARY);
+        this.url = url;
+        this.filename = filename;
+        this.compress = compress;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (InputStream in = url.openStream()) {
+            if (compress) {
+                //the gzip stream should not close the underlying stream of the request
+                GZIPOutputStream gzip = new GZIPOutputStream(new FilterOutputStream(out) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                }, 8192);
+                copy(in, gzip);
+                gzip.finish();
+                gzip.flush();
+            } else {
+                copy(in, out);
+            }
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+        }
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return "binary";
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+}
@@ -0,0 +1,132 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records per stage statistics (wall time, CPU time, allocated bytes, correspondence count in/out and type transformation time)
+ * of a matcher pipeline and notifies the listeners.
+ * Each pipeline has its own instance. The statistics are given to
+ * <ul>
+ * <li>all listeners which are added to this instance,</li>
+ * <li>the listener which is active for the current thread (see {@link #setActiveListener(PipelineStageListener) }).
+ * The executor of the evaluation module uses it to attach the statistics to the execution result.
+ * It is not inherited by other threads (like pool threads which outlive the execution).</li>
+ * </ul>
+ * If there is no listener, the statistics are only logged (debug level).
+ * This class is thread safe.
+ */
+public class PipelineInstrumentation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineInstrumentation.class);
+
+    private static final ThreadLocal<PipelineStageListener> ACTIVE_LISTENER = new ThreadLocal<>();
+
+    private final String pipelineName;
+    private final List<PipelineStageListener> listeners;
+
+    /**
+     * Constructor
+     * @param pipelineName the name of the pipeline which is used in the statistics.
+     */
+    public PipelineInstrumentation(String pipelineName) {
+        this.pipelineName = pipelineName;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Starts the measurement of one stage. Call it directly before the matcher is executed.
+     * @param stageIndex the index of the stage in the pipeline
+     * @param matcher the matcher of this stage
+     * @param inputAlignment the alignment which is given to the matcher
+     * @return the running measurement
+     */
+    public PipelineStageMeasurement startStage(int stageIndex, Object matcher, Object inputAlignment) {
+        return new PipelineStageMeasurement(stageIndex, getStageName(matcher), inputAlignment);
+    }
+
+    /**
+     * Stops the measurement of one stage and notifies all listeners.
+     * @param measurement the measurement returned by {@link #startStage(int, Object, Object) }
+     * @param outputAlignment the alignment returned by the matcher
+     * @return the statistics of the stage
+     */
+    public PipelineStageStatistics stopStage(PipelineStageMeasurement measurement, Object outputAlignment) {
+        return stopStage(measurement, outputAlignment, 0);
+    }
+
+    /**
+     * Stops the measurement of one stage and notifies all listeners.
+     * @param measurement the measurement returned by {@link #startStage(int, Object, Object) }
+     * @param outputAlignment the alignment returned by the matcher
+     * @param typeTransformationTime the time in nanoseconds which was used to transform the inputs of the matcher
+     * @return the statistics of the stage
+     */
+    public PipelineStageStatistics stopStage(PipelineStageMeasurement measurement, Object outputAlignment, long typeTransformationTime) {
+        PipelineStageStatistics statistics = measurement.stop(pipelineName, outputAlignment, typeTransformationTime);
+        LOGGER.debug("{}", statistics);
+        for (PipelineStageListener listener : this.listeners) {
+            notifyListener(listener, statistics);
+        }
+        PipelineStageListener activeListener = ACTIVE_LISTENER.get();
+        if (activeListener != null) {
+            notifyListener(activeListener, statistics);
+        }
+        return statistics;
+    }
+
+    private static void notifyListener(PipelineStageListener listener, PipelineStageStatistics statistics) {
+        try {
+            listener.stageCompleted(statistics);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Pipeline stage listener {} threw an exception. Continue with the pipeline.", listener.getClass().getName(), e);
+        }
+    }
+
+    private static String getStageName(Object matcher) {
+        if (matcher == null)
+            return "null";
+        if (matcher instanceof String)
+            return (String) matcher;
+        if (matcher instanceof Class)
+            return ((Class<?>) matcher).getSimpleName();
+        String name = matcher.getClass().getSimpleName();
+        return name.isEmpty() ? matcher.getClass().getName() : name;
+    }
+
+    public void addListener(PipelineStageListener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(PipelineStageListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    /**
+     * Returns the listener which is active for the current thread.
+     * @return the active listener or null if no listener is active
+     */
+    public static PipelineStageListener getActiveListener() {
+        return ACTIVE_LISTENER.get();
+    }
+
+    /**
+     * Sets the listener which is notified about all pipeline stages executed in the current thread (only this thread - it is not inherited by threads created by it).
+     * The caller is responsible to deactivate (or restore) the listener afterwards, usually in a finally block,
+     * because otherwise the thread keeps the listener alive and notifies it about later executions.
+     * @param listener the listener or null to deactivate it
+     */
+    public static void setActiveListener(PipelineStageListener listener) {
+        if (listener == null) {
+            ACTIVE_LISTENER.remove();
+        } else {
+            ACTIVE_LISTENER.set(listener);
+        }
+    }
+}
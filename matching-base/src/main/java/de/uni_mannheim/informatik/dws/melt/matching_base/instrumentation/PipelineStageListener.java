@@ -0,0 +1,17 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation;
+
+/**
+ * A listener which is notified whenever a stage (one matcher) of a matcher pipeline is completed.
+ * It can be added to a single pipeline or activated for the current thread with
+ * {@link PipelineInstrumentation#setActiveListener(PipelineStageListener) }.
+ * Implementations should return fast because they are called synchronously by the pipeline.
+ */
+@FunctionalInterface
+public interface PipelineStageListener {
+
+    /**
+     * Called after a stage of a pipeline is completed.
+     * @param statistics the statistics of the stage
+     */
+    void stageCompleted(PipelineStageStatistics statistics);
+}
@@ -0,0 +1,85 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+
+/**
+ * A running measurement of one pipeline stage. It is created by {@link PipelineInstrumentation#startStage(int, Object, Object) }
+ * and has to be stopped in the same thread.
+ */
+public class PipelineStageMeasurement {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final int stageIndex;
+    private final String stageName;
+    private final long correspondencesIn;
+    private final long startWallTime;
+    private final long startCpuTime;
+    private final long startAllocatedBytes;
+
+    PipelineStageMeasurement(int stageIndex, String stageName, Object inputAlignment) {
+        this.stageIndex = stageIndex;
+        this.stageName = stageName;
+        this.correspondencesIn = countCorrespondences(inputAlignment);
+        this.startCpuTime = getCurrentThreadCpuTime();
+        this.startAllocatedBytes = getCurrentThreadAllocatedBytes();
+        this.startWallTime = System.nanoTime();
+    }
+
+    /**
+     * Stops this measurement.
+     * @param pipelineName the name of the pipeline
+     * @param outputAlignment the alignment returned by the stage
+     * @param typeTransformationTime the type transformation time in nanoseconds
+     * @return the statistics of the stage
+     */
+    PipelineStageStatistics stop(String pipelineName, Object outputAlignment, long typeTransformationTime) {
+        long wallTime = System.nanoTime() - startWallTime;
+        long cpuTime = difference(getCurrentThreadCpuTime(), startCpuTime);
+        long allocatedBytes = difference(getCurrentThreadAllocatedBytes(), startAllocatedBytes);
+        return new PipelineStageStatistics(pipelineName, stageIndex, stageName, wallTime, cpuTime, allocatedBytes,
+                correspondencesIn, countCorrespondences(outputAlignment), typeTransformationTime);
+    }
+
+    private static long difference(long end, long start) {
+        if (end < 0 || start < 0)
+            return -1;
+        return end - start;
+    }
+
+    /**
+     * Returns the number of correspondences of the given alignment if it is a collection (like YAAA alignments).
+     * @param alignment the alignment
+     * @return the number of correspondences or -1 if they can not be counted
+     */
+    static long countCorrespondences(Object alignment) {
+        if (alignment instanceof Collection)
+            return ((Collection<?>) alignment).size();
+        return -1;
+    }
+
+    /**
+     * Returns the CPU time of the current thread.
+     * @return the CPU time in nanoseconds or -1 if not supported
+     */
+    static long getCurrentThreadCpuTime() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() == false || THREAD_MX_BEAN.isThreadCpuTimeEnabled() == false)
+            return -1;
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread (only available on HotSpot based JVMs).
+     * @return the allocated bytes or -1 if not supported
+     */
+    static long getCurrentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,134 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The statistics of one stage (one matcher) of a matcher pipeline.
+ * All times are in nanoseconds. CPU time and allocated bytes are measured for the thread which runs the pipeline,
+ * thus work which is done by other threads (e.g. a matcher which uses a thread pool) is not included.
+ * A value of -1 means that the value could not be measured (e.g. the JVM does not support it or the alignment
+ * is not a collection and thus can not be counted).
+ */
+public class PipelineStageStatistics {
+
+    private final String pipelineName;
+    private final int stageIndex;
+    private final String stageName;
+    private final long wallTime;
+    private final long cpuTime;
+    private final long allocatedBytes;
+    private final long correspondencesIn;
+    private final long correspondencesOut;
+    private final long typeTransformationTime;
+
+    /**
+     * Constructor
+     * @param pipelineName the name of the pipeline
+     * @param stageIndex the index of the stage in the pipeline (starting with zero)
+     * @param stageName the name of the matcher which is executed in this stage
+     * @param wallTime the wall clock time in nanoseconds
+     * @param cpuTime the CPU time of the pipeline thread in nanoseconds
+     * @param allocatedBytes the bytes allocated by the pipeline thread
+     * @param correspondencesIn the number of correspondences in the input alignment
+     * @param correspondencesOut the number of correspondences in the output alignment
+     * @param typeTransformationTime the time in nanoseconds which is used to transform the ontologies, alignments and parameters
+     */
+    public PipelineStageStatistics(String pipelineName, int stageIndex, String stageName, long wallTime, long cpuTime, long allocatedBytes,
+            long correspondencesIn, long correspondencesOut, long typeTransformationTime) {
+        this.pipelineName = pipelineName;
+        this.stageIndex = stageIndex;
+        this.stageName = stageName;
+        this.wallTime = wallTime;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+        this.correspondencesIn = correspondencesIn;
+        this.correspondencesOut = correspondencesOut;
+        this.typeTransformationTime = typeTransformationTime;
+    }
+
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    public int getStageIndex() {
+        return stageIndex;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    /**
+     * Returns the wall clock time of the stage.
+     * @return the wall clock time in nanoseconds
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Returns the CPU time of the thread which runs the pipeline.
+     * @return the CPU time in nanoseconds or -1 if not supported
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the number of bytes which were allocated by the thread which runs the pipeline.
+     * @return the allocated bytes or -1 if not supported
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of correspondences of the alignment given to the stage.
+     * @return the number of correspondences or -1 if the alignment can not be counted
+     */
+    public long getCorrespondencesIn() {
+        return correspondencesIn;
+    }
+
+    /**
+     * Returns the number of correspondences of the alignment returned by the stage.
+     * @return the number of correspondences or -1 if the alignment can not be counted
+     */
+    public long getCorrespondencesOut() {
+        return correspondencesOut;
+    }
+
+    /**
+     * Returns the time which was used to transform the inputs of the stage into the types the matcher expects.
+     * @return the type transformation time in nanoseconds (included in the wall time)
+     */
+    public long getTypeTransformationTime() {
+        return typeTransformationTime;
+    }
+
+    /**
+     * Returns the names of the values returned by {@link #toList() }.
+     * @return the header which can be used for CSV files
+     */
+    public static List<String> getHeader() {
+        return Arrays.asList("Pipeline", "Stage", "Stage Matcher", "Wall Time", "CPU Time", "Allocated Bytes",
+                "# of Correspondences In", "# of Correspondences Out", "Type Transformation Time");
+    }
+
+    /**
+     * Returns all values of this object in the order given by {@link #getHeader() }.
+     * @return all values as a list
+     */
+    public List<Object> toList() {
+        return Arrays.asList(pipelineName, stageIndex, stageName, wallTime, cpuTime, allocatedBytes,
+                correspondencesIn, correspondencesOut, typeTransformationTime);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s stage %d (%s): wall time %d ms, CPU time %d ms, allocated %d bytes, correspondences %d -> %d, type transformation %d ms",
+                pipelineName, stageIndex, stageName, wallTime / 1_000_000, cpuTime < 0 ? -1 : cpuTime / 1_000_000, allocatedBytes,
+                correspondencesIn, correspondencesOut, typeTransformationTime / 1_000_000);
+    }
+}
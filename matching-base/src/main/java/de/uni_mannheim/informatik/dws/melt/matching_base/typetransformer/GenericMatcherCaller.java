@@ -124,6 +124,27 @@ public class GenericMatcherCaller {
      * @throws Exception in case something goes wrong
      */
     public static AlignmentAndParameters runMatcherMultipleRepresentations(Object matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters) throws Exception{
+        return runMatcherMultipleRepresentations(matcher, sourceOntology, targetOntology, inputAlignment, parameters, new RepresentationCache());
+    }
+    
+    /**
+     * Calls a matcher object with the provided arguments.
+     * The given cache is used for all transformations and can be shared by multiple calls which belong to the same execution
+     * (like all matchers of a {@link de.uni_mannheim.informatik.dws.melt.matching_base.MatcherPipelineSequential}).
+     * @param matcher the matcher can be: <ul>
+     *  <li>an object / instance which implements/extends {@link IMatcher}, {@link IMatcherCaller}, or {@link IOntologyMatchingToolBridge}</li>
+     *  <li>a class object: a class which implements one of the above interfaces/classes - a new instance of this class will be created.</li>
+     *  <li>a string: the fully qualified name of a class which implements one of the above interfaces/classes like de.uni_mannheim.informatik.dws.melt.matching_base.MyMatcher - a new instance of this class will be created.</li>
+     * </ul>
+     * @param sourceOntology this is an iterable of objects which all represents the same source ontology / knowledge graph
+     * @param targetOntology this is an iterable of objects which all represents the same target ontology / knowledge graph
+     * @param inputAlignment the object which represents an input alignment. Can be null.
+     * @param parameters An object which represents parameters. Can be null.
+     * @param cache the cache for transformed objects which is scoped to one execution.
+     * @return the object which is returned by the matcher. This can be any arbitrary object, but you can call the TypeTransformerRegistry to get the representation you want.
+     * @throws Exception in case something goes wrong
+     */
+    public static AlignmentAndParameters runMatcherMultipleRepresentations(Object matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters, RepresentationCache cache) throws Exception{
         Object matcherInstance = matcher;
         if(matcher instanceof String){
             try {
@@ -148,9 +169,9 @@ public class GenericMatcherCaller {
         if(matcherInstance instanceof IMatcherCaller){
             return runIMatcherCaller((IMatcherCaller)matcherInstance, sourceOntology, targetOntology, inputAlignment, parameters);
         } else if(matcherInstance instanceof IMatcher){
-            return runIMatcher((IMatcher)matcherInstance, sourceOntology, targetOntology, inputAlignment, parameters);
+            return runIMatcher((IMatcher)matcherInstance, sourceOntology, targetOntology, inputAlignment, parameters, cache);
         } else if(matcherInstance instanceof IOntologyMatchingToolBridge){
-            return runIOntologyMatchingToolBridge((IOntologyMatchingToolBridge)matcherInstance, sourceOntology, targetOntology, inputAlignment, parameters);
+            return runIOntologyMatchingToolBridge((IOntologyMatchingToolBridge)matcherInstance, sourceOntology, targetOntology, inputAlignment, parameters, cache);
         }//else if(matcherInstance instanceof IMatcherMultiSource){
          //   return GenericMatcherMultiSourceCaller.runMatcherMultiSourceMultipleRepresentations(matcherInstance, oneToOneInputToMultiSource(sourceOntology, targetOntology), inputAlignment, parameters);
         //}
@@ -179,23 +200,27 @@ public class GenericMatcherCaller {
     
     /**
      * Runs a matcher which implements the {@link IOntologyMatchingToolBridge} interface.
+     * The file based methods of the matcher are always used (the alignment is serialized to a file).
+     * A matcher which also works in memory (like MatcherYAAA subclasses) can opt in by implementing {@link IMatcher}
+     * (e.g. <code>IMatcher&lt;URL, Alignment, Properties&gt;</code>). Then it is called with {@link #runIMatcher} instead.
      * @param matcher the matcher object
      * @param sourceOntology the source ontology / knowledge graph
      * @param targetOntology the taregt ontology / knowledge graph
      * @param inputAlignment the input alignment
      * @param parameters the parameters
+     * @param cache the cache for transformed objects
      * @return alignment and parameters
      * @throws Exception in case somethign goes wrong
      */
-    private static AlignmentAndParameters runIOntologyMatchingToolBridge(IOntologyMatchingToolBridge matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters) throws Exception{
-        Properties p = TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
+    private static AlignmentAndParameters runIOntologyMatchingToolBridge(IOntologyMatchingToolBridge matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters, RepresentationCache cache) throws Exception{
+        Properties p = cache.getTransformedPropertiesOrNewInstance(parameters);
         
-        Object transformedSource = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(sourceOntology, URL.class, p);
+        Object transformedSource = cache.getTransformedObjectMultipleRepresentations(sourceOntology, URL.class, p);
         if(transformedSource == null){
             LOGGER.error("Could not transform source ontology into correct type. The matcher is not called.");
             return null;
         }
-        Object transformedTarget = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(targetOntology, URL.class, p);
+        Object transformedTarget = cache.getTransformedObjectMultipleRepresentations(targetOntology, URL.class, p);
         if(transformedTarget == null){
             LOGGER.error("Could not transform target ontology into correct type. The matcher is not called.");
             return null;
@@ -205,7 +230,7 @@ public class GenericMatcherCaller {
         if(inputAlignment == null || inputAlignment.getClass() == Object.class){
             result = matcher.align((URL)transformedSource, (URL)transformedTarget);
         }else{
-            Object transformedInputAlignment = TypeTransformerRegistry.getTransformedObject(inputAlignment, URL.class, p);
+            Object transformedInputAlignment = cache.getTransformedObject(inputAlignment, URL.class, p);
             if(transformedInputAlignment == null)
                 return null;
             result = matcher.align((URL)transformedSource, (URL)transformedTarget, (URL)transformedInputAlignment);
@@ -226,27 +251,44 @@ public class GenericMatcherCaller {
      * @param targetOntology the taregt ontology / knowledge graph
      * @param inputAlignment the input alignment
      * @param parameters the parameters
+     * @param cache the cache for transformed objects
      * @return alignment and parameters
      * @throws Exception in case something goes wrong.
      */
-    @SuppressWarnings("unchecked")
-    private static AlignmentAndParameters runIMatcher(IMatcher matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters) throws Exception{
+    private static AlignmentAndParameters runIMatcher(IMatcher matcher, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters, RepresentationCache cache) throws Exception{
         Method matchMethod = getIMatcherMethod(matcher.getClass());
         if(matchMethod == null){
             LOGGER.error("Could not find match method of object which implements IMatcher. The matcher is not called");
             return null;
         }
         LOGGER.debug("Choosing the following method to extract the parameter types: {}", matchMethod);
+        return runMatchMethod(matcher, matchMethod, sourceOntology, targetOntology, inputAlignment, parameters, cache);
+    }
+    
+    /**
+     * Transforms all arguments to the parameter types of the given match method and calls the {@link IMatcher} interface method.
+     * @param matcher the matcher object
+     * @param matchMethod the match method which is used to extract the parameter types
+     * @param sourceOntology the source ontology / knowledge graph
+     * @param targetOntology the taregt ontology / knowledge graph
+     * @param inputAlignment the input alignment
+     * @param parameters the parameters
+     * @param cache the cache for transformed objects
+     * @return alignment and parameters
+     * @throws Exception in case something goes wrong.
+     */
+    @SuppressWarnings("unchecked")
+    private static AlignmentAndParameters runMatchMethod(IMatcher matcher, Method matchMethod, Set<Object> sourceOntology, Set<Object> targetOntology, Object inputAlignment, Object parameters, RepresentationCache cache) throws Exception{
         Class<?>[] paramTypes = matchMethod.getParameterTypes();
         
-        Properties p = TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
+        Properties p = cache.getTransformedPropertiesOrNewInstance(parameters);
         
-        Object transformedSource = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(sourceOntology, paramTypes[0], p);
+        Object transformedSource = cache.getTransformedObjectMultipleRepresentations(sourceOntology, paramTypes[0], p);
         if(transformedSource == null){
             LOGGER.error("Could not transform source ontology into correct type. The matcher is not called.");
             return null;
         }
-        Object transformedTarget = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(targetOntology, paramTypes[1], p);
+        Object transformedTarget = cache.getTransformedObjectMultipleRepresentations(targetOntology, paramTypes[1], p);
         if(transformedTarget == null){
             LOGGER.error("Could not transform target ontology into correct type. The matcher is not called.");
             return null;
@@ -271,7 +313,7 @@ public class GenericMatcherCaller {
                 transformedInputAlignment = null;
             }
         }else{
-            transformedInputAlignment = TypeTransformerRegistry.getTransformedObject(inputAlignment, paramTypes[2], p);
+            transformedInputAlignment = cache.getTransformedObject(inputAlignment, paramTypes[2], p);
             if(transformedInputAlignment == null){
                 LOGGER.error("Could not transform input alignment into correct type. The matcher is not called.");
                 return null;
@@ -297,7 +339,7 @@ public class GenericMatcherCaller {
                 transformedParameter = null;
             }
         }else{
-            transformedParameter = TypeTransformerRegistry.getTransformedObject(parameters, paramTypes[3], p);
+            transformedParameter = cache.getTransformedObject(parameters, paramTypes[3], p);
             if(transformedParameter == null){
                 LOGGER.error("Could not transform parameters into correct type. The matcher is not called.");
                 return null;
@@ -0,0 +1,201 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A cache for transformed objects which is scoped to one execution (e.g. one run of a {@link de.uni_mannheim.informatik.dws.melt.matching_base.MatcherPipelineSequential}).
+ * <ul>
+ * <li>Ontologies / knowledge graphs: each transformed representation is added to the set of representations
+ * (as {@link TypeTransformerRegistry#getTransformedObjectMultipleRepresentations(java.util.Set, java.lang.Class, java.util.Properties) } does)
+ * and in case the set already contains an instance of the requested type, it is directly returned without searching a transformation route.</li>
+ * <li>Input alignments and parameters: the transformation result is stored per source object (by identity) and reused by later calls.
+ * This is only done if the source can not be modified by a matcher (URLs, URIs, files, or strings) and the result is either also of such a type or 
+ * java.util.Properties (a copy is returned for each call). Thus e.g. a parameter file is parsed only once.
+ * Mutable objects (like an alignment which is modified by the next matcher) are always transformed again.</li>
+ * </ul>
+ * Do not share an instance over multiple executions because the referenced files or URLs might change in between.
+ * This class is thread safe.
+ */
+public class RepresentationCache {
+
+    /**
+     * Classes of objects which can not be modified and thus the transformation result can be reused.
+     */
+    private static final Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(URL.class, URI.class, File.class, String.class));
+
+    private final Map<Object, Map<Class<?>, Object>> transformedObjects;
+    private int hits;
+    private int misses;
+    private long transformationTime;
+
+    public RepresentationCache() {
+        this.transformedObjects = new IdentityHashMap<>();
+        this.hits = 0;
+        this.misses = 0;
+        this.transformationTime = 0;
+    }
+
+    /**
+     * Returns the representation of the given type. In case the set of representations already contains an instance of this type,
+     * it is returned. Otherwise the registry is used to transform it and the result is added to the set.
+     * @param <T> the type of the return value
+     * @param sourceObjects the objects which all represent the same information. To this set, the transformed object will be added.
+     * @param targetType the type of class to transform to
+     * @param transformationProperties additional properties.
+     * @return the transformed object or null
+     * @throws TypeTransformationException in case no transformation route is found
+     */
+    public <T> T getTransformedObjectMultipleRepresentations(Set<Object> sourceObjects, Class<T> targetType, Properties transformationProperties) throws TypeTransformationException{
+        for(Object o : sourceObjects){
+            if(o != null && o.getClass() == targetType){
+                countHit();
+                return targetType.cast(o);
+            }
+        }
+        countMiss();
+        long startTime = System.nanoTime();
+        try{
+            return TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(sourceObjects, targetType, transformationProperties);
+        }finally{
+            addTransformationTime(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Directly get the transformed object or null if something went wrong.
+     * The result is cached if the source object and the result can not be modified (see class comment).
+     * @param <T> the type of the return value
+     * @param sourceObject the source object
+     * @param targetType the type of class to transform to
+     * @param transformationProperties additional properties which can be used during transformation.
+     * @return the transformed object or null if source is null
+     * @throws TypeTransformationException in case no route is found
+     */
+    public <T> T getTransformedObject(Object sourceObject, Class<T> targetType, Properties transformationProperties) throws TypeTransformationException{
+        if(isCacheable(sourceObject, targetType) == false)
+            return transform(sourceObject, targetType, transformationProperties);
+        Object cached = getCachedObject(sourceObject, targetType);
+        if(cached != null){
+            return targetType.cast(copyIfProperties(cached));
+        }
+        T transformed = transform(sourceObject, targetType, transformationProperties);
+        putCachedObject(sourceObject, targetType, copyIfProperties(transformed));
+        return transformed;
+    }
+
+    /**
+     * Transforms a given object to java.lang:Properties or returns a new instance if something went wrong.
+     * The result is cached if the source object can not be modified.
+     * @param parameters the object which represents parameters.
+     * @return java.lang:Properties or new Properties() if something went wrong
+     */
+    public Properties getTransformedPropertiesOrNewInstance(Object parameters){
+        if(isCacheable(parameters, Properties.class) == false)
+            return transformProperties(parameters);
+        Object cached = getCachedObject(parameters, Properties.class);
+        if(cached != null){
+            return (Properties) copyIfProperties(cached);
+        }
+        Properties transformed = transformProperties(parameters);
+        putCachedObject(parameters, Properties.class, copyIfProperties(transformed));
+        return transformed;
+    }
+
+    private <T> T transform(Object sourceObject, Class<T> targetType, Properties transformationProperties) throws TypeTransformationException{
+        long startTime = System.nanoTime();
+        try{
+            return TypeTransformerRegistry.getTransformedObject(sourceObject, targetType, transformationProperties);
+        }finally{
+            addTransformationTime(System.nanoTime() - startTime);
+        }
+    }
+
+    private Properties transformProperties(Object parameters){
+        long startTime = System.nanoTime();
+        try{
+            return TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
+        }finally{
+            addTransformationTime(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Returns the number of transformations which could be answered by this cache.
+     * @return the number of cache hits
+     */
+    public synchronized int getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of transformations which are not answered by this cache.
+     * @return the number of cache misses
+     */
+    public synchronized int getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the time which was used by the type transformers (cache hits do not need any time).
+     * @return the transformation time in nanoseconds
+     */
+    public synchronized long getTransformationTime() {
+        return transformationTime;
+    }
+
+    private static boolean isCacheable(Object source, Class<?> targetType){
+        if(source == null || IMMUTABLE_CLASSES.contains(source.getClass()) == false)
+            return false;
+        return targetType == Properties.class || IMMUTABLE_CLASSES.contains(targetType);
+    }
+
+    private synchronized Object getCachedObject(Object source, Class<?> targetType){
+        Object cached = this.transformedObjects.getOrDefault(source, Collections.emptyMap()).get(targetType);
+        if(cached == null){
+            this.misses++;
+        }else{
+            this.hits++;
+        }
+        return cached;
+    }
+
+    private synchronized void putCachedObject(Object source, Class<?> targetType, Object transformed){
+        if(transformed == null)
+            return;
+        this.transformedObjects.computeIfAbsent(source, __ -> new HashMap<>()).put(targetType, transformed);
+    }
+
+    private synchronized void countHit(){
+        this.hits++;
+    }
+
+    private synchronized void countMiss(){
+        this.misses++;
+    }
+
+    private synchronized void addTransformationTime(long time){
+        this.transformationTime += time;
+    }
+
+    /**
+     * A matcher might modify the properties it receives, thus only copies are cached and returned.
+     */
+    private static Object copyIfProperties(Object o){
+        if(o instanceof Properties){
+            Properties copy = new Properties();
+            copy.putAll((Properties) o);
+            return copy;
+        }
+        return o;
+    }
+}
@@ -14,6 +14,10 @@ import java.util.Properties;
 import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,8 +45,48 @@ public class TypeTransformerRegistry {
     
     /**
      * The map which contains all transformers.
+     * It is guarded by {@link #LOCK}.
      */
     private static final Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> TRANFORMERS = new HashMap<>();
+    
+    /**
+     * All transformers in a fixed order.
+     * It is guarded by {@link #LOCK} and recreated whenever a transformer is added or removed.
+     */
+    private static List<TypeTransformer<?,?>> transformerList = new ArrayList<>();
+    
+    /**
+     * All transformers (in a fixed order) which override {@link TypeTransformer#getTransformationCost(java.util.Properties) }
+     * and thus may have a cost which depends on the parameters. Only their costs are part of the route cache key.
+     * Transformers which use the constant default cost of {@link AbstractTypeTransformer} are not contained.
+     * It is guarded by {@link #LOCK} and recreated whenever a transformer is added or removed.
+     */
+    private static List<TypeTransformer<?,?>> parameterDependentTransformers = new ArrayList<>();
+    
+    /**
+     * Lock for the registered transformers: route searches use the read lock, 
+     * adding and removing transformers (which invalidates the route cache) the write lock.
+     */
+    private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+    
+    /**
+     * Cache for transformation routes. The key contains the source classes, the target class, the search settings,
+     * and the transformation cost of each transformer for the given parameters.
+     * The value is either a {@link TransformationRoute} or {@link #NO_ROUTE} in case no route exists.
+     */
+    private static final Map<RouteCacheKey, Object> ROUTE_CACHE = new ConcurrentHashMap<>();
+    private static final Object NO_ROUTE = new Object();
+    private static final int MAX_ROUTE_CACHE_SIZE = 10000;
+    private static final AtomicLong ROUTE_CACHE_HITS = new AtomicLong();
+    private static final AtomicLong ROUTE_CACHE_MISSES = new AtomicLong();
+    
+    /**
+     * If true, transformation routes are cached. 
+     * It is set through the environment variable MELT_TRANSFORMATION_ROUTE_CACHE .
+     * The default is true.
+     */
+    private static final boolean USE_ROUTE_CACHE = Boolean.parseBoolean(System.getProperty("MELT_TRANSFORMATION_ROUTE_CACHE", "true"));
+    
     static{
         //initialize TRANFORMERS
         addAllTransformersViaServiceRegistry();
@@ -77,9 +121,15 @@ public class TypeTransformerRegistry {
     private static final boolean ALLOW_MULTI_STEP = Boolean.parseBoolean(System.getProperty("MELT_TRANSFORMATION_ALLOW_MULTI_STEP", "true"));
 
     public static void addTransformer(TypeTransformer<?,?> transformer){
-        TRANFORMERS.computeIfAbsent(transformer.getSourceType(), __-> new HashMap<>())
-                .computeIfAbsent(transformer.getTargetType(), __-> new HashSet<>())
-                .add(transformer);
+        LOCK.writeLock().lock();
+        try{
+            TRANFORMERS.computeIfAbsent(transformer.getSourceType(), __-> new HashMap<>())
+                    .computeIfAbsent(transformer.getTargetType(), __-> new HashSet<>())
+                    .add(transformer);
+            transformersChanged();
+        }finally{
+            LOCK.writeLock().unlock();
+        }
     }
     
     public static void addAllTransformersViaServiceRegistry(){
@@ -137,12 +187,18 @@ public class TypeTransformerRegistry {
     }
     
     public static void removeTransformer(TypeTransformer<?,?> transformer){
-        Map<Class<?>,Set<TypeTransformer<?,?>>> map = TRANFORMERS.get(transformer.getSourceType());
-        if(map != null){
-            Set<TypeTransformer<?,?>> set = map.get(transformer.getTargetType());
-            if(set != null){
-                set.remove(transformer);
+        LOCK.writeLock().lock();
+        try{
+            Map<Class<?>,Set<TypeTransformer<?,?>>> map = TRANFORMERS.get(transformer.getSourceType());
+            if(map != null){
+                Set<TypeTransformer<?,?>> set = map.get(transformer.getTargetType());
+                if(set != null){
+                    set.remove(transformer);
+                }
             }
+            transformersChanged();
+        }finally{
+            LOCK.writeLock().unlock();
         }
     }
     
@@ -150,21 +206,54 @@ public class TypeTransformerRegistry {
      * Removes all transformers. Use it with care.
      */
     public static void clear(){
-        TRANFORMERS.clear();
+        LOCK.writeLock().lock();
+        try{
+            TRANFORMERS.clear();
+            transformersChanged();
+        }finally{
+            LOCK.writeLock().unlock();
+        }
     }
     
     /**
-     * Get all registered tranformers. For debugging purposes.
-     * @return all registered transformers.
+     * Has to be called with the write lock held.
      */
-    public static Set<TypeTransformer<?,?>> getAllRegisteredTypeTransformers(){
-        Set<TypeTransformer<?,?>> transformers = new HashSet<>();
+    private static void transformersChanged(){
+        List<TypeTransformer<?,?>> list = new ArrayList<>();
         for(Map<Class<?>,Set<TypeTransformer<?,?>>> entry : TRANFORMERS.values()){
             for(Set<TypeTransformer<?,?>> typetransformers : entry.values()){
-                transformers.addAll(typetransformers);
+                list.addAll(typetransformers);
             }
         }
-        return transformers;
+        transformerList = list;
+        List<TypeTransformer<?,?>> parameterDependent = new ArrayList<>();
+        for(TypeTransformer<?,?> transformer : list){
+            if(hasParameterDependentCost(transformer))
+                parameterDependent.add(transformer);
+        }
+        parameterDependentTransformers = parameterDependent;
+        ROUTE_CACHE.clear();
+    }
+    
+    private static boolean hasParameterDependentCost(TypeTransformer<?,?> transformer){
+        try {
+            return transformer.getClass().getMethod("getTransformationCost", Properties.class).getDeclaringClass() != AbstractTypeTransformer.class;
+        } catch (NoSuchMethodException | SecurityException ex) {
+            return true;
+        }
+    }
+    
+    /**
+     * Get all registered tranformers. For debugging purposes.
+     * @return all registered transformers.
+     */
+    public static Set<TypeTransformer<?,?>> getAllRegisteredTypeTransformers(){
+        LOCK.readLock().lock();
+        try{
+            return new HashSet<>(transformerList);
+        }finally{
+            LOCK.readLock().unlock();
+        }
     }
     
     public static String getAllRegisteredTypeTransformersAsString(){
@@ -284,6 +373,59 @@ public class TypeTransformerRegistry {
             }
             return null;
         }
+        LOCK.readLock().lock();
+        try{
+            if(USE_ROUTE_CACHE == false || parameters == null)
+                return searchClassTransformationRoute(sources, target, parameters, hierarchyTransformationCost, allowMultiStep);
+            
+            RouteCacheKey key = new RouteCacheKey(sources, target, hierarchyTransformationCost, allowMultiStep, getTransformationCosts(parameters));
+            Object cached = ROUTE_CACHE.get(key);
+            if(cached != null){
+                ROUTE_CACHE_HITS.incrementAndGet();
+                if(cached == NO_ROUTE)
+                    throw new TypeTransformationException("No transformation route is found between " + sources + " to " + target);
+                @SuppressWarnings("unchecked")
+                TransformationRoute<T> route = (TransformationRoute<T>) cached;
+                return route;
+            }
+            ROUTE_CACHE_MISSES.incrementAndGet();
+            if(ROUTE_CACHE.size() >= MAX_ROUTE_CACHE_SIZE)
+                ROUTE_CACHE.clear();
+            TransformationRoute<T> route;
+            try{
+                route = searchClassTransformationRoute(sources, target, parameters, hierarchyTransformationCost, allowMultiStep);
+            }catch(TypeTransformationException ex){
+                ROUTE_CACHE.put(key, NO_ROUTE);
+                throw ex;
+            }
+            if(route != null){
+                route = new TransformationRoute<>(route.getSource(), target, Collections.unmodifiableList(route.getTransformations()), route.getCost());
+                ROUTE_CACHE.put(key, route);
+            }
+            return route;
+        }finally{
+            LOCK.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Computes the transformation cost of each transformer whose cost may depend on the parameters
+     * (in the order of {@link #parameterDependentTransformers}).
+     * This is part of the route cache key because the cost (and thus the route) can depend on the parameters.
+     * The cost of all other transformers is constant and thus not part of the key.
+     * @param parameters the parameters
+     * @return the costs of all parameter dependent transformers
+     */
+    private static int[] getTransformationCosts(Properties parameters){
+        List<TypeTransformer<?,?>> transformers = parameterDependentTransformers;
+        int[] costs = new int[transformers.size()];
+        for(int i = 0; i < costs.length; i++){
+            costs[i] = transformers.get(i).getTransformationCost(parameters);
+        }
+        return costs;
+    }
+    
+    private static <T> TransformationRoute<T> searchClassTransformationRoute(Iterable<Class<?>> sources, Class<T> target, Properties parameters, int hierarchyTransformationCost, boolean allowMultiStep) throws TypeTransformationException{
         if(allowMultiStep == false)
             return transformInOneStep(sources, target, parameters, hierarchyTransformationCost);
         
@@ -684,7 +826,7 @@ public class TypeTransformerRegistry {
      * Cache for Superclasses and interfaces for a given class.
      * Since there are ussually not so many classes, this information can directly be cache without much memory consumption.
      */
-    private static final Map<Class<?>, Map<Class<?>, Integer>> SUPER_CLASSES_CACHE = new HashMap<>();
+    private static final Map<Class<?>, Map<Class<?>, Integer>> SUPER_CLASSES_CACHE = new ConcurrentHashMap<>();
 
     /**
      * Given a class return all superclasses and interfaces except the Object class (which woul be too generic).
@@ -715,11 +857,105 @@ public class TypeTransformerRegistry {
                 queue.add(next);
             }
         }
+        depths = Collections.unmodifiableMap(depths);
         SUPER_CLASSES_CACHE.put(clazz, depths);
         return depths;
     }
     
+    /****************************************************
+     * Route cache statistics
+     ****************************************************/
+    
+    /**
+     * Returns the number of route searches which could be answered by the route cache.
+     * @return number of route cache hits
+     */
+    public static long getRouteCacheHitCount(){
+        return ROUTE_CACHE_HITS.get();
+    }
+    
+    /**
+     * Returns the number of route searches which were not found in the route cache.
+     * @return number of route cache misses
+     */
+    public static long getRouteCacheMissCount(){
+        return ROUTE_CACHE_MISSES.get();
+    }
+    
+    /**
+     * Returns the fraction of route searches answered by the cache.
+     * @return hit rate between zero and one (one if there was no search so far)
+     */
+    public static double getRouteCacheHitRate(){
+        long hits = ROUTE_CACHE_HITS.get();
+        long requests = hits + ROUTE_CACHE_MISSES.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+    
+    public static int getRouteCacheSize(){
+        return ROUTE_CACHE.size();
+    }
+    
+    /**
+     * Removes all cached routes and resets the hit and miss counters.
+     */
+    public static void clearRouteCache(){
+        ROUTE_CACHE.clear();
+        ROUTE_CACHE_HITS.set(0);
+        ROUTE_CACHE_MISSES.set(0);
+    }
+    
+    /**
+     * Key of the route cache.
+     */
+    private static class RouteCacheKey{
+        private final List<Class<?>> sources;
+        private final Class<?> target;
+        private final int hierarchyTransformationCost;
+        private final boolean allowMultiStep;
+        private final int[] transformationCosts;
+        private final int hash;
+
+        RouteCacheKey(Iterable<Class<?>> sources, Class<?> target, int hierarchyTransformationCost, boolean allowMultiStep, int[] transformationCosts) {
+            List<Class<?>> list = new ArrayList<>();
+            for(Class<?> source : sources){
+                list.add(source);
+            }
+            this.sources = list;
+            this.target = target;
+            this.hierarchyTransformationCost = hierarchyTransformationCost;
+            this.allowMultiStep = allowMultiStep;
+            this.transformationCosts = transformationCosts;
+            int h = this.sources.hashCode();
+            h = 31 * h + this.target.hashCode();
+            h = 31 * h + this.hierarchyTransformationCost;
+            h = 31 * h + (this.allowMultiStep ? 1 : 0);
+            h = 31 * h + Arrays.hashCode(this.transformationCosts);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            final RouteCacheKey other = (RouteCacheKey) obj;
+            return this.hash == other.hash &&
+                    this.hierarchyTransformationCost == other.hierarchyTransformationCost &&
+                    this.allowMultiStep == other.allowMultiStep &&
+                    this.target == other.target &&
+                    this.sources.equals(other.sources) &&
+                    Arrays.equals(this.transformationCosts, other.transformationCosts);
+        }
+    }
 }
+
 //can be extended by searching not only shortest path but k-shortest path (if an error occurs at shortest path) : https://en.wikipedia.org/wiki/Yen%27s_algorithm
 
 class TransformationEdge{
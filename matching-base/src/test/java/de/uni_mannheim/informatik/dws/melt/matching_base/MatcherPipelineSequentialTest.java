@@ -1,9 +1,14 @@
 package de.uni_mannheim.informatik.dws.melt.matching_base;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -48,6 +53,80 @@ public class MatcherPipelineSequentialTest {
         assertEquals(1, alignment.size(), "Alignment size is not one");
         assertTrue(alignment.contains("one"));        
     }
+    
+    @Test
+    public void testPipelineStageStatistics() throws Exception{
+        TypeTransformerRegistry.clear();
+        TypeTransformerRegistry.addTransformer(new URLtoMyAlignment());
+        
+        Set<Object> sources = new HashSet<>();
+        Set<Object> targets = new HashSet<>();
+        sources.add(new URL("http://source.com"));
+        targets.add(new URL("http://target.com"));
+        
+        MatcherPipelineSequential pipeline = new MatcherPipelineSequential(
+            new IMatcher<URL, MyAlignment, Object>() {
+                @Override
+                public MyAlignment match(URL source, URL target, MyAlignment inputAlignment, Object parameters) throws Exception {
+                    for(int i = 0; i < 1000; i++){
+                        inputAlignment.add("correspondence" + i);
+                    }
+                    return inputAlignment;
+                }
+            },
+            new IMatcher<URL, MyAlignment, Object>() {
+                @Override
+                public MyAlignment match(URL source, URL target, MyAlignment inputAlignment, Object parameters) throws Exception {
+                    inputAlignment.remove(0);
+                    return inputAlignment;
+                }
+            }
+        );
+        List<PipelineStageStatistics> ownListener = new ArrayList<>();
+        List<PipelineStageStatistics> activeListener = new ArrayList<>();
+        pipeline.addPipelineStageListener(ownListener::add);
+        PipelineInstrumentation.setActiveListener(activeListener::add);
+        try{
+            GenericMatcherCaller.runMatcherMultipleRepresentations(pipeline, sources, targets, new URL("http://alignment.com"), null);
+        }finally{
+            PipelineInstrumentation.setActiveListener(null);
+        }
+        
+        assertEquals(2, ownListener.size());
+        assertEquals(ownListener, activeListener);
+        
+        PipelineStageStatistics first = ownListener.get(0);
+        assertEquals("MatcherPipelineSequential", first.getPipelineName());
+        assertEquals(0, first.getStageIndex());
+        assertEquals(-1, first.getCorrespondencesIn()); // the input alignment is a URL
+        assertEquals(1000, first.getCorrespondencesOut());
+        assertTrue(first.getWallTime() > 0);
+        assertTrue(first.getTypeTransformationTime() > 0); // URL -> MyAlignment
+        assertTrue(first.getWallTime() >= first.getTypeTransformationTime());
+        
+        PipelineStageStatistics second = ownListener.get(1);
+        assertEquals(1, second.getStageIndex());
+        assertEquals(1000, second.getCorrespondencesIn());
+        assertEquals(999, second.getCorrespondencesOut());
+        assertTrue(second.getWallTime() >= second.getTypeTransformationTime());
+        assertEquals(PipelineStageStatistics.getHeader().size(), second.toList().size());
+    }
+    
+    @Test
+    public void testActiveListenerIsNotInheritedByOtherThreads() throws Exception{
+        List<PipelineStageListener> listenerOfOtherThread = new ArrayList<>();
+        PipelineInstrumentation.setActiveListener(statistics -> {});
+        try{
+            Thread thread = new Thread(() -> listenerOfOtherThread.add(PipelineInstrumentation.getActiveListener()));
+            thread.start();
+            thread.join();
+        }finally{
+            PipelineInstrumentation.setActiveListener(null);
+        }
+        assertEquals(1, listenerOfOtherThread.size());
+        assertNull(listenerOfOtherThread.get(0));
+        assertNull(PipelineInstrumentation.getActiveListener());
+    }
 }
 
 class URLtoMyAlignment extends AbstractTypeTransformer<URL, MyAlignment>{
@@ -0,0 +1,198 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.external.http;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatcherHTTPCallTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testCompressionAndContentHashHandshake() throws Exception {
+        File source = new File(tempDir, "source.rdf");
+        File target = new File(tempDir, "target.rdf");
+        Files.write(source.toPath(), "source content".getBytes(StandardCharsets.UTF_8));
+        Files.write(target.toPath(), "target content".getBytes(StandardCharsets.UTF_8));
+        String sourceHash = hash(source);
+        String targetHash = hash(target);
+
+        List<String> requests = new CopyOnWriteArrayList<>();
+        AtomicInteger counter = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/match", exchange -> {
+            String body = readAll(exchange.getRequestBody());
+            requests.add(body);
+            exchange.getResponseHeaders().add(MatcherHTTPCall.HEADER_CAPABILITIES,
+                    MatcherHTTPCall.CAPABILITY_GZIP_PARTS + "," + MatcherHTTPCall.CAPABILITY_CONTENT_HASH);
+            int status = 200;
+            if (counter.incrementAndGet() == 2) {
+                //simulate that the server evicted the source
+                exchange.getResponseHeaders().add(MatcherHTTPCall.HEADER_MISSING_CONTENT, sourceHash);
+                status = 412;
+            } else {
+                exchange.getResponseHeaders().add(MatcherHTTPCall.HEADER_CACHED_CONTENT, sourceHash + "," + targetHash);
+            }
+            byte[] response = "alignment".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/match");
+            MatcherHTTPCall matcher = new MatcherHTTPCall(uri, true);
+
+            URL result = matcher.match(source.toURI().toURL(), target.toURI().toURL(), null, null);
+            assertEquals("alignment", new String(Files.readAllBytes(new File(result.toURI()).toPath()), StandardCharsets.UTF_8));
+            assertEquals(1, requests.size());
+            //first request: the capabilities are not known - full and uncompressed content with hashes
+            assertTrue(requests.get(0).contains("name=\"source\"; filename=\"source.rdf\""));
+            assertTrue(requests.get(0).contains("source content"));
+            assertTrue(requests.get(0).contains(sourceHash));
+            assertFalse(requests.get(0).contains("application/gzip"));
+
+            matcher.match(source.toURI().toURL(), target.toURI().toURL(), null, null);
+            assertEquals(3, requests.size());
+            //second request: only the hashes
+            assertFalse(requests.get(1).contains("filename="));
+            assertTrue(requests.get(1).contains(sourceHash));
+            assertTrue(requests.get(1).contains(targetHash));
+            //third request (after 412): the source again (compressed), the target still as hash
+            assertTrue(requests.get(2).contains("name=\"source\"; filename=\"source.rdf\""));
+            assertTrue(requests.get(2).contains("application/gzip"));
+            assertFalse(requests.get(2).contains("source content"));
+            assertFalse(requests.get(2).contains("name=\"target\"; filename="));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testSharedOntologyIsUploadedOnlyOnce() throws Exception {
+        File source = new File(tempDir, "shared.rdf");
+        File targetOne = new File(tempDir, "targetOne.rdf");
+        File targetTwo = new File(tempDir, "targetTwo.rdf");
+        Files.write(source.toPath(), "shared content".getBytes(StandardCharsets.UTF_8));
+        Files.write(targetOne.toPath(), "target one content".getBytes(StandardCharsets.UTF_8));
+        Files.write(targetTwo.toPath(), "target two content".getBytes(StandardCharsets.UTF_8));
+        List<String> hashes = Arrays.asList(hash(source), hash(targetOne), hash(targetTwo));
+
+        List<String> requests = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/match", exchange -> {
+            String body = readAll(exchange.getRequestBody());
+            requests.add(body);
+            exchange.getResponseHeaders().add(MatcherHTTPCall.HEADER_CAPABILITIES, MatcherHTTPCall.CAPABILITY_CONTENT_HASH);
+            //like the receiver: only the hashes of the content of this request are reported
+            StringJoiner cached = new StringJoiner(",");
+            for (String hash : hashes) {
+                if (body.contains(hash))
+                    cached.add(hash);
+            }
+            exchange.getResponseHeaders().add(MatcherHTTPCall.HEADER_CACHED_CONTENT, cached.toString());
+            byte[] response = "alignment".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/match");
+            MatcherHTTPCall matcher = new MatcherHTTPCall(uri, true);
+
+            matcher.match(source.toURI().toURL(), targetOne.toURI().toURL(), null, null);
+            matcher.match(source.toURI().toURL(), targetTwo.toURI().toURL(), null, null);
+            matcher.match(source.toURI().toURL(), targetOne.toURI().toURL(), null, null);
+            assertEquals(3, requests.size());
+            assertTrue(requests.get(0).contains("shared content"));
+            assertTrue(requests.get(0).contains("target one content"));
+            //second test case: the shared ontology is not transferred again
+            assertFalse(requests.get(1).contains("shared content"));
+            assertTrue(requests.get(1).contains(hashes.get(0)));
+            assertTrue(requests.get(1).contains("target two content"));
+            //third request: the server still holds the content of the first test case
+            assertFalse(requests.get(2).contains("filename="));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testRetryWhenServerIsBusy() throws Exception {
+        File source = new File(tempDir, "busySource.rdf");
+        File target = new File(tempDir, "busyTarget.rdf");
+        Files.write(source.toPath(), "source content".getBytes(StandardCharsets.UTF_8));
+        Files.write(target.toPath(), "target content".getBytes(StandardCharsets.UTF_8));
+
+        AtomicInteger counter = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/match", exchange -> {
+            readAll(exchange.getRequestBody());
+            int status = 200;
+            byte[] response = "alignment".getBytes(StandardCharsets.UTF_8);
+            if (counter.incrementAndGet() <= 2) {
+                //simulate a full matching queue
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                status = 503;
+                response = "The matching queue is full.".getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/match");
+            MatcherHTTPCall matcher = new MatcherHTTPCall(uri, true);
+            URL result = matcher.match(source.toURI().toURL(), target.toURI().toURL(), null, null);
+            assertEquals("alignment", new String(Files.readAllBytes(new File(result.toURI()).toPath()), StandardCharsets.UTF_8));
+            assertEquals(3, counter.get());
+
+            //without retries the busy server is an error
+            counter.set(0);
+            matcher.setMaxServiceUnavailableTrials(0);
+            assertThrows(IOException.class, () -> matcher.match(source.toURI().toURL(), target.toURI().toURL(), null, null));
+            assertEquals(1, counter.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String hash(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return MatcherHTTPCall.computeContentHash(in);
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int length; (length = in.read(buffer)) != -1; ) {
+            out.write(buffer, 0, length);
+        }
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+}
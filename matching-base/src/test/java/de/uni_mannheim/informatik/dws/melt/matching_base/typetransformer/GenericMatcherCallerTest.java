@@ -2,6 +2,8 @@ package de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer;
 
 
 import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherFile;
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
@@ -9,6 +11,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.slf4j.Logger;
@@ -52,8 +55,122 @@ public class GenericMatcherCallerTest {
                 null);
         assertTrue(matcher.isMatchMethodCalled());
     }
+    
+    @Test
+    public void testFileBasedMatcherUsesFileMethods() throws MalformedURLException, Exception{
+        TypeTransformerRegistry.clear();
+        //a bridge matcher which has an in memory method but does not implement IMatcher is called via the file based methods
+        myInMemoryFileMatcher matcher = new myInMemoryFileMatcher();
+        Properties parameters = new Properties();
+        parameters.setProperty("key", "value");
+        AlignmentAndParameters o = GenericMatcherCaller.runMatcher(matcher, 
+                URI.create("http://source.com").toURL(), 
+                URI.create("http://target.com").toURL(),
+                null, 
+                parameters);
+        assertTrue(matcher.isFileMethodCalled());
+        assertTrue(matcher.getReceivedProperties().isEmpty());
+        assertTrue(o.getAlignment() instanceof URL);
+        new File(((URL)o.getAlignment()).toURI()).delete();
+    }
+    
+    @Test
+    public void testFileBasedMatcherWithIMatcherIsCalledInMemory() throws MalformedURLException, Exception{
+        TypeTransformerRegistry.clear();
+        //opt in for the in memory call by implementing IMatcher
+        myInMemoryIMatcherFileMatcher matcher = new myInMemoryIMatcherFileMatcher();
+        MyAlignment inputAlignment = new MyAlignment();
+        Properties parameters = new Properties();
+        parameters.setProperty("key", "value");
+        AlignmentAndParameters o = GenericMatcherCaller.runMatcher(matcher, 
+                URI.create("http://source.com").toURL(), 
+                URI.create("http://target.com").toURL(),
+                inputAlignment, 
+                parameters);
+        assertSame(inputAlignment, o.getAlignment());
+        assertFalse(matcher.isFileMethodCalled());
+        assertEquals("value", matcher.getReceivedProperties().getProperty("key"));
+    }
+    
+    @Test
+    public void testRepresentationCache() throws MalformedURLException, Exception{
+        TypeTransformerRegistry.clear();
+        CountingTypeTransformer<URL, Properties> propertiesTransformer = new CountingTypeTransformer<>(URL.class, Properties.class);
+        CountingTypeTransformer<URL, MyModel> modelTransformer = new CountingTypeTransformer<>(URL.class, MyModel.class);
+        CountingTypeTransformer<URL, MyAlignment> alignmentTransformer = new CountingTypeTransformer<>(URL.class, MyAlignment.class);
+        TypeTransformerRegistry.addTransformer(propertiesTransformer);
+        TypeTransformerRegistry.addTransformer(modelTransformer);
+        TypeTransformerRegistry.addTransformer(alignmentTransformer);
+        
+        RepresentationCache cache = new RepresentationCache();
+        Set<Object> sources = new HashSet<>(Arrays.asList(URI.create("http://source.com").toURL()));
+        Set<Object> targets = new HashSet<>(Arrays.asList(URI.create("http://target.com").toURL()));
+        URL parameters = URI.create("http://parameters.com").toURL();
+        URL alignment = URI.create("http://alignment.com").toURL();
+        for(int i = 0; i < 3; i++){
+            AlignmentAndParameters o = GenericMatcherCaller.runMatcherMultipleRepresentations(new myTestMatcher(), sources, targets, alignment, parameters, cache);
+            assertTrue(o.getAlignment() instanceof MyAlignment);
+        }
+        //parameters are parsed only once, ontologies are transformed only once
+        assertEquals(1, propertiesTransformer.getCount());
+        assertEquals(2, modelTransformer.getCount());
+        //the alignment is mutable and thus transformed each time
+        assertEquals(3, alignmentTransformer.getCount());
+        
+        //cached properties are copied
+        Properties p = cache.getTransformedPropertiesOrNewInstance(parameters);
+        p.setProperty("key", "value");
+        assertNull(cache.getTransformedPropertiesOrNewInstance(parameters).getProperty("key"));
+        assertTrue(cache.getHitCount() > 0);
+        
+        TypeTransformerRegistry.removeTransformer(propertiesTransformer);
+        TypeTransformerRegistry.removeTransformer(modelTransformer);
+        TypeTransformerRegistry.removeTransformer(alignmentTransformer);
+    }
+}
+
+
+abstract class myFileMatcherBase extends MatcherFile{
+    protected boolean fileMethodCalled = false;
+    protected Properties receivedProperties;
+    @Override
+    public void match(URL source, URL target, URL inputAlignment, File alignmentResult) throws Exception {
+        this.fileMethodCalled = true;
+        match(source, target, new MyAlignment(), new Properties());
+    }
+    public abstract MyAlignment match(URL source, URL target, MyAlignment inputAlignment, Properties properties) throws Exception;
+    public boolean isFileMethodCalled() {
+        return fileMethodCalled;
+    }
+    public Properties getReceivedProperties() {
+        return receivedProperties;
+    }
 }
 
+class myInMemoryFileMatcher extends myFileMatcherBase{
+    @Override
+    public MyAlignment match(URL source, URL target, MyAlignment inputAlignment, Properties properties) throws Exception {
+        this.receivedProperties = properties;
+        return inputAlignment;
+    }
+}
+
+class myInMemoryIMatcherFileMatcher extends myInMemoryFileMatcher implements IMatcher<URL, MyAlignment, Properties>{ }
+
+class CountingTypeTransformer<S,T> extends TypeTransformerForTest<S,T>{
+    private int count = 0;
+    public CountingTypeTransformer(Class<S> sourceClass, Class<T> targetClass) {
+        super(sourceClass, targetClass);
+    }
+    @Override
+    public T transform(S value, Properties parameters) throws TypeTransformationException {
+        count++;
+        return super.transform(value, parameters);
+    }
+    public int getCount() {
+        return count;
+    }
+}
 
 class MyModel{ }
 class MyAlignment {}
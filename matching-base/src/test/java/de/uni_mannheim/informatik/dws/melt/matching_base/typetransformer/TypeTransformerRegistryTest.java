@@ -163,6 +163,37 @@ public class TypeTransformerRegistryTest {
         assertEquals(1, r.getTransformations().size());
     }
     
+    @Test
+    public void testRouteCache() throws TypeTransformationException{
+        TypeTransformerRegistry.clear();
+        TypeTransformerRegistry.clearRouteCache();
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(SourceSubClass.class, MiddleClass.class, 10));
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(MiddleClass.class, TargetSubClass.class, 10));
+        
+        TransformationRoute<TargetSubClass> first = TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class);
+        TransformationRoute<TargetSubClass> second = TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class);
+        assertSame(first, second);
+        assertEquals(20, second.getCost());
+        assertEquals(1, TypeTransformerRegistry.getRouteCacheMissCount());
+        assertEquals(1, TypeTransformerRegistry.getRouteCacheHitCount());
+        assertEquals(0.5, TypeTransformerRegistry.getRouteCacheHitRate());
+        
+        //a missing route is cached as well
+        assertThrows(TypeTransformationException.class, () -> TypeTransformerRegistry.getClassTransformationRoute(TargetSubClass.class, SourceSubClass.class));
+        assertThrows(TypeTransformationException.class, () -> TypeTransformerRegistry.getClassTransformationRoute(TargetSubClass.class, SourceSubClass.class));
+        assertEquals(2, TypeTransformerRegistry.getRouteCacheHitCount());
+        
+        //adding or removing transformers invalidates the cache
+        TypeTransformer<SourceSubClass, TargetSubClass> direct = new TypeTransformerForTest<>(SourceSubClass.class, TargetSubClass.class, 5);
+        TypeTransformerRegistry.addTransformer(direct);
+        assertEquals(0, TypeTransformerRegistry.getRouteCacheSize());
+        assertEquals(5, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class).getCost());
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(TargetSubClass.class, SourceSubClass.class, 10));
+        assertEquals(10, TypeTransformerRegistry.getClassTransformationRoute(TargetSubClass.class, SourceSubClass.class).getCost());
+        TypeTransformerRegistry.removeTransformer(direct);
+        assertEquals(20, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class).getCost());
+    }
+    
     @Test
     public void testNullValues() throws TypeTransformationException{
         assertEquals(null, TypeTransformerRegistry.getObjectTransformationRoute(null, null));
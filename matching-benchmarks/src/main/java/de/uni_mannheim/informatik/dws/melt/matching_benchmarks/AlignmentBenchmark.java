@@ -0,0 +1,85 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for adding correspondences to an {@link Alignment} and for the index based lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentBenchmark {
+
+    @Param({"10000", "100000"})
+    private int numberOfCorrespondences;
+
+    private List<Correspondence> correspondences;
+    private Alignment alignment;
+
+    @Setup
+    public void setup() {
+        this.correspondences = SyntheticData.correspondences(numberOfCorrespondences, numberOfCorrespondences / 4, 42);
+        this.alignment = new Alignment(this.correspondences);
+    }
+
+    @Benchmark
+    public Alignment add() {
+        Alignment a = new Alignment();
+        for (Correspondence c : correspondences) {
+            a.add(c);
+        }
+        return a;
+    }
+
+    @Benchmark
+    public Alignment addOrModify() {
+        Alignment a = new Alignment();
+        for (Correspondence c : correspondences) {
+            a.addOrModify(c);
+        }
+        return a;
+    }
+
+    @Benchmark
+    public void lookupSource(Blackhole blackhole) {
+        for (Correspondence c : correspondences) {
+            for (Correspondence found : alignment.getCorrespondencesSource(c.getEntityOne())) {
+                blackhole.consume(found);
+            }
+        }
+    }
+
+    @Benchmark
+    public void lookupSourceTarget(Blackhole blackhole) {
+        for (Correspondence c : correspondences) {
+            for (Correspondence found : alignment.getCorrespondencesSourceTarget(c.getEntityOne(), c.getEntityTwo())) {
+                blackhole.consume(found);
+            }
+        }
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (Correspondence c : correspondences) {
+            blackhole.consume(alignment.contains(c));
+        }
+    }
+}
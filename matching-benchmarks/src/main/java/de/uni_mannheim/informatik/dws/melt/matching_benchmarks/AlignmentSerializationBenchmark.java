@@ -0,0 +1,93 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentParser;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AlignmentSerializer} and {@link AlignmentParser} (alignment format).
+ * Compares the string based serialization and SAX parsing with the writer based serialization and the streaming parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentSerializationBenchmark {
+
+    @Param({"1000", "50000"})
+    private int numberOfCorrespondences;
+
+    private Alignment alignment;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        this.alignment = SyntheticData.alignment(numberOfCorrespondences, numberOfCorrespondences, 42);
+        this.serialized = AlignmentSerializer.serialize(alignment).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return AlignmentSerializer.serialize(alignment);
+    }
+
+    @Benchmark
+    public Alignment parse() throws Exception {
+        return AlignmentParser.parse(new ByteArrayInputStream(serialized));
+    }
+
+    @Benchmark
+    public int parseStreaming() throws Exception {
+        int count = 0;
+        try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(new ByteArrayInputStream(serialized))){
+            while(reader.hasNext()){
+                reader.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void serializeToOutputStream(Blackhole blackhole) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(serialized.length);
+        AlignmentSerializer.serialize(alignment, out);
+        blackhole.consume(out.size());
+    }
+
+    @Benchmark
+    public void serializeStreaming(Blackhole blackhole) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(serialized.length);
+        try(Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)){
+            AlignmentSerializer.serialize(alignment, alignment, writer);
+        }
+        blackhole.consume(out.size());
+    }
+
+    @Benchmark
+    public Alignment roundTrip() throws Exception {
+        byte[] bytes = AlignmentSerializer.serialize(alignment).getBytes(StandardCharsets.UTF_8);
+        return AlignmentParser.parse(new ByteArrayInputStream(bytes));
+    }
+}
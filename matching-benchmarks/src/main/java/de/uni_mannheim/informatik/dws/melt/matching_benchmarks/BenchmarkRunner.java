@@ -0,0 +1,41 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmark jar. It runs the JMH benchmarks and writes the results as JSON (by default to
+ * {@value #DEFAULT_RESULT_FILE}) so that they can be compared between releases.
+ * All JMH command line options can be used, e.g. {@code java -jar benchmarks.jar AlignmentBenchmark -rff result.json}
+ * runs only the alignment benchmarks. If a result format or file is given, it replaces the default one.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The default file where the results are written to.
+     */
+    public static final String DEFAULT_RESULT_FILE = "melt-benchmark-results.json";
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(getArguments(args));
+    }
+
+    /**
+     * Adds the default result format (JSON) and result file if they are not specified.
+     * @param args the command line arguments
+     * @return the arguments for JMH
+     */
+    static String[] getArguments(String[] args){
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if(!arguments.contains("-rf")){
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+        if(!arguments.contains("-rff")){
+            arguments.add("-rff");
+            arguments.add(DEFAULT_RESULT_FILE);
+        }
+        return arguments.toArray(new String[0]);
+    }
+}
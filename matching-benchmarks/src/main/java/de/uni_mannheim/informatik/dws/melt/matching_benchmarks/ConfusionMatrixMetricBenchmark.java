@@ -0,0 +1,56 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link ConfusionMatrixMetric} with complete and partial gold standards
+ * (materialized and counting mode).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfusionMatrixMetricBenchmark {
+
+    @Param({"10000", "100000"})
+    private int numberOfCorrespondences;
+
+    @Param({"COMPLETE", "PARTIAL_SOURCE_COMPLETE_TARGET_COMPLETE"})
+    private GoldStandardCompleteness completeness;
+
+    @Param({"false", "true"})
+    private boolean countingMode;
+
+    private Alignment reference;
+    private Alignment system;
+    private ConfusionMatrixMetric metric;
+
+    @Setup
+    public void setup() {
+        this.reference = SyntheticData.alignment(numberOfCorrespondences, numberOfCorrespondences, 42);
+        this.system = SyntheticData.systemAlignment(reference, 0.7, numberOfCorrespondences / 2, numberOfCorrespondences, 43);
+        this.metric = new ConfusionMatrixMetric(countingMode);
+    }
+
+    @Benchmark
+    public ConfusionMatrix compute() {
+        return metric.compute(reference, system, completeness);
+    }
+}
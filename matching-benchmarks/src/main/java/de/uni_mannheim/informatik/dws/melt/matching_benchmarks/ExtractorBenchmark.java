@@ -0,0 +1,56 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction.HungarianExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction.MaxWeightBipartiteExtractor;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link MaxWeightBipartiteExtractor} with the {@link HungarianExtractor} on random alignments
+ * (one to one extraction).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractorBenchmark {
+
+    @Param({"100", "500"})
+    private int numberOfEntities;
+
+    /**
+     * Average number of correspondences per source entity.
+     */
+    @Param({"5"})
+    private int density;
+
+    private Alignment alignment;
+
+    @Setup
+    public void setup() {
+        this.alignment = SyntheticData.alignment(numberOfEntities * density, numberOfEntities, 42);
+    }
+
+    @Benchmark
+    public Alignment maxWeightBipartite() {
+        return MaxWeightBipartiteExtractor.filter(alignment);
+    }
+
+    @Benchmark
+    public Alignment hungarian() {
+        return HungarianExtractor.filter(alignment);
+    }
+}
@@ -0,0 +1,60 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale.PropertySpecificStringProcessing;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale.ScalableStringProcessingMatcher;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the {@link ScalableStringProcessingMatcher} on two synthetic ontologies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScalableStringProcessingMatcherBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numberOfClasses;
+
+    @Param({"1", "4"})
+    private int numberOfThreads;
+
+    private OntModel source;
+    private OntModel target;
+    private ScalableStringProcessingMatcher matcher;
+
+    @Setup
+    public void setup() {
+        this.source = SyntheticData.ontology(SyntheticData.SOURCE_PREFIX, numberOfClasses, 0.5, 42);
+        this.target = SyntheticData.ontology(SyntheticData.TARGET_PREFIX, numberOfClasses, 0.5, 43);
+        this.matcher = new ScalableStringProcessingMatcher(Arrays.asList(
+                new PropertySpecificStringProcessing(text -> text, 1.0, RDFS.label),
+                new PropertySpecificStringProcessing(text -> text.toLowerCase().replace(" ", ""), 0.9, RDFS.label, SKOS.altLabel)
+        ));
+        this.matcher.setNumberOfThreads(numberOfThreads);
+    }
+
+    @Benchmark
+    public Alignment match() throws Exception {
+        return matcher.match(source, target, new Alignment(), new Properties());
+    }
+}
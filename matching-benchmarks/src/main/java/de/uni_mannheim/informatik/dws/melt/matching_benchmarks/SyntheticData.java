@@ -0,0 +1,151 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+
+/**
+ * Generates synthetic alignments and ontologies for the benchmarks (no files or network access needed).
+ * All generators are deterministic for a given seed.
+ */
+public class SyntheticData {
+
+    public static final String SOURCE_PREFIX = "http://source.com/benchmark#";
+    public static final String TARGET_PREFIX = "http://target.com/benchmark#";
+
+    private static final String[] SYLLABLES = new String[]{
+        "ba", "co", "di", "fe", "ga", "hu", "ki", "lo", "ma", "ne", "po", "ra", "si", "tu", "ve", "xa", "yo", "ze"
+    };
+
+    /**
+     * Seed for the labels which are shared between source and target ontologies.
+     */
+    private static final long SHARED_LABEL_SEED = 1234;
+
+    /**
+     * Returns the URI of the i-th entity in the source.
+     * @param i the number of the entity
+     * @return the URI
+     */
+    public static String sourceUri(int i){
+        return SOURCE_PREFIX + "e" + i;
+    }
+
+    /**
+     * Returns the URI of the i-th entity in the target.
+     * @param i the number of the entity
+     * @return the URI
+     */
+    public static String targetUri(int i){
+        return TARGET_PREFIX + "e" + i;
+    }
+
+    /**
+     * Generates correspondences between randomly chosen source and target entities with random confidences.
+     * @param numberOfCorrespondences the number of correspondences (duplicates are possible)
+     * @param numberOfEntities the number of source and target entities to choose from
+     * @param seed the random seed
+     * @return list of correspondences
+     */
+    public static List<Correspondence> correspondences(int numberOfCorrespondences, int numberOfEntities, long seed){
+        Random random = new Random(seed);
+        List<Correspondence> correspondences = new ArrayList<>(numberOfCorrespondences);
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            correspondences.add(new Correspondence(
+                    sourceUri(random.nextInt(numberOfEntities)),
+                    targetUri(random.nextInt(numberOfEntities)),
+                    random.nextDouble(),
+                    CorrespondenceRelation.EQUIVALENCE));
+        }
+        return correspondences;
+    }
+
+    /**
+     * Generates an alignment with random correspondences (see {@link #correspondences(int, int, long) }).
+     * @param numberOfCorrespondences the number of generated correspondences (the alignment may be smaller due to duplicates)
+     * @param numberOfEntities the number of source and target entities to choose from
+     * @param seed the random seed
+     * @return the alignment
+     */
+    public static Alignment alignment(int numberOfCorrespondences, int numberOfEntities, long seed){
+        return new Alignment(correspondences(numberOfCorrespondences, numberOfEntities, seed));
+    }
+
+    /**
+     * Generates a system alignment which contains the given fraction of the reference alignment plus random correspondences.
+     * @param reference the reference alignment
+     * @param fractionOfReference fraction of the reference correspondences which are contained in the system alignment
+     * @param numberOfWrongCorrespondences number of additional random correspondences
+     * @param numberOfEntities the number of source and target entities to choose from
+     * @param seed the random seed
+     * @return the system alignment
+     */
+    public static Alignment systemAlignment(Alignment reference, double fractionOfReference, int numberOfWrongCorrespondences, int numberOfEntities, long seed){
+        Random random = new Random(seed);
+        Alignment system = new Alignment();
+        for(Correspondence c : reference){
+            if(random.nextDouble() < fractionOfReference)
+                system.add(c);
+        }
+        system.addAll(correspondences(numberOfWrongCorrespondences, numberOfEntities, seed + 1));
+        return system;
+    }
+
+    /**
+     * Generates an ontology with the given number of classes. Each class has a label and an alternative label which are
+     * made up of random words. The labels of a fraction of the classes (given by overlap) do not depend on the seed,
+     * thus the i-th class of two ontologies with different seeds have the same labels in this case.
+     * The alternative labels of these classes differ in case and whitespace.
+     * @param prefix the namespace of the classes
+     * @param numberOfClasses the number of classes
+     * @param overlap the fraction of classes which have shared labels (between zero and one)
+     * @param seed the random seed
+     * @return the ontology
+     */
+    public static OntModel ontology(String prefix, int numberOfClasses, double overlap, long seed){
+        Random random = new Random(seed);
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass previous = null;
+        for(int i = 0; i < numberOfClasses; i++){
+            OntClass c = model.createClass(prefix + "e" + i);
+            if(random.nextDouble() < overlap){
+                Random shared = new Random(SHARED_LABEL_SEED * 31 + i);
+                String label = randomLabel(shared);
+                c.addLiteral(RDFS.label, label);
+                c.addLiteral(SKOS.altLabel, random.nextBoolean() ? label.toUpperCase() : label.replace(" ", ""));
+            }else{
+                c.addLiteral(RDFS.label, randomLabel(random));
+                c.addLiteral(SKOS.altLabel, randomLabel(random));
+            }
+            if(previous != null && random.nextBoolean())
+                c.addSuperClass(previous);
+            previous = c;
+        }
+        return model;
+    }
+
+    /**
+     * Generates a label with one to three words which consist of three syllables each.
+     */
+    private static String randomLabel(Random random){
+        int words = 1 + random.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < words; i++){
+            if(i > 0)
+                sb.append(" ");
+            for(int j = 0; j < 3; j++){
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        return sb.toString();
+    }
+}
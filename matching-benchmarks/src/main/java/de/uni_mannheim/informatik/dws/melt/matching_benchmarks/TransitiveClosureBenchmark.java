@@ -0,0 +1,56 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosure;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosureUnionFind;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link TransitiveClosure} with {@link TransitiveClosureUnionFind} on random correspondences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransitiveClosureBenchmark {
+
+    @Param({"10000", "100000"})
+    private int numberOfCorrespondences;
+
+    private List<Correspondence> correspondences;
+
+    @Setup
+    public void setup() {
+        this.correspondences = SyntheticData.correspondences(numberOfCorrespondences, numberOfCorrespondences, 42);
+    }
+
+    @Benchmark
+    public Collection<Set<String>> transitiveClosure() {
+        TransitiveClosure<String> closure = new TransitiveClosure<>();
+        for (Correspondence c : correspondences) {
+            closure.add(c.getEntityOne(), c.getEntityTwo());
+        }
+        return closure.getClosure();
+    }
+
+    @Benchmark
+    public Collection<Set<String>> transitiveClosureUnionFind() {
+        return TransitiveClosureUnionFind.fromAlignment(correspondences).getClosure();
+    }
+}
@@ -0,0 +1,48 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmarks;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for finding transformation routes in the {@link TypeTransformerRegistry} (only the routing, no transformation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeTransformerRegistryBenchmark {
+
+    private final Properties parameters = new Properties();
+
+    @Benchmark
+    public void directRoutes(Blackhole blackhole) throws TypeTransformationException {
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(URL.class, OntModel.class, parameters));
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(OntModel.class, URL.class, parameters));
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(Alignment.class, URL.class, parameters));
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(URL.class, Properties.class, parameters));
+    }
+
+    @Benchmark
+    public void hierarchyRoutes(Blackhole blackhole) throws TypeTransformationException {
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(Model.class, OntModel.class, parameters));
+        blackhole.consume(TypeTransformerRegistry.getClassTransformationRoute(OntModel.class, Model.class, parameters));
+    }
+}
@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval;
 import com.googlecode.cqengine.attribute.Attribute;
 import com.googlecode.cqengine.attribute.SimpleAttribute;
 import com.googlecode.cqengine.query.option.QueryOptions;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.Refiner;
@@ -12,8 +13,11 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.SSSOMFormat
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.SSSOMParser;
 import java.io.*;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
@@ -46,6 +50,12 @@ public class ExecutionResult {
     private Set<Refiner> refinements;
     
     private Object parameters;
+    
+    /**
+     * The statistics of all pipeline stages which were executed by the matcher (empty if the matcher is not a pipeline
+     * or runs in another process).
+     */
+    private List<PipelineStageStatistics> pipelineStageStatistics;
 
     /**
      * Reference to the log message file of the matcher.
@@ -83,6 +93,7 @@ public class ExecutionResult {
             this.refinements = new HashSet<>();
         }
         this.parameters = parameters;
+        this.pipelineStageStatistics = new ArrayList<>();
     }
     
     /**
@@ -132,6 +143,7 @@ public class ExecutionResult {
      */
     public ExecutionResult(ExecutionResult base, Alignment systemAlignment, Alignment referenceAlignment, Refiner refinement) {
         this(base.testCase, base.matcherName, base.originalSystemAlignment, base.runtime, systemAlignment, referenceAlignment, base.matcher, addRefinementToNewSet(base.refinements, refinement), base.getParameters());
+        this.pipelineStageStatistics = base.pipelineStageStatistics;
     }
     
     /**
@@ -306,6 +318,19 @@ public class ExecutionResult {
     public Object getParameters() {
         return parameters;
     }
+
+    /**
+     * Returns the statistics (runtime, memory, alignment size) of all pipeline stages which were executed by the matcher.
+     * The list is empty if the matcher is not a pipeline or runs in another process (e.g. docker or web matchers).
+     * @return the statistics in the order in which the stages are completed (unmodifiable).
+     */
+    public List<PipelineStageStatistics> getPipelineStageStatistics() {
+        return Collections.unmodifiableList(pipelineStageStatistics);
+    }
+
+    public void setPipelineStageStatistics(List<PipelineStageStatistics> pipelineStageStatistics) {
+        this.pipelineStageStatistics = pipelineStageStatistics == null ? new ArrayList<>() : new ArrayList<>(pipelineStageStatistics);
+    }
     
     
     @Override
@@ -1,5 +1,8 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
@@ -8,6 +11,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.slf4j.Logger;
@@ -95,6 +101,10 @@ class ExecutionRunner implements Callable<ExecutionResult> {
         long runTime;
         URL resultingAlignment = null;
         Object resultingParameters = null;
+        //collect the statistics of all pipeline stages which are executed by the matcher (also in nested pipelines).
+        List<PipelineStageStatistics> stageStatistics = Collections.synchronizedList(new ArrayList<>());
+        PipelineStageListener previousListener = PipelineInstrumentation.getActiveListener();
+        PipelineInstrumentation.setActiveListener(stageStatistics::add);
         long startTime = System.nanoTime();
 
         try {
@@ -111,6 +121,7 @@ class ExecutionRunner implements Callable<ExecutionResult> {
         finally
         {
             runTime = System.nanoTime() - startTime;  
+            PipelineInstrumentation.setActiveListener(previousListener);
             LOGGER.info("Running matcher {} on testcase {} (track {}) completed in {}.", matcherName,
                     testCase.getName(), trackName, DurationFormatUtils.formatDurationWords(runTime/1_000_000, true,
                             true));
@@ -125,7 +136,9 @@ class ExecutionRunner implements Callable<ExecutionResult> {
                 LOGGER.error("Original system alignment does not point to a file and thus cannot be deleted on evaluation exit. " +
                         "Use Executor.deleteOriginalSystemResults", ex);
             }
-            return new ExecutionResult(testCase, matcherName, resultingAlignment, runTime, matcher, resultingParameters);
+            ExecutionResult result = new ExecutionResult(testCase, matcherName, resultingAlignment, runTime, matcher, resultingParameters);
+            result.setPipelineStageStatistics(stageStatistics);
+            return result;
         }
         return null;
         
@@ -2,11 +2,13 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval;
 
 import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
 import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
 import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignmentSerializer;
 import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
 
 import java.io.*;
@@ -259,6 +261,7 @@ public class Executor {
      * - ALIGN.rdf
      * - LogMap.rdf
      * File names are treated as matcher names and they are associated with the given testcase.
+     * Besides XML files (.rdf), also binary alignment files (.yaab) are loaded which are read without XML parsing.
      *
      * @param folder   The folder where the system results can be found.
      * @param testCase Test case with which the individual system results shall be associated.
@@ -271,8 +274,8 @@ public class Executor {
         }
         ExecutionResultSet results = new ExecutionResultSet();
         for (File f : folder.listFiles()) {
-            if (f.isFile() && f.getName().endsWith(".rdf")) {
-                long runtime = tryToGetRuntime(new File(f.getParentFile(), f.getName().substring(0, f.getName().length() - 4) + "_log.txt"));
+            if (f.isFile() && (f.getName().endsWith(".rdf") || f.getName().endsWith(BinaryAlignmentSerializer.FILE_EXTENSION))) {
+                long runtime = tryToGetRuntime(new File(f.getParentFile(), FilenameUtils.removeExtension(f.getName()) + "_log.txt"));
                 try {
                     results.add(new ExecutionResult(testCase, FilenameUtils.removeExtension(f.getName()), f.toURI().toURL(), runtime, null, null));
                 } catch (MalformedURLException ex) {
@@ -817,6 +820,9 @@ public class Executor {
                 oldResult.getParameters()
             );
         newResult.addRuntime(oldResult.getRuntime());
+        List<PipelineStageStatistics> stageStatistics = new ArrayList<>(oldResult.getPipelineStageStatistics());
+        stageStatistics.addAll(newResult.getPipelineStageStatistics());
+        newResult.setPipelineStageStatistics(stageStatistics);
         return newResult;
     }
 }
@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator;
 
 import de.uni_mannheim.informatik.dws.melt.matching_base.IExplainerResource;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
@@ -102,6 +103,12 @@ public class EvaluatorCSV extends Evaluator {
      */
     private CSVPrinter trackPerformanceCubePrinter;
 
+    /**
+     * Printer which can be used to print the statistics (runtime, memory, alignment size) of each pipeline stage
+     * of a matcher on a test case.
+     */
+    private CSVPrinter pipelineStageCubePrinter;
+
     /**
      * The alignment extensions that are to be printed.
      */
@@ -114,6 +121,8 @@ public class EvaluatorCSV extends Evaluator {
 
     private static final String TRACK_PERFORMANCE_CUBE_FILE_NAME = "trackPerformanceCube.csv";
 
+    private static final String PIPELINE_STAGE_CUBE_FILE_NAME = "pipelineStageCube.csv";
+
     private static CSVFormat csvFormat = CSVFormat.DEFAULT;
 
     /**
@@ -237,6 +246,7 @@ public class EvaluatorCSV extends Evaluator {
             // individual evaluation per test case
             for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
                 writeOverviewFileMatcherTestCase(testCase, matcher, baseDirectory, false);
+                writePipelineStages(testCase, matcher);
             }
             for (Track track : this.results.getDistinctTracks(matcher)) {
                 writeAggregatedFileMatcherTrack(track, matcher, baseDirectory);
@@ -267,6 +277,9 @@ public class EvaluatorCSV extends Evaluator {
             trackPerformanceCubePrinter = csvFormat.print(new File(baseDirectory, TRACK_PERFORMANCE_CUBE_FILE_NAME),
                     StandardCharsets.UTF_8);
             trackPerformanceCubePrinter.printRecord(getHeaderTrackPerformanceCube());
+            pipelineStageCubePrinter = csvFormat.print(new File(baseDirectory, PIPELINE_STAGE_CUBE_FILE_NAME),
+                    StandardCharsets.UTF_8);
+            pipelineStageCubePrinter.printRecord(getHeaderPipelineStageCube());
         } catch (IOException ioe) {
             LOGGER.error("Could not initialize CSV Printers for performance cubes.");
         }
@@ -288,6 +301,40 @@ public class EvaluatorCSV extends Evaluator {
         } catch (IOException ioe) {
             LOGGER.error("Could not flush and close trackPerformanceCubePrinter.", ioe);
         }
+        try {
+            pipelineStageCubePrinter.flush();
+            pipelineStageCubePrinter.close();
+        } catch (IOException ioe) {
+            LOGGER.error("Could not flush and close pipelineStageCubePrinter.", ioe);
+        }
+    }
+
+    /**
+     * Writes the statistics of all pipeline stages of a matcher on a particular test case to the pipeline stage cube.
+     * Nothing is written if the matcher did not report any stages (e.g. it is not a pipeline).
+     *
+     * @param testCase Test case
+     * @param matcher  Matcher name
+     */
+    private void writePipelineStages(TestCase testCase, String matcher) {
+        ExecutionResult result = results.get(testCase, matcher);
+        if (result == null) {
+            return;
+        }
+        try {
+            for (PipelineStageStatistics stage : result.getPipelineStageStatistics()) {
+                List<Object> row = new ArrayList<>();
+                row.add(testCase.getTrack().getName());
+                row.add(testCase.getTrack().getVersion());
+                row.add(testCase.getName());
+                row.add(matcher);
+                row.addAll(stage.toList());
+                row.add(getFormattedRuntime(stage.getWallTime()));
+                pipelineStageCubePrinter.printRecord(row);
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Could not write pipeline stage statistics.", ex);
+        }
     }
 
     /**
@@ -689,6 +736,22 @@ public class EvaluatorCSV extends Evaluator {
         return result;
     }
 
+    /**
+     * Get the header row for the pipeline stage statistics in the overall CSV file.
+     *
+     * @return CSV header row in the form of a String-List.
+     */
+    private List<String> getHeaderPipelineStageCube() {
+        List<String> result = new ArrayList<>();
+        result.add("Track");
+        result.add("Track Version");
+        result.add("Test Case");
+        result.add("Matcher");
+        result.addAll(PipelineStageStatistics.getHeader());
+        result.add("Wall Time (HH:MM:SS)");
+        return result;
+    }
+
     /**
      * Obtain an output stream that can be used to write the CSV file.
      *
@@ -794,6 +857,10 @@ public class EvaluatorCSV extends Evaluator {
         return TRACK_PERFORMANCE_CUBE_FILE_NAME;
     }
 
+    public static String getPipelineStageCubeFileName() {
+        return PIPELINE_STAGE_CUBE_FILE_NAME;
+    }
+
     /**
      * Returns the CSV format used to write all CSV files.
      *
@@ -1,9 +1,13 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm;
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.function.Supplier;
 
 /**
  * Data Structure for an individual confusion matrix.
+ * The true positive, false positive, and false negative alignments can be materialized lazily:
+ * in this case only the sizes are known after construction and the alignments are computed as soon as
+ * one of {@link #getTruePositive() }, {@link #getFalsePositive() }, or {@link #getFalseNegative() } is called.
  *
  * @author Sven Hertling, Jan Portisch
  */
@@ -16,6 +20,15 @@ public class ConfusionMatrix {
     
     protected double precision;
     protected double recall;
+    
+    private int truePositiveSize;
+    private int falsePositiveSize;
+    private int falseNegativeSize;
+    
+    /**
+     * Computes the confusion matrix with materialized alignments. Null if the alignments are already available.
+     */
+    private Supplier<ConfusionMatrix> materializer;
 
     /**
      * The number of correspondences. Typically, this number is {@code truePositive + falsePositive} but this is not
@@ -55,16 +68,62 @@ public class ConfusionMatrix {
         this.numberOfCorrespondences = numberOfCorrespondences;
     }
 
+    /**
+     * Constructor for a confusion matrix where only the sizes are known and the alignments are materialized on demand.
+     * @param truePositiveSize The number of true positives.
+     * @param falsePositiveSize The number of false positives.
+     * @param falseNegativeSize The number of false negatives.
+     * @param numberOfCorrespondences The number of correspondences. Note that this number can deviate from {@code truePositive + falsePositive}
+     *                                in case of partial gold standards.
+     * @param precision Precision as double [0, 1].
+     * @param recall Recall as double [0, 1].
+     * @param materializer Computes a confusion matrix (with the same sizes) which contains the alignments.
+     *                     It is called at most once and only if the alignments are requested.
+     */
+    public ConfusionMatrix(int truePositiveSize, int falsePositiveSize, int falseNegativeSize, int numberOfCorrespondences, double precision, double recall, Supplier<ConfusionMatrix> materializer){
+        this.truePositiveSize = truePositiveSize;
+        this.falsePositiveSize = falsePositiveSize;
+        this.falseNegativeSize = falseNegativeSize;
+        this.numberOfCorrespondences = numberOfCorrespondences;
+        this.precision = precision;
+        this.recall = recall;
+        this.materializer = materializer;
+    }
+    
+    /**
+     * Computes the alignments if they are not materialized yet.
+     */
+    private synchronized void materialize(){
+        if(this.materializer != null){
+            ConfusionMatrix materialized = this.materializer.get();
+            this.truePositive = materialized.getTruePositive();
+            this.falsePositive = materialized.getFalsePositive();
+            this.falseNegative = materialized.getFalseNegative();
+            this.materializer = null;
+        }
+    }
+    
+    /**
+     * Returns true if the true positive, false positive, and false negative alignments are already computed.
+     * @return true if the alignments are materialized.
+     */
+    public synchronized boolean isMaterialized(){
+        return this.materializer == null;
+    }
+
     /**
      * Alignments which are in the reference mapping and are also found by the matcher.
      * @return found and correct mappings (correct)
      */
     public Alignment getTruePositive() {
+        materialize();
         return truePositive;
     }
     
     public int getTruePositiveSize() {
-        return truePositive.size();
+        if(isMaterialized())
+            return truePositive.size();
+        return truePositiveSize;
     }
 
     /**
@@ -72,11 +131,14 @@ public class ConfusionMatrix {
      * @return found but not correct mappings (too much)
      */
     public Alignment getFalsePositive() {
+        materialize();
         return falsePositive;
     }
     
     public int getFalsePositiveSize() {
-        return falsePositive.size();
+        if(isMaterialized())
+            return falsePositive.size();
+        return falsePositiveSize;
     }
 
     /**
@@ -84,11 +146,14 @@ public class ConfusionMatrix {
      * @return correct but not found by the matcher (should be found)
      */
     public Alignment getFalseNegative() {
+        materialize();
         return falseNegative;
     }
     
     public int getFalseNegativeSize() {
-        return falseNegative.size();
+        if(isMaterialized())
+            return falseNegative.size();
+        return falseNegativeSize;
     }
 
     public double getPrecision() {
@@ -129,14 +194,14 @@ public class ConfusionMatrix {
      */
     public ConfusionMatrix subtract(ConfusionMatrix other){
         
-        Alignment subTruePositive = new Alignment(this.truePositive);
-        subTruePositive.removeAll(other.truePositive);
+        Alignment subTruePositive = new Alignment(this.getTruePositive());
+        subTruePositive.removeAll(other.getTruePositive());
         
-        Alignment subFalsePositive = new Alignment(this.falsePositive);
-        subFalsePositive.removeAll(other.falsePositive);
+        Alignment subFalsePositive = new Alignment(this.getFalsePositive());
+        subFalsePositive.removeAll(other.getFalsePositive());
         
-        Alignment subFalseNegative = new Alignment(this.falseNegative);
-        subFalseNegative.removeAll(other.falseNegative);
+        Alignment subFalseNegative = new Alignment(this.getFalseNegative());
+        subFalseNegative.removeAll(other.getFalseNegative());
 
         int numberOfCorrespondences = this.getNumberOfCorrespondences();
         numberOfCorrespondences = numberOfCorrespondences - other.getNumberOfCorrespondences();
@@ -146,8 +211,8 @@ public class ConfusionMatrix {
 
     @Override
     public String toString() {
-        return "ConfusionMatrix: TP:" + truePositive.size() + 
-                ", FP=" + falsePositive.size() + ", FN=" + falseNegative.size() + 
+        return "ConfusionMatrix: TP:" + getTruePositiveSize() + 
+                ", FP=" + getFalsePositiveSize() + ", FN=" + getFalseNegativeSize() + 
                 ", PREC=" + String.format("%.4f", precision) + 
                 ", REC=" + String.format("%.4f", recall) + 
                 ", F1=" + String.format("%.4f", getF1measure());
@@ -10,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 /**
@@ -28,6 +30,32 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
      * Default Logger
      */
     private Logger LOGGER = LoggerFactory.getLogger(ConfusionMatrixMetric.class);
+    
+    /**
+     * If true, only the number of true positives, false positives, and false negatives are computed (by index lookups)
+     * and the corresponding alignments are materialized only when requested.
+     */
+    private boolean countingMode;
+
+    /**
+     * Constructor which uses the counting mode: precision and recall are computed without materializing the
+     * true positive, false positive, and false negative alignments. They are only computed when requested
+     * from the confusion matrix (thus the alignments should not be modified in between).
+     */
+    public ConfusionMatrixMetric() {
+        this(true);
+    }
+
+    /**
+     * Constructor
+     * @param countingMode if true, precision and recall are computed without materializing the
+     * true positive, false positive, and false negative alignments. They are only computed when requested
+     * from the confusion matrix (thus the alignments should not be modified in between).
+     * If false, the alignments are always computed directly.
+     */
+    public ConfusionMatrixMetric(boolean countingMode) {
+        this.countingMode = countingMode;
+    }
 
     @Override
     public ConfusionMatrix compute(ExecutionResult executionResult) {
@@ -42,7 +70,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                                    Alignment evaluationExclusionAlignment){
         if(evaluationExclusionAlignment == null || evaluationExclusionAlignment.isEmpty()){
             //faster and no need to copy system alignment.
-            compute(referenceAlignment, systemAlignment, gsCompleteness);
+            return compute(referenceAlignment, systemAlignment, gsCompleteness);
         }
         //compute system alignment where evaluationExclusionAlignment is removed:
         Alignment systemAlignmentForEval = new Alignment(systemAlignment);
@@ -53,12 +81,196 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix compute(Alignment referenceAlignment,
                                    Alignment systemAlignment,
                                    GoldStandardCompleteness gsCompleteness){
+        if(this.countingMode){
+            if (gsCompleteness.isGoldStandardComplete()) {
+                return countForCompleteGoldStandard(referenceAlignment, systemAlignment);
+            } else {
+                return countForPartialGoldStandard(referenceAlignment, systemAlignment, gsCompleteness);
+            }
+        }
+        return computeMaterialized(referenceAlignment, systemAlignment, gsCompleteness);
+    }
+    
+    private ConfusionMatrix computeMaterialized(Alignment referenceAlignment,
+                                   Alignment systemAlignment,
+                                   GoldStandardCompleteness gsCompleteness){
         if (gsCompleteness.isGoldStandardComplete()) {
             return computeForCompleteGoldStandard(referenceAlignment, systemAlignment);
         } else {
             return computeForPartialGoldStandard(referenceAlignment, systemAlignment, gsCompleteness);
         }
     }
+    
+    /**
+     * Counts the true positives, false positives and false negatives under the premises that the gold standard is complete.
+     * The result is the same as {@link #computeForCompleteGoldStandard(Alignment, Alignment) } but no alignments are created.
+     * @param referenceAlignment reference alignment
+     * @param systemAlignment system alignment
+     * @return The confusion matrix which materializes the alignments only on request.
+     */
+    private ConfusionMatrix countForCompleteGoldStandard(Alignment referenceAlignment, Alignment systemAlignment) {
+        int tpSize = 0;
+        int fnSize = 0;
+        int removedFromSystem = 0;
+        for (Correspondence referenceCell : referenceAlignment) {
+            if (referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN) {
+                //all system correspondences between these two entities are ignored (independent of the relation)
+                for(Correspondence c : systemAlignment.getCorrespondencesSourceTarget(referenceCell.getEntityOne(), referenceCell.getEntityTwo())){
+                    removedFromSystem++;
+                }
+            } else {
+                Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(),
+                        referenceCell.getEntityTwo(), referenceCell.getRelation());
+                if (systemCell != null) {
+                    tpSize++;
+                    //if there is also an unknown correspondence, the system cell is already counted as removed
+                    if(referenceAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), CorrespondenceRelation.UNKNOWN) == null)
+                        removedFromSystem++;
+                } else {
+                    fnSize++;
+                }
+            }
+        }
+        int numberOfCorrespondences = systemAlignment.size();
+        int fpSize = numberOfCorrespondences - removedFromSystem;
+        return calculateConfusionMatrixFromCounts(tpSize, fpSize, fnSize, numberOfCorrespondences,
+                () -> computeForCompleteGoldStandard(referenceAlignment, systemAlignment));
+    }
+    
+    /**
+     * Counts the true positives, false positives and false negatives under the premises that the gold standard is incomplete, i.e., partial.
+     * The result is the same as {@link #computeForPartialGoldStandard(Alignment, Alignment, GoldStandardCompleteness) } but no alignments are created.
+     * Instead of collecting the false positives (which requires to remove duplicates), each system correspondence is checked
+     * with index lookups in the reference alignment.
+     * @param referenceAlignment reference alignment
+     * @param systemAlignment system alignment 
+     * @param gsCompleteness gold standard completeness
+     * @return The confusion matrix which materializes the alignments only on request.
+     */
+    private ConfusionMatrix countForPartialGoldStandard(Alignment referenceAlignment,
+                                                          Alignment systemAlignment,
+                                                          GoldStandardCompleteness gsCompleteness) {
+        int tpSize = 0;
+        int fpSize = 0;
+        for(Correspondence systemCell : systemAlignment){
+            if(isTruePositive(referenceAlignment, systemCell)){
+                tpSize++;
+            } else if(isFalsePositiveForPartialGoldStandard(referenceAlignment, systemCell, gsCompleteness)){
+                fpSize++;
+            }
+        }
+        int fnSize = 0;
+        for (Correspondence referenceCell : referenceAlignment) {
+            if (referenceCell.getRelation() != CorrespondenceRelation.UNKNOWN && referenceCell.getRelation() != CorrespondenceRelation.INCOMPAT){
+                if(systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation()) == null)
+                    fnSize++;
+            }
+        }
+        return calculateConfusionMatrixFromCounts(tpSize, fpSize, fnSize, systemAlignment.size(),
+                () -> computeForPartialGoldStandard(referenceAlignment, systemAlignment, gsCompleteness));
+    }
+    
+    /**
+     * Counts the true positives, false positives and false negatives like the counting mode of this metric and additionally
+     * reports each system correspondence which is a true positive or false positive to the given consumers
+     * (e.g. to collect their confidences). No alignments are created.
+     * The system correspondences which are neither true nor false positive (ignored by the gold standard) are not reported.
+     * @param referenceAlignment reference alignment
+     * @param systemAlignment system alignment
+     * @param gsCompleteness gold standard completeness
+     * @param truePositives receives each system correspondence which is a true positive
+     * @param falsePositives receives each system correspondence which is a false positive
+     * @return The confusion matrix which materializes the alignments only on request.
+     */
+    public ConfusionMatrix count(Alignment referenceAlignment, Alignment systemAlignment, GoldStandardCompleteness gsCompleteness,
+                                 Consumer<Correspondence> truePositives, Consumer<Correspondence> falsePositives){
+        boolean complete = gsCompleteness.isGoldStandardComplete();
+        int tpSize = 0;
+        int fpSize = 0;
+        for(Correspondence systemCell : systemAlignment){
+            if(complete){
+                if(systemCell.getRelation() != CorrespondenceRelation.UNKNOWN && referenceAlignment.getCorrespondence(
+                        systemCell.getEntityOne(), systemCell.getEntityTwo(), systemCell.getRelation()) != null){
+                    tpSize++;
+                    truePositives.accept(systemCell);
+                } else if(referenceAlignment.getCorrespondence(systemCell.getEntityOne(), systemCell.getEntityTwo(), CorrespondenceRelation.UNKNOWN) == null){
+                    fpSize++;
+                    falsePositives.accept(systemCell);
+                }
+            } else {
+                if(isTruePositive(referenceAlignment, systemCell)){
+                    tpSize++;
+                    truePositives.accept(systemCell);
+                } else if(isFalsePositiveForPartialGoldStandard(referenceAlignment, systemCell, gsCompleteness)){
+                    fpSize++;
+                    falsePositives.accept(systemCell);
+                }
+            }
+        }
+        int fnSize = 0;
+        for (Correspondence referenceCell : referenceAlignment) {
+            if (referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN ||
+                    (complete == false && referenceCell.getRelation() == CorrespondenceRelation.INCOMPAT))
+                continue;
+            if(systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation()) == null)
+                fnSize++;
+        }
+        Supplier<ConfusionMatrix> materializer = complete ?
+                () -> computeForCompleteGoldStandard(referenceAlignment, systemAlignment) :
+                () -> computeForPartialGoldStandard(referenceAlignment, systemAlignment, gsCompleteness);
+        return calculateConfusionMatrixFromCounts(tpSize, fpSize, fnSize, systemAlignment.size(), materializer);
+    }
+    
+    private static boolean isTruePositive(Alignment referenceAlignment, Correspondence systemCell){
+        if(systemCell.getRelation() == CorrespondenceRelation.UNKNOWN || systemCell.getRelation() == CorrespondenceRelation.INCOMPAT)
+            return false;
+        return referenceAlignment.getCorrespondence(systemCell.getEntityOne(), systemCell.getEntityTwo(), systemCell.getRelation()) != null;
+    }
+    
+    /**
+     * Checks if a system correspondence (which is not a true positive) is a false positive given a partial gold standard.
+     * This is the case if one of the rules in {@link #computeForPartialGoldStandard(Alignment, Alignment, GoldStandardCompleteness) }
+     * would add the system correspondence to the false positives.
+     */
+    private static boolean isFalsePositiveForPartialGoldStandard(Alignment referenceAlignment, Correspondence systemCell, GoldStandardCompleteness gsCompleteness){
+        String source = systemCell.getEntityOne();
+        String target = systemCell.getEntityTwo();
+        CorrespondenceRelation relation = systemCell.getRelation();
+        if(relation == CorrespondenceRelation.EQUIVALENCE){
+            //explicit null mappings (the source or target should not be mapped at all)
+            for(Correspondence incompat : referenceAlignment.getCorrespondencesSourceRelation(source, CorrespondenceRelation.INCOMPAT)){
+                if(isNullEntity(incompat.getEntityTwo()))
+                    return true;
+            }
+            for(Correspondence incompat : referenceAlignment.getCorrespondencesTargetRelation(target, CorrespondenceRelation.INCOMPAT)){
+                if(isNullEntity(incompat.getEntityOne()) && isNullEntity(incompat.getEntityTwo()) == false)
+                    return true;
+            }
+            //negative mapping
+            if(isNullEntity(source) == false && isNullEntity(target) == false &&
+                    referenceAlignment.getCorrespondence(source, target, CorrespondenceRelation.INCOMPAT) != null)
+                return true;
+        }
+        if(relation == CorrespondenceRelation.UNKNOWN || relation == CorrespondenceRelation.INCOMPAT)
+            return false;
+        if (gsCompleteness.isTargetComplete()) {
+            for(Correspondence sameTarget : referenceAlignment.getCorrespondencesTargetRelation(target, relation)){
+                if(sameTarget.getEntityOne().equals(source) == false)
+                    return true;
+            }
+        }
+        if (gsCompleteness.isSourceComplete()) {
+            for(Correspondence sameSource : referenceAlignment.getCorrespondencesSourceRelation(source, relation)){
+                if(sameSource.getEntityTwo().equals(target) == false)
+                    return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isNullEntity(String entity){
+        return entity.equals("null") || entity.trim().isEmpty();
+    }
 
     /**
      * Calculate the confusion matrix under the premises that the gold standard is incomplete, i.e., partial.
@@ -199,6 +411,13 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     }
 
 
+    private static ConfusionMatrix calculateConfusionMatrixFromCounts(int tpSize, int fpSize, int fnSize, int numberOfCorrespondences, Supplier<ConfusionMatrix> materializer) {
+        double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
+        double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
+        return new ConfusionMatrix(tpSize, fpSize, fnSize, numberOfCorrespondences, precision, recall, materializer);
+    }
+
+
     /**
      * Returns aggregated confusion matrices according to the micro average.
      * The micro average sums up individual true positives, false positives and false negatives and calculates
@@ -1,8 +1,12 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageStatistics;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.Evaluator;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.profiling.MemoryProfiling;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -12,14 +16,19 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.zip.GZIPOutputStream;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.apache.commons.text.StringEscapeUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
@@ -59,6 +68,8 @@ public class DashboardBuilder extends Evaluator {
     protected String additionalText;
     
     protected boolean dataLoadingIndicator;
+    
+    protected boolean pipelineStageTable;
 
     public DashboardBuilder(Supplier<String> csvSupplier, ExecutionResultSet executionResultSet, String titleOfPage, String additionalText){
         super(executionResultSet);
@@ -72,6 +83,7 @@ public class DashboardBuilder extends Evaluator {
         this.title = titleOfPage;
         this.additionalText = additionalText;
         this.dataLoadingIndicator = false;
+        this.pipelineStageTable = false;
         
         addDefaultDashboard();
     }
@@ -160,6 +172,7 @@ public class DashboardBuilder extends Evaluator {
         this.addDataCount();
         //this.addTextFilter();
         this.addDataChart();
+        this.addPipelineStageTable();
         return this;
     }
     
@@ -488,6 +501,18 @@ public class DashboardBuilder extends Evaluator {
     }
     
     
+    /**
+     * Adds a table below the dashboard which shows the statistics (runtime, memory, alignment size) of all pipeline stages
+     * summed over all test cases. This allows to find the stage of a matcher pipeline which is the most expensive one.
+     * The table is only shown if the execution results contain such statistics
+     * (see {@link ExecutionResult#getPipelineStageStatistics() }).
+     * @return this builder
+     */
+    public DashboardBuilder addPipelineStageTable(){
+        this.pipelineStageTable = true;
+        return this;
+    }
+    
     public DashboardBuilder addElement(DcjsElement element){
         this.currentRow.add(element);
         return this;
@@ -496,6 +521,7 @@ public class DashboardBuilder extends Evaluator {
     public DashboardBuilder clearElements(){
         this.rows.clear();
         this.currentRow.clear();
+        this.pipelineStageTable = false;
         return this;
     }
     
@@ -645,9 +671,105 @@ public class DashboardBuilder extends Evaluator {
         context.put("dimensionDefinition", this.getAllDimensionDefinitions());
         context.put("groupDefinition", this.getAllGroupDefinitions());
         context.put("jsHelperFileNames", this.getAllJsHelperFileNames());
+        if(this.pipelineStageTable){
+            List<List<String>> stageRows = getPipelineStageRows();
+            if(stageRows.isEmpty() == false){
+                context.put("pipelineStageHeader", Arrays.asList("Matcher", "Pipeline", "Stage", "Stage Matcher", "# of Test Cases",
+                        "Wall Time", "Share of Runtime", "CPU Time", "Allocated Memory", "# of Correspondences In", 
+                        "# of Correspondences Out", "Type Transformation Time"));
+                context.put("pipelineStageRows", stageRows);
+            }
+        }
         return context;
     }
     
+    /**
+     * Sums up the pipeline stage statistics of all test cases per matcher and stage.
+     * @return one row per matcher and stage (already formatted and escaped)
+     */
+    private List<List<String>> getPipelineStageRows(){
+        List<List<String>> stageRows = new ArrayList<>();
+        if(this.results == null)
+            return stageRows;
+        for(String matcher : this.results.getDistinctMatchersSorted()){
+            long matcherRuntime = 0;
+            Map<String, PipelineStageSummary> summaries = new LinkedHashMap<>();
+            for(TestCase testCase : this.results.getDistinctTestCases(matcher)){
+                ExecutionResult result = this.results.get(testCase, matcher);
+                if(result == null)
+                    continue;
+                matcherRuntime += result.getRuntime();
+                for(PipelineStageStatistics stage : result.getPipelineStageStatistics()){
+                    summaries.computeIfAbsent(stage.getPipelineName() + "|" + stage.getStageIndex() + "|" + stage.getStageName(), 
+                            __ -> new PipelineStageSummary(stage)).add(stage);
+                }
+            }
+            for(PipelineStageSummary summary : summaries.values()){
+                List<String> row = new ArrayList<>();
+                row.add(matcher);
+                row.add(summary.pipelineName);
+                row.add(Integer.toString(summary.stageIndex));
+                row.add(summary.stageName);
+                row.add(Integer.toString(summary.testCases));
+                row.add(formatTime(summary.wallTime));
+                row.add(matcherRuntime > 0 ? String.format("%.1f %%", 100.0 * summary.wallTime / matcherRuntime) : "-");
+                row.add(summary.cpuTime < 0 ? "-" : formatTime(summary.cpuTime));
+                row.add(summary.allocatedBytes < 0 ? "-" : MemoryProfiling.humanReadableByteCount(summary.allocatedBytes));
+                row.add(summary.correspondencesIn < 0 ? "-" : Long.toString(summary.correspondencesIn));
+                row.add(summary.correspondencesOut < 0 ? "-" : Long.toString(summary.correspondencesOut));
+                row.add(formatTime(summary.typeTransformationTime));
+                for(int i = 0; i < row.size(); i++){
+                    row.set(i, StringEscapeUtils.escapeHtml4(row.get(i)));
+                }
+                stageRows.add(row);
+            }
+        }
+        return stageRows;
+    }
+    
+    private static String formatTime(long nanoSeconds){
+        return DurationFormatUtils.formatDuration(nanoSeconds / 1_000_000, "HH:mm:ss.SSS");
+    }
+    
+    /**
+     * Sum of the statistics of one pipeline stage over multiple test cases.
+     * Values which could not be measured in at least one test case are set to -1.
+     */
+    private static class PipelineStageSummary {
+        private final String pipelineName;
+        private final int stageIndex;
+        private final String stageName;
+        private int testCases;
+        private long wallTime;
+        private long cpuTime;
+        private long allocatedBytes;
+        private long correspondencesIn;
+        private long correspondencesOut;
+        private long typeTransformationTime;
+
+        PipelineStageSummary(PipelineStageStatistics stage) {
+            this.pipelineName = stage.getPipelineName();
+            this.stageIndex = stage.getStageIndex();
+            this.stageName = stage.getStageName();
+        }
+
+        void add(PipelineStageStatistics stage){
+            this.testCases++;
+            this.wallTime += stage.getWallTime();
+            this.cpuTime = sum(this.cpuTime, stage.getCpuTime());
+            this.allocatedBytes = sum(this.allocatedBytes, stage.getAllocatedBytes());
+            this.correspondencesIn = sum(this.correspondencesIn, stage.getCorrespondencesIn());
+            this.correspondencesOut = sum(this.correspondencesOut, stage.getCorrespondencesOut());
+            this.typeTransformationTime += stage.getTypeTransformationTime();
+        }
+
+        private static long sum(long current, long value){
+            if(current < 0 || value < 0)
+                return -1;
+            return current + value;
+        }
+    }
+    
     private List<String> getAllDimensionDefinitions(){
         Set<String> definitions = new HashSet<>();
         for(List<DcjsElement> list : this.rows){
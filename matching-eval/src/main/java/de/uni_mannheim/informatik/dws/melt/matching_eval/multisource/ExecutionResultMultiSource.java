@@ -7,7 +7,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ReflexiveCorrespondenceFilter;
-import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosure;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosureUnionFind;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.net.URL;
@@ -75,10 +75,7 @@ public class ExecutionResultMultiSource {
         
         Map<TestCase, Alignment> testcaseToAlignment = new HashMap<>();
         if(computeTransitiveClosure){
-            TransitiveClosure<String> alignmentClosure = new TransitiveClosure<>();
-            for(Correspondence c : fullAlignment){
-                alignmentClosure.add(c.getEntityOne(), c.getEntityTwo());
-            }
+            TransitiveClosureUnionFind<String> alignmentClosure = TransitiveClosureUnionFind.fromAlignment(fullAlignment);
             for(Set<String> sameAs : alignmentClosure.getClosure()){
                 Map<TestCase, SourceTargetURIs> map = partitioner.partition(sameAs);
                 for(Map.Entry<TestCase, SourceTargetURIs> entry : map.entrySet()){
@@ -4,8 +4,6 @@ import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompletenes
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.ConfidenceRefiner;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 import java.math.BigDecimal;
@@ -138,56 +136,16 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
-        LOGGER.info("Search for best confidence (optimizing F-Measure) given {} reference and {} system " +
-                        "correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(),
-                m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, decimalPrecision));
-        Collections.sort(systemConfidences);
-
-        double bestConf = 1.0;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cutSize(conf); //.cut(conf).size();
-            int fpSize = m.getFalsePositive().cutSize(conf); //.cut(conf).size();
-            int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
-
-            /*
-            ExecutionResult er = new ExecutionResult(executionResult.getTestCase(),
-                    executionResult.getMatcherName(),
-                    executionResult.getSystemAlignment().cut(conf),
-                    executionResult.getReferenceAlignment());
-            ConfusionMatrix m2 = new ConfusionMatrixMetric().compute(er);
-
-            System.out.println("TP");
-            System.out.println(m2.getTruePositiveSize());
-            System.out.println(tpSize);
-
-            System.out.println("FP");
-            System.out.println(m2.getFalsePositiveSize());
-            System.out.println(fpSize);
-
-            System.out.println("FN");
-            System.out.println(m2.getFalseNegativeSize());
-            System.out.println(fnSize);
-             */
-
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-            double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
-            double f1measure = divideWithTwoDenominators(2*precision*recall, precision, recall);
-
-            if(f1measure >= bestValue){
-                bestConf = conf;
-                bestValue = f1measure;
-            }
-        }
-        int tpSize = m.getTruePositive().cutSize(bestConf); //.cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cutSize(bestConf); //.cut(bestConf).size();
-        int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
+        LOGGER.info("Search for best confidence (optimizing F-Measure) given {} reference and {} system correspondences.",
+                reference.size(), systemAlignment.size());
+        ThresholdSweep sweep = new ThresholdSweep(reference, systemAlignment, gsCompleteness, decimalPrecision);
+        int best = sweep.getBestIndexForF1measure();
+        if(best < 0)
+            return 1.0;
         LOGGER.info("Found best confidence of {} which leads to F-Measure of {} (tp: {} fp: {} fn: {})",
-            bestConf, bestValue, tpSize, fpSize, fnSize);
-        return bestConf;
+            sweep.getThreshold(best), sweep.getF1measure(best), sweep.getTruePositiveSize(best),
+            sweep.getFalsePositiveSize(best), sweep.getFalseNegativeSize(best));
+        return sweep.getThreshold(best);
     }
     
     /**
@@ -228,34 +186,16 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
-        LOGGER.info("Search for best confidence (optimizing F_{}) given {} reference and {} system correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                beta, reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(), m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
-        Collections.sort(systemConfidences);
-        double bestConf = 1.0d;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cutSize(conf); // .cut(conf).size();
-            int fpSize = m.getFalsePositive().cutSize(conf); // .cut(conf).size();
-            int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
-            
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-            double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
-            double fbeta = getFbetaMeasure(precision, recall, beta);
-
-            if(fbeta >= bestValue){
-                bestConf = conf;
-                bestValue = fbeta;
-            }
-        }
-        int tpSize = m.getTruePositive().cutSize(bestConf); // .cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cutSize(bestConf); // .cut(bestConf).size();
-        int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
+        LOGGER.info("Search for best confidence (optimizing F_{}) given {} reference and {} system correspondences.",
+                beta, reference.size(), systemAlignment.size());
+        ThresholdSweep sweep = new ThresholdSweep(reference, systemAlignment, gsCompleteness, 2);
+        int best = sweep.getBestIndexForFbetaMeasure(beta);
+        if(best < 0)
+            return 1.0d;
         LOGGER.info("Found best confidence of {} which leads to F_{} of {} (tp: {} fp: {} fn: {})",
-            bestConf, beta, bestValue, tpSize, fpSize, fnSize);
-        
-        return bestConf;
+            sweep.getThreshold(best), beta, sweep.getFbetaMeasure(best, beta), sweep.getTruePositiveSize(best),
+            sweep.getFalsePositiveSize(best), sweep.getFalseNegativeSize(best));
+        return sweep.getThreshold(best);
     }
     
     /**
@@ -292,28 +232,15 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
-        LOGGER.info("Search for best confidence (optimizing precision) given {} reference and {} system correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(), m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
-        Collections.sort(systemConfidences);
-        double bestConf = 1.0d;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cutSize(conf); // .cut(conf).size();
-            int fpSize = m.getFalsePositive().cutSize(conf); // .cut(conf).size();
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-
-            if(precision >= bestValue){
-                bestConf = conf;
-                bestValue = precision;
-            }
-        }
-        int tpSize = m.getTruePositive().cutSize(bestConf); // .cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cutSize(bestConf); // .cut(bestConf).size();
+        LOGGER.info("Search for best confidence (optimizing precision) given {} reference and {} system correspondences.",
+                reference.size(), systemAlignment.size());
+        ThresholdSweep sweep = new ThresholdSweep(reference, systemAlignment, gsCompleteness, 2);
+        int best = sweep.getBestIndexForPrecision();
+        if(best < 0)
+            return 1.0d;
         LOGGER.info("Found best confidence of {} which leads to precision of {} (tp: {} fp: {})",
-                bestConf, bestValue, tpSize, fpSize);
-        return bestConf;
+                sweep.getThreshold(best), sweep.getPrecision(best), sweep.getTruePositiveSize(best), sweep.getFalsePositiveSize(best));
+        return sweep.getThreshold(best);
     }
     
     public static ExecutionResultSet getConfidenceResultSet(ExecutionResult executionResult){
@@ -326,32 +253,4 @@ public class ConfidenceFinder {
         }
         return s;
     }
-
-    /**
-     * Simple division that is to be performed. The two denominators will be added.
-     *
-     * @param numerator      Numerator of fraction
-     * @param denominatorOne Denominator 1
-     * @param denominatorTwo Denominator 2
-     * @return Result as double.
-     */
-    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
-        if ((denominatorOne + denominatorTwo) > 0.0) {
-            return numerator / (denominatorOne + denominatorTwo);
-        } else {
-            return 0.0;
-        }
-    }
-    
-    private static double getFbetaMeasure(double precision, double recall, double beta){
-        double betaSquared = Math.pow(beta, 2);
-        double numerator = (1 + betaSquared) * (precision * recall);
-        double denominator = ((betaSquared * precision) + recall);
-        if(denominator == 0){
-            return 0;
-        }else{
-            return numerator / denominator;
-        }
-    }
-    
 }
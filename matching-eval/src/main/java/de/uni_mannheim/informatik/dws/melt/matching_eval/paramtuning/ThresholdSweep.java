@@ -0,0 +1,274 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.DoubleStream;
+
+/**
+ * Computes the confusion matrix (true positives, false positives, false negatives) for every possible confidence
+ * threshold of a system alignment in one pass.
+ * The confusion matrix is counted only once (without any threshold) and the confidences of the true and false positives
+ * are collected during counting (see {@link ConfusionMatrixMetric#count(Alignment, Alignment, GoldStandardCompleteness, java.util.function.Consumer, java.util.function.Consumer) }),
+ * thus no true positive or false positive alignments are created.
+ * Afterwards the confidences are sorted and the counts for each threshold are obtained by streaming through the sorted confidences.
+ * This needs O(n log n) instead of O(thresholds * n) when cutting the alignment for each threshold.
+ * <p>
+ * A threshold t means that all correspondences with a confidence lower than t are discarded
+ * (same as {@link Alignment#cut(double) }). The thresholds are the distinct (optionally rounded) confidences of the
+ * system alignment in ascending order, thus index 0 corresponds to the whole system alignment (in case no rounding is applied).
+ */
+public class ThresholdSweep {
+
+    private final double[] thresholds;
+    private final int[] truePositives;
+    private final int[] falsePositives;
+    private final int[] falseNegatives;
+
+    /**
+     * Computes the sweep for all distinct confidences of the system alignment.
+     * @param reference the reference alignment
+     * @param systemAlignment the system alignment
+     * @param gsCompleteness the gold standard completeness
+     */
+    public ThresholdSweep(Alignment reference, Alignment systemAlignment, GoldStandardCompleteness gsCompleteness) {
+        this(reference, systemAlignment, gsCompleteness, -1);
+    }
+
+    /**
+     * Computes the sweep for all distinct confidences of the system alignment which are rounded to the given decimal precision.
+     * @param reference the reference alignment
+     * @param systemAlignment the system alignment
+     * @param gsCompleteness the gold standard completeness
+     * @param decimalPrecision the number of decimal places the thresholds are rounded to (HALF_UP).
+     *  Zero or a negative number to use the exact confidences.
+     */
+    public ThresholdSweep(Alignment reference, Alignment systemAlignment, GoldStandardCompleteness gsCompleteness, int decimalPrecision) {
+        this(PositiveConfidences.count(reference, systemAlignment, gsCompleteness), systemAlignment, decimalPrecision);
+    }
+
+    /**
+     * Computes the sweep for the given execution result. The gold standard completeness is taken from the test case.
+     * @param executionResult the execution result
+     * @param decimalPrecision the number of decimal places the thresholds are rounded to (HALF_UP).
+     *  Zero or a negative number to use the exact confidences.
+     */
+    public ThresholdSweep(ExecutionResult executionResult, int decimalPrecision) {
+        this(executionResult.getReferenceAlignment(), executionResult.getSystemAlignment(),
+                executionResult.getTestCase().getGoldStandardCompleteness(), decimalPrecision);
+    }
+
+    /**
+     * Computes the sweep based on an already computed confusion matrix (without any threshold applied).
+     * This needs the true positive and false positive alignments and thus materializes the matrix in case it was only counted
+     * (see {@link ConfusionMatrix#isMaterialized() }). Prefer the constructors which receive the reference alignment.
+     * @param matrix the confusion matrix of the whole system alignment
+     * @param systemAlignment the system alignment which defines the thresholds
+     * @param decimalPrecision the number of decimal places the thresholds are rounded to (HALF_UP).
+     *  Zero or a negative number to use the exact confidences.
+     */
+    public ThresholdSweep(ConfusionMatrix matrix, Alignment systemAlignment, int decimalPrecision) {
+        this(new PositiveConfidences(getSortedConfidences(matrix.getTruePositive()), getSortedConfidences(matrix.getFalsePositive()),
+                matrix.getFalseNegativeSize()), systemAlignment, decimalPrecision);
+    }
+
+    private ThresholdSweep(PositiveConfidences positives, Alignment systemAlignment, int decimalPrecision) {
+        this.thresholds = getThresholds(systemAlignment, decimalPrecision);
+        double[] tpConfidences = positives.truePositives;
+        double[] fpConfidences = positives.falsePositives;
+        int falseNegativeBase = positives.falseNegativeSize + tpConfidences.length;
+
+        this.truePositives = new int[this.thresholds.length];
+        this.falsePositives = new int[this.thresholds.length];
+        this.falseNegatives = new int[this.thresholds.length];
+        int tpPointer = 0;
+        int fpPointer = 0;
+        for(int i = 0; i < this.thresholds.length; i++){
+            double threshold = this.thresholds[i];
+            while(tpPointer < tpConfidences.length && tpConfidences[tpPointer] < threshold)
+                tpPointer++;
+            while(fpPointer < fpConfidences.length && fpConfidences[fpPointer] < threshold)
+                fpPointer++;
+            int tp = tpConfidences.length - tpPointer;
+            this.truePositives[i] = tp;
+            this.falsePositives[i] = fpConfidences.length - fpPointer;
+            this.falseNegatives[i] = falseNegativeBase - tp;
+        }
+    }
+
+    /**
+     * Returns the number of thresholds.
+     * @return the number of thresholds
+     */
+    public int size(){
+        return this.thresholds.length;
+    }
+
+    /**
+     * Returns all thresholds in ascending order.
+     * @return a copy of the thresholds
+     */
+    public double[] getThresholds(){
+        return this.thresholds.clone();
+    }
+
+    public double getThreshold(int index){
+        return this.thresholds[index];
+    }
+
+    public int getTruePositiveSize(int index){
+        return this.truePositives[index];
+    }
+
+    public int getFalsePositiveSize(int index){
+        return this.falsePositives[index];
+    }
+
+    public int getFalseNegativeSize(int index){
+        return this.falseNegatives[index];
+    }
+
+    /**
+     * Returns the precision at the given index. In case no correspondence remains, the precision is zero.
+     * @param index the index of the threshold
+     * @return the precision
+     */
+    public double getPrecision(int index){
+        return divideWithTwoDenominators(this.truePositives[index], this.truePositives[index], this.falsePositives[index]);
+    }
+
+    /**
+     * Returns the recall at the given index. In case the reference is empty, the recall is zero.
+     * @param index the index of the threshold
+     * @return the recall
+     */
+    public double getRecall(int index){
+        return divideWithTwoDenominators(this.truePositives[index], this.truePositives[index], this.falseNegatives[index]);
+    }
+
+    public double getF1measure(int index){
+        double precision = getPrecision(index);
+        double recall = getRecall(index);
+        return divideWithTwoDenominators(2 * precision * recall, precision, recall);
+    }
+
+    public double getFbetaMeasure(int index, double beta){
+        double precision = getPrecision(index);
+        double recall = getRecall(index);
+        double betaSquared = Math.pow(beta, 2);
+        double denominator = (betaSquared * precision) + recall;
+        if(denominator == 0)
+            return 0;
+        return (1 + betaSquared) * (precision * recall) / denominator;
+    }
+
+    /**
+     * Returns the index of the threshold with the best F1 measure.
+     * In case of ties, the highest threshold is returned.
+     * @return index of the best threshold or -1 if there are no thresholds (empty system alignment)
+     */
+    public int getBestIndexForF1measure(){
+        return getBestIndex(this::getF1measure);
+    }
+
+    /**
+     * Returns the index of the threshold with the best F_beta measure.
+     * In case of ties, the highest threshold is returned.
+     * @param beta the beta value for F-beta measure
+     * @return index of the best threshold or -1 if there are no thresholds (empty system alignment)
+     */
+    public int getBestIndexForFbetaMeasure(double beta){
+        return getBestIndex(i -> getFbetaMeasure(i, beta));
+    }
+
+    /**
+     * Returns the index of the threshold with the best precision.
+     * In case of ties, the highest threshold is returned.
+     * @return index of the best threshold or -1 if there are no thresholds (empty system alignment)
+     */
+    public int getBestIndexForPrecision(){
+        return getBestIndex(this::getPrecision);
+    }
+
+    /**
+     * Returns the index of the threshold which maximizes the given value.
+     * In case of ties, the highest threshold is returned.
+     * @param value function which computes the value for a given index
+     * @return index of the best threshold or -1 if there are no thresholds (empty system alignment)
+     */
+    public int getBestIndex(IntToDoubleFunction value){
+        int bestIndex = -1;
+        double bestValue = 0.0d;
+        for(int i = 0; i < this.thresholds.length; i++){
+            double v = value.applyAsDouble(i);
+            if(v >= bestValue){
+                bestIndex = i;
+                bestValue = v;
+            }
+        }
+        return bestIndex;
+    }
+
+    private static double[] getThresholds(Alignment systemAlignment, int decimalPrecision){
+        double[] confidences = getSortedConfidences(systemAlignment);
+        int distinct = 0;
+        for(int i = 0; i < confidences.length; i++){
+            double d = confidences[i];
+            //rounding is monotone, thus the rounded values stay sorted
+            if(decimalPrecision > 0)
+                d = new BigDecimal(d).setScale(decimalPrecision, RoundingMode.HALF_UP).doubleValue();
+            if(distinct == 0 || Double.compare(confidences[distinct - 1], d) != 0)
+                confidences[distinct++] = d;
+        }
+        return Arrays.copyOf(confidences, distinct);
+    }
+
+    private static double[] getSortedConfidences(Alignment alignment){
+        double[] confidences = new double[alignment.size()];
+        int i = 0;
+        for(Correspondence c : alignment){
+            confidences[i++] = c.getConfidence();
+        }
+        Arrays.sort(confidences);
+        return confidences;
+    }
+
+    /**
+     * The sorted confidences of the true and false positives and the number of false negatives (without any threshold).
+     */
+    private static class PositiveConfidences {
+        private final double[] truePositives;
+        private final double[] falsePositives;
+        private final int falseNegativeSize;
+
+        PositiveConfidences(double[] truePositives, double[] falsePositives, int falseNegativeSize) {
+            this.truePositives = truePositives;
+            this.falsePositives = falsePositives;
+            this.falseNegativeSize = falseNegativeSize;
+        }
+
+        static PositiveConfidences count(Alignment reference, Alignment systemAlignment, GoldStandardCompleteness gsCompleteness){
+            DoubleStream.Builder truePositives = DoubleStream.builder();
+            DoubleStream.Builder falsePositives = DoubleStream.builder();
+            ConfusionMatrix matrix = new ConfusionMatrixMetric().count(reference, systemAlignment, gsCompleteness,
+                    c -> truePositives.add(c.getConfidence()), c -> falsePositives.add(c.getConfidence()));
+            return new PositiveConfidences(truePositives.build().sorted().toArray(), falsePositives.build().sorted().toArray(),
+                    matrix.getFalseNegativeSize());
+        }
+    }
+
+    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
+        if ((denominatorOne + denominatorTwo) > 0.0) {
+            return numerator / (denominatorOne + denominatorTwo);
+        } else {
+            return 0.0;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.visualization;
 
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning.ThresholdSweep;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -202,7 +204,60 @@ public class LatexPrecisionRecall {
 
     
     public static void write(Map<ExecutionResult, ConfusionMatrix> results, PrintWriter writer, List<Double> precisonLineValues, List<Double> recallLineValues, List<Double> fMeasureLineValues){
-
+        writeHeader(writer, precisonLineValues, recallLineValues, fMeasureLineValues);
+        writer.println("% Plots");
+        for(Map.Entry<ExecutionResult, ConfusionMatrix> result : results.entrySet()){
+            double precision = result.getValue().getPrecision();
+	    double recall = result.getValue().getRecall();
+            String matcher = result.getKey().getMatcherName();
+            writer.println(writeMatcher(matcher, precision, recall));
+        }
+        writeFooter(writer);
+    }
+    
+    /**
+     * Writes the precision recall curve of each execution result (one point for each confidence threshold).
+     * All thresholds are computed in one pass with {@link ThresholdSweep}.
+     * @param results the execution results
+     * @param f the file to write to
+     */
+    public static void writeCurves(Collection<ExecutionResult> results, File f){
+        try(PrintWriter w = new PrintWriter(f)){
+            LatexPrecisionRecall.writeCurves(results, w);
+        } catch (FileNotFoundException ex) {
+            LOGGER.error("File to write latex precision recall plot not found.", ex);
+        }
+    }
+    
+    public static void writeCurves(Collection<ExecutionResult> results, PrintWriter writer){
+        writeHeader(writer, range(0.1, 1.0, 0.1), range(0.1, 1.0, 0.1), range(0.5, 0.9, 0.1));
+        writer.println("% Plots");
+        for(ExecutionResult result : results){
+            writer.println(writeMatcherCurve(result.getMatcherName(), new ThresholdSweep(result, 2)));
+        }
+        writeFooter(writer);
+    }
+    
+    /**
+     * Writes the precision recall curve of one matcher. The label is placed at the lowest threshold (whole alignment).
+     * @param value the name of the matcher
+     * @param sweep the sweep containing precision and recall for all thresholds
+     * @return the latex code
+     */
+    public static String writeMatcherCurve(String value, ThresholdSweep sweep){
+        if(sweep.size() == 0)
+            return "";
+        StringBuilder coordinates = new StringBuilder();
+        for(int i = 0; i < sweep.size(); i++){
+            coordinates.append(getPolarCoord(sweep.getPrecision(i), sweep.getRecall(i)).extactRepresentation()).append(' ');
+        }
+        return String.format("\\draw plot[mark=+,mark size=1pt] coordinates {%s};%n\\draw %s node[anchor=south west] {%s};", 
+                coordinates.toString().trim(),
+                getPolarCoord(sweep.getPrecision(0), sweep.getRecall(0)).textPosition(),
+                value);
+    }
+    
+    private static void writeHeader(PrintWriter writer, List<Double> precisonLineValues, List<Double> recallLineValues, List<Double> fMeasureLineValues){
         writer.println("\\documentclass[11pt]{book}");
 	writer.println();
 	writer.println("\\usepackage{pgf}");
@@ -234,15 +289,9 @@ public class LatexPrecisionRecall {
         for(Double d : fMeasureLineValues){
             writer.println(writeFMeasure(d, 0.05));
         }
-        
-        writer.println("% Plots");
-        for(Map.Entry<ExecutionResult, ConfusionMatrix> result : results.entrySet()){
-            double precision = result.getValue().getPrecision();
-	    double recall = result.getValue().getRecall();
-            String matcher = result.getKey().getMatcherName();
-            writer.println(writeMatcher(matcher, precision, recall));
-        }
-        
+    }
+    
+    private static void writeFooter(PrintWriter writer){
 	writer.println("\\end{tikzpicture}");
 	writer.println();
 	writer.println("\\end{document}");
@@ -7,12 +7,14 @@ import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import org.apache.jena.ontology.OntModel;
@@ -253,6 +255,53 @@ class ConfusionMatrixMetricTest {
     }
 
     
+    @Test
+    void countingModeSameAsMaterialized() {
+        CorrespondenceRelation[] relations = new CorrespondenceRelation[]{
+            CorrespondenceRelation.EQUIVALENCE, CorrespondenceRelation.EQUIVALENCE, CorrespondenceRelation.SUBSUME,
+            CorrespondenceRelation.UNKNOWN, CorrespondenceRelation.INCOMPAT};
+        for(GoldStandardCompleteness completeness : GoldStandardCompleteness.values()){
+            for(int seed = 0; seed < 20; seed++){
+                ConfusionMatrix counted = new ConfusionMatrixMetric().compute(
+                        createRandomAlignment(new Random(seed), relations, 60), createRandomAlignment(new Random(seed + 1000), relations, 60), completeness);
+                ConfusionMatrix materialized = new ConfusionMatrixMetric(false).compute(
+                        createRandomAlignment(new Random(seed), relations, 60), createRandomAlignment(new Random(seed + 1000), relations, 60), completeness);
+                
+                assertFalse(counted.isMaterialized());
+                assertEquals(materialized.getTruePositiveSize(), counted.getTruePositiveSize());
+                assertEquals(materialized.getFalsePositiveSize(), counted.getFalsePositiveSize());
+                assertEquals(materialized.getFalseNegativeSize(), counted.getFalseNegativeSize());
+                assertEquals(materialized.getNumberOfCorrespondences(), counted.getNumberOfCorrespondences());
+                assertEquals(materialized.getPrecision(), counted.getPrecision());
+                assertEquals(materialized.getRecall(), counted.getRecall());
+                
+                //request the alignments
+                assertEquals(materialized.getTruePositive(), counted.getTruePositive());
+                assertEquals(materialized.getFalsePositive(), counted.getFalsePositive());
+                assertEquals(materialized.getFalseNegative(), counted.getFalseNegative());
+                assertTrue(counted.isMaterialized());
+            }
+        }
+    }
+    
+    private static Alignment createRandomAlignment(Random random, CorrespondenceRelation[] relations, int size){
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < size; i++){
+            CorrespondenceRelation relation = relations[random.nextInt(relations.length)];
+            String source = "http://source.com/" + random.nextInt(15);
+            String target = "http://target.com/" + random.nextInt(15);
+            if(relation == CorrespondenceRelation.INCOMPAT){
+                int nullMapping = random.nextInt(3);
+                if(nullMapping == 0)
+                    source = "null";
+                else if(nullMapping == 1)
+                    target = "null";
+            }
+            alignment.add(source, target, random.nextDouble(), relation);
+        }
+        return alignment;
+    }
+    
     @Test
     void micromacroTest() {
         ConfusionMatrixMetric metric = new ConfusionMatrixMetric();
@@ -9,6 +9,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.Con
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConfidenceFilter;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,8 +18,13 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentParser;
 import org.apache.commons.io.FileUtils;
@@ -174,6 +180,65 @@ public class ConfidenceFinderTest {
         Assertions.assertEquals(0.9, result);
     }
 
+    @Test
+    void sameConfidenceAsCuttingForEachThreshold() {
+        Random random = new Random(1234);
+        for(GoldStandardCompleteness completeness : GoldStandardCompleteness.values()){
+            for(int run = 0; run < 5; run++){
+                Alignment reference = new Alignment();
+                Alignment system = new Alignment();
+                for(int i = 0; i < 60; i++){
+                    reference.add("http://source/" + random.nextInt(80), "http://target/" + random.nextInt(80));
+                }
+                while(system.size() < 150){
+                    String source = "http://source/" + random.nextInt(80);
+                    String target = "http://target/" + random.nextInt(80);
+                    if(system.getCorrespondence(source, target, CorrespondenceRelation.EQUIVALENCE) == null)
+                        system.add(source, target, random.nextInt(1000) / 1000.0);
+                }
+                for(int decimalPrecision : new int[]{-1, 1, 2}){
+                    assertEquals(getBestConfidenceByCutting(reference, system, completeness, decimalPrecision, (p, r) -> fBeta(p, r, 1.0)),
+                            ConfidenceFinder.getBestConfidenceForFmeasure(reference, system, completeness, decimalPrecision));
+                }
+                assertEquals(getBestConfidenceByCutting(reference, system, completeness, 2, (p, r) -> fBeta(p, r, 0.5)),
+                        ConfidenceFinder.getBestConfidenceForFmeasureBeta(reference, system, completeness, 0.5));
+                assertEquals(getBestConfidenceByCutting(reference, system, completeness, 2, (p, r) -> p),
+                        ConfidenceFinder.getBestConfidenceForPrecision(reference, system, completeness));
+            }
+        }
+    }
+
+    /**
+     * The former implementation of the confidence finder: cut the true and false positives for each threshold.
+     * @param measure computes the value to optimize given precision and recall
+     */
+    private static double getBestConfidenceByCutting(Alignment reference, Alignment system, GoldStandardCompleteness completeness,
+                                                     int decimalPrecision, DoubleBinaryOperator measure){
+        ConfusionMatrix m = new ConfusionMatrixMetric(false).compute(reference, system, completeness);
+        List<Double> systemConfidences = new ArrayList<>(ConfidenceFinder.getOccurringConfidences(system, decimalPrecision));
+        Collections.sort(systemConfidences);
+        double bestConf = 1.0;
+        double bestValue = 0.0;
+        for(Double conf : systemConfidences){
+            int tpSize = m.getTruePositive().cutSize(conf);
+            int fpSize = m.getFalsePositive().cutSize(conf);
+            int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
+            double precision = tpSize + fpSize == 0 ? 0.0 : (double) tpSize / (tpSize + fpSize);
+            double recall = tpSize + fnSize == 0 ? 0.0 : (double) tpSize / (tpSize + fnSize);
+            double value = measure.applyAsDouble(precision, recall);
+            if(value >= bestValue){
+                bestConf = conf;
+                bestValue = value;
+            }
+        }
+        return bestConf;
+    }
+
+    private static double fBeta(double precision, double recall, double beta){
+        double denominator = (beta * beta * precision) + recall;
+        return denominator == 0 ? 0.0 : (1 + beta * beta) * (precision * recall) / denominator;
+    }
+
     /**
      * Helper function to load files in class path that contain spaces.
      * @param fileName Name of the file.
@@ -0,0 +1,113 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThresholdSweepTest {
+
+    @Test
+    void sameResultAsCutting() {
+        Random random = new Random(42);
+        for(GoldStandardCompleteness completeness : GoldStandardCompleteness.values()){
+            for(int run = 0; run < 5; run++){
+                Alignment reference = new Alignment();
+                Alignment system = new Alignment();
+                for(int i = 0; i < 60; i++){
+                    reference.add("http://source/" + random.nextInt(80), "http://target/" + random.nextInt(80));
+                }
+                while(system.size() < 150){
+                    String source = "http://source/" + random.nextInt(80);
+                    String target = "http://target/" + random.nextInt(80);
+                    //adding an existing correspondence with another confidence would leave a stale entry in the confidence index
+                    if(system.getCorrespondence(source, target, CorrespondenceRelation.EQUIVALENCE) == null)
+                        system.add(source, target, random.nextInt(1000) / 1000.0);
+                }
+                for(int decimalPrecision : new int[]{-1, 1, 2}){
+                    ThresholdSweep sweep = new ThresholdSweep(reference, system, completeness, decimalPrecision);
+                    assertEquals(ConfidenceFinder.getOccurringConfidences(system, decimalPrecision).size(), sweep.size());
+                    for(int i = 0; i < sweep.size(); i++){
+                        double threshold = sweep.getThreshold(i);
+                        if(i > 0)
+                            assertTrue(sweep.getThreshold(i - 1) < threshold);
+                        ConfusionMatrix cut = new ConfusionMatrixMetric(false).compute(reference, system.cut(threshold), completeness);
+                        assertEquals(cut.getTruePositiveSize(), sweep.getTruePositiveSize(i));
+                        assertEquals(cut.getFalsePositiveSize(), sweep.getFalsePositiveSize(i));
+                        assertEquals(cut.getFalseNegativeSize(), sweep.getFalseNegativeSize(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void bestIndexPrefersHighestThreshold() {
+        Alignment reference = new Alignment();
+        reference.add("A", "A");
+        reference.add("B", "B");
+
+        Alignment system = new Alignment();
+        system.add("A", "A", 0.9);
+        system.add("B", "B", 0.8);
+        system.add("C", "C", 0.5);
+        system.add("D", "D", 0.3);
+
+        ThresholdSweep sweep = new ThresholdSweep(reference, system, GoldStandardCompleteness.COMPLETE);
+        assertEquals(4, sweep.size());
+        assertEquals(0.3, sweep.getThreshold(0));
+        assertEquals(2, sweep.getFalsePositiveSize(0));
+        assertEquals(0.5, sweep.getPrecision(0));
+
+        int best = sweep.getBestIndexForF1measure();
+        assertEquals(0.8, sweep.getThreshold(best));
+        assertEquals(1.0, sweep.getF1measure(best));
+        //precision is 1.0 for 0.8 and 0.9 - the higher threshold wins
+        assertEquals(0.9, sweep.getThreshold(sweep.getBestIndexForPrecision()));
+
+        assertEquals(-1, new ThresholdSweep(reference, new Alignment(), GoldStandardCompleteness.COMPLETE).getBestIndexForF1measure());
+    }
+
+    @Test
+    void countReportsSamePositivesAsMaterializedMatrix() {
+        Random random = new Random(7);
+        Alignment reference = new Alignment();
+        for(int i = 0; i < 40; i++){
+            reference.add("http://source/" + random.nextInt(50), "http://target/" + random.nextInt(50));
+        }
+        reference.add("http://source/1", "http://target/2", 1.0, CorrespondenceRelation.UNKNOWN);
+        reference.add("http://source/3", "null", 1.0, CorrespondenceRelation.INCOMPAT);
+        reference.add("http://source/4", "http://target/5", 1.0, CorrespondenceRelation.INCOMPAT);
+        Alignment system = new Alignment();
+        for(int i = 0; i < 100; i++){
+            system.add("http://source/" + random.nextInt(50), "http://target/" + random.nextInt(50), random.nextDouble());
+        }
+        system.add("http://source/1", "http://target/2", 0.5);
+        system.add("http://source/3", "http://target/9", 0.5);
+        system.add("http://source/4", "http://target/5", 0.5);
+
+        for(GoldStandardCompleteness completeness : GoldStandardCompleteness.values()){
+            Alignment truePositives = new Alignment();
+            Alignment falsePositives = new Alignment();
+            ConfusionMatrix counted = new ConfusionMatrixMetric().count(reference, system, completeness, truePositives::add, falsePositives::add);
+            assertFalse(counted.isMaterialized());
+            ConfusionMatrix materialized = new ConfusionMatrixMetric(false).compute(reference, system, completeness);
+            assertEquals(materialized.getTruePositive(), truePositives);
+            assertEquals(materialized.getFalsePositive(), falsePositives);
+            assertEquals(materialized.getFalseNegativeSize(), counted.getFalseNegativeSize());
+
+            ThresholdSweep fromReference = new ThresholdSweep(reference, system, completeness);
+            ThresholdSweep fromMatrix = new ThresholdSweep(materialized, system, -1);
+            for(int i = 0; i < fromReference.size(); i++){
+                assertEquals(fromMatrix.getTruePositiveSize(i), fromReference.getTruePositiveSize(i));
+                assertEquals(fromMatrix.getFalsePositiveSize(i), fromReference.getFalsePositiveSize(i));
+                assertEquals(fromMatrix.getFalseNegativeSize(i), fromReference.getFalseNegativeSize(i));
+            }
+        }
+    }
+}
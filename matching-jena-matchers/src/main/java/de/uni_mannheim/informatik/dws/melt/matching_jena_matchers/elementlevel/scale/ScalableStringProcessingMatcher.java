@@ -8,6 +8,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,6 +17,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.ontology.OntModel;
@@ -23,6 +26,7 @@ import org.apache.jena.rdf.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 
 /**
  * Matcher which uses different String Matching approaches (stored in PropertySpecificStringProcessing) with a specific confidence.
@@ -52,6 +56,11 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     protected boolean earlyStopping = true;
     protected boolean crossIndexMatch = false;
     
+    /**
+     * The number of threads used for building and probing the index. A value of one (default) means sequential execution.
+     */
+    protected int numberOfThreads = 1;
+    
     /**
      * A list of fucntions which gets an ontModel and returns an iterator over elements which should be matched like classes, instances, proeprties etc.
      */
@@ -102,28 +111,16 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     
     
     public void matchResources(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        if(this.numberOfThreads > 1){
+            matchResourcesParallel(sourceResources, targetResources, alignment);
+            return;
+        }
         //processing -> tokens/ids -> (list of resources)
-        Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new HashMap<>();
+        Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index = createIndex(1);
         
-
         //source
         while (sourceResources.hasNext()) {
-            Resource source = sourceResources.next();
-            if(source.isURIResource() == false)
-                continue;
-            String sourceURI = source.getURI();            
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
-            for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k->new HashMap<>());
-                for(String sourceLabels : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(sourceLabels))
-                        continue;
-                    for(Object o : processing.getProcessing().apply(sourceLabels)){
-                        if(isObjectEmpty(o) == false)
-                            tokenIndex.computeIfAbsent(o, k-> new HashSet<>()).add(sourceURI);
-                    }
-                }
-            }
+            indexResource(sourceResources.next(), index);
         }
         
         Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = buildLevenshteinIndex(index);
@@ -132,67 +129,190 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
             Resource target = targetResources.next();
             if(target.isURIResource() == false)
                 continue;
-            String targetURI = target.getURI();
+            addToAlignment(alignment, target.getURI(), probeResource(target, index, levenshteinIndex));
+        }
+    }
+    
+    /**
+     * Parallel version of {@link #matchResources(java.util.Iterator, java.util.Iterator, de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment) }.
+     * The literals of all resources are extracted sequentially first because Jena models (especially with inference)
+     * are not safe for concurrent reads. Afterwards the source index is sharded by the hash of the tokens and filled by a
+     * fork-join pool, and the target literals are probed against the index in parallel. Only plain strings are accessed
+     * in parallel. The result is the same as in the sequential version (including early stopping and cross index match).
+     * @param sourceResources the source resources
+     * @param targetResources the target resources
+     * @param alignment the alignment to which the correspondences are added
+     */
+    protected void matchResourcesParallel(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        List<ExtractedValues> sources = extractAllValues(sourceResources);
+        List<ExtractedValues> targets = extractAllValues(targetResources);
+        
+        Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index = createIndex(this.numberOfThreads * 4);
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+        try{
+            LOGGER.debug("Build index of {} source resources with {} threads", sources.size(), this.numberOfThreads);
+            pool.submit(() -> sources.parallelStream().forEach(source -> indexValues(source.uri, source.values, index))).get();
+            
+            Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = buildLevenshteinIndex(index);
             
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
-            for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.get(processing);
-                if(tokenIndex == null)
+            LOGGER.debug("Probe index with {} target resources with {} threads", targets.size(), this.numberOfThreads);
+            pool.submit(() -> targets.parallelStream().forEach(target -> {
+                Map<String, Double> matches = probeValues(target.values, index, levenshteinIndex);
+                if(matches.isEmpty())
+                    return;
+                synchronized(alignment){
+                    addToAlignment(alignment, target.uri, matches);
+                }
+            })).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel string matching was interrupted.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Parallel string matching failed.", ex.getCause());
+        }finally{
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Extracts the literals of all URI resources (sequentially, in the calling thread).
+     */
+    private List<ExtractedValues> extractAllValues(Iterator<? extends Resource> resources){
+        List<ExtractedValues> list = new ArrayList<>();
+        while(resources.hasNext()){
+            Resource r = resources.next();
+            if(r.isURIResource())
+                list.add(new ExtractedValues(r.getURI(), extractAllValues(r)));
+        }
+        return list;
+    }
+    
+    /**
+     * The URI of a resource together with the literals of all used text extractors.
+     */
+    private static class ExtractedValues {
+        private final String uri;
+        private final Map<TextExtractor, Set<String>> values;
+
+        ExtractedValues(String uri, Map<TextExtractor, Set<String>> values) {
+            this.uri = uri;
+            this.values = values;
+        }
+    }
+    
+    private Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> createIndex(int numberOfShards){
+        //all indices are created upfront such that the map itself is never modified concurrently
+        Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index = new HashMap<>();
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            index.computeIfAbsent(processing, k -> new TokenIndex(numberOfShards));
+        }
+        return index;
+    }
+    
+    private void indexResource(Resource source, Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index){
+        if(source.isURIResource() == false)
+            return;
+        indexValues(source.getURI(), extractAllValues(source), index);
+    }
+    
+    private void indexValues(String sourceURI, Map<TextExtractor, Set<String>> valueMap, Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index){
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            TokenIndex tokenIndex = index.get(processing);
+            for(String sourceLabels : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(sourceLabels))
+                    continue;
+                for(Object o : processing.getProcessing().apply(sourceLabels)){
+                    if(isObjectEmpty(o) == false)
+                        tokenIndex.add(o, sourceURI);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Probes the index with the given target resource.
+     * @param target the target resource
+     * @param index the index of the source resources
+     * @param levenshteinIndex the levenshtein index
+     * @return a map of source URIs to the highest confidence which is found for the given target.
+     */
+    private Map<String, Double> probeResource(Resource target, Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index,
+            Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex){
+        return probeValues(extractAllValues(target), index, levenshteinIndex);
+    }
+    
+    /**
+     * Probes the index with the literals of one target resource. Does not access any Jena model.
+     * @param valueMap the literals of the target resource (per text extractor)
+     * @param index the index of the source resources
+     * @param levenshteinIndex the levenshtein index
+     * @return a map of source URIs to the highest confidence which is found for the given target.
+     */
+    private Map<String, Double> probeValues(Map<TextExtractor, Set<String>> valueMap, Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index,
+            Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex){
+        Map<String, Double> matches = new HashMap<>();
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            TokenIndex tokenIndex = index.get(processing);
+            if(tokenIndex == null)
+                continue;
+            boolean findMatch = false;
+            for(String targetLabel : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(targetLabel))
                     continue;
-                boolean findMatch = false;
-                for(String targetLabel : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(targetLabel))
+                for(Object o : processing.getProcessing().apply(targetLabel)){
+                    Set<Object> searchObjects = new HashSet<>();
+                    if(o == null)
                         continue;
-                    for(Object o : processing.getProcessing().apply(targetLabel)){
-                        Set<Object> searchObjects = new HashSet<>();
-                        if(o == null)
+                    if(o instanceof String){
+                        String oString = (String)o;
+                        if(StringUtils.isBlank(oString))
                             continue;
-                        if(o instanceof String){
-                            String oString = (String)o;
-                            if(StringUtils.isBlank(oString))
-                                continue;
-                            searchObjects.add(o);
-                            ITransducer transducer = levenshteinIndex.get(processing);
-                            if(transducer != null){
-                                for(Object s : transducer.transduce(oString)){
-                                    searchObjects.add(s);
-                                }
+                        searchObjects.add(o);
+                        ITransducer transducer = levenshteinIndex.get(processing);
+                        if(transducer != null){
+                            for(Object s : transducer.transduce(oString)){
+                                searchObjects.add(s);
                             }
-                        }else{
-                            searchObjects.add(o);
                         }
+                    }else{
+                        searchObjects.add(o);
+                    }
 
-                        if(crossIndexMatch){
-                            for(Entry<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> entry: index.entrySet()){
-                                tokenIndex = entry.getValue();
-                                //use min confidence of index processing and query processing
-                                double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
-                                for(Object object : searchObjects){
-                                    for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
-                                        findMatch = true;
-                                        Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, confidence);
-                                        c.addAdditionalConfidenceIfHigher(this.getClass(), confidence);
-                                    }
-                                }
-                            }
-                        }else{
+                    if(crossIndexMatch){
+                        for(Entry<PropertySpecificStringProcessingMultipleReturn, TokenIndex> entry: index.entrySet()){
+                            //use min confidence of index processing and query processing
+                            double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
                             for(Object object : searchObjects){
-                                for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
+                                for(String sourceURI : entry.getValue().get(object)){
                                     findMatch = true;
-                                    Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, processing.getConfidence());
-                                    c.addAdditionalConfidenceIfHigher(this.getClass(), processing.getConfidence());
+                                    matches.merge(sourceURI, confidence, Math::max);
                                 }
                             }
                         }
+                    }else{
+                        for(Object object : searchObjects){
+                            for(String sourceURI : tokenIndex.get(object)){
+                                findMatch = true;
+                                matches.merge(sourceURI, processing.getConfidence(), Math::max);
+                            }
+                        }
                     }
                 }
-                if(findMatch && earlyStopping)
-                    break;
             }
+            if(findMatch && earlyStopping)
+                break;
         }
+        return matches;
     }
     
-    private Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn,Map<Object, Set<String>>> index){
+    private void addToAlignment(Alignment alignment, String targetURI, Map<String, Double> matches){
+        for(Entry<String, Double> match : matches.entrySet()){
+            Correspondence c = alignment.addOrUseHighestConfidence(match.getKey(), targetURI, match.getValue());
+            c.addAdditionalConfidenceIfHigher(this.getClass(), match.getValue());
+        }
+    }
+    
+    private Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn, TokenIndex> index){
         //choose all processing with levenshtein
         Set<PropertySpecificStringProcessingMultipleReturn> levenshteinProcessings = new HashSet();
         for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
@@ -205,11 +325,14 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
         for(PropertySpecificStringProcessingMultipleReturn processsing : levenshteinProcessings){
             List<String> texts = new ArrayList<>();
             int minLength = processsing.getMinLengthForLevenshtein();
-            for(Object o : index.getOrDefault(processsing, new HashMap()).keySet()){
-                if(o instanceof String){
-                    String text = (String)o;
-                    if(text.length() > minLength){
-                        texts.add(text);
+            TokenIndex tokenIndex = index.get(processsing);
+            if(tokenIndex != null){
+                for(Object o : tokenIndex.keys()){
+                    if(o instanceof String){
+                        String text = (String)o;
+                        if(text.length() > minLength){
+                            texts.add(text);
+                        }
                     }
                 }
             }
@@ -237,7 +360,7 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     protected Map<TextExtractor,Set<String>> extractAllValues(Resource r){
         Map<TextExtractor, Set<String>> literals = new HashMap<>();
         for(TextExtractor p : this.usedValueExtractors){
-            literals.put(p, p.extract(r));
+            literals.put(p, TextExtractorCache.extractWithActiveCache(p, r));
         }
         return literals;
     }
@@ -292,6 +415,21 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     public void setCrossIndexMatch(boolean crossIndexMatch) {
         this.crossIndexMatch = crossIndexMatch;
     }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to build and probe the index.
+     * A value of one (default) runs the matcher sequentially. Values less than one are set to the number of available processors.
+     * @param numberOfThreads the number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            numberOfThreads = Runtime.getRuntime().availableProcessors();
+        this.numberOfThreads = numberOfThreads;
+    }
     
     /**
      * Adds a function which gets an ontModel and returns an iterator over elements which should be matched like classes, instances, properties etc.
@@ -300,4 +438,50 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     public void addMatchType(Function<OntModel, Iterator<? extends Resource>> f){
         this.matchableResourceIterators.add(f);
     }
+    
+    /**
+     * Index from token to source URIs which is sharded by the hash of the token.
+     * Each shard is guarded by its own lock such that multiple threads can add tokens to different shards concurrently.
+     */
+    private static class TokenIndex {
+        private final Map<Object, Set<String>>[] shards;
+
+        @SuppressWarnings("unchecked")
+        TokenIndex(int numberOfShards){
+            this.shards = new Map[Math.max(1, numberOfShards)];
+            for(int i = 0; i < this.shards.length; i++){
+                this.shards[i] = new HashMap<>();
+            }
+        }
+        
+        private Map<Object, Set<String>> getShard(Object token){
+            int hash = token.hashCode();
+            hash ^= (hash >>> 16);
+            return this.shards[Math.floorMod(hash, this.shards.length)];
+        }
+        
+        void add(Object token, String uri){
+            Map<Object, Set<String>> shard = getShard(token);
+            synchronized(shard){
+                shard.computeIfAbsent(token, k-> new HashSet<>()).add(uri);
+            }
+        }
+        
+        /**
+         * Returns the URIs for the token. Should only be called after the index is built completely.
+         * @param token the token
+         * @return the set of URIs (never null)
+         */
+        Set<String> get(Object token){
+            return getShard(token).getOrDefault(token, Collections.emptySet());
+        }
+        
+        Iterable<Object> keys(){
+            List<Object> keys = new ArrayList<>();
+            for(Map<Object, Set<String>> shard : this.shards){
+                keys.addAll(shard.keySet());
+            }
+            return keys;
+        }
+    }
 }
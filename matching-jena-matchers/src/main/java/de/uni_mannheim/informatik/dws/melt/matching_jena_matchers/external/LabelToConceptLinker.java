@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -27,6 +28,17 @@ public interface LabelToConceptLinker {
      */
     Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked);
 
+    /**
+     * Links the given labels in bulk so that subsequent calls of {@link #linkToSingleConcept(String)} for these labels
+     * are answered from the buffer. Linkers which are backed by a SPARQL endpoint resolve the labels with few batched
+     * queries rather than with multiple queries per label. The default implementation does nothing.
+     *
+     * @param labelsToBeLinked The labels which will be linked later on.
+     */
+    default void preResolve(Collection<String> labelsToBeLinked) {
+        // nothing to do by default
+    }
+
     /**
      * Get instance specific name of the linker.
      *
@@ -0,0 +1,24 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
+
+import java.util.Set;
+
+/**
+ * External resources which can provide blocking keys for linked concepts.
+ * Two linked concepts can only be strong form synonymous (see {@link SynonymCapability#isStrongFormSynonymous(String, String)})
+ * if their sets of blocking keys overlap.
+ * This allows matchers to build an inverted index (blocking key -&gt; concepts) and to compare only concepts which share
+ * at least one key instead of comparing all pairs of concepts.
+ */
+public interface SynonymBlockingKeyCapability {
+
+
+    /**
+     * Get the blocking keys of a linked concept.
+     * Sources should only return keys which can be computed without comparing two concepts (e.g. the synonyms).
+     *
+     * @param linkedConcept Linked concept.
+     * @return A set of keys (possibly empty if the concept cannot be synonymous to any concept) or null if no keys
+     * can be determined. In the latter case the concept has to be compared with all other concepts.
+     */
+    Set<String> getSynonymBlockingKeys(String linkedConcept);
+}
@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.babe
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
 import it.uniroma1.lcl.babelnet.BabelNet;
 import it.uniroma1.lcl.babelnet.BabelNetQuery;
@@ -24,7 +25,7 @@ import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.externa
 /**
  * A dictionary that will use BabelNet offline indices.
  */
-public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
+public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
 
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BabelNetKnowledgeSource.class);
@@ -117,7 +118,24 @@ public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
             }
         }
         synonymBuffer.put(key, result);
-        commit(BABELNET_SYNONYM_BUFFER);
+        return result;
+    }
+
+    /**
+     * The blocking keys are the concept itself and its synonyms
+     * (see {@link SemanticWordRelationDictionary#isStrongFormSynonymous(String, String)}).
+     * @param linkedConcept The linked concept.
+     * @return Set of blocking keys.
+     */
+    @Override
+    public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+        Set<String> result = new HashSet<>();
+        Set<String> synonyms = getSynonymsLexical(linkedConcept);
+        if(synonyms != null) {
+            result.addAll(synonyms);
+        }
+        result.remove("");
+        result.add(linkedConcept);
         return result;
     }
 
@@ -140,7 +158,6 @@ public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
             }
         }
         hypernymyBuffer.put(key, result);
-        commit(BABELNET_HYPERNYMY_BUFFER);
         return result;
     }
 
@@ -150,17 +167,6 @@ public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
         persistenceService.closeDatabase(BABELNET_HYPERNYMY_BUFFER);
     }
 
-    private void commit(PersistenceService.PreconfiguredPersistences persistence){
-        switch (persistence){
-            case BABELNET_SYNONYM_BUFFER:
-                persistenceService.commit(BABELNET_SYNONYM_BUFFER);
-                return;
-            case BABELNET_HYPERNYMY_BUFFER:
-                persistenceService.commit(BABELNET_HYPERNYMY_BUFFER);
-                return;
-        }
-    }
-
     /**
      * Normalizes string for this particular dictionary.
      *
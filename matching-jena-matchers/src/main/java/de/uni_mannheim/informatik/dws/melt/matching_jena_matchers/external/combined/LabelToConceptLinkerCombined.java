@@ -5,6 +5,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.servi
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 
+import java.util.Collection;
 import java.util.HashSet;
 
 public class LabelToConceptLinkerCombined implements LabelToConceptLinker {
@@ -31,6 +32,13 @@ public class LabelToConceptLinkerCombined implements LabelToConceptLinker {
         return null;
     }
 
+    @Override
+    public void preResolve(Collection<String> labelsToBeLinked) {
+        for(LabelToConceptLinker linker : linkers){
+            linker.preResolve(labelsToBeLinked);
+        }
+    }
+
     /**
      * Splits the labelToBeLinked in ngrams up to infinite size and tries to link components.
      * This corresponds to a MAXGRAM_LEFT_TO_RIGHT_TOKENIZER or NGRAM_LEFT_TO_RIGHT_TOKENIZER OneToManyLinkingStrategy.
@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.dbpe
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
 import org.apache.jena.query.*;
@@ -25,7 +26,7 @@ import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.externa
  * DBpedia knowledge source.
  * Works with the online endpoint and TDB 1.
  */
-public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
+public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
 
 
     /**
@@ -276,7 +277,6 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
         }
         result.remove("");
         synonymyBuffer.put(key, result);
-        commitAll();
         return result;
     }
 
@@ -317,6 +317,22 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * The blocking keys are the DBpedia URIs of the linked concept (see {@link #isStrongFormSynonymous(String, String)}).
+     * @param linkedConcept The linked concept.
+     * @return Set of blocking keys.
+     */
+    @Override
+    public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+        Set<String> result = new HashSet<>();
+        if(this.linker.isMultiConceptLink(linkedConcept)){
+            result.addAll(this.linker.getUris(linkedConcept));
+        } else {
+            result.add(linkedConcept);
+        }
+        return result;
+    }
+
     /**
      * Builds a String query to obtain synonyms. The synonyms are represented by normal words/labels (not URIs).
      * @param link The link for which synonymous words shall be obtained.
@@ -402,7 +418,6 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
 
         // we add to the buffer before excluding hypernyms
         hypernymyBuffer.put(key, result);
-        commitAll();
 
         result.removeAll(getExcludedHypernyms());
         return result;
@@ -214,21 +214,11 @@ public class DBpediaLinker implements LabelToConceptLinker, MultiConceptLinker {
         uris.addAll(disambiguations);
 
         multiLinkStore.put(key, uris);
-        commit();
         if (uris.size() > 0) {
             return key;
         } else return null;
     }
 
-    /**
-     * Commit data changes if active.
-     */
-    private void commit() {
-        if (isDiskBufferEnabled) {
-            persistenceService.commit(DBPEDIA_LABEL_LINK_BUFFER);
-        }
-    }
-
     /**
      * @param uri The URI for which a disambiguation shall be obtained.
      * @return A set of URIs. The set may be empty.
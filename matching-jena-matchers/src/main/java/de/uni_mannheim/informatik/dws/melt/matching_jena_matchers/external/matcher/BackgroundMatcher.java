@@ -4,6 +4,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.ExternalResourceWithSynonymCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymConfidenceCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModel;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.io.IOoperations;
@@ -15,10 +16,20 @@ import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntResource;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matcher.BackgroundMatcherTools.getURIlabelMap;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
@@ -31,6 +42,11 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
  * <br>
  * This matcher relies on a similarity metric that is implemented within the background source and used in
  * {@link BackgroundMatcher#compare(String, String)}.
+ * <br>
+ * If the strategy is {@link ImplementedBackgroundMatchingStrategies#SYNONYMY} and the background source implements
+ * {@link SynonymBlockingKeyCapability}, an inverted index over the blocking keys is used so that only resources
+ * which share at least one key are compared (see {@link #setUseBlocking(boolean)}). The result is the same as
+ * comparing all pairs.
  */
 public class BackgroundMatcher extends MatcherYAAAJena {
 
@@ -100,6 +116,22 @@ public class BackgroundMatcher extends MatcherYAAAJena {
      */
     private final boolean isSynonymyConfidenceAvailable;
 
+    /**
+     * If true, only resources which share a blocking key are compared (if applicable, see class comment).
+     * Default: true.
+     */
+    private boolean isUseBlocking = true;
+
+    /**
+     * The number of threads used to compare the resources. Default: 1 (sequential).
+     */
+    private int numberOfThreads = 1;
+
+    /**
+     * Blocking key of empty link or token sets (two empty sets are synonymous).
+     */
+    private static final String EMPTY_SET_KEY = "e:";
+
     /**
      * Main Constructor
      *
@@ -174,7 +206,9 @@ public class BackgroundMatcher extends MatcherYAAAJena {
     private String getConfigurationListing() {
         String result = "- threshold: " + threshold + "\n" +
                 "- matcherStrategy: " + this.strategy.toString() + "\n" +
-                "- backgroundDataset: " + this.knowledgeSource.getName() + "\n";
+                "- backgroundDataset: " + this.knowledgeSource.getName() + "\n" +
+                "- blocking: " + isBlockingApplicable() + "\n" +
+                "- numberOfThreads: " + this.numberOfThreads + "\n";
         if (this.knowledgeSource instanceof GensimEmbeddingModel) {
             result += "- strategyThreshold: " + ((GensimEmbeddingModel) this.knowledgeSource).getThreshold() + "\n";
         }
@@ -199,6 +233,9 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, Set<String>> uri2labelMap_1 = getURIlabelMap(sourceOntologyIterator_1, valueExtractor);
         Map<String, Set<String>> uri2labelMap_2 = getURIlabelMap(targetOntologyIterator_2, valueExtractor);
 
+        // step 1: link all labels in bulk (the individual linking calls below are then answered from the buffer)
+        preResolveLabels(uri2labelMap_1, uri2labelMap_2);
+
         LOGGER.info("Beginning full string synonymy matching.");
         performFullStringSynonymyMatching(uri2labelMap_1, uri2labelMap_2);
         LOGGER.info("Full string synonymy matching performed.");
@@ -215,6 +252,27 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         LOGGER.info("Token based synonymy matching performed.");
     }
 
+    /**
+     * Passes all labels of both ontologies to the linker so that it can resolve them in bulk before they are linked
+     * individually.
+     *
+     * @param uri2labelMap_1 URI2labels map of the source ontology.
+     * @param uri2labelMap_2 URI2labels map of the target ontology.
+     */
+    private void preResolveLabels(Map<String, Set<String>> uri2labelMap_1, Map<String, Set<String>> uri2labelMap_2) {
+        if (linker == null) return;
+        Set<String> labels = new HashSet<>();
+        for (Set<String> labelSet : uri2labelMap_1.values()) labels.addAll(labelSet);
+        for (Set<String> labelSet : uri2labelMap_2.values()) labels.addAll(labelSet);
+        labels.remove(null);
+        LOGGER.info("Pre-resolving " + labels.size() + " labels.");
+        try {
+            linker.preResolve(labels);
+        } catch (Exception e) {
+            LOGGER.warn("Could not pre-resolve the labels. They will be linked individually.", e);
+        }
+    }
+
     /**
      * Filter out token synonymy utilizing a synonymy strategy.
      * Note that the method accepts a HashMap of Uri -&gt; set(LINKS) rather than Uri -&gt; set(labels).
@@ -229,24 +287,22 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, Set<String>> uris2linksTarget_2 = convertToUriLinkMap(uri2labelMap_2, false);
         LOGGER.info("BuildingMap finished: Uri -> Link Map");
 
-        for (Map.Entry<String, Set<String>> uri2linksSource_1 : uris2linksSource_1.entrySet()) {
-            for (Map.Entry<String, Set<String>> uri2linksTarget_2 : uris2linksTarget_2.entrySet()) {
-                Pair<Boolean, Double> isMatchConfidencePair =
-                        fullMatchUsingDictionaryWithLinks(uri2linksSource_1.getValue(), uri2linksTarget_2.getValue());
-                if (isMatchConfidencePair.getValue0()) {
-                    Map<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
-                    double confidence = isMatchConfidencePair.getValue1();
-                    alignment.add(uri2linksSource_1.getKey(), uri2linksTarget_2.getKey(), confidence,
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2linksSource_1.getKey() + " " + uri2linksTarget_2.getKey() + " (full word synonymy match)");
-                        LOGGER.info(uri2linksSource_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2linksSource_1.getKey())) + ")");
-                        LOGGER.info(uri2linksTarget_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2linksTarget_2.getKey())) + ")");
-                    }
-                }
-            } // end of target ontology loop
-        } // end of source ontology loop
+        Map<String, Set<String>> blockingKeyBuffer = new HashMap<>();
+        List<Triplet<String, String, Double>> matches = findMatches(uris2linksSource_1, uris2linksTarget_2,
+                links -> getBlockingKeysOfLinks(links, blockingKeyBuffer), this::fullMatchUsingDictionaryWithLinks);
+
+        for (Triplet<String, String, Double> match : matches) {
+            String uri1 = match.getValue0();
+            String uri2 = match.getValue1();
+            Map<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
+            alignment.add(uri1, uri2, match.getValue2(), CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(uri1 + " " + uri2 + " (full word synonymy match)");
+                LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
+                LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
+            }
+        }
     }
 
     /**
@@ -291,22 +347,21 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2tokensMap_2 = convertToUriTokenMap(uri2labelMap_2, false);
         LOGGER.info("Conversion completed to URI -> Tokens map.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_1 : uri2tokensMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_2 : uri2tokensMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isTokenSetSynonymous(uri2tokenLists_1.getValue(), uri2tokenLists_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    String uri1 = uri2tokenLists_1.getKey();
-                    String uri2 = uri2tokenLists_2.getKey();
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
-                    alignment.add(uri1, uri2, isSynonymousConfidencePair.getValue1(), CorrespondenceRelation.EQUIVALENCE,
-                            extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
-                        LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
-                        LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
-                    }
-                }
+        Map<String, Set<String>> blockingKeyBuffer = new HashMap<>();
+        List<Triplet<String, String, Double>> matches = findMatches(uri2tokensMap_1, uri2tokensMap_2,
+                tokenList -> getBlockingKeysOfTokenList(tokenList, blockingKeyBuffer), this::isTokenSetSynonymous);
+
+        for (Triplet<String, String, Double> match : matches) {
+            String uri1 = match.getValue0();
+            String uri2 = match.getValue1();
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
+            alignment.add(uri1, uri2, match.getValue2(), CorrespondenceRelation.EQUIVALENCE,
+                    extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
+                LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
+                LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
             }
         }
     }
@@ -396,21 +451,20 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2linksMap_2 = convertToUriLinksMap(uri2labelMap_2, false);
         LOGGER.info("URI 2 n-links map built.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2links_1 : uri2linksMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2links_2 : uri2linksMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isLinkListSynonymous(uri2links_1.getValue(),
-                        uri2links_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "longsestStringMatch");
-                    alignment.add(uri2links_1.getKey(), uri2links_2.getKey(), isSynonymousConfidencePair.getValue1(),
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2links_1.getKey() + " " + uri2links_2.getKey() + " (longest string synonymy match)");
-                        LOGGER.info(uri2links_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2links_1.getKey())) + ")");
-                        LOGGER.info(uri2links_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2links_2.getKey())) + ")");
-                    }
-                }
+        Map<String, Set<String>> blockingKeyBuffer = new HashMap<>();
+        List<Triplet<String, String, Double>> matches = findMatches(uri2linksMap_1, uri2linksMap_2,
+                linkList -> getBlockingKeysOfLinkList(linkList, blockingKeyBuffer), this::isLinkListSynonymous);
+
+        for (Triplet<String, String, Double> match : matches) {
+            String uri1 = match.getValue0();
+            String uri2 = match.getValue1();
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "longsestStringMatch");
+            alignment.add(uri1, uri2, match.getValue2(), CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(uri1 + " " + uri2 + " (longest string synonymy match)");
+                LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
+                LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
             }
         }
     }
@@ -648,6 +702,236 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         return result;
     }
 
+    /**
+     * Determines all pairs of source and target resources which match according to the given match function.
+     * If blocking is applicable (see {@link #isBlockingApplicable()}), only pairs which share at least one blocking key
+     * are compared. Resources without blocking keys (null) are compared with all resources of the other ontology.
+     * The matches are returned in the same order as iterating over all sources and for each source over all targets.
+     *
+     * @param sourceMap           Source URI -&gt; value map.
+     * @param targetMap           Target URI -&gt; value map.
+     * @param blockingKeyFunction Function which returns the blocking keys of a value or null if they cannot be determined.
+     *                            The function is only called from the calling thread.
+     * @param matchFunction       Function which determines whether two values match and the confidence.
+     * @param <T>                 Type of the values.
+     * @return List of matches (source URI, target URI, confidence).
+     */
+    private <T> List<Triplet<String, String, Double>> findMatches(Map<String, T> sourceMap, Map<String, T> targetMap,
+                                                                  Function<T, Set<String>> blockingKeyFunction,
+                                                                  BiFunction<T, T, Pair<Boolean, Double>> matchFunction) {
+        List<Map.Entry<String, T>> sources = new ArrayList<>(sourceMap.entrySet());
+        List<Map.Entry<String, T>> targets = new ArrayList<>(targetMap.entrySet());
+        boolean isBlocking = isBlockingApplicable();
+
+        // inverted index: blocking key -> target positions (ascending)
+        Map<String, List<Integer>> keyToTargets = new HashMap<>();
+        BitSet targetsWithoutKeys = new BitSet(targets.size());
+        List<Set<String>> sourceKeys = new ArrayList<>(sources.size());
+        if (isBlocking) {
+            for (int i = 0; i < targets.size(); i++) {
+                Set<String> keys = blockingKeyFunction.apply(targets.get(i).getValue());
+                if (keys == null) {
+                    targetsWithoutKeys.set(i);
+                } else {
+                    for (String key : keys) {
+                        keyToTargets.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+            for (Map.Entry<String, T> source : sources) {
+                sourceKeys.add(blockingKeyFunction.apply(source.getValue()));
+            }
+            LOGGER.info("Blocking index built: {} keys ({} of {} targets without keys).", keyToTargets.size(),
+                    targetsWithoutKeys.cardinality(), targets.size());
+        }
+
+        AtomicLong comparisons = new AtomicLong();
+        List<Supplier<List<Triplet<String, String, Double>>>> tasks = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            Map.Entry<String, T> source = sources.get(i);
+            Set<String> keys = isBlocking ? sourceKeys.get(i) : null;
+            tasks.add(() -> {
+                BitSet candidates;
+                if (isBlocking && keys != null) {
+                    candidates = (BitSet) targetsWithoutKeys.clone();
+                    for (String key : keys) {
+                        for (int position : keyToTargets.getOrDefault(key, Collections.emptyList())) {
+                            candidates.set(position);
+                        }
+                    }
+                } else {
+                    candidates = new BitSet(targets.size());
+                    candidates.set(0, targets.size());
+                }
+                List<Triplet<String, String, Double>> result = new ArrayList<>();
+                for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+                    Map.Entry<String, T> target = targets.get(j);
+                    Pair<Boolean, Double> isMatchConfidencePair = matchFunction.apply(source.getValue(), target.getValue());
+                    if (isMatchConfidencePair.getValue0()) {
+                        result.add(new Triplet<>(source.getKey(), target.getKey(), isMatchConfidencePair.getValue1()));
+                    }
+                }
+                comparisons.addAndGet(candidates.cardinality());
+                return result;
+            });
+        }
+
+        List<Triplet<String, String, Double>> matches = new ArrayList<>();
+        for (List<Triplet<String, String, Double>> matchesOfSource : runTasks(tasks)) {
+            matches.addAll(matchesOfSource);
+        }
+        LOGGER.info("Compared {} of {} pairs.", comparisons.get(), (long) sources.size() * targets.size());
+        return matches;
+    }
+
+    /**
+     * Runs the tasks with the configured number of threads.
+     *
+     * @param tasks Tasks to be executed.
+     * @param <V>   Type of the task results.
+     * @return The results in the same order as the tasks.
+     */
+    private <V> List<V> runTasks(List<Supplier<V>> tasks) {
+        List<V> results = new ArrayList<>(tasks.size());
+        if (this.numberOfThreads <= 1 || tasks.size() <= 1) {
+            for (Supplier<V> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        }
+        ExecutorService exec = Executors.newFixedThreadPool(this.numberOfThreads);
+        try {
+            List<Future<V>> futures = new ArrayList<>(tasks.size());
+            for (Supplier<V> task : tasks) {
+                Callable<V> callable = task::get;
+                futures.add(exec.submit(callable));
+            }
+            for (Future<V> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the parallel comparison of resources.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Error during the parallel comparison of resources.", ex.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Blocking is applied if it is enabled, the strategy is {@link ImplementedBackgroundMatchingStrategies#SYNONYMY},
+     * and the knowledge source provides blocking keys.
+     *
+     * @return True if blocking is applied.
+     */
+    private boolean isBlockingApplicable() {
+        return isUseBlocking && strategy == ImplementedBackgroundMatchingStrategies.SYNONYMY &&
+                knowledgeSource instanceof SynonymBlockingKeyCapability;
+    }
+
+    /**
+     * Get the blocking keys of a single link from the knowledge source.
+     *
+     * @param link   Linked concept.
+     * @param buffer Buffer link -&gt; keys.
+     * @return Set of keys or null if the keys are unknown.
+     */
+    private Set<String> getBlockingKeysOfLink(String link, Map<String, Set<String>> buffer) {
+        if (buffer.containsKey(link)) {
+            return buffer.get(link);
+        }
+        Set<String> keys = ((SynonymBlockingKeyCapability) knowledgeSource).getSynonymBlockingKeys(link);
+        Set<String> result = null;
+        if (keys != null) {
+            result = new HashSet<>();
+            for (String key : keys) {
+                result.add("k:" + key);
+            }
+        }
+        buffer.put(link, result);
+        return result;
+    }
+
+    /**
+     * Blocking keys for {@link #fullMatchUsingDictionaryWithLinks(Set, Set)}.
+     *
+     * @param links  Set of links.
+     * @param buffer Buffer link -&gt; keys.
+     * @return Set of keys or null if the keys are unknown.
+     */
+    private Set<String> getBlockingKeysOfLinks(Set<String> links, Map<String, Set<String>> buffer) {
+        Set<String> result = new HashSet<>();
+        for (String link : links) {
+            if (link.length() < 100) {
+                Set<String> keys = getBlockingKeysOfLink(link, buffer);
+                if (keys == null) {
+                    return null;
+                }
+                result.addAll(keys);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Blocking keys for {@link #isLinkListSynonymous(List, List)}: in addition to the keys of the links, the links
+     * themselves are keys because equal sets are synonymous.
+     *
+     * @param linkList List of link sets.
+     * @param buffer   Buffer link -&gt; keys.
+     * @return Set of keys or null if the keys are unknown.
+     */
+    private Set<String> getBlockingKeysOfLinkList(List<Set<String>> linkList, Map<String, Set<String>> buffer) {
+        Set<String> result = new HashSet<>();
+        for (Set<String> links : linkList) {
+            if (links.isEmpty()) {
+                result.add(EMPTY_SET_KEY);
+            }
+            for (String link : links) {
+                result.add("c:" + link);
+                Set<String> keys = getBlockingKeysOfLink(link, buffer);
+                if (keys == null) {
+                    return null;
+                }
+                result.addAll(keys);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Blocking keys for {@link #isTokenSetSynonymous(List, List)}: the tokens themselves and the keys of the linked tokens.
+     *
+     * @param tokenList List of token sets.
+     * @param buffer    Buffer link -&gt; keys.
+     * @return Set of keys or null if the keys are unknown.
+     */
+    private Set<String> getBlockingKeysOfTokenList(List<Set<String>> tokenList, Map<String, Set<String>> buffer) {
+        Set<String> result = new HashSet<>();
+        for (Set<String> tokens : tokenList) {
+            if (tokens.isEmpty()) {
+                result.add(EMPTY_SET_KEY);
+            }
+            for (String token : tokens) {
+                result.add("t:" + token);
+                String link = linker.linkToSingleConcept(token);
+                if (link != null) {
+                    Set<String> keys = getBlockingKeysOfLink(link, buffer);
+                    if (keys == null) {
+                        return null;
+                    }
+                    result.addAll(keys);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Checks whether there exists a mapping cell where the URI is used as source.
      *
@@ -759,4 +1043,50 @@ public class BackgroundMatcher extends MatcherYAAAJena {
     public boolean isSynonymyConfidenceAvailable() {
         return isSynonymyConfidenceAvailable;
     }
+
+    public boolean isUseBlocking() {
+        return isUseBlocking;
+    }
+
+    /**
+     * If true, only resources which share at least one blocking key are compared. This is only applied if the strategy
+     * is {@link ImplementedBackgroundMatchingStrategies#SYNONYMY} and the knowledge source implements
+     * {@link SynonymBlockingKeyCapability}. The result is the same as comparing all pairs.
+     *
+     * @param useBlocking True if blocking shall be used.
+     */
+    public void setUseBlocking(boolean useBlocking) {
+        isUseBlocking = useBlocking;
+    }
+
+    /**
+     * Returns the number of threads which are used to compare the resources.
+     * A number equal to one means sequential processing and greater than one means parallel processing.
+     *
+     * @return The number of threads used.
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compare the resources.
+     * A number equal to one means sequential processing and greater than one means parallel processing with the specified
+     * number of threads. In the latter case, the knowledge source and its linker have to be thread safe.
+     *
+     * @param numberOfThreads The number of threads to use. Values greater or equal to one are allowed.
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1)
+            throw new IllegalArgumentException("Number of threads are smaller than one: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compare the resources to the number of available CPU cores.
+     * The knowledge source and its linker have to be thread safe.
+     */
+    public void setNumberOfThreadsToCpuCores() {
+        setNumberOfThreads(Runtime.getRuntime().availableProcessors());
+    }
 }
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 
 /**
  * A tools class containing static functionality for string-based matching.
@@ -26,7 +27,7 @@ public class BackgroundMatcherTools {
         Map<String, Set<String>> result = new HashMap<>();
         while (iterator.hasNext()) {
             OntResource r1 = iterator.next();
-            Set<String> labels = valueExtractor.extract(r1);
+            Set<String> labels = TextExtractorCache.extractWithActiveCache(valueExtractor, r1);
             if (labels != null && labels.size() > 0) {
                 result.put(r1.getURI(), labels);
             }
@@ -0,0 +1,427 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import org.mapdb.DB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A two-tier map in front of a MapDB map which is used by the {@link PersistenceService}.
+ * <ul>
+ *     <li>Reads are served from a bounded in-memory LRU cache if possible. Otherwise the MapDB map is queried.</li>
+ *     <li>Writes are buffered in memory (write-behind) and written to the MapDB map in batches.
+ *     A batch is committed asynchronously as soon as the number of buffered entries reaches the batch size or after the flush interval.</li>
+ * </ul>
+ * Call {@link #flush()} to durably write all buffered entries (this is done by the {@link PersistenceService} when a database is closed
+ * and when the JVM shuts down).
+ * After {@link #shutdown()} the map is closed and all operations throw an {@link IllegalStateException}
+ * (request a new map from the {@link PersistenceService} instead).
+ * Values should not be modified after they are put into the map.
+ * This class is thread safe.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class BufferedPersistentMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferedPersistentMap.class);
+
+    private final String name;
+    private final DB db;
+    private final ConcurrentMap<K, V> store;
+
+    /**
+     * Entries which are not yet written to the store (without the entries of a running flush).
+     */
+    private final ConcurrentHashMap<K, V> pending;
+
+    /**
+     * Entries which are currently written to the store by a flush. They stay visible for lookups until the commit is done.
+     */
+    private volatile Map<K, V> inFlight;
+
+    /**
+     * Recently used entries (LRU). Access only when synchronized on this map.
+     */
+    private final LinkedHashMap<K, V> recentlyUsed;
+    private final int inMemoryCacheSize;
+
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    private final ScheduledFuture<?> periodicFlush;
+    private final AtomicBoolean flushScheduled;
+    private final Object flushLock;
+    private volatile boolean closed;
+
+    private final AtomicLong memoryHits;
+    private final AtomicLong storeHits;
+    private final AtomicLong misses;
+    private final AtomicLong commits;
+    private final AtomicLong writtenEntries;
+
+    /**
+     * Constructor
+     *
+     * @param name              Name of the map which is used for logging.
+     * @param db                The MapDB database which is committed.
+     * @param store             The map of the database.
+     * @param inMemoryCacheSize Maximum number of entries in the in-memory LRU cache (zero to disable it).
+     * @param batchSize         Number of buffered entries which trigger an asynchronous commit.
+     * @param flushIntervalMs   Interval in milliseconds in which buffered entries are committed (zero or less to disable it).
+     * @param executor          The executor which runs the asynchronous commits.
+     */
+    public BufferedPersistentMap(String name, DB db, ConcurrentMap<K, V> store, int inMemoryCacheSize, int batchSize,
+                                 long flushIntervalMs, ScheduledExecutorService executor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size is smaller than one: " + batchSize);
+        }
+        this.name = name;
+        this.db = db;
+        this.store = store;
+        this.pending = new ConcurrentHashMap<>();
+        this.inFlight = Collections.emptyMap();
+        //access order = true -> LRU
+        this.recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+        this.inMemoryCacheSize = inMemoryCacheSize;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.flushScheduled = new AtomicBoolean(false);
+        this.flushLock = new Object();
+        this.memoryHits = new AtomicLong();
+        this.storeHits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.commits = new AtomicLong();
+        this.writtenEntries = new AtomicLong();
+        if (flushIntervalMs > 0) {
+            this.periodicFlush = executor.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.periodicFlush = null;
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return lookup(key, true);
+    }
+
+    /**
+     * Looks up the value in the in-memory tier and afterwards in the MapDB map.
+     *
+     * @param key         The key.
+     * @param countAccess True if the access should be counted in the statistics.
+     * @return The value or null if there is no value for the key.
+     */
+    private V lookup(Object key, boolean countAccess) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        V value = pending.get(key);
+        if (value == null) {
+            value = inFlight.get(key);
+        }
+        if (value == null) {
+            value = getRecentlyUsed(key);
+        }
+        if (value != null) {
+            if (countAccess) {
+                memoryHits.incrementAndGet();
+            }
+            return value;
+        }
+        value = store.get(key);
+        if (value == null) {
+            if (countAccess) {
+                misses.incrementAndGet();
+            }
+            return null;
+        }
+        if (countAccess) {
+            storeHits.incrementAndGet();
+        }
+        @SuppressWarnings("unchecked")
+        K castedKey = (K) key;
+        putRecentlyUsed(castedKey, value);
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V old = lookup(key, false);
+        putRecentlyUsed(key, value);
+        pending.put(key, value);
+        if (closed && pending.remove(key, value)) {
+            // closed concurrently and the final flush did not write the entry
+            throw new IllegalStateException("The persistence " + name + " is closed. The entry is not written.");
+        }
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                flushSafely();
+            });
+        }
+        return old;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        synchronized (flushLock) {
+            V old = lookup(key, false);
+            if (old == null) {
+                put(key, value);
+            }
+            return old;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        synchronized (flushLock) {
+            V old = lookup(key, false);
+            pending.remove(key);
+            // there is no running flush (flushLock), thus inFlight is empty
+            synchronized (this) {
+                recentlyUsed.remove(key);
+            }
+            store.remove(key);
+            return old;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        synchronized (flushLock) {
+            V old = lookup(key, false);
+            if (old == null || !old.equals(value)) {
+                return false;
+            }
+            remove(key);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        synchronized (flushLock) {
+            V old = lookup(key, false);
+            if (old == null || !old.equals(oldValue)) {
+                return false;
+            }
+            put(key, newValue);
+            return true;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        synchronized (flushLock) {
+            V old = lookup(key, false);
+            if (old != null) {
+                put(key, value);
+            }
+            return old;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (flushLock) {
+            ensureOpen();
+            pending.clear();
+            synchronized (this) {
+                recentlyUsed.clear();
+            }
+            store.clear();
+            db.commit();
+        }
+    }
+
+    /**
+     * Returns the entries of the underlying MapDB map after all buffered entries are written to it.
+     *
+     * @return The entries of the persistence.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        ensureOpen();
+        flush();
+        return store.entrySet();
+    }
+
+    @Override
+    public int size() {
+        ensureOpen();
+        flush();
+        return store.size();
+    }
+
+    private synchronized V getRecentlyUsed(Object key) {
+        return recentlyUsed.get(key);
+    }
+
+    private synchronized void putRecentlyUsed(K key, V value) {
+        if (inMemoryCacheSize <= 0) {
+            return;
+        }
+        recentlyUsed.put(key, value);
+        while (recentlyUsed.size() > inMemoryCacheSize) {
+            recentlyUsed.remove(recentlyUsed.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Writes all buffered entries to the MapDB map and commits the database.
+     * The entries of the batch are moved from the pending entries to the in-flight entries, thus puts during the flush
+     * are counted as new pending entries and written by the next flush (also if they overwrite an entry of the batch).
+     * This method blocks until the commit is done.
+     * @throws IllegalStateException if there are buffered entries but the database is already closed
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (db.isClosed()) {
+                throw new IllegalStateException("The database of persistence " + name + " is closed. " + pending.size() +
+                        " buffered entries are not written.");
+            }
+            Map<K, V> batch = new HashMap<>(pending);
+            inFlight = batch;
+            for (Entry<K, V> entry : batch.entrySet()) {
+                //only remove the entry if it was not overwritten in the meantime - otherwise it stays pending
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+            try {
+                store.putAll(batch);
+                db.commit();
+            } catch (RuntimeException e) {
+                //re-queue the batch such that it is written by the next flush (unless the entry was overwritten)
+                for (Entry<K, V> entry : batch.entrySet()) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                throw e;
+            } finally {
+                inFlight = Collections.emptyMap();
+            }
+            commits.incrementAndGet();
+            writtenEntries.addAndGet(batch.size());
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOGGER.error("Could not commit the buffered entries of persistence " + name + ".", e);
+        }
+    }
+
+    /**
+     * Flushes all buffered entries, stops the periodic commits and closes this map. The database itself is not closed.
+     */
+    public void shutdown() {
+        if (periodicFlush != null) {
+            periodicFlush.cancel(false);
+        }
+        // close first such that concurrent puts either fail or are written by the final flush
+        closed = true;
+        flush();
+    }
+
+    /**
+     * Returns true if this map is closed (see {@link #shutdown()}).
+     *
+     * @return True if closed, else false.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void ensureOpen() {
+        if (closed || db.isClosed()) {
+            throw new IllegalStateException("The persistence " + name + " is closed.");
+        }
+    }
+
+    /**
+     * Returns the number of entries which are not yet written to the persistence (including the entries of a running flush).
+     *
+     * @return Number of buffered entries.
+     */
+    public int getNumberOfPendingEntries() {
+        return pending.size() + inFlight.size();
+    }
+
+    /**
+     * Returns the number of lookups which were answered by the in-memory tier.
+     *
+     * @return Number of in-memory hits.
+     */
+    public long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    /**
+     * Returns the number of lookups which were answered by the MapDB map.
+     *
+     * @return Number of hits in the persistence.
+     */
+    public long getStoreHitCount() {
+        return storeHits.get();
+    }
+
+    /**
+     * Returns the number of lookups for keys which are neither in memory nor in the persistence.
+     *
+     * @return Number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    public long getWrittenEntriesCount() {
+        return writtenEntries.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a short summary of the statistics of this map.
+     *
+     * @return The statistics as string.
+     */
+    public String getStatistics() {
+        return name + ": " + memoryHits.get() + " in-memory hits, " + storeHits.get() + " persistence hits, " + misses.get() +
+                " misses, " + commits.get() + " commits (" + writtenEntries.get() + " entries written), " +
+                pending.size() + " entries pending";
+    }
+}
@@ -12,10 +12,15 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 
 /**
  * A simple persistence service offering stripped-down database operations to other applications.
+ * Each persistence is a {@link BufferedPersistentMap}: Reads are served from an in-memory LRU cache and writes are committed
+ * asynchronously in batches (write-behind) so that the applications are not bound by disk syncs.
+ * All buffered entries are durably written when a database is closed, when the service is closed, and when the JVM shuts down.
  */
 public class PersistenceService {
 
@@ -25,6 +30,21 @@ public class PersistenceService {
      */
     public final static String DEFAULT_PERSISTENCE_DIRECTORY = "." + File.separator + "persistences";
 
+    /**
+     * Default maximum number of entries in the in-memory cache of each persistence.
+     */
+    public final static int DEFAULT_IN_MEMORY_CACHE_SIZE = 10_000;
+
+    /**
+     * Default number of buffered entries which trigger an asynchronous commit.
+     */
+    public final static int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 1_000;
+
+    /**
+     * Default interval in milliseconds in which buffered entries are committed.
+     */
+    public final static long DEFAULT_WRITE_BEHIND_INTERVAL_MS = 5_000;
+
     public static String persistenceDirectory;
 
     /**
@@ -37,16 +57,39 @@ public class PersistenceService {
      */
     private static PersistenceService service;
 
+    /**
+     * True if the shutdown hook which flushes all buffered entries of the current service is registered.
+     */
+    private static boolean shutdownHookRegistered = false;
+
     /**
      * Map of all active databases (required for collective close and for commits).
      */
     private Map<PreconfiguredPersistences, DB> activeDatabases;
 
+    /**
+     * Map of all active persistences (one map per database which is returned on each request).
+     */
+    private Map<PreconfiguredPersistences, BufferedPersistentMap> activeMaps;
+
+    /**
+     * Executor for the asynchronous commits (created lazily).
+     */
+    private ScheduledExecutorService commitExecutor;
+
+    private int inMemoryCacheSize = DEFAULT_IN_MEMORY_CACHE_SIZE;
+
+    private int writeBehindBatchSize = DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+
+    private long writeBehindIntervalMs = DEFAULT_WRITE_BEHIND_INTERVAL_MS;
+
     /**
      * Private constructor, singleton pattern.
      */
     private PersistenceService(String persistenceDirectory) {
         activeDatabases = new HashMap<>();
+        activeMaps = new HashMap<>();
+        registerShutdownHook();
         if (persistenceDirectory != null) {
             PersistenceService.persistenceDirectory = persistenceDirectory;
         } else PersistenceService.persistenceDirectory = DEFAULT_PERSISTENCE_DIRECTORY;
@@ -96,17 +139,36 @@ public class PersistenceService {
         return getService(DEFAULT_PERSISTENCE_DIRECTORY);
     }
 
+    /**
+     * Registers (once) a shutdown hook which durably writes all buffered entries of the current service.
+     */
+    private static synchronized void registerShutdownHook() {
+        if (shutdownHookRegistered) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            PersistenceService currentService = service;
+            if (currentService != null) {
+                try {
+                    currentService.closePersistenceService();
+                } catch (Exception e) {
+                    LOGGER.error("Could not close the persistence service on shutdown.", e);
+                }
+            }
+        }, "PersistenceService-shutdown"));
+        shutdownHookRegistered = true;
+    }
+
     /**
      * Obtain a pre-configured persistence.
+     * The same map is returned for subsequent requests as long as the database is not closed.
      *
      * @param desiredPersistence The persistence that shall be obtained.
      * @return Database
      */
-    public ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
-        if (activeDatabases.containsKey(desiredPersistence)) {
-            return activeDatabases.get(desiredPersistence)
-                    .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
-                    .open();
+    public synchronized ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
+        if (activeMaps.containsKey(desiredPersistence)) {
+            return activeMaps.get(desiredPersistence);
         }
 
         if (new File(desiredPersistence.getFilePath()).getParentFile().mkdir()) {
@@ -119,37 +181,124 @@ public class PersistenceService {
                 //.fileLockDisable() // ignore file lock
                 .transactionEnable()
                 //.checksumHeaderBypass() // ignore header checksum (should work in *most* cases in which writing was interrupted
-                .closeOnJvmShutdown()
+                // no closeOnJvmShutdown: the shutdown hook of this service flushes the buffered entries and closes the database
                 .make();
         activeDatabases.put(desiredPersistence, db);
-        return db
+        ConcurrentMap store = db
                 .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
                 .createOrOpen();
+        BufferedPersistentMap map = new BufferedPersistentMap(desiredPersistence.toString(), db, store,
+                inMemoryCacheSize, writeBehindBatchSize, writeBehindIntervalMs, getCommitExecutor());
+        activeMaps.put(desiredPersistence, map);
+        return map;
     }
 
+    private ScheduledExecutorService getCommitExecutor() {
+        if (commitExecutor == null) {
+            commitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PersistenceService-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return commitExecutor;
+    }
+
+    /**
+     * Commit the given persistence: all buffered entries are durably written (same as {@link #flush(PreconfiguredPersistences)}).
+     * This method blocks until the commit is done. There is no need to call it after each put because buffered entries
+     * are committed asynchronously in batches (write-behind) and when the database is closed.
+     *
+     * @param persistence The persistence to be committed.
+     */
     public void commit(PreconfiguredPersistences persistence) {
-        if (!activeDatabases.containsKey(persistence)) {
-            LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
+        flush(persistence);
+    }
+
+    /**
+     * Durably write all buffered entries of the given persistence. This method blocks until the commit is done.
+     *
+     * @param persistence The persistence to be flushed.
+     */
+    public synchronized void flush(PreconfiguredPersistences persistence) {
+        if (!activeMaps.containsKey(persistence)) {
+            LOGGER.warn("Cannot flush " + persistence + " - DB not active.");
             return;
         }
-        activeDatabases.get(persistence).commit();
+        activeMaps.get(persistence).flush();
+    }
+
+    /**
+     * Obtain the buffered map of an active persistence, e.g. to access its statistics.
+     *
+     * @param persistence The persistence.
+     * @return The buffered map or null if the persistence is not active.
+     */
+    public synchronized BufferedPersistentMap getBufferedMap(PreconfiguredPersistences persistence) {
+        return activeMaps.get(persistence);
     }
 
     public String getPersistenceDirectory() {
         return persistenceDirectory;
     }
 
+    public int getInMemoryCacheSize() {
+        return inMemoryCacheSize;
+    }
+
+    /**
+     * Set the maximum number of entries in the in-memory cache of each persistence.
+     * Only persistences which are opened afterwards are affected.
+     *
+     * @param inMemoryCacheSize Maximum number of entries (zero to disable the in-memory cache).
+     */
+    public void setInMemoryCacheSize(int inMemoryCacheSize) {
+        this.inMemoryCacheSize = inMemoryCacheSize;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    /**
+     * Set the number of buffered entries which trigger an asynchronous commit.
+     * Only persistences which are opened afterwards are affected.
+     *
+     * @param writeBehindBatchSize Number of entries (1 commits each entry).
+     */
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        if (writeBehindBatchSize < 1) {
+            throw new IllegalArgumentException("The batch size is smaller than one: " + writeBehindBatchSize);
+        }
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+
+    public long getWriteBehindIntervalMs() {
+        return writeBehindIntervalMs;
+    }
+
+    /**
+     * Set the interval in which buffered entries are committed.
+     * Only persistences which are opened afterwards are affected.
+     *
+     * @param writeBehindIntervalMs Interval in milliseconds (zero or less to commit only when the batch is full or on close).
+     */
+    public void setWriteBehindIntervalMs(long writeBehindIntervalMs) {
+        this.writeBehindIntervalMs = writeBehindIntervalMs;
+    }
+
     /**
      * Close a single persistence.
      *
      * @param persistence The persistence to be closed.
      */
-    public void closeDatabase(PreconfiguredPersistences persistence) {
+    public synchronized void closeDatabase(PreconfiguredPersistences persistence) {
 
         if (!activeDatabases.containsKey(persistence)) {
             LOGGER.warn("Cannot close persistence " + persistence + " - not active.");
             return;
         }
+        shutdownMap(activeMaps.remove(persistence));
         if (!activeDatabases.get(persistence).isClosed()) {
             activeDatabases.get(persistence).commit();
         }
@@ -157,11 +306,32 @@ public class PersistenceService {
         activeDatabases.remove(persistence);
     }
 
+    private void shutdownMap(BufferedPersistentMap map) {
+        if (map == null) {
+            return;
+        }
+        try {
+            map.shutdown();
+        } catch (Exception e) {
+            LOGGER.error("Could not write the buffered entries of persistence " + map.getName() + ".", e);
+        }
+        LOGGER.info("Persistence statistics: " + map.getStatistics());
+    }
+
     /**
      * Close all opened databases and shut down service.
      * Make sure that dependent services are also closed.
      */
-    public void closePersistenceService() {
+    public synchronized void closePersistenceService() {
+        // write all buffered entries
+        for (BufferedPersistentMap map : activeMaps.values()) {
+            shutdownMap(map);
+        }
+        activeMaps = new HashMap<>();
+        if (commitExecutor != null) {
+            commitExecutor.shutdown();
+            commitExecutor = null;
+        }
         // close all databases
         for (DB db : activeDatabases.values()) {
             if (!db.isClosed()) {
@@ -1,9 +1,15 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql;
 
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.*;
+import org.apache.jena.sparql.util.FmtUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -14,6 +20,11 @@ public class SparqlServices {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SparqlServices.class);
 
+    /**
+     * Default number of values which are resolved in one query by the bulk lookups of the knowledge sources.
+     */
+    public static final int DEFAULT_VALUES_CHUNK_SIZE = 100;
+
     /**
      * When executing queries it sometimes comes to exceptions (most likely http exceptions).
      * This method executes in a safe environment and will retry after some seconds, when the execution fails.
@@ -84,4 +95,87 @@ public class SparqlServices {
     public static boolean safeAsk(String askQuery, String endpoint) {
         return safeAsk(QueryExecutionFactory.sparqlService(endpoint, askQuery));
     }
+
+    /**
+     * Builds a VALUES clause such as {@code VALUES ?c { <a> <b> }} for bulk lookups.
+     * The nodes are serialized (and escaped) in SPARQL syntax.
+     *
+     * @param variable The variable name (without question mark).
+     * @param nodes    The nodes (URIs or literals).
+     * @return VALUES clause as String.
+     */
+    public static String buildValuesClause(String variable, Collection<Node> nodes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("VALUES ?").append(variable).append(" {");
+        for (Node node : nodes) {
+            sb.append(" ").append(FmtUtils.stringForNode(node));
+        }
+        sb.append(" }\n");
+        return sb.toString();
+    }
+
+    /**
+     * Builds a VALUES clause with URIs. URIs in angle brackets are accepted as well.
+     *
+     * @param variable The variable name (without question mark).
+     * @param uris     The URIs.
+     * @return VALUES clause as String.
+     */
+    public static String buildUriValuesClause(String variable, Collection<String> uris) {
+        List<Node> nodes = new ArrayList<>(uris.size());
+        for (String uri : uris) {
+            if (uri.startsWith("<") && uri.endsWith(">")) {
+                uri = uri.substring(1, uri.length() - 1);
+            }
+            nodes.add(NodeFactory.createURI(uri));
+        }
+        return buildValuesClause(variable, nodes);
+    }
+
+    /**
+     * Builds a VALUES clause with (language tagged) literals.
+     *
+     * @param variable The variable name (without question mark).
+     * @param literals The lexical forms of the literals.
+     * @param language The language tag or null for plain literals.
+     * @return VALUES clause as String.
+     */
+    public static String buildLiteralValuesClause(String variable, Collection<String> literals, String language) {
+        List<Node> nodes = new ArrayList<>(literals.size());
+        for (String literal : literals) {
+            if (language == null) {
+                nodes.add(NodeFactory.createLiteral(literal));
+            } else {
+                nodes.add(NodeFactory.createLiteral(literal, language));
+            }
+        }
+        return buildValuesClause(variable, nodes);
+    }
+
+    /**
+     * Splits the given values into chunks of the given size (the last chunk may be smaller).
+     *
+     * @param values    The values to be split.
+     * @param chunkSize The maximal size of each chunk.
+     * @param <T>       The type of the values.
+     * @return List of chunks.
+     */
+    public static <T> List<List<T>> partition(Collection<T> values, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size is smaller than one: " + chunkSize);
+        }
+        List<List<T>> result = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(Math.min(chunkSize, values.size()));
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == chunkSize) {
+                result.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.add(chunk);
+        }
+        return result;
+    }
 }
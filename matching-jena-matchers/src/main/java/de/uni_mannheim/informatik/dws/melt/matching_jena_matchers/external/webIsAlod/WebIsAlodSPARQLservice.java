@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.webI
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.dataStructures.StringString;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.tdb.TDBFactory;
@@ -13,8 +14,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -95,6 +100,11 @@ public class WebIsAlodSPARQLservice {
      */
     private Model tdbModel;
 
+    /**
+     * Number of labels or URIs which are resolved in one query by the bulk methods.
+     */
+    private int valuesChunkSize = SparqlServices.DEFAULT_VALUES_CHUNK_SIZE;
+
     /**
      * Singleton Pattern to get Sparql service instance.
      *
@@ -205,6 +215,8 @@ public class WebIsAlodSPARQLservice {
      */
     private WebIsAlodSPARQLservice(String tdbDirectoryPath, boolean isDiskBufferEnabled) {
         this.isUseTdb = true;
+        // the TDB dataset is a dump of the classic data set (see WebIsAlodClassicLinker), it determines the buffers and queries to use
+        this.webIsAlodEndpoint = WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT;
         this.isDiskBufferEnabled = isDiskBufferEnabled;
         this.tdbDataset = TDBFactory.createDataset(tdbDirectoryPath);
         this.tdbModel = tdbDataset.getDefaultModel();
@@ -350,11 +362,6 @@ public class WebIsAlodSPARQLservice {
         boolean result = safeAsk(qe);
         synonymyAskBuffer.put(uriTuple, result);
         qe.close();
-        if (sparqlWebIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT)) {
-            commit(ALOD_CLASSIC_SYONYMY_BUFFER);
-        } else {
-            commit(ALOD_XL_SYONYMY_BUFFER);
-        }
         return result;
     }
 
@@ -414,10 +421,67 @@ public class WebIsAlodSPARQLservice {
         }
         qe.close();
         hypernymBuffer.put(key, result);
-        if (this.webIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT)) {
-            commit(ALOD_CLASSIC_HYPERNYM_BUFFER);
-        } else {
-            commit(ALOD_XL_HYPERNYM_BUFFER);
+        return result;
+    }
+
+    /**
+     * Obtain isa concepts for multiple URIs. The hypernyms of all URIs which are not buffered yet are retrieved with
+     * one query per chunk and written into the buffer.
+     *
+     * @param uris       The URIs for which hypernyms shall be found.
+     * @param confidence Minimum confidence.
+     * @return Map from each given URI to its hypernyms.
+     */
+    public Map<String, Set<String>> getHypernyms(Collection<String> uris, double confidence) {
+        if (confidence < 0) {
+            confidence = 0.0;
+        }
+        Set<String> urisToQuery = new LinkedHashSet<>();
+        for (String uri : uris) {
+            if (uri == null || uri.equals("")) continue;
+            uri = StringOperations.removeTag(uri);
+            if (hypernymBuffer.get(uri + "_" + confidence) == null) urisToQuery.add(uri);
+        }
+        boolean isClassic = this.webIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT);
+        for (List<String> chunk : SparqlServices.partition(urisToQuery, valuesChunkSize)) {
+            String queryString;
+            if (confidence != 0.0) {
+                queryString =
+                        "PREFIX skos: <http://www.w3.org/2004/02/skos/core#>\n" +
+                                "PREFIX isaont: " + (isClassic ? CLASSIC_CONFIDENCE : XL_CONFIDENCE) + "\n" +
+                                "select distinct ?s ?hypernym where\n" +
+                                "{\n" +
+                                SparqlServices.buildUriValuesClause("s", chunk) +
+                                "GRAPH ?g {\n" +
+                                "?s skos:broader ?hypernym .\n" +
+                                "}\n" +
+                                "?g isaont:hasConfidence ?minConfidence .\n" +
+                                "FILTER(?minConfidence > " + confidence + ")\n" +
+                                "}";
+            } else {
+                queryString = "SELECT DISTINCT ?s ?hypernym WHERE\n{\n" +
+                        SparqlServices.buildUriValuesClause("s", chunk) +
+                        "?s <http://www.w3.org/2004/02/skos/core#broader> ?hypernym .}";
+            }
+            Map<String, Set<String>> chunkResult = new HashMap<>();
+            for (String uri : chunk) {
+                chunkResult.put(uri, new HashSet<>());
+            }
+            QueryExecution qe = createQueryExecution(queryString);
+            ResultSet queryResult = safeExecution(qe);
+            while (queryResult.hasNext()) {
+                QuerySolution solution = queryResult.next();
+                Set<String> hypernyms = chunkResult.get(solution.getResource("s").getURI());
+                if (hypernyms != null) hypernyms.add(solution.get("?hypernym").toString());
+            }
+            qe.close();
+            for (Map.Entry<String, Set<String>> entry : chunkResult.entrySet()) {
+                hypernymBuffer.put(entry.getKey() + "_" + confidence, entry.getValue());
+            }
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String uri : uris) {
+            result.put(uri, getHypernyms(uri, confidence));
         }
         return result;
     }
@@ -447,11 +511,6 @@ public class WebIsAlodSPARQLservice {
         boolean result = safeAsk(qe);
         synonymyAskBuffer.put(uriTuple, result);
         qe.close();
-        if (sparqlWebIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT)) {
-            commit(ALOD_CLASSIC_SYONYMY_BUFFER);
-        } else {
-            commit(ALOD_XL_SYONYMY_BUFFER);
-        }
         return result;
     }
 
@@ -500,11 +559,6 @@ public class WebIsAlodSPARQLservice {
         boolean result = safeAsk(qe);
         qe.close();
         hypernymyAskBuffer.put(uriTuple, result);
-        if (sparqlWebIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT)) {
-            commit(ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER);
-        } else {
-            commit(ALOD_XL_HYPERNYMY_ASK_BUFFER);
-        }
         return result;
     }
 
@@ -604,8 +658,6 @@ public class WebIsAlodSPARQLservice {
      * @return null if not found, else URI as String.
      */
     public String getUriUsingLabel(WebIsAlodEndpoint webIsAlodEndpoint, String label) {
-        boolean isClassic = webIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT);
-
         // buffer check
         if (labelUriBuffer.containsKey(label)) {
             String retrieved = labelUriBuffer.get(label);
@@ -631,11 +683,6 @@ public class WebIsAlodSPARQLservice {
         if (!results.hasNext()) {
             // Query was not successful.
             labelUriBuffer.put(label, "null");
-            if (isClassic) {
-                commit(ALOD_CLASSIC_LABEL_URI_BUFFER);
-            } else {
-                commit(ALOD_XL_LABEL_URI_BUFFER);
-            }
             qe.close();
             return null;
         }
@@ -647,25 +694,69 @@ public class WebIsAlodSPARQLservice {
                 resource = solution.getResource("c").toString();
                 labelUriBuffer.put(label, resource);
                 qe.close();
-                if (isClassic) {
-                    commit(ALOD_CLASSIC_LABEL_URI_BUFFER);
-                } else {
-                    commit(ALOD_XL_LABEL_URI_BUFFER);
-                }
                 return resource;
             }
         }
         // Nothing could be found.
         labelUriBuffer.put(label, "null");
-        if (isClassic) {
-            commit(ALOD_CLASSIC_LABEL_URI_BUFFER);
-        } else {
-            commit(ALOD_XL_LABEL_URI_BUFFER);
-        }
         qe.close();
         return null;
     }
 
+    /**
+     * Returns the URIs for multiple labels (see {@link #getUriUsingLabel(String)}). All labels which are not buffered
+     * yet are looked up with one query per chunk and written into the buffer.
+     *
+     * @param labels The labels that shall be used for the lookup.
+     * @return Map from each label to its URI (null if the label could not be linked).
+     */
+    public Map<String, String> getUrisUsingLabels(Collection<String> labels) {
+        Set<String> labelsToQuery = new LinkedHashSet<>();
+        for (String label : labels) {
+            // labels with escape sequences are inserted verbatim by getUriUsingLabel, they are looked up individually
+            if (label != null && !label.contains("\\") && !labelUriBuffer.containsKey(label)) labelsToQuery.add(label);
+        }
+        for (List<String> chunk : SparqlServices.partition(labelsToQuery, valuesChunkSize)) {
+            String queryString =
+                    "select distinct ?c ?l where {\n" +
+                            SparqlServices.buildLiteralValuesClause("l", chunk, null) +
+                            "?c <http://www.w3.org/2000/01/rdf-schema#label> ?l\n" +
+                            "}";
+            Map<String, String> chunkResult = new HashMap<>();
+            QueryExecution qe = createQueryExecution(queryString);
+            ResultSet results = safeExecution(qe);
+            while (results.hasNext()) {
+                QuerySolution solution = results.next();
+                if (solution.get("c").isURIResource()) {
+                    chunkResult.putIfAbsent(solution.getLiteral("l").getLexicalForm(), solution.getResource("c").toString());
+                }
+            }
+            qe.close();
+            for (String label : chunk) {
+                labelUriBuffer.put(label, chunkResult.getOrDefault(label, "null"));
+            }
+        }
+        Map<String, String> result = new HashMap<>();
+        for (String label : labels) {
+            if (label != null) result.put(label, getUriUsingLabel(label));
+        }
+        return result;
+    }
+
+    /**
+     * Creates the query execution either for the TDB model or for the SPARQL endpoint.
+     *
+     * @param queryString The query.
+     * @return Query execution.
+     */
+    private QueryExecution createQueryExecution(String queryString) {
+        if (isUseTdb) {
+            return QueryExecutionFactory.create(queryString, tdbModel);
+        } else {
+            return QueryExecutionFactory.sparqlService(this.webIsAlodEndpoint.toString(), queryString);
+        }
+    }
+
     /**
      * Checks whether there is a resource with the given URI available at the given endpoint.
      *
@@ -787,4 +878,19 @@ public class WebIsAlodSPARQLservice {
         //    persistenceService.closePersistenceService();
         //}
     }
+
+    public int getValuesChunkSize() {
+        return valuesChunkSize;
+    }
+
+    /**
+     * Set the number of labels or URIs which are resolved in one query by the bulk methods.
+     *
+     * @param valuesChunkSize Number of labels or URIs per query.
+     */
+    public void setValuesChunkSize(int valuesChunkSize) {
+        if (valuesChunkSize < 1)
+            throw new IllegalArgumentException("The chunk size is smaller than one: " + valuesChunkSize);
+        this.valuesChunkSize = valuesChunkSize;
+    }
 }
@@ -7,7 +7,10 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.servi
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.webIsAlod.WebIsAlodSPARQLservice;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
 public class WebIsAlodXLLinker implements LabelToConceptLinker {
 
@@ -40,6 +43,25 @@ public class WebIsAlodXLLinker implements LabelToConceptLinker {
         return result;
     }
 
+    /**
+     * Looks up all label variants used by {@link #linkToSingleConcept(String)} in bulk so that subsequent calls
+     * are answered from the buffer.
+     *
+     * @param labelsToBeLinked The labels which shall be linked.
+     */
+    @Override
+    public void preResolve(Collection<String> labelsToBeLinked) {
+        if (labelsToBeLinked == null) return;
+        List<String> variants = new ArrayList<>();
+        for (String label : labelsToBeLinked) {
+            if (label == null || label.trim().equals("")) continue;
+            variants.add(cleanLabelForLabelLookup(label));
+            variants.add(normalizeForAlodXLLookupWithoutTokenization(label));
+            variants.add(normalizeForAlodXLLookupWithTokenization(label));
+        }
+        sparqlService.getUrisUsingLabels(variants);
+    }
+
     @Override
     public HashSet<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked) {
         HashSet<String> result = linkLabelToTokensLeftToRight(labelToBeLinked);
@@ -1,11 +1,15 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wikidata;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +20,9 @@ import java.util.concurrent.ConcurrentMap;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService.PreconfiguredPersistences.*;
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices.safeAsk;
+import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices.safeExecution;
 
-public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
+public class WikidataKnowledgeSource extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
 
 
     /**
@@ -41,9 +46,9 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
     private WikidataLinker linker = new WikidataLinker();
 
     /**
-     * The public SPARQL endpoint.
+     * Number of concepts or labels which are resolved in one query by the bulk methods.
      */
-    private static final String ENDPOINT_URL = "https://query.wikidata.org/bigdata/namespace/wdq/sparql/";
+    private int valuesChunkSize = SparqlServices.DEFAULT_VALUES_CHUNK_SIZE;
 
     /**
      * Default logger
@@ -125,6 +130,39 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         else return isInDictionaryWithAltLabelAskQuery(word, language);
     }
 
+    /**
+     * Test for multiple words whether they can be mapped (1-1) to a Wikidata concept (no smart mechanisms applied).
+     * The words are looked up with one query per chunk (rdfs:label and skos:altLabel).
+     *
+     * @param words    The words to be looked for.
+     * @param language The language of the words.
+     * @return Map from each word to true if the word can be found in the dictionary, else false.
+     */
+    public Map<String, Boolean> isInDictionary(Collection<String> words, Language language) {
+        Map<String, Boolean> result = new HashMap<>();
+        Set<String> distinctWords = new HashSet<>(words);
+        for (List<String> chunk : SparqlServices.partition(distinctWords, valuesChunkSize)) {
+            String queryString = "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n" +
+                    "PREFIX skos: <http://www.w3.org/2004/02/skos/core#>\n" +
+                    "SELECT DISTINCT ?l WHERE {\n" +
+                    SparqlServices.buildLiteralValuesClause("l", chunk, language.toSparqlChar2()) +
+                    "  { ?c rdfs:label ?l . }\n" +
+                    "  UNION\n" +
+                    "  { ?c skos:altLabel ?l . }\n" +
+                    "}";
+            for (String word : chunk) {
+                result.put(word, false);
+            }
+            try (QueryExecution queryExecution = linker.createQueryExecution(QueryFactory.create(queryString))) {
+                ResultSet resultSet = safeExecution(queryExecution);
+                while (resultSet.hasNext()) {
+                    result.put(resultSet.next().getLiteral("l").getLexicalForm(), true);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Checks for synonymy by determining whether link1 is contained in the set of synonymous words of link2 or
      * vice versa.
@@ -158,6 +196,18 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * The blocking keys are the Wikidata URIs of the linked concept (see {@link #isStrongFormSynonymous(String, String)}).
+     * @param linkedConcept The linked concept.
+     * @return Set of blocking keys.
+     */
+    @Override
+    public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+        Set<String> result = new HashSet<>(linker.getUris(linkedConcept));
+        result.remove("");
+        return result;
+    }
+
     /**
      * Ask query with label.
      *
@@ -169,7 +219,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         String queryString = "ASK WHERE { ?c <http://www.w3.org/2000/01/rdf-schema#label> \"" + word + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
         Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = linker.createQueryExecution(query);
         boolean result = queryExecution.execAsk();
         return result;
     }
@@ -185,7 +235,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         String queryString = "ASK WHERE { ?c <http://www.w3.org/2004/02/skos/core#altLabel> \"" + word + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
         Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = linker.createQueryExecution(query);
         boolean result = queryExecution.execAsk();
         return result;
     }
@@ -218,7 +268,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
             String queryString = "SELECT ?l WHERE { <" + linkedConcept + "> <http://www.w3.org/2004/02/skos/core#altLabel> ?l . FILTER(LANG(?l) = '" + language.toSparqlChar2() + "') }";
             //System.out.println(queryString);
             Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = linker.createQueryExecution(query);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
@@ -227,7 +277,39 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
             queryExecution.close();
         }
         synonymyBuffer.put(key, result);
-        commitAll(WIKIDATA_SYNONYMY_BUFFER);
+        return result;
+    }
+
+    /**
+     * Bulk version of {@link #getSynonyms(String, Language)}: The synonyms of all concepts which are not buffered yet
+     * are retrieved with one query per chunk and written into the buffer.
+     *
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @param language       The language of the synonyms.
+     * @return Map from each linked concept to its synonyms.
+     */
+    public Map<String, HashSet<String>> getSynonyms(Collection<String> linkedConcepts, Language language) {
+        String suffix = "_" + language.toSparqlChar2();
+        Set<String> urisToQuery = new HashSet<>();
+        for (String uri : linker.getUris(new HashSet<>(linkedConcepts))) {
+            if (!synonymyBuffer.containsKey(uri + suffix)) urisToQuery.add(uri);
+        }
+        for (List<String> chunk : SparqlServices.partition(urisToQuery, valuesChunkSize)) {
+            String queryString = "PREFIX skos: <http://www.w3.org/2004/02/skos/core#>\n" +
+                    "SELECT ?c ?l WHERE {\n" +
+                    SparqlServices.buildUriValuesClause("c", chunk) +
+                    "  ?c skos:altLabel ?l . FILTER(LANG(?l) = '" + language.toSparqlChar2() + "')\n" +
+                    "}";
+            Map<String, HashSet<String>> chunkResult = queryUriToValues(queryString, chunk, "c", "l");
+            for (Map.Entry<String, HashSet<String>> entry : chunkResult.entrySet()) {
+                synonymyBuffer.put(entry.getKey() + suffix, entry.getValue());
+            }
+        }
+
+        Map<String, HashSet<String>> result = new HashMap<>();
+        for (String linkedConcept : linkedConcepts) {
+            result.put(linkedConcept, getSynonyms(linkedConcept, language));
+        }
         return result;
     }
 
@@ -561,15 +643,18 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         } else subIsUri = true;
         if( (superUris.size() == 0 && !superIsUri) || (subUris.size() == 0 && !subIsUri) ){
             askBuffer.put(key, false);
-            commitAll();
             return false;
         }
         if(superIsUri && subIsUri){
             // we have two URIs: end of recursion
+            Boolean bufferedResult = isHypernymUsingBufferedHypernyms(superConcept, subConcept, depth);
+            if(bufferedResult != null){
+                askBuffer.put(key, bufferedResult);
+                return bufferedResult;
+            }
             String queryString = buildHypernymDepthQuery(superConcept, subConcept, depth);
-            boolean result = safeAsk(queryString, ENDPOINT_URL);
+            boolean result = safeAsk(linker.createQueryExecution(QueryFactory.create(queryString)));
             askBuffer.put(key, result);
-            commitAll();
             return result;
         } else {
             // we have at least one link, we need to add the link to the URI set so that it works in mixed cases (one link and one URI)
@@ -585,14 +670,39 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     boolean intermediateResult = isHypernym(superConceptUri, subConceptUri, depth);
                     if (intermediateResult){
                         askBuffer.put(key, true);
-                        commitAll();
                         return true;
                     }
                 }
             }
         }
         askBuffer.put(key, false);
-        commitAll(WIKIDATA_ASK_BUFFER);
+        return false;
+    }
+
+    /**
+     * Helper method: Determines whether the superconcept is a hypernym of the subconcept using only the buffered
+     * direct hypernyms (see {@link #getHypernymClosure(Collection, int)}).
+     *
+     * @param superConcept URI of the superconcept.
+     * @param subConcept   URI of the subconcept.
+     * @param depth        The maximal number of upward hops.
+     * @return True or false if the question can be answered from the buffer, else null.
+     */
+    private Boolean isHypernymUsingBufferedHypernyms(String superConcept, String subConcept, int depth) {
+        Set<String> visited = new HashSet<>();
+        Set<String> frontier = Collections.singleton(subConcept);
+        for (int level = 0; level < depth && !frontier.isEmpty(); level++) {
+            Set<String> nextFrontier = new HashSet<>();
+            for (String concept : frontier) {
+                HashSet<String> hypernyms = hypernymyBuffer.get(concept + "_hypernym_uris");
+                if (hypernyms == null) return null;
+                if (hypernyms.contains(superConcept)) return true;
+                for (String hypernym : hypernyms) {
+                    if (visited.add(hypernym)) nextFrontier.add(hypernym);
+                }
+            }
+            frontier = nextFrontier;
+        }
         return false;
     }
 
@@ -676,7 +786,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     .append("}");
             //System.out.println(queryString);
             Query query = QueryFactory.create(queryString.toString());
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = linker.createQueryExecution(query);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
@@ -686,7 +796,105 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
             queryExecution.close();
         }
         hypernymyBuffer.put(key, result);
-        commitAll(WIKIDATA_HYPERNYMY_BUFFER);
+        return result;
+    }
+
+    /**
+     * Bulk version of {@link #getHypernyms(String)}: The direct hypernyms of all concepts which are not buffered yet
+     * are retrieved with one query per chunk and written into the buffer.
+     *
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @return Map from each linked concept to its direct hypernyms (URIs).
+     */
+    public Map<String, HashSet<String>> getHypernyms(Collection<String> linkedConcepts) {
+        Set<String> urisToQuery = new HashSet<>();
+        for (String uri : linker.getUris(new HashSet<>(linkedConcepts))) {
+            if (!hypernymyBuffer.containsKey(uri + "_hypernym_uris")) urisToQuery.add(uri);
+        }
+        for (List<String> chunk : SparqlServices.partition(urisToQuery, valuesChunkSize)) {
+            String queryString = "PREFIX wdt: <http://www.wikidata.org/prop/direct/>\n" +
+                    "SELECT DISTINCT ?s ?c WHERE {\n" +
+                    SparqlServices.buildUriValuesClause("s", chunk) +
+                    "  { ?s wdt:P31 ?c . }\n" +
+                    "  UNION\n" +
+                    "  { ?s wdt:P279 ?c . }\n" +
+                    "}";
+            Map<String, HashSet<String>> chunkResult = queryUriToValues(queryString, chunk, "s", "c");
+            for (Map.Entry<String, HashSet<String>> entry : chunkResult.entrySet()) {
+                hypernymyBuffer.put(entry.getKey() + "_hypernym_uris", entry.getValue());
+            }
+        }
+
+        Map<String, HashSet<String>> result = new HashMap<>();
+        for (String linkedConcept : linkedConcepts) {
+            result.put(linkedConcept, getHypernyms(linkedConcept));
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves all hypernyms up to the given depth for multiple concepts. The hypernyms are retrieved level by level
+     * using {@link #getHypernyms(Collection)}, i.e., there is one query per chunk and level. Afterwards, all direct
+     * hypernyms are buffered so that {@link #isHypernym(String, String, int)} can be answered without further queries.
+     *
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @param depth          The number of upward hops (wdt:P31 or wdt:P279).
+     * @return Map from each linked concept to all of its hypernyms up to the given depth (URIs).
+     */
+    public Map<String, Set<String>> getHypernymClosure(Collection<String> linkedConcepts, int depth) {
+        Map<String, Set<String>> result = new HashMap<>();
+        Map<String, Set<String>> frontiers = new HashMap<>();
+        for (String linkedConcept : linkedConcepts) {
+            result.put(linkedConcept, new HashSet<>());
+            frontiers.put(linkedConcept, new HashSet<>(Collections.singleton(linkedConcept)));
+        }
+        for (int level = 0; level < depth; level++) {
+            Set<String> allFrontierConcepts = new HashSet<>();
+            for (Set<String> frontier : frontiers.values()) {
+                allFrontierConcepts.addAll(frontier);
+            }
+            if (allFrontierConcepts.isEmpty()) break;
+            Map<String, HashSet<String>> hypernyms = getHypernyms(allFrontierConcepts);
+            for (Map.Entry<String, Set<String>> entry : frontiers.entrySet()) {
+                Set<String> closure = result.get(entry.getKey());
+                Set<String> nextFrontier = new HashSet<>();
+                for (String concept : entry.getValue()) {
+                    for (String hypernym : hypernyms.get(concept)) {
+                        if (closure.add(hypernym)) nextFrontier.add(hypernym);
+                    }
+                }
+                entry.setValue(nextFrontier);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method: Executes a SELECT query which binds a subject URI and a value (URI or literal).
+     *
+     * @param queryString     The query.
+     * @param subjects        The subjects which were queried; subjects without result are mapped to an empty set.
+     * @param subjectVariable The variable of the subjects (without question mark).
+     * @param valueVariable   The variable of the values (without question mark).
+     * @return Map from subject URI to values (URIs or lexical forms of literals). Blank nodes are ignored.
+     */
+    private Map<String, HashSet<String>> queryUriToValues(String queryString, Collection<String> subjects,
+                                                          String subjectVariable, String valueVariable) {
+        Map<String, HashSet<String>> result = new HashMap<>();
+        for (String subject : subjects) {
+            result.put(subject, new HashSet<>());
+        }
+        try (QueryExecution queryExecution = linker.createQueryExecution(QueryFactory.create(queryString))) {
+            ResultSet resultSet = safeExecution(queryExecution);
+            while (resultSet.hasNext()) {
+                QuerySolution solution = resultSet.next();
+                RDFNode value = solution.get(valueVariable);
+                HashSet<String> values = result.get(solution.getResource(subjectVariable).getURI());
+                if (values == null) continue;
+                if (value.isLiteral()) values.add(value.asLiteral().getLexicalForm());
+                else if (value.isURIResource()) values.add(value.asResource().getURI());
+            }
+        }
         return result;
     }
 
@@ -739,7 +947,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     "}";
             //System.out.println(queryString);
             Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = linker.createQueryExecution(query);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
@@ -749,7 +957,6 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
             queryExecution.close();
         }
         hypernymyBuffer.put(key, result);
-        commitAll(WIKIDATA_HYPERNYMY_BUFFER);
         return result;
     }
 
@@ -787,7 +994,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     "  FILTER(LANG(?l) = '" + language.toSparqlChar2() + "') }";
             //System.out.println(queryString);
             Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = linker.createQueryExecution(query);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
@@ -819,33 +1026,41 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
     }
 
     /**
-     * Transaction commit
-     * @param persistence Persistence to be commited.
+     * Set the SPARQL endpoint which shall be queried (also used by the linker), e.g. a local Fuseki server with a
+     * Wikidata dump.
+     * @param endpointUrl The URL of the SPARQL endpoint.
      */
-    private void commitAll(PersistenceService.PreconfiguredPersistences persistence){
-        if(persistence == null || persistenceService == null) {return;}
-        switch (persistence){
-            case WIKIDATA_SYNONYMY_BUFFER:
-                persistenceService.commit(WIKIDATA_SYNONYMY_BUFFER);
-                return;
-            case WIKIDATA_ASK_BUFFER:
-                persistenceService.commit(WIKIDATA_ASK_BUFFER);
-                return;
-            case WIKIDATA_HYPERNYMY_BUFFER:
-                persistenceService.commit(WIKIDATA_HYPERNYMY_BUFFER);
-                return;
-        }
+    public void setEndpointUrl(String endpointUrl) {
+        this.linker.setEndpointUrl(endpointUrl);
+    }
+
+    public String getEndpointUrl() {
+        return this.linker.getEndpointUrl();
     }
 
     /**
-     * Commit data changes if active.
+     * Set a local model (e.g. a TDB model) which shall be queried instead of the SPARQL endpoint (also used by the linker).
+     * @param localModel The model or null to query the SPARQL endpoint.
      */
-    private void commitAll(){
-        if(isDiskBufferEnabled && persistenceService != null){
-            persistenceService.commit(WIKIDATA_SYNONYMY_BUFFER);
-            persistenceService.commit(WIKIDATA_HYPERNYMY_BUFFER);
-            persistenceService.commit(WIKIDATA_ASK_BUFFER);
-        }
+    public void setLocalModel(Model localModel) {
+        this.linker.setLocalModel(localModel);
+    }
+
+    public Model getLocalModel() {
+        return this.linker.getLocalModel();
+    }
+
+    public int getValuesChunkSize() {
+        return valuesChunkSize;
+    }
+
+    /**
+     * Set the number of concepts or labels which are resolved in one query by the bulk methods (also used by the linker).
+     * @param valuesChunkSize Number of concepts or labels per query.
+     */
+    public void setValuesChunkSize(int valuesChunkSize) {
+        this.linker.setValuesChunkSize(valuesChunkSize);
+        this.valuesChunkSize = valuesChunkSize;
     }
 
     /**
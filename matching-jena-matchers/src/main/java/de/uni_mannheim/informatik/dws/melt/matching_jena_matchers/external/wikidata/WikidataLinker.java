@@ -7,8 +7,10 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.servi
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.labelToConcept.nGramTokenizers.MaxGramLeftToRightTokenizer;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.labelToConcept.stringModifiers.*;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,7 +52,22 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
     /**
      * The public SPARQL endpoint.
      */
-    private static final String ENDPOINT_URL = "https://query.wikidata.org/bigdata/namespace/wdq/sparql/";
+    static final String ENDPOINT_URL = "https://query.wikidata.org/bigdata/namespace/wdq/sparql/";
+
+    /**
+     * The SPARQL endpoint which is queried (by default the public endpoint).
+     */
+    private String endpointUrl = ENDPOINT_URL;
+
+    /**
+     * A local model (e.g. a TDB model) which is queried instead of the SPARQL endpoint. Null if the endpoint shall be used.
+     */
+    private Model localModel;
+
+    /**
+     * Number of labels which are resolved in one query by {@link #preResolve(Collection, Language)}.
+     */
+    private int valuesChunkSize = SparqlServices.DEFAULT_VALUES_CHUNK_SIZE;
 
     /**
      * Linker name
@@ -237,13 +254,11 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
 
             if (isFound) {
                 multiLinkStore.put(key, multiLinkLinks);
-                commit();
                 return key;
             }
         }
         // linking not successful
         multiLinkStore.put(key, new HashSet<>());
-        commit();
         return null;
     }
 
@@ -272,12 +287,10 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
 
         if(multiLinkLinks.size() > 0){
             multiLinkStore.put(key, multiLinkLinks);
-            commit();
             return key;
         } else {
             // linking not successful
             multiLinkStore.put(key, new HashSet<>());
-            commit();
             return null;
         }
     }
@@ -343,7 +356,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         List<String> result = new ArrayList<>();
         String queryString = "SELECT ?c WHERE { ?c <http://www.w3.org/2000/01/rdf-schema#label> \"" + label + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, queryString);
+        QueryExecution queryExecution = createQueryExecution(QueryFactory.create(queryString));
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -376,7 +389,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         }
         queryString += "}";
         Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = createQueryExecution(query);
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -387,6 +400,127 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         return result;
     }
 
+    /**
+     * Links the given labels in bulk: All string modifications of all labels are looked up with one query per chunk
+     * (using a VALUES clause) and the results are written into the buffer. Afterwards, {@link #linkToSingleConcept(String, Language)}
+     * is answered from the buffer for the given labels. Labels which are already buffered are not looked up again.
+     *
+     * @param labelsToBeLinked The labels which shall be linked.
+     * @param language The language of the labels.
+     */
+    public void preResolve(Collection<String> labelsToBeLinked, Language language){
+        if(labelsToBeLinked == null || language == null) return;
+
+        // determine the string modifications of all labels which are not buffered yet
+        Map<String, List<String>> labelToModifications = new HashMap<>();
+        Set<String> allModifications = new HashSet<>();
+        for(String label : labelsToBeLinked){
+            if(label == null || label.trim().equals("") || labelToModifications.containsKey(label)) continue;
+            if(multiLinkStore.containsKey(getBufferKey(label, language))) continue;
+            List<String> modifications = new ArrayList<>();
+            if(isRunAllStringModifications) {
+                for (StringModifier modifier : stringModificationSet) {
+                    modifications.add(modifier.modifyString(label));
+                }
+            } else {
+                for (StringModifier modifier : stringModificationSequence) {
+                    modifications.add(modifier.modifyString(label));
+                }
+            }
+            labelToModifications.put(label, modifications);
+            allModifications.addAll(modifications);
+        }
+        if(labelToModifications.isEmpty()) return;
+        LOGGER.info("Pre-resolving " + labelToModifications.size() + " labels (" + allModifications.size() +
+                " string modifications) in chunks of " + valuesChunkSize + ".");
+
+        Set<String> failedModifications = new HashSet<>();
+        Map<String, Set<String>> modificationToUris = linkWithMultipleLabelsInBulk(allModifications, language, failedModifications);
+
+        for(Map.Entry<String, List<String>> entry : labelToModifications.entrySet()){
+            if(!Collections.disjoint(entry.getValue(), failedModifications)) continue; // will be linked individually later on
+            HashSet<String> uris = new HashSet<>();
+            for(String modification : entry.getValue()){
+                Set<String> found = modificationToUris.get(modification);
+                if(found != null){
+                    uris.addAll(found);
+                    // greedy: the first modification which can be linked is used
+                    if(!isRunAllStringModifications) break;
+                }
+            }
+            multiLinkStore.put(getBufferKey(entry.getKey(), language), uris);
+        }
+    }
+
+    /**
+     * Links the given labels in bulk assuming that the labels are in English.
+     * @param labelsToBeLinked The labels which shall be linked.
+     */
+    @Override
+    public void preResolve(Collection<String> labelsToBeLinked) {
+        preResolve(labelsToBeLinked, Language.ENGLISH);
+    }
+
+    /**
+     * Obtain the key which is used in the buffer for the given label.
+     * @param labelToBeLinked The label.
+     * @param language The language of the label.
+     * @return Key as String (which is also the multi-concept link).
+     */
+    private String getBufferKey(String labelToBeLinked, Language language){
+        String key = MULTI_CONCEPT_PREFIX + labelToBeLinked + "_" + language.toSparqlChar2();
+        if(isRunAllStringModifications){
+            key = key + "_all_modifications";
+        }
+        return key;
+    }
+
+    /**
+     * Looks up multiple labels (rdfs:label and skos:altLabel) with one query per chunk.
+     * @param labels The labels to be looked up.
+     * @param language The language of the labels.
+     * @param failedLabels Labels which could not be looked up due to a failing query are added to this set.
+     * @return Map from label to the URIs which were found. Labels for which nothing was found are not contained.
+     */
+    private Map<String, Set<String>> linkWithMultipleLabelsInBulk(Set<String> labels, Language language, Set<String> failedLabels){
+        Map<String, Set<String>> result = new HashMap<>();
+        for(List<String> chunk : SparqlServices.partition(labels, valuesChunkSize)) {
+            String queryString = "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n" +
+                    "PREFIX skos: <http://www.w3.org/2004/02/skos/core#>\n" +
+                    "SELECT DISTINCT ?c ?l WHERE {\n" +
+                    SparqlServices.buildLiteralValuesClause("l", chunk, language.toSparqlChar2()) +
+                    "{ ?c rdfs:label ?l . }\n" +
+                    "UNION\n" +
+                    "{ ?c skos:altLabel ?l . }\n" +
+                    "}";
+            try (QueryExecution queryExecution = createQueryExecution(QueryFactory.create(queryString))) {
+                ResultSet resultSet = SparqlServices.safeExecution(queryExecution);
+                while (resultSet.hasNext()) {
+                    QuerySolution solution = resultSet.next();
+                    if(!solution.get("c").isURIResource()) continue;
+                    result.computeIfAbsent(solution.getLiteral("l").getLexicalForm(), k -> new HashSet<>())
+                            .add(solution.getResource("c").getURI());
+                }
+            } catch (Exception e){
+                LOGGER.warn("Bulk lookup of " + chunk.size() + " labels failed. They will be looked up individually.", e);
+                failedLabels.addAll(chunk);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the query execution either for the local model or for the SPARQL endpoint.
+     * @param query The query.
+     * @return Query execution.
+     */
+    QueryExecution createQueryExecution(Query query){
+        if(localModel != null){
+            return QueryExecutionFactory.create(query, localModel);
+        }
+        return QueryExecutionFactory.sparqlService(endpointUrl, query);
+    }
+
     private String buildFragmentLabelAltLabel(String label, Language language){
         return "{ ?c rdfs:label \"" + label + "\"@" + language.toSparqlChar2() + " . }\n" +
                 "UNION\n" +
@@ -404,7 +538,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         String queryString = "SELECT ?c WHERE { ?c <http://www.w3.org/2004/02/skos/core#altLabel> \"" + label + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
         Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = createQueryExecution(query);
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -437,13 +571,43 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         return isDiskBufferEnabled;
     }
 
+    public String getEndpointUrl() {
+        return endpointUrl;
+    }
+
     /**
-     * Commit data changes if active.
+     * Set the SPARQL endpoint which shall be queried, e.g. a local Fuseki server with a Wikidata dump.
+     * @param endpointUrl The URL of the SPARQL endpoint.
      */
-    private void commit(){
-        if(isDiskBufferEnabled){
-            persistenceService.commit(WIKIDATA_LABEL_LINK_BUFFER);
-        }
+    public void setEndpointUrl(String endpointUrl) {
+        this.endpointUrl = endpointUrl;
+    }
+
+    public Model getLocalModel() {
+        return localModel;
+    }
+
+    /**
+     * Set a local model (e.g. a TDB model) which shall be queried instead of the SPARQL endpoint.
+     * Note that the buffer is shared with the public endpoint, so you may want to disable the disk buffer.
+     * @param localModel The model or null to query the SPARQL endpoint.
+     */
+    public void setLocalModel(Model localModel) {
+        this.localModel = localModel;
+    }
+
+    public int getValuesChunkSize() {
+        return valuesChunkSize;
+    }
+
+    /**
+     * Set the number of labels which are resolved in one query by {@link #preResolve(Collection, Language)}.
+     * @param valuesChunkSize Number of labels per query.
+     */
+    public void setValuesChunkSize(int valuesChunkSize) {
+        if(valuesChunkSize < 1)
+            throw new IllegalArgumentException("The chunk size is smaller than one: " + valuesChunkSize);
+        this.valuesChunkSize = valuesChunkSize;
     }
 
     public void setDiskBufferEnabled(boolean diskBufferEnabled) {
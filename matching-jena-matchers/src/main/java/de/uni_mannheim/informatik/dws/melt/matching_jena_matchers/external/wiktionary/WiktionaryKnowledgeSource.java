@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wikt
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
@@ -25,7 +26,7 @@ import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.externa
  * Class utilizing DBnary, a SPARQL endpoint for Wiktionary.
  * Alternatively, TDB1 can be used as offline storage.
  */
-public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
+public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
 
 
     /**
@@ -206,7 +207,6 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
             LOGGER.warn("An error occurred while trying to look up: '" + word + "'. Returning false.");
         }
         askBuffer.put(key, result);
-        commit(WIKTIONARY_ASK_BUFFER);
         return result;
     }
 
@@ -247,6 +247,23 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         return synonyms2.contains(link1);
     }
 
+    /**
+     * The blocking keys are the concept itself and its encoded synonyms (see {@link #isStrongFormSynonymous(String, String)}).
+     * @param linkedConcept The linked concept.
+     * @return Set of blocking keys.
+     */
+    @Override
+    public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+        Set<String> result = new HashSet<>();
+        Set<String> synonyms = getSynonymsEncoded(linkedConcept);
+        if(synonyms != null) {
+            result.addAll(synonyms);
+        }
+        result.remove("");
+        result.add(linkedConcept);
+        return result;
+    }
+
     public Set<String> getSynonymsEncoded(String linkedConcept){
         Set<String> result = getSynonymsLexical(linkedConcept);
         if(result == null){
@@ -320,7 +337,6 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
             LOGGER.warn("Problem with query getSynonyms for word: '" + word + "'.");
         }
         synonymyBuffer.put(word + "_" + language.toWiktionaryChar3(), result);
-        commit(WIKTIONARY_SYNONYMY_BUFFER);
         return result;
     }
 
@@ -414,7 +430,6 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
             LOGGER.warn("Failed to build getHypernyms query for concept '" + linkedConcept + "'");
         }
         hypernymyBuffer.put(key, result);
-        commit(WIKTIONARY_HYPERNYMY_BUFFER);
         return result;
     }
 
@@ -455,13 +470,11 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
 
             queryExecution.close();
             translationBuffer.put(key, result);
-            commit(WIKTIONARY_TRANSLATION_BUFFER);
             return result;
         } catch (Exception e){
             LOGGER.error("Could not execute getTranslation query for concept " + linkedConcept + " (" + sourceLanguage + " to " + targetLanguage + ")");
             LOGGER.error("Problematic Query:\n" + queryString);
             translationBuffer.put(key, new HashSet<>());
-            commit(WIKTIONARY_TRANSLATION_BUFFER);
             return null;
         }
     }
@@ -532,13 +545,11 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
             }
             queryExecution.close();
             translationOfBuffer.put(key, result);
-            commit(WIKTIONARY_TRANSLATION_OF_BUFFER);
             return result;
         } catch (Exception e){
             LOGGER.error("Could not execute getTranslationOf query for concept " + translationString + " (" + languageOfTranslation + ")", e);
             LOGGER.error("Problematic Query:\n" + queryString);
             translationOfBuffer.put(key, new HashSet<>());
-            commit(WIKTIONARY_TRANSLATION_OF_BUFFER);
             return null;
         }
     }
@@ -685,32 +696,6 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         return result;
     }
 
-    /**
-     * Commit persistence.
-     * @param persistence The persistence that is to be committed.
-     */
-    private void commit(PersistenceService.PreconfiguredPersistences persistence){
-        if(persistence == null || persistenceService == null){
-            return;
-        }
-        switch (persistence){
-            case WIKTIONARY_SYNONYMY_BUFFER:
-                persistenceService.commit(WIKTIONARY_SYNONYMY_BUFFER);
-                return;
-            case WIKTIONARY_HYPERNYMY_BUFFER:
-                persistenceService.commit(WIKTIONARY_HYPERNYMY_BUFFER);
-                return;
-            case WIKTIONARY_ASK_BUFFER:
-                persistenceService.commit(WIKTIONARY_ASK_BUFFER);
-                return;
-            case WIKTIONARY_TRANSLATION_BUFFER:
-                persistenceService.commit(WIKTIONARY_TRANSLATION_BUFFER);
-                return;
-            case WIKTIONARY_TRANSLATION_OF_BUFFER:
-                persistenceService.commit(WIKTIONARY_TRANSLATION_OF_BUFFER);
-        }
-    }
-
     /**
      * Commit data changes if active.
      */
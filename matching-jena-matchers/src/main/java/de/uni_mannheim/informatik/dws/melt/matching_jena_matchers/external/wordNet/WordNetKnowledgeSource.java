@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.word
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.data.IndexWord;
@@ -22,7 +23,7 @@ import java.util.Set;
 /**
  * API for WordNet requests.
  */
-public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
+public class WordNetKnowledgeSource extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
 
 
 	private static Logger LOGGER = LoggerFactory.getLogger(WordNetKnowledgeSource.class);
@@ -109,6 +110,24 @@ public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
 		return result;
 	}
 
+	/**
+	 * The blocking keys are the concept itself and its synonyms
+	 * (see {@link SemanticWordRelationDictionary#isStrongFormSynonymous(String, String)}).
+	 * @param linkedConcept The linked concept.
+	 * @return Set of blocking keys.
+	 */
+	@Override
+	public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+		Set<String> result = new HashSet<>();
+		Set<String> synonyms = getSynonymsLexical(linkedConcept);
+		if(synonyms != null) {
+			result.addAll(synonyms);
+		}
+		result.remove("");
+		result.add(linkedConcept);
+		return result;
+	}
+
 	/**
 	 * Get synonyms for a particular part of speech.
 	 * @param word The word for which the synonyms shall be retrieved.
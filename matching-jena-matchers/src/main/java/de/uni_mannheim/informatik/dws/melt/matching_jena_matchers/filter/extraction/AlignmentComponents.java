@@ -0,0 +1,134 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the correspondences of an alignment into connected components of the bipartite graph
+ * (sources on one side, targets on the other side, correspondences as edges).
+ * A one to one extraction never selects two correspondences which are in different components at the same time
+ * and thus each component can be solved independently (and in parallel).
+ * Source and target entities are different nodes, even if they have the same URI.
+ * Used by {@link SparseAssignmentExtractor} and {@link MaxWeightBipartiteExtractor}.
+ */
+public final class AlignmentComponents {
+
+    private AlignmentComponents(){ }
+
+    /**
+     * Computes the connected components of the given correspondences.
+     * The components are ordered by size (largest first) such that the large components are started first when they are processed in parallel.
+     * Components of the same size keep the order in which they appear in the input.
+     * @param correspondences the correspondences (usually all equivalence correspondences of an alignment)
+     * @return the list of components, each component is a list of correspondences
+     */
+    public static List<List<Correspondence>> compute(Iterable<Correspondence> correspondences){
+        Map<String, Integer> sourceIds = new HashMap<>();
+        Map<String, Integer> targetIds = new HashMap<>();
+        List<Correspondence> all = new ArrayList<>();
+        for(Correspondence c : correspondences){
+            sourceIds.putIfAbsent(c.getEntityOne(), sourceIds.size());
+            targetIds.putIfAbsent(c.getEntityTwo(), targetIds.size());
+            all.add(c);
+        }
+        int numberOfSources = sourceIds.size();
+        int[] edgeSource = new int[all.size()];
+        int[] edgeTarget = new int[all.size()];
+        int[] parent = new int[numberOfSources + targetIds.size()];
+        for(int i = 0; i < parent.length; i++){
+            parent[i] = i;
+        }
+        for(int i = 0; i < all.size(); i++){
+            Correspondence c = all.get(i);
+            edgeSource[i] = sourceIds.get(c.getEntityOne());
+            edgeTarget[i] = numberOfSources + targetIds.get(c.getEntityTwo());
+            union(parent, edgeSource[i], edgeTarget[i]);
+        }
+
+        int[] rootToComponent = new int[parent.length];
+        Arrays.fill(rootToComponent, -1);
+        List<List<Correspondence>> components = new ArrayList<>();
+        for(int i = 0; i < all.size(); i++){
+            int root = find(parent, edgeSource[i]);
+            int component = rootToComponent[root];
+            if(component < 0){
+                component = components.size();
+                rootToComponent[root] = component;
+                components.add(new ArrayList<>());
+            }
+            components.get(component).add(all.get(i));
+        }
+        components.sort(Comparator.comparingInt((List<Correspondence> l) -> l.size()).reversed()); //stable sort
+        return components;
+    }
+
+    /**
+     * Applies the extractor to each component and returns the union of all selected correspondences.
+     * The components are processed in parallel in case the number of threads is greater than one.
+     * The order of the result is the order of the components and thus deterministic.
+     * @param components the components as computed by {@link #compute(java.lang.Iterable) }
+     * @param extractor the extractor which selects the correspondences of one component (it has to be thread safe)
+     * @param numberOfThreads the number of threads (one means no parallelization)
+     * @return the selected correspondences of all components
+     */
+    public static List<Correspondence> extract(List<List<Correspondence>> components,
+            Function<List<Correspondence>, Collection<Correspondence>> extractor, int numberOfThreads){
+        List<Collection<Correspondence>> selected = new ArrayList<>(components.size());
+        for(int i = 0; i < components.size(); i++){
+            selected.add(null);
+        }
+        if(numberOfThreads <= 1 || components.size() <= 1){
+            for(int i = 0; i < components.size(); i++){
+                selected.set(i, extractor.apply(components.get(i)));
+            }
+        }else{
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try{
+                pool.submit(() -> IntStream.range(0, components.size()).parallel()
+                        .forEach(i -> selected.set(i, extractor.apply(components.get(i))))).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while extracting the alignment components.", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Could not extract the alignment components.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        List<Correspondence> result = new ArrayList<>();
+        for(Collection<Correspondence> s : selected){
+            result.addAll(s);
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int i){
+        while(parent[i] != i){
+            parent[i] = parent[parent[i]]; //path halving
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b){
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if(rootA != rootB){
+            //attach the larger id to the smaller one - trees stay flat due to path halving
+            if(rootA < rootB)
+                parent[rootB] = rootA;
+            else
+                parent[rootA] = rootB;
+        }
+    }
+}
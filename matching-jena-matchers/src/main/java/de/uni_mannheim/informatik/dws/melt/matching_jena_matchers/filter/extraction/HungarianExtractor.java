@@ -20,7 +20,7 @@ import org.slf4j.LoggerFactory;
 /**
  * This implementation uses the Hungarian algorithm to find a one to one mapping.
  * The runtime highly depends on the lower number of concepts (source or target) of the alignment as well as the number of correspondences.
- * If a better runtime is needed, use {@link MaxWeightBipartiteExtractor}.
+ * If a better runtime is needed, use {@link MaxWeightBipartiteExtractor} or {@link SparseAssignmentExtractor} (which does not need a dense matrix).
  */
 public class HungarianExtractor extends MatcherYAAAJena implements Filter {
 
@@ -5,9 +5,13 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Properties;
@@ -65,17 +69,68 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
             return NaiveDescendingExtractor.filter(inputAlignment);
         }
         
+        boolean switchSourceTarget = inputAlignment.getDistinctSourcesAsSet().size() > inputAlignment.getDistinctTargetsAsSet().size();
+        double maxConfidence = Collections.max(inputAlignment.getDistinctConfidencesAsSet());
+        Alignment result = new Alignment(inputAlignment, false);
+        result.addAll(selectCorrespondences(inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE),
+                switchSourceTarget, maxConfidence, heuristic, multiplier));
+        return result;
+    }
+    
+    /**
+     * Filters the alignment by computing a maximal one to one alignment for each connected component of the alignment
+     * (see {@link AlignmentComponents}). The components are independent and thus solved in parallel.
+     * The potentials of the NAIVE heuristic are initialized with the maximal confidence of the component instead of the
+     * whole alignment.
+     * @param inputAlignment the alignment to filter.
+     * @param heuristic the heuristic to use.
+     * @param multiplier the multiplier to use (how many digits of confidence are used.
+     * @param numberOfThreads the number of threads used to solve the components (one means no parallelization)
+     * @return the filtered alignment.
+     */
+    public static Alignment filter(Alignment inputAlignment, MwbInitHeuristic heuristic, int multiplier, int numberOfThreads){
+        if(inputAlignment.isEmpty()) {
+            return inputAlignment;
+        }
+        List<List<Correspondence>> components = AlignmentComponents.compute(
+                inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE));
+        Alignment result = new Alignment(inputAlignment, false);
+        result.addAll(AlignmentComponents.extract(components,
+                component -> filterComponent(component, heuristic, multiplier), numberOfThreads));
+        return result;
+    }
+    
+    private static Collection<Correspondence> filterComponent(List<Correspondence> component, MwbInitHeuristic heuristic, int multiplier){
+        if(component.size() <= 1)
+            return component;
+        Set<String> sources = new HashSet<>();
+        Set<String> targets = new HashSet<>();
+        Set<Double> confidences = new HashSet<>();
+        for(Correspondence c : component){
+            sources.add(c.getEntityOne());
+            targets.add(c.getEntityTwo());
+            confidences.add(c.getConfidence());
+        }
+        if(confidences.size() == 1){
+            // same as in the non component version: the algorithm may not terminate with only one confidence
+            return NaiveDescendingExtractor.filter(new Alignment(component));
+        }
+        return selectCorrespondences(component, sources.size() > targets.size(), Collections.max(confidences), heuristic, multiplier);
+    }
+    
+    private static List<Correspondence> selectCorrespondences(Iterable<Correspondence> correspondences, boolean switchSourceTarget,
+            double maxConfidence, MwbInitHeuristic heuristic, int multiplier){
         Map<String, MwbNode> sourceNodeMapping = new HashMap<>();
         Map<String, MwbNode> targetNodeMapping = new HashMap<>();        
         //switch source target depending on which one is larger
-        if(inputAlignment.getDistinctSourcesAsSet().size() > inputAlignment.getDistinctTargetsAsSet().size()){
-            for(Correspondence c : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
+        if(switchSourceTarget){
+            for(Correspondence c : correspondences){
                 MwbNode source = sourceNodeMapping.computeIfAbsent(c.getEntityTwo(), __ -> new MwbNode());
                 MwbNode target = targetNodeMapping.computeIfAbsent(c.getEntityOne(), __ -> new MwbNode());
                 source.addSuccesor(new MwbEdge(source, target, c, convertDoubleToInt(c.getConfidence(), multiplier))); //directed edge from source(A) to target(B)
             }
         } else {
-            for(Correspondence c : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
+            for(Correspondence c : correspondences){
                 MwbNode source = sourceNodeMapping.computeIfAbsent(c.getEntityOne(), __ -> new MwbNode());
                 MwbNode target = targetNodeMapping.computeIfAbsent(c.getEntityTwo(), __ -> new MwbNode());
                 source.addSuccesor(new MwbEdge(source, target, c, convertDoubleToInt(c.getConfidence(), multiplier))); //directed edge from source(A) to target(B)
@@ -84,9 +139,9 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
 
         switch(heuristic) {
             case NAIVE:
-                int maxConfidence = convertDoubleToInt(Collections.max(inputAlignment.getDistinctConfidencesAsSet()), multiplier);
+                int maxPotential = convertDoubleToInt(maxConfidence, multiplier);
                 for(MwbNode a : sourceNodeMapping.values()){
-                    a.setPotential(maxConfidence);
+                    a.setPotential(maxPotential);
                 }
                 break;
             case SIMPLE:
@@ -122,7 +177,7 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
         }
         
         //selected correspondences are edges from target(B) to source(A)
-        Alignment result = new Alignment(inputAlignment, false);
+        List<Correspondence> result = new ArrayList<>();
         for(MwbNode b : targetNodeMapping.values()){
             Set<MwbEdge> selectedEdges = b.getSuccessor();
             if(selectedEdges.size() > 1){
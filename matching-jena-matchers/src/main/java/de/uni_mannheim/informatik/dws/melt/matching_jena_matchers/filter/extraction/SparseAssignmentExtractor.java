@@ -0,0 +1,309 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.jena.ontology.OntModel;
+
+/**
+ * Computes an optimal one to one alignment (maximal sum of confidences) like the {@link HungarianExtractor}
+ * but without a dense cost matrix.
+ * The alignment is first split into connected components (see {@link AlignmentComponents}) which are solved in parallel.
+ * Each component is solved with successive shortest augmenting paths (Jonker-Volgenant style) where the
+ * shortest path is computed with Dijkstra on the candidate graph only. Each source (or target if there are fewer targets)
+ * additionally gets a private dummy partner with confidence zero such that it may also stay unmatched.
+ * Thus memory is linear in the number of correspondences and the runtime depends on the size of the components
+ * instead of the number of concepts.
+ */
+public class SparseAssignmentExtractor extends MatcherYAAAJena implements Filter {
+
+
+    /**
+     * Number of threads used to solve the components.
+     */
+    private int numberOfThreads;
+
+    /**
+     * Constructor which uses as many threads as cores are available.
+     */
+    public SparseAssignmentExtractor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor
+     * @param numberOfThreads the number of threads used to solve the components (one means no parallelization)
+     */
+    public SparseAssignmentExtractor(int numberOfThreads) {
+        setNumberOfThreads(numberOfThreads);
+    }
+
+    @Override
+    public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        return filter(inputAlignment, this.numberOfThreads);
+    }
+
+    /**
+     * Filters the alignment by computing an optimal one to one alignment with as many threads as cores are available.
+     * Only equivalence correspondences are considered.
+     * @param inputAlignment the alignment to filter.
+     * @return the filtered alignment (new alignment object).
+     */
+    public static Alignment filter(Alignment inputAlignment){
+        return filter(inputAlignment, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Filters the alignment by computing an optimal one to one alignment.
+     * Only equivalence correspondences are considered.
+     * @param inputAlignment the alignment to filter.
+     * @param numberOfThreads the number of threads used to solve the components (one means no parallelization)
+     * @return the filtered alignment (new alignment object).
+     */
+    public static Alignment filter(Alignment inputAlignment, int numberOfThreads){
+        Alignment result = new Alignment(inputAlignment, false);
+        if(inputAlignment.isEmpty()) {
+            return result;
+        }
+        List<List<Correspondence>> components = AlignmentComponents.compute(
+                inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE));
+        result.addAll(AlignmentComponents.extract(components, SparseAssignmentExtractor::solve, numberOfThreads));
+        return result;
+    }
+
+    /**
+     * Computes the optimal one to one selection of the given correspondences (usually one component).
+     * @param correspondences the correspondences
+     * @return the selected correspondences
+     */
+    static List<Correspondence> solve(List<Correspondence> correspondences){
+        if(correspondences.size() <= 1)
+            return new ArrayList<>(correspondences);
+
+        Map<String, Integer> sourceIds = new HashMap<>();
+        Map<String, Integer> targetIds = new HashMap<>();
+        for(Correspondence c : correspondences){
+            sourceIds.putIfAbsent(c.getEntityOne(), sourceIds.size());
+            targetIds.putIfAbsent(c.getEntityTwo(), targetIds.size());
+        }
+        //rows are the smaller side because each row needs one augmentation
+        boolean rowsAreSources = sourceIds.size() <= targetIds.size();
+        int numberOfRows = rowsAreSources ? sourceIds.size() : targetIds.size();
+        int numberOfRealColumns = rowsAreSources ? targetIds.size() : sourceIds.size();
+        int numberOfColumns = numberOfRealColumns + numberOfRows; // each row has a private dummy column
+
+        //adjacency of the rows in compressed sparse row format (edge id = position in the correspondence list)
+        int[] rowStart = new int[numberOfRows + 1];
+        int[] edgeRow = new int[correspondences.size()];
+        int[] edgeColumn = new int[correspondences.size()];
+        for(int e = 0; e < correspondences.size(); e++){
+            Correspondence c = correspondences.get(e);
+            int source = sourceIds.get(c.getEntityOne());
+            int target = targetIds.get(c.getEntityTwo());
+            edgeRow[e] = rowsAreSources ? source : target;
+            edgeColumn[e] = rowsAreSources ? target : source;
+            rowStart[edgeRow[e] + 1]++;
+        }
+        for(int i = 0; i < numberOfRows; i++){
+            rowStart[i + 1] += rowStart[i];
+        }
+        int[] rowEdges = new int[correspondences.size()];
+        int[] fill = Arrays.copyOf(rowStart, numberOfRows);
+        for(int e = 0; e < correspondences.size(); e++){
+            rowEdges[fill[edgeRow[e]]++] = e;
+        }
+
+        //the cost of an edge is minus the confidence, the dummy edges have cost zero.
+        //reduced cost of edge (row, column) is cost + rowPotential - columnPotential which is always non negative
+        double[] rowPotential = new double[numberOfRows];
+        double[] columnPotential = new double[numberOfColumns];
+        for(int e = 0; e < correspondences.size(); e++){
+            rowPotential[edgeRow[e]] = Math.max(rowPotential[edgeRow[e]], correspondences.get(e).getConfidence());
+        }
+
+        int[] rowToEdge = new int[numberOfRows]; // -1 = dummy (or not yet processed)
+        Arrays.fill(rowToEdge, -1);
+        int[] columnToRow = new int[numberOfColumns];
+        Arrays.fill(columnToRow, -1);
+
+        double[] columnDistance = new double[numberOfColumns];
+        double[] rowDistance = new double[numberOfRows];
+        int[] columnPredecessorRow = new int[numberOfColumns];
+        int[] columnPredecessorEdge = new int[numberOfColumns];
+        int[] columnSeen = new int[numberOfColumns]; // iteration in which the column was reached
+        boolean[] columnDone = new boolean[numberOfColumns];
+        int[] visitedRows = new int[numberOfRows];
+        int[] doneColumns = new int[numberOfColumns];
+        DoubleIntHeap heap = new DoubleIntHeap();
+
+        for(int root = 0; root < numberOfRows; root++){
+            int iteration = root + 1;
+            int visitedRowCount = 0;
+            int doneColumnCount = 0;
+            heap.clear();
+
+            int currentRow = root;
+            double currentDistance = 0;
+            int endColumn;
+            double endDistance;
+            while(true){
+                rowDistance[currentRow] = currentDistance;
+                visitedRows[visitedRowCount++] = currentRow;
+                //relax all edges of the current row (including its dummy edge)
+                for(int k = rowStart[currentRow]; k <= rowStart[currentRow + 1]; k++){
+                    int edge;
+                    int column;
+                    double cost;
+                    if(k < rowStart[currentRow + 1]){
+                        edge = rowEdges[k];
+                        column = edgeColumn[edge];
+                        cost = -correspondences.get(edge).getConfidence();
+                    }else{
+                        edge = -1;
+                        column = numberOfRealColumns + currentRow;
+                        cost = 0;
+                    }
+                    if(columnToRow[column] == currentRow)
+                        continue; // matched edge is only traversable backwards
+                    double reduced = cost + rowPotential[currentRow] - columnPotential[column];
+                    double distance = currentDistance + Math.max(0.0, reduced); // rounding errors
+                    if(columnSeen[column] != iteration){
+                        columnSeen[column] = iteration;
+                        columnDone[column] = false;
+                    }else if(columnDone[column] || distance >= columnDistance[column]){
+                        continue;
+                    }
+                    columnDistance[column] = distance;
+                    columnPredecessorRow[column] = currentRow;
+                    columnPredecessorEdge[column] = edge;
+                    heap.add(distance, column);
+                }
+                //select the closest column which is not done yet (lazy deletion)
+                int column;
+                double distance;
+                do{
+                    distance = heap.peekKey();
+                    column = heap.poll();
+                }while(columnDone[column] || distance > columnDistance[column]);
+                columnDone[column] = true;
+                if(columnToRow[column] < 0){
+                    endColumn = column;
+                    endDistance = distance;
+                    break;
+                }
+                doneColumns[doneColumnCount++] = column;
+                currentRow = columnToRow[column];
+                currentDistance = distance; // backward edge of a matched pair has reduced cost zero
+            }
+
+            //update the potentials of all nodes which are closer than the free column
+            for(int i = 0; i < visitedRowCount; i++){
+                int row = visitedRows[i];
+                rowPotential[row] += rowDistance[row] - endDistance;
+            }
+            for(int i = 0; i < doneColumnCount; i++){
+                int column = doneColumns[i];
+                columnPotential[column] += columnDistance[column] - endDistance;
+            }
+
+            //augment along the shortest path
+            int column = endColumn;
+            while(true){
+                int row = columnPredecessorRow[column];
+                int previousColumn = rowToEdge[row] >= 0 ? edgeColumn[rowToEdge[row]] : numberOfRealColumns + row;
+                columnToRow[column] = row;
+                rowToEdge[row] = columnPredecessorEdge[column];
+                if(row == root)
+                    break;
+                column = previousColumn;
+            }
+        }
+
+        List<Correspondence> selected = new ArrayList<>();
+        for(int row = 0; row < numberOfRows; row++){
+            if(rowToEdge[row] >= 0)
+                selected.add(correspondences.get(rowToEdge[row]));
+        }
+        return selected;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to solve the components of the alignment.
+     * @param numberOfThreads the number of threads (one means no parallelization)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("Number of threads are smaller than one: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Minimal binary min heap of (double key, int value) pairs without boxing.
+     */
+    private static class DoubleIntHeap {
+        private double[] keys = new double[16];
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void clear(){
+            size = 0;
+        }
+
+        void add(double key, int value){
+            if(size == keys.length){
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while(i > 0){
+                int parent = (i - 1) >>> 1;
+                if(keys[parent] <= key)
+                    break;
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        double peekKey(){
+            return keys[0];
+        }
+
+        int poll(){
+            int result = values[0];
+            size--;
+            double key = keys[size];
+            int value = values[size];
+            int i = 0;
+            while(true){
+                int child = 2 * i + 1;
+                if(child >= size)
+                    break;
+                if(child + 1 < size && keys[child + 1] < keys[child])
+                    child++;
+                if(keys[child] >= key)
+                    break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+            return result;
+        }
+    }
+}
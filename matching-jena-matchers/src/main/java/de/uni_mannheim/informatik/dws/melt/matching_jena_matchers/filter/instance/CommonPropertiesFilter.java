@@ -7,18 +7,26 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.StmtIterator;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Filter which deletes instance mappings if they have no matched properties in common.
+ * By default, the properties of each individual are computed only once (as a set of interned ids) and
+ * the correspondences are scored in parallel (see {@link #setPrecomputeSignatures(boolean) }).
  */
 public class CommonPropertiesFilter extends BaseFilterWithSetComparison implements Filter {
 
@@ -37,6 +45,11 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
      * The minimum confidence for which a property mapping is counted.
      */
     private double minPropertyConfidence;
+    
+    /**
+     * If true, the properties of each individual are computed only once and the correspondences are scored in parallel.
+     */
+    private boolean precomputeSignatures = true;
 
     /**
      * Constructor with all necessary parameters.
@@ -84,6 +97,8 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
     }
     
     public Alignment filter(OntModel source, OntModel target, Alignment inputAlignment){
+        if(this.precomputeSignatures)
+            return filterWithSignatures(source, target, inputAlignment);
         Alignment finalAlignment = new Alignment();
         for(Correspondence c : inputAlignment){
             Individual individualSource = source.getIndividual(c.getEntityOne());
@@ -106,6 +121,68 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
     
     
     
+    /**
+     * Same as the filter method but the distinct properties of each individual are computed only once and represented by interned ids.
+     * The property mappings of the input alignment are indexed once and the correspondences are scored in parallel. The result is the same.
+     */
+    private Alignment filterWithSignatures(OntModel source, OntModel target, Alignment inputAlignment){
+        SignatureIndex index = new SignatureIndex(inputAlignment, c -> 
+                c.getRelation() == CorrespondenceRelation.EQUIVALENCE && 
+                c.getConfidence() >= this.minPropertyConfidence &&
+                (this.excludeSameURIMapping == false || c.getEntityOne().equals(c.getEntityTwo()) == false));
+        Map<String, IntHashSet> sourceSignatures = new HashMap<>();
+        Map<String, IntHashSet> targetSignatures = new HashMap<>();
+        
+        //the models are only accessed in this (sequential) step
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        int size = correspondences.size();
+        IntHashSet[] sourceProperties = new IntHashSet[size];
+        IntHashSet[] targetProperties = new IntHashSet[size];
+        for(int i = 0; i < size; i++){
+            Correspondence c = correspondences.get(i);
+            sourceProperties[i] = getSignature(source, c.getEntityOne(), sourceSignatures, index.getSourceIds());
+            targetProperties[i] = getSignature(target, c.getEntityTwo(), targetSignatures, index.getTargetIds());
+        }
+        
+        double[] values = new double[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            if(sourceProperties[i] == null || targetProperties[i] == null)
+                return;
+            int count = index.countMappings(sourceProperties[i], targetProperties[i]);
+            values[i] = this.setSimilarity.compute(count, sourceProperties[i].size(), targetProperties[i].size());
+        });
+        
+        Alignment finalAlignment = new Alignment();
+        for(int i = 0; i < size; i++){
+            Correspondence c = correspondences.get(i);
+            if(sourceProperties[i] == null || targetProperties[i] == null){
+                finalAlignment.add(c);
+                continue;
+            }
+            if(values[i] >= this.threshold){
+                c.addAdditionalConfidence(this.getClass(), values[i]);
+                finalAlignment.add(c);
+            }else{
+                LOGGER.trace("InstanceFilterBasedOnCommonProperties removed the following correspondence because number of shared properties is less than threshold: {}", c);
+            }
+        }
+        return finalAlignment;
+    }
+    
+    private static IntHashSet getSignature(OntModel model, String uri, Map<String, IntHashSet> signatures, SignatureIndex.Interner<String> ids){
+        if(signatures.containsKey(uri))
+            return signatures.get(uri);
+        IntHashSet signature = null;
+        Individual individual = model.getIndividual(uri);
+        if(individual != null){
+            signature = new IntHashSet();
+            for(String property : getDistinctProperties(individual))
+                signature.add(ids.intern(property));
+        }
+        signatures.put(uri, signature);
+        return signature;
+    }
+    
     /**
      * Return the number of overlapping distinct properties.
      * @param individualSource the individual source
@@ -147,6 +224,20 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
         return properties;
     }
 
+    public boolean isPrecomputeSignatures() {
+        return precomputeSignatures;
+    }
+
+    /**
+     * If true (default), the distinct properties of each individual are computed only once (as a set of interned ids),
+     * the input alignment is indexed once and the correspondences are scored in parallel.
+     * The result is the same as with false, which queries the model and the alignment for each correspondence.
+     * @param precomputeSignatures true to precompute the property signatures
+     */
+    public void setPrecomputeSignatures(boolean precomputeSignatures) {
+        this.precomputeSignatures = precomputeSignatures;
+    }
+
     @Override
     public String toString() {
         return "CommonPropertiesFilter";
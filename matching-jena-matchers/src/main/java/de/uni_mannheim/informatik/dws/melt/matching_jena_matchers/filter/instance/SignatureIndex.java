@@ -0,0 +1,159 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+/**
+ * Helper for the instance filters which compare the neighbourhood (neighbours, types, properties) of the two instances of a correspondence.
+ * All elements (URIs, literals) are interned to int ids such that the neighbourhood of each resource is computed only once
+ * and represented as a compact int set (signature).
+ * The mappings of the input alignment are indexed as source id to target ids such that the number of mapped
+ * neighbours can be computed without querying the alignment for each correspondence.
+ * Once built, the index is only read and thus the correspondences can be scored in parallel.
+ */
+class SignatureIndex {
+
+    private final Interner<String> sourceIds;
+    private final Interner<String> targetIds;
+    private final IntObjectHashMap<IntHashSet> sourceToTargets;
+
+    /**
+     * Constructor
+     * @param mappings the mappings (usually the input alignment)
+     * @param mappingFilter the predicate which decides if a mapping is indexed (e.g. the minimum confidence)
+     */
+    SignatureIndex(Iterable<Correspondence> mappings, Predicate<Correspondence> mappingFilter) {
+        this.sourceIds = new Interner<>();
+        this.targetIds = new Interner<>();
+        this.sourceToTargets = new IntObjectHashMap<>();
+        for (Correspondence c : mappings) {
+            if (mappingFilter.test(c) == false)
+                continue;
+            int sourceId = this.sourceIds.intern(c.getEntityOne());
+            int targetId = this.targetIds.intern(c.getEntityTwo());
+            this.sourceToTargets.getIfAbsentPut(sourceId, IntHashSet::new).add(targetId);
+        }
+    }
+
+    /**
+     * Returns the interner for source elements (the source mapping URIs are already interned).
+     * @return the source interner
+     */
+    Interner<String> getSourceIds() {
+        return sourceIds;
+    }
+
+    /**
+     * Returns the interner for target elements (the target mapping URIs are already interned).
+     * @return the target interner
+     */
+    Interner<String> getTargetIds() {
+        return targetIds;
+    }
+
+    /**
+     * Counts the number of mappings between the two sets (sum over all source elements of the number of mapped target elements).
+     * @param sourceSignature the source element ids
+     * @param targetSignature the target element ids
+     * @return the number of mappings between the two sets
+     */
+    int countMappings(IntHashSet sourceSignature, IntHashSet targetSignature) {
+        int count = 0;
+        IntIterator i = sourceSignature.intIterator();
+        while (i.hasNext()) {
+            IntHashSet mappedTargets = this.sourceToTargets.get(i.next());
+            if (mappedTargets == null)
+                continue;
+            count += intersectionSize(mappedTargets, targetSignature);
+        }
+        return count;
+    }
+
+    /**
+     * Computes the source and target elements which are mapped to each other.
+     * @param sourceSignature the source element ids
+     * @param targetSignature the target element ids
+     * @param mappedSources all source ids which are mapped to an element of the target signature are added
+     * @param mappedTargets all target ids which are mapped to an element of the source signature are added
+     */
+    void collectMapped(IntHashSet sourceSignature, IntHashSet targetSignature, IntHashSet mappedSources, IntHashSet mappedTargets) {
+        IntIterator i = sourceSignature.intIterator();
+        while (i.hasNext()) {
+            int sourceId = i.next();
+            IntHashSet mappedTargetsOfSource = this.sourceToTargets.get(sourceId);
+            if (mappedTargetsOfSource == null)
+                continue;
+            IntHashSet smaller = mappedTargetsOfSource.size() < targetSignature.size() ? mappedTargetsOfSource : targetSignature;
+            IntHashSet larger = smaller == targetSignature ? mappedTargetsOfSource : targetSignature;
+            IntIterator j = smaller.intIterator();
+            while (j.hasNext()) {
+                int targetId = j.next();
+                if (larger.contains(targetId)) {
+                    mappedSources.add(sourceId);
+                    mappedTargets.add(targetId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements which are contained in both sets.
+     * @param one the first set
+     * @param two the second set
+     * @return the size of the intersection
+     */
+    static int intersectionSize(IntHashSet one, IntHashSet two) {
+        IntHashSet smaller = one.size() < two.size() ? one : two;
+        IntHashSet larger = smaller == one ? two : one;
+        int count = 0;
+        IntIterator i = smaller.intIterator();
+        while (i.hasNext()) {
+            if (larger.contains(i.next()))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Maps objects to consecutive int ids and back. Not thread safe - only used while computing the signatures.
+     * @param <T> the type of the objects
+     */
+    static class Interner<T> {
+        private final ObjectIntHashMap<T> ids = new ObjectIntHashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        /**
+         * Returns the id of the object and creates a new one if it is not interned yet.
+         * @param value the object
+         * @return the id of the object
+         */
+        int intern(T value) {
+            int id = this.ids.getIfAbsent(value, -1);
+            if (id < 0) {
+                id = this.values.size();
+                this.ids.put(value, id);
+                this.values.add(value);
+            }
+            return id;
+        }
+
+        /**
+         * Returns the object with the given id.
+         * @param id the id
+         * @return the object
+         */
+        T get(int id) {
+            return this.values.get(id);
+        }
+
+        int size() {
+            return this.values.size();
+        }
+    }
+}
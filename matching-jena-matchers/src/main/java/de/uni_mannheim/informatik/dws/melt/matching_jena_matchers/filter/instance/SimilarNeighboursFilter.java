@@ -5,13 +5,18 @@ import com.googlecode.cqengine.query.QueryFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Literal;
@@ -20,6 +25,8 @@ import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 
 /**
  * Checks for each instance mapping, how many already matched neighbours it has.
@@ -30,6 +37,8 @@ import org.apache.jena.rdf.model.StmtIterator;
  *      |                                         |
  * Target_Subject ------Target_Property------Target_Object
  * </pre>
+ * By default, the neighbourhood of each individual is computed only once (as a set of interned ids) and
+ * the correspondences are scored in parallel (see {@link #setPrecomputeSignatures(boolean) }).
  */
 public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
 
@@ -58,6 +67,11 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     private boolean useLiteral;
     
     private boolean addNeighboursToCorrespondence = false;
+    
+    /**
+     * If true, the neighbourhood of each individual is computed only once and the correspondences are scored in parallel.
+     */
+    private boolean precomputeSignatures = true;
 
     /**
      * Constructor
@@ -127,6 +141,8 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        if(this.precomputeSignatures)
+            return matchWithSignatures(source, target, inputAlignment);
         Alignment filteredAlignment = new Alignment(inputAlignment, false);
         for(Correspondence correspondence : inputAlignment){
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
@@ -168,18 +184,7 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                 for(Object o : literalIntersection){
                     neighboursPrint.add(o.toString());
                 }
-                //reduce to max 20
-                if(neighboursPrint.size() > 20){
-                    StringJoiner sj = new StringJoiner(",");
-                    Iterator<String> iter = neighboursPrint.iterator();
-                    for (int j = 0; j < 20; j++) {
-                        sj.add(iter.next());
-                    }
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
-                }else{
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
-                }
-                
+                correspondence.addAdditionalExplanation(this.getClass(), getExplanation(neighboursPrint));
             }
             
             //sum up resource mappings and literal mappings
@@ -197,6 +202,128 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     }
     
     
+    private static String getExplanation(Set<String> neighboursPrint){
+        //reduce to max 20
+        if(neighboursPrint.size() > 20){
+            StringJoiner sj = new StringJoiner(",");
+            Iterator<String> iter = neighboursPrint.iterator();
+            for (int j = 0; j < 20; j++) {
+                sj.add(iter.next());
+            }
+            return "[" + sj.toString() + "] (reduced to max 20 neighbours)";
+        }else{
+            return "[" + String.join(",", neighboursPrint) + "]";
+        }
+    }
+    
+    /**
+     * Same as the match method but the neighbourhood of each individual is computed only once and represented by interned ids.
+     * The mappings of the input alignment are indexed once (instead of querying the alignment for each correspondence)
+     * and the correspondences are scored in parallel. The result is the same.
+     */
+    private Alignment matchWithSignatures(OntModel source, OntModel target, Alignment inputAlignment){
+        SignatureIndex index = new SignatureIndex(inputAlignment, c -> c.getConfidence() >= minResourceConfidence);
+        SignatureIndex.Interner<Object> literalIds = new SignatureIndex.Interner<>();
+        Map<String, NeighbourSignature> sourceSignatures = new HashMap<>();
+        Map<String, NeighbourSignature> targetSignatures = new HashMap<>();
+        
+        //the models are only accessed in this (sequential) step
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        int size = correspondences.size();
+        NeighbourSignature[] sourceSignature = new NeighbourSignature[size];
+        NeighbourSignature[] targetSignature = new NeighbourSignature[size];
+        for(int i = 0; i < size; i++){
+            Correspondence correspondence = correspondences.get(i);
+            sourceSignature[i] = getSignature(source, correspondence.getEntityOne(), sourceSignatures, index.getSourceIds(), literalIds);
+            targetSignature[i] = getSignature(target, correspondence.getEntityTwo(), targetSignatures, index.getTargetIds(), literalIds);
+        }
+        
+        double[] values = new double[size];
+        String[] explanations = new String[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            NeighbourSignature sourceNeighbours = sourceSignature[i];
+            NeighbourSignature targetNeighbours = targetSignature[i];
+            if(sourceNeighbours == null || targetNeighbours == null)
+                return;
+            IntHashSet mappedSources = new IntHashSet();
+            IntHashSet mappedTargets = new IntHashSet();
+            index.collectMapped(sourceNeighbours.resources, targetNeighbours.resources, mappedSources, mappedTargets);
+            //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
+            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+            
+            if(this.addNeighboursToCorrespondence){
+                Set<String> neighboursPrint = new HashSet<>();
+                if(mappedSources.size() < mappedTargets.size()){
+                    addInterned(neighboursPrint, mappedSources, index.getSourceIds());
+                }else{
+                    addInterned(neighboursPrint, mappedTargets, index.getTargetIds());
+                }
+                IntIterator literals = sourceNeighbours.literals.intIterator();
+                while(literals.hasNext()){
+                    int literal = literals.next();
+                    if(targetNeighbours.literals.contains(literal))
+                        neighboursPrint.add(literalIds.get(literal).toString());
+                }
+                explanations[i] = getExplanation(neighboursPrint);
+            }
+            
+            //sum up resource mappings and literal mappings
+            int countSourceNeighbours = sourceNeighbours.resources.size() + sourceNeighbours.literals.size();
+            int countTargetNeighbours = targetNeighbours.resources.size() + targetNeighbours.literals.size();
+            int countIntersection = resourceIntersection + SignatureIndex.intersectionSize(sourceNeighbours.literals, targetNeighbours.literals);
+            values[i] = setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
+        });
+        
+        Alignment filteredAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < size; i++){
+            Correspondence correspondence = correspondences.get(i);
+            if(sourceSignature[i] == null || targetSignature[i] == null){
+                filteredAlignment.add(correspondence);
+                continue;
+            }
+            if(explanations[i] != null)
+                correspondence.addAdditionalExplanation(this.getClass(), explanations[i]);
+            if(values[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), values[i]);
+                filteredAlignment.add(correspondence);
+            }
+        }
+        return filteredAlignment;
+    }
+    
+    private NeighbourSignature getSignature(OntModel model, String uri, Map<String, NeighbourSignature> signatures, 
+            SignatureIndex.Interner<String> resourceIds, SignatureIndex.Interner<Object> literalIds){
+        if(signatures.containsKey(uri))
+            return signatures.get(uri);
+        NeighbourSignature signature = null;
+        Individual individual = model.getIndividual(uri);
+        if(individual != null){
+            Neighbours neighbours = getNeighbours(model, individual);
+            signature = new NeighbourSignature();
+            for(String resource : neighbours.getUriResources())
+                signature.resources.add(resourceIds.intern(resource));
+            for(Object literal : neighbours.getLiterals())
+                signature.literals.add(literalIds.intern(literal));
+        }
+        signatures.put(uri, signature);
+        return signature;
+    }
+    
+    private static void addInterned(Set<String> set, IntHashSet ids, SignatureIndex.Interner<String> interner){
+        IntIterator i = ids.intIterator();
+        while(i.hasNext()){
+            set.add(interner.get(i.next()));
+        }
+    }
+    
+    /**
+     * The neighbourhood of one individual as interned ids.
+     */
+    private static class NeighbourSignature{
+        private final IntHashSet resources = new IntHashSet();
+        private final IntHashSet literals = new IntHashSet();
+    }
+    
     private Neighbours getNeighbours(OntModel model, Individual individual){
         Neighbours neighbours = new Neighbours();
         Set<Object> ignoreNeighbours = this.excludeNeighbours.apply(individual);
@@ -303,6 +430,20 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     public void setAddNeighboursToCorrespondence(boolean addNeighboursToCorrespondence) {
         this.addNeighboursToCorrespondence = addNeighboursToCorrespondence;
     }
+
+    public boolean isPrecomputeSignatures() {
+        return precomputeSignatures;
+    }
+
+    /**
+     * If true (default), the neighbourhood of each individual is computed only once (as a set of interned ids),
+     * the input alignment is indexed once and the correspondences are scored in parallel.
+     * The result is the same as with false, which queries the model and the alignment for each correspondence.
+     * @param precomputeSignatures true to precompute the neighbourhood signatures
+     */
+    public void setPrecomputeSignatures(boolean precomputeSignatures) {
+        this.precomputeSignatures = precomputeSignatures;
+    }
     
     public static Function<Resource, Set<Object>> createExcludeNeighboursFunction(Set<Property> excludeLiteralProeprties, Function<Literal, Object> literalProcessingFunction){
         return r->{
@@ -6,19 +6,27 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.vocabulary.RDF;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 
 /**
  * Checks for each instance mapping, how many already matched types it has in common.
  * For comparing a type hierarchy, choose SimilarHierarchyFilter.
+ * By default, the types of each individual are computed only once (as a set of interned ids) and
+ * the correspondences are scored in parallel (see {@link #setPrecomputeSignatures(boolean) }).
  */
 public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Filter {
 
@@ -31,6 +39,11 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
      * Type property: usually rdf:type.
      */
     private Property typeProperty;
+    
+    /**
+     * If true, the types of each individual are computed only once and the correspondences are scored in parallel.
+     */
+    private boolean precomputeSignatures = true;
 
     public SimilarTypeFilter(double minClassConfidence, Property typeProperty, double threshold, SetSimilarity setSimilatity) {
         super(threshold, setSimilatity);
@@ -48,6 +61,8 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        if(this.precomputeSignatures)
+            return matchWithSignatures(source, target, inputAlignment);
         Alignment filteredAlignment = new Alignment(inputAlignment, false);
         for(Correspondence correspondence : inputAlignment){
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
@@ -85,6 +100,67 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
     }
     
     
+    /**
+     * Same as the match method but the types of each individual are computed only once and represented by interned ids.
+     * The class mappings of the input alignment are indexed once and the correspondences are scored in parallel. The result is the same.
+     */
+    private Alignment matchWithSignatures(OntModel source, OntModel target, Alignment inputAlignment){
+        SignatureIndex index = new SignatureIndex(inputAlignment, c -> c.getConfidence() >= minClassConfidence);
+        Map<String, IntHashSet> sourceSignatures = new HashMap<>();
+        Map<String, IntHashSet> targetSignatures = new HashMap<>();
+        
+        //the models are only accessed in this (sequential) step
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        int size = correspondences.size();
+        IntHashSet[] sourceTypes = new IntHashSet[size];
+        IntHashSet[] targetTypes = new IntHashSet[size];
+        for(int i = 0; i < size; i++){
+            Correspondence correspondence = correspondences.get(i);
+            sourceTypes[i] = getSignature(source, correspondence.getEntityOne(), sourceSignatures, index.getSourceIds());
+            targetTypes[i] = getSignature(target, correspondence.getEntityTwo(), targetSignatures, index.getTargetIds());
+        }
+        
+        double[] values = new double[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            if(sourceTypes[i] == null || targetTypes[i] == null)
+                return;
+            IntHashSet mappedSources = new IntHashSet();
+            IntHashSet mappedTargets = new IntHashSet();
+            index.collectMapped(sourceTypes[i], targetTypes[i], mappedSources, mappedTargets);
+            //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
+            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+            values[i] = setSimilarity.compute(resourceIntersection, sourceTypes[i].size(), targetTypes[i].size());
+        });
+        
+        Alignment filteredAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < size; i++){
+            Correspondence correspondence = correspondences.get(i);
+            if(sourceTypes[i] == null || targetTypes[i] == null){
+                filteredAlignment.add(correspondence);
+                continue;
+            }
+            if(values[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), values[i]);
+                filteredAlignment.add(correspondence);
+            }
+        }
+        return filteredAlignment;
+    }
+    
+    private IntHashSet getSignature(OntModel model, String uri, Map<String, IntHashSet> signatures, SignatureIndex.Interner<String> ids){
+        if(signatures.containsKey(uri))
+            return signatures.get(uri);
+        IntHashSet signature = null;
+        Individual individual = model.getIndividual(uri);
+        if(individual != null){
+            signature = new IntHashSet();
+            for(String type : getTypes(individual))
+                signature.add(ids.intern(type));
+        }
+        signatures.put(uri, signature);
+        return signature;
+    }
+    
     private Set<String> getTypes(Individual individual){
         Set<String> types = new HashSet();
         StmtIterator stmts = individual.listProperties(this.typeProperty);
@@ -97,6 +173,20 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
         return types;
     }
 
+    public boolean isPrecomputeSignatures() {
+        return precomputeSignatures;
+    }
+
+    /**
+     * If true (default), the types of each individual are computed only once (as a set of interned ids),
+     * the input alignment is indexed once and the correspondences are scored in parallel.
+     * The result is the same as with false, which queries the model and the alignment for each correspondence.
+     * @param precomputeSignatures true to precompute the type signatures
+     */
+    public void setPrecomputeSignatures(boolean precomputeSignatures) {
+        this.precomputeSignatures = precomputeSignatures;
+    }
+
     @Override
     public String toString() {
         return "SimilarTypeFilter";
@@ -11,24 +11,32 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import weka.classifiers.AbstractClassifier;
 import weka.classifiers.Classifier;
-import weka.classifiers.Evaluation;
-import weka.classifiers.trees.J48;
-import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instances;
+import weka.core.SerializationHelper;
+import weka.core.Utils;
 
 /**
- * Non functional code.
+ * Filters an alignment with a WEKA classifier which is trained on the additional confidences of the correspondences.
+ * The classifier is selected from a list of configurations with a cross validation
+ * (see {@link #trainModel(de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment) }) and applied with
+ * {@link #applyModel(java.io.File, de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment) }.
+ * The match method itself is not functional yet and returns the input alignment.
  */
 public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     /**
@@ -36,6 +44,11 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MachineLearningWEKAFilter.class);
     
+    /**
+     * Seed for the assignment of the cross validation folds.
+     */
+    private static final int SEED = 1324;
+    
     /**
      * Generator for training data. If relation is equivalence, then this is the positive class. 
      * All other relations are the negative class.
@@ -53,10 +66,15 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     private int crossValidationNumber;
     
     /**
-     * Number of jobs to execute in parallel.
+     * Number of jobs to execute in parallel (cross validation folds and prediction chunks).
      */
     private int numberOfParallelJobs;
     
+    /**
+     * The classifiers (and hyperparameters) which are compared in the cross validation.
+     */
+    private List<WekaClassifierConfiguration> classifierConfigurations;
+    
     
     
     
@@ -111,6 +129,7 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
         this.confidenceNames = confidenceNames;
         this.crossValidationNumber = crossValidationNumber;
         this.numberOfParallelJobs = numberOfParallelJobs;
+        this.classifierConfigurations = WekaClassifierConfiguration.getDefaultConfigurations();
     }
 
     
@@ -123,66 +142,257 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     }
     
     
+    /**
+     * Selects the best classifier configuration (F-measure of the positive class) with a stratified cross validation,
+     * trains it on the whole training alignment and writes it (together with the WEKA header) to a temporary file.
+     * The feature matrix is built only once and shared by all folds and configurations.
+     * All (configuration, fold) pairs are trained and evaluated in parallel (see numberOfParallelJobs).
+     * @param trainingAlignment the training alignment. Correspondences with an EQUIVALENCE relation are treated as positives.
+     * @return the file which contains the model or null if no features or examples are available
+     * @throws Exception in case the model can not be trained or written
+     */
     public File trainModel(Alignment trainingAlignment) throws Exception{
+        WekaFeatureMatrix matrix = getFeatureMatrix(trainingAlignment);
+        if(matrix.getNumberOfFeatures() == 0 || matrix.getNumberOfRows() == 0){
+            LOGGER.warn("No features or no training examples are available. No model is trained.");
+            return null;
+        }
         
-        Instances trainingInstances = getTrainingInstances(trainingAlignment);
-        
-        //10 fold cross validation
+        WekaClassifierConfiguration best = selectBestConfiguration(matrix);
+        LOGGER.info("Train final model with {}.", best);
+        Classifier model = best.createClassifier();
+        model.buildClassifier(matrix.toInstances("Train"));
         
-        int folds = 10;
-        int seed = 1324;
-        Random rand = new Random(seed);
-        Instances randData = new Instances(trainingInstances);
-        randData.randomize(rand);
-        randData.stratify(folds);
+        File modelFile = File.createTempFile("melt_weka_model", ".model");
+        modelFile.deleteOnExit();
+        SerializationHelper.writeAll(modelFile.getAbsolutePath(), new Object[]{model, new Instances(matrix.getHeader(), 0)});
+        return modelFile;
+    }
+    
+    /**
+     * Runs the cross validation for all classifier configurations and returns the one with the highest F-measure.
+     * In case of ties, the first configuration wins.
+     * @param matrix the training matrix
+     * @return the best configuration
+     */
+    private WekaClassifierConfiguration selectBestConfiguration(WekaFeatureMatrix matrix) throws Exception{
+        if(this.classifierConfigurations.size() == 1)
+            return this.classifierConfigurations.get(0);
+        int folds = Math.min(this.crossValidationNumber, matrix.getNumberOfRows());
+        if(folds < 2){
+            LOGGER.warn("Not enough training examples for a cross validation. Use the first classifier configuration.");
+            return this.classifierConfigurations.get(0);
+        }
+        int[] foldOfRow = matrix.stratifiedFolds(folds, new Random(SEED));
+        int[][] trainRows = new int[folds][];
+        int[][] testRows = new int[folds][];
+        for(int fold = 0; fold < folds; fold++){
+            int testSize = 0;
+            for(int f : foldOfRow){
+                if(f == fold)
+                    testSize++;
+            }
+            trainRows[fold] = new int[foldOfRow.length - testSize];
+            testRows[fold] = new int[testSize];
+            int trainIndex = 0;
+            int testIndex = 0;
+            for(int row = 0; row < foldOfRow.length; row++){
+                if(foldOfRow[row] == fold)
+                    testRows[fold][testIndex++] = row;
+                else
+                    trainRows[fold][trainIndex++] = row;
+            }
+        }
         
-        Classifier cls = new J48();
+        //each job writes only the predictions of its own test rows
+        double[][] predictions = new double[this.classifierConfigurations.size()][matrix.getNumberOfRows()];
+        runJobs(this.classifierConfigurations.size() * folds, job -> {
+            int configuration = job / folds;
+            int fold = job % folds;
+            Classifier classifier = this.classifierConfigurations.get(configuration).createClassifier();
+            classifier.buildClassifier(matrix.toInstances("Train" + fold, trainRows[fold]));
+            predictPositiveProbability(classifier, matrix, testRows[fold], predictions[configuration]);
+        });
         
-        // perform cross-validation
-        Evaluation eval = new Evaluation(randData);
-        for (int n = 0; n < folds; n++) {
-          Instances train = randData.trainCV(folds, n, rand);
-          Instances test = randData.testCV(folds, n);
-          // the above code is used by the StratifiedRemoveFolds filter, the
-          // code below by the Explorer/Experimenter:
-          // Instances train = randData.trainCV(folds, n, rand);
-
-          // build and evaluate classifier
-          Classifier clsCopy = AbstractClassifier.makeCopy(cls);
-          clsCopy.buildClassifier(train);
-          eval.evaluateModel(clsCopy, test);
+        WekaClassifierConfiguration best = null;
+        double bestFMeasure = -1.0;
+        for(int i = 0; i < this.classifierConfigurations.size(); i++){
+            double fMeasure = computeFMeasure(matrix, predictions[i]);
+            LOGGER.info("Cross validation ({} folds) of {}: F-measure {}", folds, this.classifierConfigurations.get(i), fMeasure);
+            if(fMeasure > bestFMeasure){
+                bestFMeasure = fMeasure;
+                best = this.classifierConfigurations.get(i);
+            }
+        }
+        return best;
+    }
+    
+    private static double computeFMeasure(WekaFeatureMatrix matrix, double[] positiveProbability){
+        int truePositive = 0;
+        int falsePositive = 0;
+        int falseNegative = 0;
+        for(int row = 0; row < matrix.getNumberOfRows(); row++){
+            boolean predictedPositive = positiveProbability[row] >= 0.5;
+            if(matrix.isPositive(row)){
+                if(predictedPositive)
+                    truePositive++;
+                else
+                    falseNegative++;
+            }else if(predictedPositive){
+                falsePositive++;
+            }
+        }
+        if(truePositive == 0)
+            return 0.0;
+        return (2.0 * truePositive) / (2.0 * truePositive + falsePositive + falseNegative);
+    }
+    
+    /**
+     * Applies the model (as written by {@link #trainModel(de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment) })
+     * to the alignment. Only correspondences which are classified as positive are kept.
+     * The probability of the positive class is added as additional confidence of this class.
+     * @param model the model file
+     * @param alignment the alignment to filter
+     * @return the filtered alignment
+     * @throws Exception in case the model can not be read or applied
+     */
+    public Alignment applyModel(File model, Alignment alignment) throws Exception{
+        Object[] modelAndHeader = SerializationHelper.readAll(model.getAbsolutePath());
+        Classifier classifier = (Classifier) modelAndHeader[0];
+        Instances header = (Instances) modelAndHeader[1];
+        List<String> featureNames = new ArrayList<>();
+        for(int i = 0; i < header.numAttributes(); i++){
+            if(i != header.classIndex())
+                featureNames.add(header.attribute(i).name());
         }
         
-        //eval.crossValidateModel(cls, randData, folds, rand);
-
+        List<Correspondence> predictAlignmentOrdered = new ArrayList<>(alignment); // make order explicit
+        WekaFeatureMatrix matrix = WekaFeatureMatrix.fromCorrespondences(predictAlignmentOrdered, featureNames);
+        double[] predictions = predictBatch(classifier, matrix);
         
-        return null;
+        Alignment filteredAlignment = new Alignment(alignment, false);
+        for(int i = 0; i < predictions.length; i++){
+            if(predictions[i] >= 0.5){//positive class
+                Correspondence c = predictAlignmentOrdered.get(i);
+                c.addAdditionalConfidence(this.getClass(), predictions[i]);
+                filteredAlignment.add(c);
+            }
+        }
+        return filteredAlignment;
+    }
+    
+    /**
+     * Computes the probability of the positive class for all rows of the matrix.
+     * The rows are split in numberOfParallelJobs chunks and each chunk is predicted with its own copy of the classifier.
+     * @param classifier the trained classifier
+     * @param matrix the feature matrix
+     * @return the probability of the positive class for each row
+     * @throws Exception in case the classifier can not be applied
+     */
+    public double[] predictBatch(Classifier classifier, WekaFeatureMatrix matrix) throws Exception{
+        double[] result = new double[matrix.getNumberOfRows()];
+        int chunks = Math.max(1, Math.min(this.numberOfParallelJobs, matrix.getNumberOfRows()));
+        if(chunks == 1){
+            predictPositiveProbability(classifier, matrix, matrix.allRows(), result);
+            return result;
+        }
+        int chunkSize = (matrix.getNumberOfRows() + chunks - 1) / chunks;
+        runJobs(chunks, chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(matrix.getNumberOfRows(), from + chunkSize);
+            int[] rows = new int[Math.max(0, to - from)];
+            for(int i = 0; i < rows.length; i++){
+                rows[i] = from + i;
+            }
+            //classifiers are not guaranteed to be thread safe
+            predictPositiveProbability(AbstractClassifier.makeCopy(classifier), matrix, rows, result);
+        });
+        return result;
+    }
+    
+    /**
+     * Writes the probability of the positive class of the given rows to the result array (at the row position).
+     * Only one WEKA instance is created which is refilled for each row.
+     */
+    private static void predictPositiveProbability(Classifier classifier, WekaFeatureMatrix matrix, int[] rows, double[] result) throws Exception{
+        ReusableInstance instance = new ReusableInstance(matrix.getHeader());
+        for(int row : rows){
+            instance.load(matrix, row);
+            result[row] = classifier.distributionForInstance(instance)[1];
+        }
+    }
+    
+    /**
+     * Executes the jobs - in parallel in case the number of parallel jobs is greater than one.
+     */
+    private void runJobs(int numberOfJobs, WekaJob job) throws Exception{
+        if(this.numberOfParallelJobs <= 1){
+            for(int i = 0; i < numberOfJobs; i++){
+                job.run(i);
+            }
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfParallelJobs);
+        try{
+            pool.submit(() -> IntStream.range(0, numberOfJobs).parallel().forEach(i -> {
+                try {
+                    job.run(i);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            })).get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IllegalStateException && cause.getCause() instanceof Exception)
+                throw (Exception) cause.getCause();
+            throw ex;
+        } finally {
+            pool.shutdown();
+        }
     }
     
-    public Alignment applyModel(File model, Alignment alignment){
-        List<Correspondence> predictAlignmentOrdered = new ArrayList(alignment); // make order explicit
-        Instances wekaTestInstances = getTestInstances(predictAlignmentOrdered);
+    @FunctionalInterface
+    private interface WekaJob {
+        void run(int job) throws Exception;
+    }
+    
+    /**
+     * WEKA instance whose values are overwritten for each row such that no instance is created per correspondence.
+     * The class value is always missing.
+     */
+    private static class ReusableInstance extends DenseInstance {
+        private static final long serialVersionUID = 1L;
+        private final int numberOfFeatures;
 
-        //TODO: load model from file and predict wekaTestInstances
-        
-        
-        //set confidence of correspondence which is the confidence of the model
-        List<Double> predictions = Arrays.asList();
-        
-        if(predictAlignmentOrdered.size() != predictions.size()){
-            LOGGER.warn("Size of correspondences and predictions do not have the same size. Return unfiltered alignment.");
-            return alignment;
+        ReusableInstance(Instances header) {
+            super(1.0, new double[header.numAttributes()]);
+            this.numberOfFeatures = header.numAttributes() - 1;
+            setDataset(header);
         }
-        Alignment filteredAlignment = new Alignment(alignment, false);
-        for(int i=0; i < predictions.size(); i++){
-            /*
-            if(predictions.get(i) == 1){//positive class
-                filteredAlignment.add(orderedAlignment.get(i));
+
+        void load(WekaFeatureMatrix matrix, int row) {
+            //the values of a dense instance might be replaced (copy on write) - thus always use the current array
+            matrix.copyRow(row, m_AttValues);
+            m_AttValues[this.numberOfFeatures] = Utils.missingValue();
+        }
+    }
+    
+    /**
+     * Returns the feature matrix of the alignment. The confidence names are resolved only once (see {@link #getTrainingInstances(Alignment)}).
+     * @param alignment the alignment
+     * @return the feature matrix
+     */
+    public WekaFeatureMatrix getFeatureMatrix(Collection<Correspondence> alignment){
+        if(confidenceNames == null || confidenceNames.isEmpty()){
+            Set<String> keys = new HashSet<>();
+            for(Correspondence c : alignment){
+                keys.addAll(c.getAdditionalConfidences().keySet());
             }
-            */
-        }        
-        
-        return null;
+            confidenceNames = new ArrayList<>(keys);
+            Collections.sort(confidenceNames);
+            LOGGER.info("Confidence named used for traning the model, are all set to all available confidences in the training alignment.");
+        }
+        return WekaFeatureMatrix.fromCorrespondences(alignment, confidenceNames);
     }
     
     /**
@@ -192,51 +402,26 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
      * @return the weka instances object
      */
     public Instances getTrainingInstances(Alignment alignment){
-        if(confidenceNames == null || confidenceNames.isEmpty()){
-            confidenceNames = new ArrayList(alignment.getDistinctCorrespondenceConfidenceKeys());
-            LOGGER.info("Confidence named used for traning the model, are all set to all available confidences in the training alignment.");
-        }        
-        if(confidenceNames.isEmpty()){
+        WekaFeatureMatrix matrix = getFeatureMatrix(alignment);
+        if(matrix.getNumberOfFeatures() == 0){
             LOGGER.warn("No confidences are available for learning. Returning empty dataset.");
             return new Instances("Empy", new ArrayList(), 0);
         }
-        
-        // 1. set up attributes
-        ArrayList<Attribute> attributes = new ArrayList<>();
-        for(String confidenceName : confidenceNames){
-            attributes.add(new Attribute(confidenceName));
-        }
-        attributes.add(new Attribute("Class", Arrays.asList("negative", "positive")));
-        
-        // 2. create Instances object
-        Instances dataset = new Instances("Train" , attributes, alignment.size());
-        dataset.setClassIndex(confidenceNames.size());
-        
-        // 3. fill with data
         int positive = 0;
-        int negative = 0;
-
-        for(Correspondence c : alignment){
-            double[] vals = new double[confidenceNames.size() + 1];
-            for (int i = 0; i < confidenceNames.size(); i++) {
-                vals[i] = c.getAdditionalConfidence(confidenceNames.get(i));
-            }
-            if(c.getRelation() == CorrespondenceRelation.EQUIVALENCE){
-                vals[confidenceNames.size()] = 1.0; // index position - "positive"
+        for(int row = 0; row < matrix.getNumberOfRows(); row++){
+            if(matrix.isPositive(row))
                 positive++;
-            }else{
-                vals[confidenceNames.size()] = 0.0;// index position - "negative"
-                negative++;
-            }
-            dataset.add(new DenseInstance(1.0, vals));
         }
-        LOGGER.info("Created training set with {} positive and {} negative examples ({} attribute(s)).", positive, negative, confidenceNames.size());
-
-        return dataset;
+        LOGGER.info("Created training set with {} positive and {} negative examples ({} attribute(s)).",
+                positive, matrix.getNumberOfRows() - positive, matrix.getNumberOfFeatures());
+        return matrix.toInstances("Train");
     }
     
     /**
      * Generates the weka instances which can be used for predicting unseen examples.
+     * The instances have the same header as the training instances (the class value is missing).
+     * For predicting large alignments, use {@link #predictBatch(weka.classifiers.Classifier, WekaFeatureMatrix) } which
+     * does not create an instance per correspondence.
      * @param alignment the correspondences which should be predicted.
      * @return the weka instances object
      */
@@ -245,21 +430,14 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
             LOGGER.warn("No confidences are available for learning. Returning empty dataset.");
             return new Instances("Empy", new ArrayList(), 0);
         }
-        
-        // 1. set up attributes
-        ArrayList<Attribute> attributes = new ArrayList<>();
-        for(String confidenceName : confidenceNames){
-            attributes.add(new Attribute(confidenceName));
-        }
-        
-        // 2. create Instances object
-        Instances dataset = new Instances("Test", attributes, alignment.size());
-        for(Correspondence c : alignment){
-            double[] vals = new double[confidenceNames.size()];
-            for (int i = 0; i < confidenceNames.size(); i++) {
-                vals[i] = c.getAdditionalConfidence(confidenceNames.get(i));
-            }
-            dataset.add(new DenseInstance(1.0, vals));
+        WekaFeatureMatrix matrix = WekaFeatureMatrix.fromCorrespondences(alignment, confidenceNames);
+        Instances dataset = new Instances(matrix.getHeader(), alignment.size());
+        dataset.setRelationName("Test");
+        double[] vals = new double[matrix.getNumberOfFeatures() + 1];
+        for(int row = 0; row < matrix.getNumberOfRows(); row++){
+            matrix.copyRow(row, vals);
+            vals[matrix.getNumberOfFeatures()] = Utils.missingValue();
+            dataset.add(new DenseInstance(1.0, vals.clone()));
         }
         LOGGER.info("Created test set with {} examples ({} attribute(s)).", alignment.size(), confidenceNames.size());
         return dataset;
@@ -354,5 +532,20 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     public List<String> getConfidenceNames() {
         return confidenceNames;
     }
+
+    public List<WekaClassifierConfiguration> getClassifierConfigurations() {
+        return classifierConfigurations;
+    }
+
+    /**
+     * Sets the classifiers (and hyperparameters) which are compared in the cross validation.
+     * If only one configuration is given, no cross validation is executed.
+     * @param classifierConfigurations the configurations (at least one)
+     */
+    public void setClassifierConfigurations(List<WekaClassifierConfiguration> classifierConfigurations) {
+        if(classifierConfigurations == null || classifierConfigurations.isEmpty())
+            throw new IllegalArgumentException("At least one classifier configuration is necessary.");
+        this.classifierConfigurations = classifierConfigurations;
+    }
     
 }
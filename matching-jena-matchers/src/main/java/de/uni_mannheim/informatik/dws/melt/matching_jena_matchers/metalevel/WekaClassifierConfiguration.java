@@ -0,0 +1,64 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.metalevel;
+
+import java.util.Arrays;
+import java.util.List;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.core.Utils;
+
+/**
+ * A WEKA classifier together with its hyperparameters (as WEKA command line options).
+ * Used by {@link MachineLearningWEKAFilter} to select the best classifier in a cross validation.
+ */
+public class WekaClassifierConfiguration {
+
+    private final String classifierName;
+    private final String options;
+
+    /**
+     * Constructor
+     * @param classifierName the fully qualified class name of the classifier like weka.classifiers.trees.J48
+     * @param options the options of the classifier like "-C 0.25 -M 2"
+     */
+    public WekaClassifierConfiguration(String classifierName, String options) {
+        this.classifierName = classifierName;
+        this.options = options == null ? "" : options;
+    }
+
+    /**
+     * Creates a new (untrained) classifier with the given options.
+     * @return the new classifier
+     * @throws Exception in case the classifier can not be found or the options are not valid
+     */
+    public Classifier createClassifier() throws Exception {
+        return AbstractClassifier.forName(this.classifierName, Utils.splitOptions(this.options));
+    }
+
+    public String getClassifierName() {
+        return classifierName;
+    }
+
+    public String getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns a small default grid of classifiers and hyperparameters which are available in WEKA without additional packages.
+     * @return the default configurations
+     */
+    public static List<WekaClassifierConfiguration> getDefaultConfigurations() {
+        return Arrays.asList(
+                new WekaClassifierConfiguration("weka.classifiers.trees.J48", "-C 0.25 -M 2"),
+                new WekaClassifierConfiguration("weka.classifiers.trees.J48", "-C 0.1 -M 2"),
+                new WekaClassifierConfiguration("weka.classifiers.trees.J48", "-U -M 2"),
+                new WekaClassifierConfiguration("weka.classifiers.trees.RandomForest", "-I 100"),
+                new WekaClassifierConfiguration("weka.classifiers.functions.Logistic", "-R 1.0E-8 -M -1"),
+                new WekaClassifierConfiguration("weka.classifiers.bayes.NaiveBayes", "")
+        );
+    }
+
+    @Override
+    public String toString() {
+        return this.options.isEmpty() ? this.classifierName : this.classifierName + " " + this.options;
+    }
+}
@@ -0,0 +1,186 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.metalevel;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Immutable feature matrix of correspondences for {@link MachineLearningWEKAFilter}.
+ * The additional confidences of each correspondence are read once (see {@link Correspondence#getAdditionalConfidences() })
+ * and stored in one primitive row major array. The WEKA attribute header is also created once.
+ * Thus the same matrix can be shared by all cross validation folds and classifiers (also from multiple threads)
+ * and WEKA instances are only created for the rows which are used for training.
+ * Correspondences with an EQUIVALENCE relation are positives, all other relations are negatives.
+ * Missing additional confidences are represented as zero (in training and when the model is applied).
+ */
+public final class WekaFeatureMatrix {
+
+    private final List<String> featureNames;
+    private final int numberOfRows;
+    private final int numberOfFeatures;
+    /**
+     * Row major feature values (numberOfRows x numberOfFeatures).
+     */
+    private final double[] values;
+    /**
+     * Class value of each row (1.0 for positive, 0.0 for negative).
+     */
+    private final double[] labels;
+    /**
+     * WEKA header (without instances). The class attribute is the last attribute.
+     */
+    private final Instances header;
+
+    private WekaFeatureMatrix(List<String> featureNames, int numberOfRows, double[] values, double[] labels) {
+        this.featureNames = Collections.unmodifiableList(new ArrayList<>(featureNames));
+        this.numberOfRows = numberOfRows;
+        this.numberOfFeatures = featureNames.size();
+        this.values = values;
+        this.labels = labels;
+        this.header = createHeader(featureNames);
+    }
+
+    /**
+     * Creates the feature matrix. The order of the rows is the iteration order of the given correspondences.
+     * @param correspondences the correspondences
+     * @param featureNames the names of the additional confidences which are used as features
+     * @return the feature matrix
+     */
+    public static WekaFeatureMatrix fromCorrespondences(Collection<Correspondence> correspondences, List<String> featureNames) {
+        int numberOfFeatures = featureNames.size();
+        double[] values = new double[correspondences.size() * numberOfFeatures];
+        double[] labels = new double[correspondences.size()];
+        int row = 0;
+        for (Correspondence c : correspondences) {
+            Map<String, Double> confidences = c.getAdditionalConfidences();
+            int offset = row * numberOfFeatures;
+            for (int i = 0; i < numberOfFeatures; i++) {
+                Double value = confidences.get(featureNames.get(i));
+                values[offset + i] = value == null ? 0.0 : value;
+            }
+            labels[row] = c.getRelation() == CorrespondenceRelation.EQUIVALENCE ? 1.0 : 0.0;
+            row++;
+        }
+        return new WekaFeatureMatrix(featureNames, row, values, labels);
+    }
+
+    private static Instances createHeader(List<String> featureNames) {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        for (String featureName : featureNames) {
+            attributes.add(new Attribute(featureName));
+        }
+        attributes.add(new Attribute("Class", Arrays.asList("negative", "positive")));
+        Instances header = new Instances("Header", attributes, 0);
+        header.setClassIndex(featureNames.size());
+        return header;
+    }
+
+    /**
+     * Creates WEKA instances (with class values) for the given rows.
+     * @param name the name of the dataset
+     * @param rows the rows to include
+     * @return new instances object
+     */
+    public Instances toInstances(String name, int[] rows) {
+        Instances dataset = new Instances(this.header, rows.length);
+        dataset.setRelationName(name);
+        for (int row : rows) {
+            double[] vals = new double[this.numberOfFeatures + 1];
+            System.arraycopy(this.values, row * this.numberOfFeatures, vals, 0, this.numberOfFeatures);
+            vals[this.numberOfFeatures] = this.labels[row];
+            dataset.add(new DenseInstance(1.0, vals));
+        }
+        return dataset;
+    }
+
+    /**
+     * Creates WEKA instances (with class values) for all rows.
+     * @param name the name of the dataset
+     * @return new instances object
+     */
+    public Instances toInstances(String name) {
+        return toInstances(name, allRows());
+    }
+
+    /**
+     * Assigns each row to a fold such that each fold has (nearly) the same class distribution.
+     * @param folds the number of folds
+     * @param random the random number generator used to shuffle the rows
+     * @return the fold of each row
+     */
+    public int[] stratifiedFolds(int folds, Random random) {
+        List<Integer> positives = new ArrayList<>();
+        List<Integer> negatives = new ArrayList<>();
+        for (int row = 0; row < this.numberOfRows; row++) {
+            if (isPositive(row))
+                positives.add(row);
+            else
+                negatives.add(row);
+        }
+        Collections.shuffle(positives, random);
+        Collections.shuffle(negatives, random);
+        int[] foldOfRow = new int[this.numberOfRows];
+        int i = 0;
+        for (int row : positives) {
+            foldOfRow[row] = i++ % folds;
+        }
+        for (int row : negatives) {
+            foldOfRow[row] = i++ % folds;
+        }
+        return foldOfRow;
+    }
+
+    /**
+     * Copies the features of the given row to the beginning of the target array.
+     * @param row the row
+     * @param target the target array (at least as long as the number of features)
+     */
+    public void copyRow(int row, double[] target) {
+        System.arraycopy(this.values, row * this.numberOfFeatures, target, 0, this.numberOfFeatures);
+    }
+
+    public double getValue(int row, int feature) {
+        return this.values[row * this.numberOfFeatures + feature];
+    }
+
+    public boolean isPositive(int row) {
+        return this.labels[row] == 1.0;
+    }
+
+    public int[] allRows() {
+        int[] rows = new int[this.numberOfRows];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfFeatures() {
+        return numberOfFeatures;
+    }
+
+    public List<String> getFeatureNames() {
+        return featureNames;
+    }
+
+    /**
+     * Returns the WEKA header of this matrix. It does not contain any instances and must not be modified.
+     * @return the header
+     */
+    public Instances getHeader() {
+        return header;
+    }
+}
@@ -0,0 +1,196 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.clustering;
+
+import java.util.Arrays;
+
+/**
+ * An undirected, weighted graph in compressed sparse row (CSR) format which only uses primitive arrays.
+ * Each undirected edge is stored exactly once in the row of the node with the smaller id (thus only the upper triangle of the adjacency matrix is stored).
+ * The neighbors of each row are sorted in ascending order and multiple edges between the same nodes are merged (the weights are summed up).
+ * The graph is immutable and built with a {@link Builder}.
+ */
+class CompressedSparseRowGraph {
+
+    private final int numberOfNodes;
+    private final int[] firstNeighborIndex;
+    private final int[] neighbor;
+    private final double[] edgeWeight;
+
+    private CompressedSparseRowGraph(int numberOfNodes, int[] firstNeighborIndex, int[] neighbor, double[] edgeWeight) {
+        this.numberOfNodes = numberOfNodes;
+        this.firstNeighborIndex = firstNeighborIndex;
+        this.neighbor = neighbor;
+        this.edgeWeight = edgeWeight;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Returns the number of (undirected and merged) edges.
+     * @return number of edges
+     */
+    public int getNumberOfEdges() {
+        return neighbor.length;
+    }
+
+    /**
+     * Returns the index of the first edge of the given node. The edges of the node are in the range [getFirstEdge(node), getFirstEdge(node + 1)).
+     * @param node the node id
+     * @return the index of the first edge
+     */
+    public int getFirstEdge(int node) {
+        return firstNeighborIndex[node];
+    }
+
+    /**
+     * Returns the target of the edge. The target is always greater than the node in which row the edge is stored.
+     * @param edge the index of the edge
+     * @return the node id of the target
+     */
+    public int getNeighbor(int edge) {
+        return neighbor[edge];
+    }
+
+    public double getEdgeWeight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    /**
+     * Creates the network for the modularity optimization. In the network, each edge is stored in both directions.
+     * The arrays are directly handed over to the network without copying.
+     * @param nodeWeight the node weights or null to use the total edge weight of each node.
+     * @return the network
+     */
+    Network toNetwork(double[] nodeWeight) {
+        int[] nNeighbors = new int[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            nNeighbors[i] += firstNeighborIndex[i + 1] - firstNeighborIndex[i];
+            for (int e = firstNeighborIndex[i]; e < firstNeighborIndex[i + 1]; e++) {
+                nNeighbors[neighbor[e]]++;
+            }
+        }
+        int[] networkFirstNeighborIndex = new int[numberOfNodes + 1];
+        for (int i = 0; i < numberOfNodes; i++) {
+            networkFirstNeighborIndex[i + 1] = networkFirstNeighborIndex[i] + nNeighbors[i];
+        }
+        int nEdges = networkFirstNeighborIndex[numberOfNodes];
+        int[] networkNeighbor = new int[nEdges];
+        double[] networkEdgeWeight = new double[nEdges];
+        Arrays.fill(nNeighbors, 0);
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int e = firstNeighborIndex[i]; e < firstNeighborIndex[i + 1]; e++) {
+                int j = neighbor[e];
+                int position = networkFirstNeighborIndex[i] + nNeighbors[i]++;
+                networkNeighbor[position] = j;
+                networkEdgeWeight[position] = edgeWeight[e];
+                position = networkFirstNeighborIndex[j] + nNeighbors[j]++;
+                networkNeighbor[position] = i;
+                networkEdgeWeight[position] = edgeWeight[e];
+            }
+        }
+        return Network.createWithoutCopy(numberOfNodes, nodeWeight, networkFirstNeighborIndex, networkNeighbor, networkEdgeWeight);
+    }
+
+    /**
+     * Collects edges in growing primitive arrays and builds the {@link CompressedSparseRowGraph}.
+     * Reflexive edges are ignored.
+     */
+    static class Builder {
+        private int[] source;
+        private int[] target;
+        private double[] weight;
+        private int size;
+
+        Builder() {
+            this.source = new int[16];
+            this.target = new int[16];
+            this.weight = new double[16];
+            this.size = 0;
+        }
+
+        void addEdge(int one, int two, double edgeWeight) {
+            if (one == two)
+                return;
+            if (size == source.length) {
+                int newCapacity = source.length * 2;
+                source = Arrays.copyOf(source, newCapacity);
+                target = Arrays.copyOf(target, newCapacity);
+                weight = Arrays.copyOf(weight, newCapacity);
+            }
+            source[size] = Math.min(one, two);
+            target[size] = Math.max(one, two);
+            weight[size] = edgeWeight;
+            size++;
+        }
+
+        /**
+         * Returns the number of added edges (including duplicates).
+         * @return number of added edges
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Builds the graph. The edges are sorted with two stable counting sorts (first by target, then by source)
+         * and afterwards duplicated edges are merged.
+         * @param numberOfNodes the number of nodes (all node ids need to be smaller than this value).
+         * @return the graph
+         */
+        CompressedSparseRowGraph build(int numberOfNodes) {
+            int[] byTarget = countingSort(target, null, numberOfNodes);
+            int[] sorted = countingSort(source, byTarget, numberOfNodes);
+
+            int[] firstNeighborIndex = new int[numberOfNodes + 1];
+            int[] neighbor = new int[size];
+            double[] edgeWeight = new double[size];
+            int nEdges = 0;
+            int currentSource = -1;
+            for (int k = 0; k < size; k++) {
+                int e = sorted[k];
+                int s = source[e];
+                if (s == currentSource && neighbor[nEdges - 1] == target[e]) {
+                    edgeWeight[nEdges - 1] += weight[e];
+                    continue;
+                }
+                while (currentSource < s) {
+                    currentSource++;
+                    firstNeighborIndex[currentSource] = nEdges;
+                }
+                neighbor[nEdges] = target[e];
+                edgeWeight[nEdges] = weight[e];
+                nEdges++;
+            }
+            while (currentSource < numberOfNodes) {
+                currentSource++;
+                firstNeighborIndex[currentSource] = nEdges;
+            }
+            return new CompressedSparseRowGraph(numberOfNodes, firstNeighborIndex,
+                    Arrays.copyOf(neighbor, nEdges), Arrays.copyOf(edgeWeight, nEdges));
+        }
+
+        /**
+         * Stable counting sort of edge indices by the given key.
+         * @param key the key for each edge
+         * @param order the order of the edge indices before sorting or null for the order of insertion.
+         * @param numberOfKeys the number of distinct keys
+         * @return the sorted edge indices
+         */
+        private int[] countingSort(int[] key, int[] order, int numberOfKeys) {
+            int[] position = new int[numberOfKeys + 1];
+            for (int e = 0; e < size; e++) {
+                position[key[e] + 1]++;
+            }
+            for (int i = 0; i < numberOfKeys; i++) {
+                position[i + 1] += position[i];
+            }
+            int[] sorted = new int[size];
+            for (int k = 0; k < size; k++) {
+                int e = order == null ? k : order[k];
+                sorted[position[key[e]]++] = e;
+            }
+            return sorted;
+        }
+    }
+}
@@ -10,13 +10,15 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
-import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,24 +30,29 @@ import org.slf4j.LoggerFactory;
  * 
  * This class represents a graph of sameas edges. The edges can be added by the addEdge method.
  * After adding some edges, you can call detectCommunities or computeLinkError.
+ * The edges are stored in primitive arrays and converted to a compressed sparse row representation
+ * (see {@link CompressedSparseRowGraph}) which is directly used for the community detection.
  */
 public class ComputeErrDegree <T>{
     
     private static final Logger LOGGER = LoggerFactory.getLogger(ComputeErrDegree.class);
     
     private final Map<T, Integer> elementToID;
-    private final Map<Integer, T> idToElement;
-    private final Map<Integer, Map<Integer,Double>> uniformDirectedEdges;
-    private int currentID;
-    private int countUndirectedEdges;
+    private final List<T> idToElement;
+    private final CompressedSparseRowGraph.Builder edges;
+    /**
+     * The graph built from the edges - null if edges are added after the last build.
+     */
+    private CompressedSparseRowGraph graph;
+    private int numberOfThreads;
     
     
     public ComputeErrDegree(){
-        this.elementToID = new TreeMap<>(); //TODO: change to hashmap
-        this.idToElement = new HashMap<>();
-        this.uniformDirectedEdges = new TreeMap<>();
-        this.currentID = 0;
-        this.countUndirectedEdges = 0;
+        this.elementToID = new HashMap<>();
+        this.idToElement = new ArrayList<>();
+        this.edges = new CompressedSparseRowGraph.Builder();
+        this.graph = null;
+        this.numberOfThreads = 1;
     }
     
     void addNodes(List<T> nodes){
@@ -64,42 +71,51 @@ public class ComputeErrDegree <T>{
             return;
         }
         
-        int idSource = getNodeID(source);
-        int idTarget = getNodeID(target);
-
-        //make unique direction of edge because we want undirected graph
-        if(idSource > idTarget){
-            //three way switch of idSource and idTarget
-            int tmp = idSource;
-            idSource = idTarget;
-            idTarget = tmp;
-        }
-
-        //add edge to uniformDirectedEdges, possibly sum the edge weights from two directions
-        Map<Integer,Double> targetToWeight = uniformDirectedEdges.get(idSource);
-        if(targetToWeight == null){
-            targetToWeight = new TreeMap<>();
-            uniformDirectedEdges.put(idSource, targetToWeight);
-        }            
-        Double existingWeight = targetToWeight.get(idTarget);
-        if(existingWeight == null){
-            existingWeight = 0.0;
-            countUndirectedEdges++;
-        }            
-        targetToWeight.put(idTarget, existingWeight + weight);
+        //the builder makes a unique direction of the edge (undirected graph) and later sums the edge weights from two directions
+        edges.addEdge(getNodeID(source), getNodeID(target), weight);
+        graph = null;
     }
     
     private int getNodeID(T node){
         Integer id = elementToID.get(node);
         if(id == null){
-            id = currentID;
+            id = idToElement.size();
             elementToID.put(node, id);
-            idToElement.put(id, node);
-            currentID++;
+            idToElement.add(node);
+            graph = null;
         }
         return id;
     }
     
+    private CompressedSparseRowGraph getGraph(){
+        if(graph == null){
+            graph = edges.build(idToElement.size());
+        }
+        return graph;
+    }
+    
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compute the link error (the communities are processed in parallel in a fork join pool).
+     * The community detection itself is not parallelized.
+     * @param numberOfThreads the number of threads (one means no parallelization)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("Number of threads are smaller than one: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+    }
+    
+    /**
+     * Sets the number of threads to the number of available cores.
+     */
+    public void setNumberOfThreadsToCpuCores() {
+        this.numberOfThreads = Runtime.getRuntime().availableProcessors();
+    }
+    
     /**
      * Detect communities in this graph. Default values for the parameters are used.
      * @return a map from element to corresponding community number
@@ -187,14 +203,9 @@ public class ComputeErrDegree <T>{
     }
     
     public Map<Entry<T,T>, Double> computeLinkError(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
-        if(this.elementToID.size() == 2){
+        if(this.idToElement.size() == 2){
             Map<Entry<T,T>, Double> res = new LinkedHashMap<>();
-            Iterator<T> it = this.elementToID.keySet().iterator();
-            res.put(new SimpleEntry<>(it.next(), it.next()), 0.5);
-            
-            
-            //use treemap to have same order as in original paper
-            //res.put(new SimpleEntry(this.elementToID.firstKey(), this.elementToID.lastKey()), 0.5); 
+            res.put(new SimpleEntry<>(this.idToElement.get(0), this.idToElement.get(1)), 0.5);
             return res;
         }
         
@@ -203,103 +214,92 @@ public class ComputeErrDegree <T>{
             LOGGER.warn("Return not link errors because of clustering==null. Usually because graph is empty?");
             return new HashMap<>();
         }
+        clustering.orderClustersByNNodes();
+        int[] idToCluster = clustering.getClusters();
+        int[][] clusterToIDs = clustering.getNodesPerCluster();
+        CompressedSparseRowGraph g = getGraph();
         
-        Map<Integer, List<Integer>> clusterToIDs = computeClusterToID(clustering);
-        Map<Integer, Integer> idToCluster = computeIDToCluster(clusterToIDs);
-                
-        Map<Integer, Double> intraCommEdges = new HashMap<>();
-	Map<String, Double> interCommEdges = new TreeMap<>();        
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey());                
-                if(sourceCluster == targetCluster){
-                    intraCommEdges.put(sourceCluster, intraCommEdges.getOrDefault(sourceCluster, 0.0) + targetToWeight.getValue());
-                }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    interCommEdges.put(interCommunityKey, interCommEdges.getOrDefault(interCommunityKey, 0.0) + targetToWeight.getValue());
+        //each edge is stored in the row of its source, thus each community can be processed independently
+        double[] intraCommEdges = new double[clusterToIDs.length];
+        long[] interCommunityKeys = new long[g.getNumberOfEdges()];
+        forEachCommunity(clusterToIDs.length, sourceCluster -> {
+            for(int source : clusterToIDs[sourceCluster]){
+                for(int e = g.getFirstEdge(source); e < g.getFirstEdge(source + 1); e++){
+                    int targetCluster = idToCluster[g.getNeighbor(e)];
+                    if(sourceCluster == targetCluster){
+                        intraCommEdges[sourceCluster] += g.getEdgeWeight(e);
+                        interCommunityKeys[e] = -1;
+                    }else{
+                        interCommunityKeys[e] = getInterCommunityKey(sourceCluster, targetCluster);
+                    }
                 }
             }
-        }
+        });
         
-        // Intra-Links Ranking
-        Map<Integer, Double> measureValuesIntra = new TreeMap<>();
-        for(Entry<Integer, List<Integer>> cluster: clusterToIDs.entrySet()){
-            double E_in = 0;
-            int clusterID = cluster.getKey();
-            if(intraCommEdges.containsKey(clusterID)){
-                E_in = intraCommEdges.get(clusterID);
-            }
-            double C = cluster.getValue().size();
-            double err = 1 - (E_in /(C*(C-1)));
-            measureValuesIntra.put(clusterID, err);
+        //edges between two communities can be stored in rows of both communities - sum them up in edge order
+        Map<Long, Double> interCommEdges = new HashMap<>();
+        for(int e = 0; e < interCommunityKeys.length; e++){
+            if(interCommunityKeys[e] >= 0)
+                interCommEdges.merge(interCommunityKeys[e], g.getEdgeWeight(e), Double::sum);
         }
         
-        // Inter-Links Ranking
-        Map<String, Double> measureValuesInter = new TreeMap<>();
-        for(Entry<String, Double> interCommEdge: interCommEdges.entrySet()){
-            double E_ex = interCommEdge.getValue();
-            String[] linkedCommunities = interCommEdge.getKey().split("-");
-            double C1 = clusterToIDs.get(Integer.parseInt(linkedCommunities[0])).size();
-            double C2 = clusterToIDs.get(Integer.parseInt(linkedCommunities[1])).size();
-            double err = 1 - (E_ex /(2*C1*C2));
-            measureValuesInter.put(interCommEdge.getKey(), err);
-        }
+        double[] edgeErrors = new double[g.getNumberOfEdges()];
+        forEachCommunity(clusterToIDs.length, sourceCluster -> {
+            double C = clusterToIDs[sourceCluster].length;
+            // Intra-Links Ranking
+            double intraError = 1 - (intraCommEdges[sourceCluster] /(C*(C-1)));
+            for(int source : clusterToIDs[sourceCluster]){
+                for(int e = g.getFirstEdge(source); e < g.getFirstEdge(source + 1); e++){
+                    if(interCommunityKeys[e] < 0){
+                        edgeErrors[e] = intraError;
+                    }else{
+                        // Inter-Links Ranking
+                        double E_ex = interCommEdges.get(interCommunityKeys[e]);
+                        double C2 = clusterToIDs[idToCluster[g.getNeighbor(e)]].length;
+                        edgeErrors[e] = 1 - (E_ex /(2*C*C2));
+                    }
+                }
+            }
+        });
         
         Map<Entry<T,T>, Double> resultMap = new LinkedHashMap<>(); //change to HashMap?
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            T sourceElement = idToElement.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey()); 
-                T targetElement = idToElement.get(targetToWeight.getKey());
-                if(sourceCluster == targetCluster){
-                    double errValue = measureValuesIntra.get(sourceCluster);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
-                }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    double errValue = measureValuesInter.get(interCommunityKey);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
-                }
+        for(int source = 0; source < g.getNumberOfNodes(); source++){
+            T sourceElement = idToElement.get(source);
+            for(int e = g.getFirstEdge(source); e < g.getFirstEdge(source + 1); e++){
+                resultMap.put(new SimpleEntry<>(sourceElement, idToElement.get(g.getNeighbor(e))), edgeErrors[e]);
             }
         }
         return resultMap;
     }
     
-    
-    private Map<Integer, List<Integer>> computeClusterToID(Clustering clustering){
-        int nNodes = clustering.getNNodes();
-        clustering.orderClustersByNNodes();
-        Map<Integer, List<Integer>> clusterToID = new HashMap<>();
-        for (int i = 0; i < nNodes; i++){
-            Integer clusterNumber = clustering.getCluster(i);
-            clusterToID.computeIfAbsent(clusterNumber, __->new ArrayList<>()).add(i);
-        }
-        return clusterToID;
+    private static long getInterCommunityKey(int clusterOne, int clusterTwo){
+        return clusterOne < clusterTwo ? ((long) clusterOne << 32) | clusterTwo : ((long) clusterTwo << 32) | clusterOne;
     }
     
-    private Map<Integer, Integer> computeIDToCluster(Map<Integer, List<Integer>> clusterToID){
-        Map<Integer, Integer> idToCluster = new HashMap<>();
-        for (Entry<Integer, List<Integer>> entry : clusterToID.entrySet()){
-            for(Integer id : entry.getValue()){
-                idToCluster.put(id, entry.getKey());
+    /**
+     * Executes the given consumer for each community id - in parallel in case the number of threads is greater than one.
+     * The consumer must only modify state which belongs to the given community.
+     */
+    private void forEachCommunity(int numberOfCommunities, IntConsumer consumer){
+        if(this.numberOfThreads <= 1){
+            for(int i = 0; i < numberOfCommunities; i++){
+                consumer.accept(i);
             }
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+        try{
+            pool.submit(() -> IntStream.range(0, numberOfCommunities).parallel().forEach(consumer)).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the link error.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not compute the link error.", ex.getCause());
+        } finally {
+            pool.shutdown();
         }
-        return idToCluster;
     }
     
-    
-//    private Map<Integer, Integer> computeIDToCluster(Clustering clustering) {
-//        int nNodes = clustering.getNNodes();
-//        clustering.orderClustersByNNodes();
-//        Map<Integer, Integer> idToCluster = new HashMap();
-//        for (int i = 0; i < nNodes; i++) {
-//            Integer clusterNumber = clustering.getCluster(i);
-//            idToCluster.put(i, clusterNumber);
-//        }
-//        return idToCluster;
-//    }
-    
     private Map<T, Integer> computeElementToCluster(Clustering clustering){
         int nNodes = clustering.getNNodes();
         clustering.orderClustersByNNodes();
@@ -312,66 +312,18 @@ public class ComputeErrDegree <T>{
     }
     
     /**
-     * Based on the uniformDirectedEdges attribute of the class, computes the internal representation (Network).
+     * Based on the edges of this class, computes the internal representation (Network).
      * @param modularityFunction the modularity Function
      * @return the internal representation (Network)
      */
     private Network getNetwork(int modularityFunction){
-        int[] node1 = new int[countUndirectedEdges];
-        int[] node2 = new int[countUndirectedEdges];
-        double[] edgeWeight1 = new double[countUndirectedEdges];
-        
-        int j=0;
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                node1[j] = sourceToMultiTarget.getKey();
-                node2[j] = targetToWeight.getKey();
-                edgeWeight1[j] = targetToWeight.getValue();
-                j++;
-            }
-        }
-        
-        int numberOfNodes = idToElement.size();
-        
-        int[] nNeighbors = new int[numberOfNodes];
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                nNeighbors[node1[i]]++;
-                nNeighbors[node2[i]]++;
-            }
-        }
-        
-        int[] firstNeighborIndex = new int[numberOfNodes + 1];
-        int nEdges = 0;
-        for (int i = 0; i < numberOfNodes; i++){
-                firstNeighborIndex[i] = nEdges;
-                nEdges += nNeighbors[i];
-        }
-        firstNeighborIndex[numberOfNodes] = nEdges;
-        
-        int[] neighbor = new int[nEdges];
-        double[] edgeWeight2 = new double[nEdges];
-        Arrays.fill(nNeighbors, 0);
-			
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                j = firstNeighborIndex[node1[i]] + nNeighbors[node1[i]];
-                neighbor[j] = node2[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node1[i]]++;
-                j = firstNeighborIndex[node2[i]] + nNeighbors[node2[i]];
-                neighbor[j] = node1[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node2[i]]++;
-	    }
-        }
-        
+        CompressedSparseRowGraph g = getGraph();
         if (modularityFunction == 1){
-            return new Network(numberOfNodes, firstNeighborIndex, neighbor, edgeWeight2);
+            return g.toNetwork(null);
         }else{
-            double [] nodeWeight = new double[numberOfNodes];
+            double [] nodeWeight = new double[g.getNumberOfNodes()];
             Arrays.fill(nodeWeight, 1);
-            return new Network(numberOfNodes, nodeWeight, firstNeighborIndex, neighbor, edgeWeight2);
+            return g.toNetwork(nodeWeight);
         }
     }
 }
@@ -1224,6 +1176,25 @@ class Network implements Serializable
         this(nNodes, null, firstNeighborIndex, neighbor, edgeWeight);
     }
 
+    /**
+     * Creates a network which directly uses the given arrays (without copying them).
+     * Used by {@link CompressedSparseRowGraph#toNetwork(double[])}.
+     */
+    static Network createWithoutCopy(int nNodes, double[] nodeWeight, int[] firstNeighborIndex, int[] neighbor, double[] edgeWeight)
+    {
+        Network network;
+
+        network = new Network();
+        network.nNodes = nNodes;
+        network.nEdges = neighbor.length;
+        network.firstNeighborIndex = firstNeighborIndex;
+        network.neighbor = neighbor;
+        network.edgeWeight = edgeWeight;
+        network.totalEdgeWeightSelfLinks = 0;
+        network.nodeWeight = (nodeWeight != null) ? nodeWeight : network.getTotalEdgeWeightPerNode();
+        return network;
+    }
+
     public Network(int nNodes, double[] nodeWeight, int[] firstNeighborIndex, int[] neighbor, double[] edgeWeight)
     {
         this.nNodes = nNodes;
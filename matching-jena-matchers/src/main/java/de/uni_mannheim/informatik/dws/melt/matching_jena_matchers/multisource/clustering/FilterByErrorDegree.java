@@ -31,6 +31,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     private long randomSeed;
     private int nRandomStarts;
     private int nIterations;
+    private int numberOfThreads;
     
 
     /**
@@ -79,6 +80,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
         this.randomSeed = randomSeed;
         this.nRandomStarts = nRandomStarts;
         this.nIterations = nIterations;
+        this.numberOfThreads = 1;
     }
     
     @Override
@@ -92,11 +94,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     
     public Alignment filter(Alignment alignment){
         Alignment newAlignment = new Alignment(alignment, false);
-        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
-        for(Correspondence c : alignment){
-            errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
-        }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        Map<Entry<String,String>, Double> map = computeLinkError(alignment);
         for(Correspondence correspondence : alignment){
             Double err = getErrorValue(map, correspondence);
             if(err <= threshold){
@@ -108,17 +106,22 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     }
     
     public Alignment addConfidence(Alignment alignment){
-        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
-        for(Correspondence c : alignment){
-            errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
-        }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        Map<Entry<String,String>, Double> map = computeLinkError(alignment);
         for(Correspondence correspondence : alignment){
             correspondence.addAdditionalConfidence(FilterByErrorDegree.class, getErrorValue(map, correspondence));
         }
         return alignment;
     }
     
+    private Map<Entry<String,String>, Double> computeLinkError(Alignment alignment){
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.setNumberOfThreads(numberOfThreads);
+        for(Correspondence c : alignment){
+            errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
+        }
+        return errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+    }
+    
     private static Double getErrorValue(Map<Entry<String,String>, Double> map, Correspondence correspondence){
         Double d = map.get(new SimpleEntry<>(correspondence.getEntityOne(), correspondence.getEntityTwo()));
         if(d != null)
@@ -136,11 +139,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
      * @param file the file to write to.
      */
     public void analyzeErrDistribution(Alignment alignment, File file){
-        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
-        for(Correspondence c : alignment){
-            errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
-        }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        Map<Entry<String,String>, Double> map = computeLinkError(alignment);
         Counter<Double> counter = new Counter<>(map.values());
         
         try(BufferedWriter bw = new BufferedWriter(new FileWriter(file))){
@@ -154,4 +153,19 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
             LOGGER.error("Could not write the analysis file", ex);
         }
     }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compute the link error.
+     * @param numberOfThreads the number of threads (one means no parallelization)
+     * @see ComputeErrDegree#setNumberOfThreads(int) 
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("Number of threads are smaller than one: " + numberOfThreads);
+        this.numberOfThreads = numberOfThreads;
+    }
 }
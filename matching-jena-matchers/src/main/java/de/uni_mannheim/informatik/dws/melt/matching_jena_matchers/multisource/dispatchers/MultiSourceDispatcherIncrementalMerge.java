@@ -15,15 +15,18 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.FileCache
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.io.File;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -32,6 +35,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -278,112 +282,212 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
                 throw new IllegalArgumentException("Merge tree is not valid. In row " + i + " less than two elements appear: " + Arrays.toString(mergePair));
             merges.add(new MergeTaskPos(mergePair[0], mergePair[1], n + i, distances[i], distancesNormalized[i]));
         }
-        
-        //to be removed        
-        //mergeOrder.displayTree();
+        if(this.intermediateAlignments != null)
+            this.intermediateAlignments.addAll(Collections.nCopies(mergeTree.length, null));
         
         //in the parallel mode, it is not necessary to look for already merged elements because everything happens in parallel
         //and the matcher cannot improve speed (by using a cache)
         //thus we look only for the larger KG which is the target.
         
-        //the order in which the results are processed is irrelevant
+        //dependencies: a merge can run as soon as both of its children (KGs or merges) are available - there is no barrier between the stages.
+        //missingInputs[i] is the number of inputs of merge i which are not yet computed, dependents.get(i) contains all merges which use the result of merge i.
+        int[] missingInputs = new int[merges.size()];
+        List<List<Integer>> dependents = new ArrayList<>(merges.size());
+        for(int i=0; i < merges.size(); i++){
+            dependents.add(new ArrayList<>());
+        }
+        for(int i=0; i < merges.size(); i++){
+            MergeTaskPos task = merges.get(i);
+            for(int pos : new int[]{task.getClusterOnePos(), task.getClusterTwoPos()}){
+                if(pos >= n){
+                    missingInputs[i]++;
+                    if(pos - n < merges.size())
+                        dependents.get(pos - n).add(i);
+                }
+            }
+        }
+        
+        //the ready merges are executed in the order of their critical path (merges which lead to a long chain of large merges first)
+        double[] priorities = getCriticalPathPriorities(merges, dependents, models);
+        PriorityQueue<Integer> ready = new PriorityQueue<>((a, b) -> {
+            int compare = Double.compare(priorities[b], priorities[a]);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+        for(int i=0; i < merges.size(); i++){
+            if(missingInputs[i] == 0)
+                ready.add(i);
+        }
+        
         ExecutorService exec = Executors.newFixedThreadPool(this.numberOfThreads);
         ExecutorCompletionService<MergeResult> completionService = new ExecutorCompletionService<>(exec);
-        List<Integer> parallelMergesPossible = mergeOrder.getCountOfParallelExecutions();
         LOGGER.info("Run parallel merge with {} merges ({} threads).", mergeTree.length, this.numberOfThreads);
-        LOGGER.info("Following the list of counts which show how many matching tasks could be processed in parallel for each stage: {}", parallelMergesPossible);
+        LOGGER.info("Following the list of counts which show how many matching tasks could be processed in parallel for each stage: {}", mergeOrder.getCountOfParallelExecutions());
+        long[] startTimes = new long[merges.size()];
+        long[] endTimes = new long[merges.size()];
+        long startParallel = System.nanoTime();
+        long busyTime = 0;
+        int running = 0;
+        int finished = 0;
         try{
-            int stage = 1;
-            while(!merges.isEmpty()){
-                List<MergeTaskPos> runnable = new ArrayList<>();
-                LOGGER.debug("Check which tasks are able to run and submit them to the execution pool");
-                for(MergeTaskPos task : merges){
+            while(finished < merges.size()){
+                //only submit as many tasks as threads are available, such that the priority is respected
+                while(running < this.numberOfThreads && !ready.isEmpty()){
+                    int mergeIndex = ready.poll();
+                    MergeTaskPos task = merges.get(mergeIndex);
                     Set<Object> one = mergedModels.get(task.getClusterOnePos());
                     Set<Object> two = mergedModels.get(task.getClusterTwoPos());
-                    if(one != null && two != null){
-                        runnable.add(task);
-                        String mergeLabel = mergeOrder.getLabel(task.getClusterOnePos()) + "-" + mergeOrder.getLabel(task.getClusterTwoPos());
-                        Properties parameters = addDistance(DispatcherHelper.deepCopy(p), task.getDistance(), task.getDistanceNormalized());
-                        
-                        Object copiedInputAlignment = DispatcherHelper.deepCopy(inputAlignment);
-                        completionService.submit(new MergeExecutor(this.matcherSupplier, one, two, copiedInputAlignment, parameters, 
-                                addingInformationToUnion, task.getClusterResultPos(), this.removeUnusedJenaModels, this.copyMode, mergeLabel));
-                        
-                        /*
-                        //to be removed
-                        MergeResult result = null;
-                        try {
-                            result = new MergeExecutor(this.oneToOneMatcher, one, two,
-                                    DispatcherHelper.deepCopy(inputAlignment), DispatcherHelper.deepCopy(p),
-                                    addingInformationToUnion, task.getClusterResultPos(), this.removeUnusedJenaModels, this.copyMode, mergeLabel).call();
-                        } catch (Exception ex) {
-                            java.util.logging.Logger.getLogger(MultiSourceDispatcherIncrementalMerge.class.getName()).log(Level.SEVERE, null, ex);
+                    String mergeLabel = mergeOrder.getLabel(task.getClusterOnePos()) + "-" + mergeOrder.getLabel(task.getClusterTwoPos());
+                    Properties parameters = addDistance(DispatcherHelper.deepCopy(p), task.getDistance(), task.getDistanceNormalized());
+                    Object copiedInputAlignment = DispatcherHelper.deepCopy(inputAlignment);
+                    MergeExecutor executor = new MergeExecutor(this.matcherSupplier, one, two, copiedInputAlignment, parameters, 
+                            addingInformationToUnion, task.getClusterResultPos(), this.removeUnusedJenaModels, this.copyMode, mergeLabel);
+                    LOGGER.debug("Submit merge {} (critical path priority: {})", task, priorities[mergeIndex]);
+                    completionService.submit(() -> {
+                        startTimes[mergeIndex] = System.nanoTime();
+                        try{
+                            return executor.call();
+                        }finally{
+                            endTimes[mergeIndex] = System.nanoTime();
                         }
-                        mergedModels.set(result.getNewPos(), result.getResult());
-                        Alignment resultingAlignment = result.getAlignment();
-                        if(resultingAlignment == null){
-                            LOGGER.error("The resulting alignment is null. Maybe a transformation error. The whole merge will be canceled.");
-                            throw new MatchingException("The resulting alignment is null. Maybe a transformetrion error. The whole merge will be canceled.");
-                        }
-                        finalAlignment.addAll(resultingAlignment);
-                        if(this.intermediateAlignments != null)
-                            this.intermediateAlignments.set(result.getNewPos() - n, resultingAlignment);
-                        //to be removed - end
-                        */
-                    }
+                    });
+                    running++;
                 }
                 
-                if(runnable.isEmpty()){
+                if(running == 0){
+                    List<MergeTaskPos> notExecuted = new ArrayList<>();
+                    for(int i=0; i < merges.size(); i++){
+                        if(missingInputs[i] > 0)
+                            notExecuted.add(merges.get(i));
+                    }
                     LOGGER.warn("There are still {} merges to be done, but none of them is possible. Following the list of not executed merges:\n {}", 
-                            merges.size(), merges.stream().map(x->x.toString()).collect(Collectors.joining("\n")));
+                            notExecuted.size(), notExecuted.stream().map(x->x.toString()).collect(Collectors.joining("\n")));
                     throw new MatchingException("Not all merges are executed.");
                 }
                 
-                LOGGER.info("Run matching stage {}/{} with possibly {} tasks in parallel (actual number of parallel threads: {})", stage++, parallelMergesPossible.size(), runnable.size(), this.numberOfThreads);
-                merges.removeAll(runnable);
-                
-                for(int i = 0; i < runnable.size(); i++ ) {
-                    try {
-                        MergeResult result = completionService.take().get();// get is the blocking call here
-                        if(result == null){
-                            LOGGER.error("The result of a merge is null. The whole merge will be canceled.");
-                            throw new MatchingException("The result of a merge is null. The whole merge will be canceled.");
-                        }
-                        
-                        //set the new model
-                        Set<Object> resultingModel = result.getResult();
-                        if(resultingModel == null){
-                            LOGGER.error("The resulting model of a merge is null (final pos: {0). The whole merge will be canceled.", result.getNewPos());
-                            throw new MatchingException("The resulting model of a merge is null. The whole merge will be canceled.");
-                        }
-                        mergedModels.set(result.getNewPos(), resultingModel);
-                        
-                        //add the alignment
-                        Alignment resultingAlignment = result.getAlignment();
-                        if(resultingAlignment == null){
-                            LOGGER.error("The resulting alignment is null. Maybe a transformation error. The whole merge will be canceled.");
-                            throw new MatchingException("The resulting alignment is null. Maybe a transformetrion error. The whole merge will be canceled.");
-                        }
-                        finalAlignment.addAll(resultingAlignment);
-                        if(this.intermediateAlignments != null)
-                            this.intermediateAlignments.set(result.getNewPos() - n, resultingAlignment);
-                    } catch (InterruptedException | ExecutionException ex) {
-                        LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
-                        throw new MatchingException("Error when waiting for parallel results of matcher execution.", ex);
+                try {
+                    MergeResult result = completionService.take().get();// get is the blocking call here
+                    running--;
+                    finished++;
+                    if(result == null){
+                        LOGGER.error("The result of a merge is null. The whole merge will be canceled.");
+                        throw new MatchingException("The result of a merge is null. The whole merge will be canceled.");
                     }
-                }
-                if(this.removeUnusedJenaModels){
-                    LOGGER.info("Calling GC");
-                    System.gc();
+
+                    //set the new model
+                    Set<Object> resultingModel = result.getResult();
+                    if(resultingModel == null){
+                        LOGGER.error("The resulting model of a merge is null (final pos: {}). The whole merge will be canceled.", result.getNewPos());
+                        throw new MatchingException("The resulting model of a merge is null. The whole merge will be canceled.");
+                    }
+                    mergedModels.set(result.getNewPos(), resultingModel);
+
+                    //add the alignment
+                    Alignment resultingAlignment = result.getAlignment();
+                    if(resultingAlignment == null){
+                        LOGGER.error("The resulting alignment is null. Maybe a transformation error. The whole merge will be canceled.");
+                        throw new MatchingException("The resulting alignment is null. Maybe a transformetrion error. The whole merge will be canceled.");
+                    }
+                    finalAlignment.addAll(resultingAlignment);
+                    int mergeIndex = result.getNewPos() - n;
+                    if(this.intermediateAlignments != null)
+                        this.intermediateAlignments.set(mergeIndex, resultingAlignment);
+                    
+                    long duration = endTimes[mergeIndex] - startTimes[mergeIndex];
+                    busyTime += duration;
+                    LOGGER.info("Finished merge {}/{} ({}) in {} - {} merges running, {} merges ready to run.", finished, merges.size(), 
+                            merges.get(mergeIndex), DurationFormatUtils.formatDurationWords(duration / 1_000_000, true, true), running, ready.size());
+                    
+                    for(int dependent : dependents.get(mergeIndex)){
+                        missingInputs[dependent]--;
+                        if(missingInputs[dependent] == 0)
+                            ready.add(dependent);
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
+                    throw new MatchingException("Error when waiting for parallel results of matcher execution.", ex);
                 }
             }
         }finally{
             exec.shutdown();
         }
+        if(this.removeUnusedJenaModels){
+            LOGGER.info("Calling GC");
+            System.gc();
+        }
+        long parallelDuration = System.nanoTime() - startParallel;
+        if(parallelDuration > 0){
+            LOGGER.info("Parallel merge finished in {}. Thread utilization: {}% ({} threads).", 
+                    DurationFormatUtils.formatDurationWords(parallelDuration / 1_000_000, true, true), 
+                    Math.round(100.0 * busyTime / ((double)parallelDuration * this.numberOfThreads)), this.numberOfThreads);
+        }
         //regression java - https://commons.apache.org/proper/commons-math/userguide/stat.html#a1.4_Simple_regression
         return new AlignmentAndParameters(finalAlignment, p);
     }
     
+    /**
+     * Computes the priority of each merge for the parallel execution.
+     * The cost of a merge is estimated by the size of all KGs which are merged together (see {@link #getEstimatedSize(java.util.Set) }).
+     * The priority is the cost of all merges from the given merge up to the root of the merge tree (critical path).
+     * @param merges the merges
+     * @param dependents for each merge the list of merges which use its result
+     * @param models the models
+     * @return the priority for each merge (higher means more important)
+     */
+    private static double[] getCriticalPathPriorities(List<MergeTaskPos> merges, List<List<Integer>> dependents, List<Set<Object>> models){
+        int n = models.size();
+        double[] sizes = new double[n + merges.size()];
+        for(int i=0; i < n; i++){
+            sizes[i] = getEstimatedSize(models.get(i));
+        }
+        //children always appear before their parent in a valid merge tree
+        for(int i=0; i < merges.size(); i++){
+            MergeTaskPos task = merges.get(i);
+            sizes[n + i] = getSize(sizes, task.getClusterOnePos()) + getSize(sizes, task.getClusterTwoPos());
+        }
+        double[] priorities = new double[merges.size()];
+        for(int i=merges.size() - 1; i >= 0; i--){
+            double maxDependent = 0;
+            for(int dependent : dependents.get(i)){
+                if(dependent > i)
+                    maxDependent = Math.max(maxDependent, priorities[dependent]);
+            }
+            priorities[i] = sizes[n + i] + maxDependent;
+        }
+        return priorities;
+    }
+    
+    private static double getSize(double[] sizes, int pos){
+        return pos < sizes.length ? sizes[pos] : 0;
+    }
+    
+    /**
+     * Estimates the size of a KG without loading it: the number of triples if a jena model is available,
+     * the file size in case of a file (URL), and one otherwise.
+     * @param modelRepresentations the representations of the KG
+     * @return the estimated size
+     */
+    static double getEstimatedSize(Set<Object> modelRepresentations){
+        for(Object o : modelRepresentations){
+            if(o instanceof Model)
+                return ((Model) o).size();
+        }
+        for(Object o : modelRepresentations){
+            File file = null;
+            if(o instanceof File){
+                file = (File) o;
+            }else if(o instanceof URL && "file".equals(((URL) o).getProtocol())){
+                try {
+                    file = new File(((URL) o).toURI());
+                } catch (URISyntaxException | IllegalArgumentException ex) {
+                    LOGGER.debug("Could not convert URL to file for size estimation.", ex);
+                }
+            }
+            if(file != null && file.isFile())
+                return file.length();
+        }
+        return 1;
+    }
+    
     
     private static Properties addDistance(Properties p, double distance, double normalizedDistance){
         p.put(ParameterConfigKeys.TOPIC_DISTANCE, distance);
@@ -440,6 +544,8 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
     /**
      * Sets the number of threads which are used during merge.
      * A number equal to one means sequential processing and greater than one means parallel processing with the specified number of threads.
+     * In parallel processing, a merge is started as soon as both of its inputs are merged and a thread is free.
+     * If multiple merges are ready, the one with the most expensive path to the root of the merge tree (estimated by the size of the KGs) is started first.
      * @param numberOfThreads the number of threads to use. Values greater or equal to one are allowed.
      */
     public void setNumberOfThreads(int numberOfThreads) {
@@ -6,7 +6,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.MultiSource
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
-import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosure;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosureUnionFind;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import java.net.URL;
 import java.util.ArrayList;
@@ -74,7 +74,7 @@ public class MultiSourceDispatcherTransitivePairsTextBased extends MatcherMultiS
         list.sort(Comparator.comparing(MatchingPair::getDistance).reversed());
         
         int matcheToBeExecuted = combinations;
-        TransitiveClosure<Integer> closure = new TransitiveClosure<>();
+        TransitiveClosureUnionFind<Integer> closure = new TransitiveClosureUnionFind<>(models.size());
         for(MatchingPair p : list){
             if(closure.belongToTheSameCluster(p.left, p.right)){
                 continue;
@@ -29,22 +29,38 @@ import de.lmu.ifi.dbs.elki.database.ids.DBIDUtil;
 import de.lmu.ifi.dbs.elki.database.ids.DBIDVar;
 import de.lmu.ifi.dbs.elki.datasource.ArrayAdapterDatabaseConnection;
 import de.lmu.ifi.dbs.elki.datasource.DatabaseConnection;
+import de.lmu.ifi.dbs.elki.distance.distancefunction.AbstractDBIDRangeDistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.DistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.minkowski.EuclideanDistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.minkowski.ManhattanDistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.minkowski.SquaredEuclideanDistanceFunction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * Clusterer based on the ELKI library and always using the Andernberg algorithm.
+ * Optionally, the distance matrix can be precomputed in parallel and stored off-heap or memory mapped (see {@link DistanceMatrix}).
+ * In combination with SLINK / CLINK (single and complete linkage) which only need linear memory, this allows to cluster
+ * more instances than fit into one java array.
  */
 public class ClustererELKI implements Clusterer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClustererELKI.class);
     
     private boolean alwaysUseAnderberg;
+    
+    /**
+     * The storage of the precomputed distance matrix or null if the distances are computed by ELKI.
+     */
+    private DistanceMatrixStorage distanceMatrixStorage;
+    
+    /**
+     * Number of threads to compute the distance matrix.
+     */
+    private int numberOfThreads;
 
     public ClustererELKI() {
         this(false);
@@ -56,7 +72,19 @@ public class ClustererELKI implements Clusterer {
      * @param alwaysUseAnderberg if true, only the anderberg algorithm is used. if false (default), then for single and complete linkage, SLINK/CLINK is used instead.
      */
     public ClustererELKI(boolean alwaysUseAnderberg) {
+        this(alwaysUseAnderberg, null, 1);
+    }
+    
+    /**
+     * Constructor for ELKI which precomputes the distance matrix.
+     * @param alwaysUseAnderberg if true, only the anderberg algorithm is used. if false (default), then for single and complete linkage, SLINK/CLINK is used instead.
+     * @param distanceMatrixStorage the storage of the precomputed distance matrix or null if the distances should be computed by ELKI (the default).
+     * @param numberOfThreads number of threads to compute the distance matrix (-1 to use all processors and 0 to use no threads)
+     */
+    public ClustererELKI(boolean alwaysUseAnderberg, DistanceMatrixStorage distanceMatrixStorage, int numberOfThreads) {
         this.alwaysUseAnderberg = alwaysUseAnderberg;
+        this.distanceMatrixStorage = distanceMatrixStorage;
+        this.numberOfThreads = numberOfThreads < 0 ? Runtime.getRuntime().availableProcessors() : numberOfThreads;
     }
     
     
@@ -69,7 +97,18 @@ public class ClustererELKI implements Clusterer {
         Database db = new StaticArrayDatabase(dbc, null);
         db.initialize();
         
-        DistanceFunction<NumberVector> elkiDistance = getDistance(distance);
+        if(this.distanceMatrixStorage == null){
+            return run(db, getDistance(distance), linkage);
+        }
+        LOGGER.info("Precompute distance matrix for {} instances ({}).", features.length, this.distanceMatrixStorage);
+        try(DistanceMatrix matrix = DistanceMatrix.compute(features, distance, this.distanceMatrixStorage, this.numberOfThreads, 700, false)){
+            return run(db, new DistanceMatrixDistanceFunction(matrix, distance), linkage);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create the distance matrix.", ex);
+        }
+    }
+    
+    private <O> MergeOrder run(Database db, DistanceFunction<O> elkiDistance, ClusterLinkage linkage){
         Linkage elkiLinkage = getLinkage(linkage);
         
         HierarchicalClusteringAlgorithm clusterer;
@@ -147,6 +186,30 @@ public class ClustererELKI implements Clusterer {
         }
     }
     
+    public DistanceMatrixStorage getDistanceMatrixStorage() {
+        return distanceMatrixStorage;
+    }
+
+    /**
+     * Sets the storage of the precomputed distance matrix.
+     * @param distanceMatrixStorage the storage or null if the distances should be computed by ELKI (no precomputed matrix).
+     */
+    public void setDistanceMatrixStorage(DistanceMatrixStorage distanceMatrixStorage) {
+        this.distanceMatrixStorage = distanceMatrixStorage;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads to compute the precomputed distance matrix.
+     * @param numberOfThreads number of threads (-1 to use all processors and 0 to use no threads)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads < 0 ? Runtime.getRuntime().availableProcessors() : numberOfThreads;
+    }
+    
     private Linkage getLinkage(ClusterLinkage linkage) {
         switch (linkage) {
             case SINGLE:
@@ -169,4 +232,42 @@ public class ClustererELKI implements Clusterer {
             }
         }
     }
+    
+    /**
+     * ELKI distance function which looks up the distances in a precomputed {@link DistanceMatrix}.
+     * The DBIDs need to start from zero.
+     */
+    private static class DistanceMatrixDistanceFunction extends AbstractDBIDRangeDistanceFunction {
+        private final DistanceMatrix matrix;
+        private final ClusterDistance distance;
+
+        DistanceMatrixDistanceFunction(DistanceMatrix matrix, ClusterDistance distance) {
+            this.matrix = matrix;
+            this.distance = distance;
+        }
+
+        @Override
+        public double distance(int i1, int i2) {
+            return matrix.get(i1, i2);
+        }
+
+        @Override
+        public void checkRange(DBIDRange range) {
+            if(range.size() != matrix.getNumberOfInstances())
+                throw new IllegalArgumentException("Distance matrix has " + matrix.getNumberOfInstances() + " instances but the database has " + range.size());
+        }
+
+        @Override
+        public boolean isMetric() {
+            return distance != ClusterDistance.SQUARED_EUCLIDEAN;
+        }
+
+        /**
+         * The linkages like ward need to know if the distances are already squared.
+         */
+        @Override
+        public boolean isSquared() {
+            return distance == ClusterDistance.SQUARED_EUCLIDEAN;
+        }
+    }
 }
@@ -2,12 +2,8 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.d
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.MergeOrder;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.HumanReadbleByteCount;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.IntStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import smile.clustering.HierarchicalClustering;
@@ -25,6 +21,8 @@ import smile.math.distance.ManhattanDistance;
 
 /**
  * Clusterer based on the SMILE library.
+ * The distance matrix is computed block-wise in parallel (see {@link DistanceMatrix}) and stored on the heap because SMILE needs one float array.
+ * SMILE can only cluster up to 46340 instances. For more instances, use {@link ClustererELKI} with a precomputed distance matrix.
  */
 public class ClustererSmile implements Clusterer {
 
@@ -77,13 +75,10 @@ public class ClustererSmile implements Clusterer {
      * @param useBLAS if true uses the BLAS component to calculate the distance matrix (this might not be numerically stable)
      */
     public ClustererSmile(int numberOfThreads, int numberOfExamplesPerThread, boolean useBLAS) {
-        if (numberOfThreads < 0) {
-            this.numberOfThreads = Runtime.getRuntime().availableProcessors();
-        }
         if (numberOfExamplesPerThread < 1) {
             throw new IllegalArgumentException("numberOfExamplesPerThread cannot be lower than one.");
         }
-        this.numberOfThreads = numberOfThreads;
+        this.numberOfThreads = numberOfThreads < 0 ? Runtime.getRuntime().availableProcessors() : numberOfThreads;
         this.numberOfExamplesPerThread = numberOfExamplesPerThread;
         this.useBLAS = useBLAS;
     }
@@ -94,6 +89,7 @@ public class ClustererSmile implements Clusterer {
             LOGGER.warn("Features for clustering is empty and do not contain any rows. Return empty merge order.");
             return new MergeOrder(new int[0][0]);
         }
+        checkNumberOfInstances(features.length);
         long n = features.length;
         long distanceMatrixLength = n * (n+1) / 2;
         
@@ -153,24 +149,11 @@ public class ClustererSmile implements Clusterer {
      * @return the proximity
      */
     public float[] getProximity(double[][] features, ClusterDistance distance){
-        if(this.numberOfThreads > 1){
-            if(this.useBLAS){
-                if(distance == ClusterDistance.EUCLIDEAN)
-                    return proximityEuclideanParallel(features, this.numberOfThreads, this.numberOfExamplesPerThread, false);
-                else if(distance == ClusterDistance.SQUARED_EUCLIDEAN)
-                    return proximityEuclideanParallel(features, this.numberOfThreads, this.numberOfExamplesPerThread, true);
-                else{
-                    return proximityParallel(features, distance);
-                }
-            }else{
-                return proximityParallel(features, distance);
-            }
-        }else{
-            return proximity(features, distance);
-        }
+        //BLAS is only used in the parallel case (as before) because it might not be numerically stable
+        return computeProximity(features, distance, this.numberOfThreads, this.numberOfExamplesPerThread, this.numberOfThreads > 1 && this.useBLAS);
     }
         
-    private static Distance<double[]> getSmileDistanceFunction(ClusterDistance distance) {
+    static Distance<double[]> getSmileDistanceFunction(ClusterDistance distance) {
         switch (distance) {
             case EUCLIDEAN:                
                 return MathEx::distance;//new EuclideanDistance();
@@ -185,92 +168,37 @@ public class ClustererSmile implements Clusterer {
     }
 
     public static float[] proximity(double[][] data, ClusterDistance clusterDistance) {
-        long n = data.length;
-        if(n > 46340) {
-            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances");
-        }
-        long length = n * (n + 1) / 2;
-        Distance<double[]> distance = getSmileDistanceFunction(clusterDistance);
-
-        float[] proximity = new float[(int)length];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < i; j++) {
-                int k = (int)(length - (n - j) * (n - j + 1) / 2 + i - j);
-                proximity[k] = (float) distance.d(data[i], data[j]);
-            }
-        }
-        return proximity;
+        return computeProximity(data, clusterDistance, 1, 700, false);
     }
     
     public static float[] proximityParallel(double[][] data, ClusterDistance clusterDistance){
-        long n = data.length;
-        if(n > 46340) {
-            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances");
-        }
-        long length = n * (n+1) / 2;
-        Distance<double[]> distance = getSmileDistanceFunction(clusterDistance);
-
-        float[] proximity = new float[(int)length];
-        IntStream.range(0, (int)n).parallel().forEach(i -> {
-            for (int j = 0; j < i; j++) {
-                int k = (int) (length - (n-j)*(n-j+1)/2 + i - j);
-                proximity[k] = (float) distance.d(data[i], data[j]);
-            }
-        });
-        return proximity;
+        return computeProximity(data, clusterDistance, Runtime.getRuntime().availableProcessors(), 700, false);
     }
     
     public static float[] proximityEuclideanParallel(double[][] data, int numberOfThreads, int numberOfExamplesPerThread, boolean squared){
-        ExecutorService exec = Executors.newFixedThreadPool(numberOfThreads);
-        long n = data.length;
-        if(n > 46340) {
-            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances");
-        }
-        long length = n * (n+1) / 2;
-        
-        CompletionService<DistanceMatrixComputationResult> completionService = new ExecutorCompletionService<>(exec);
-        long numberJobs = 0;
-        for(int i=0; i < n; i+=numberOfExamplesPerThread){
-            for(int j=0; j <= i; j+=numberOfExamplesPerThread){
-                DistanceMatrixComputationJob calulation = new DistanceMatrixComputationJob(data, i, j, numberOfExamplesPerThread, squared);
-                completionService.submit(calulation);
-                numberJobs++;
-            }
+        return computeProximity(data, squared ? ClusterDistance.SQUARED_EUCLIDEAN : ClusterDistance.EUCLIDEAN, 
+                numberOfThreads, numberOfExamplesPerThread, true);
+    }
+    
+    private static float[] computeProximity(double[][] data, ClusterDistance clusterDistance, int numberOfThreads, int numberOfExamplesPerThread, boolean useBLAS){
+        checkNumberOfInstances(data.length);
+        try {
+            //heap storage returns the internal array - thus no copy is made
+            return DistanceMatrix.compute(data, clusterDistance, DistanceMatrixStorage.HEAP, numberOfThreads, numberOfExamplesPerThread, useBLAS).getArray();
+        } catch (IOException ex) {
+            //does not happen for heap storage
+            throw new UncheckedIOException(ex);
         }
-        LOGGER.info("Number of jobs created to compute the distance matrix: {}  ({} in parallel)", numberJobs, numberOfThreads);
-
-        int processedJobs = 0;
-        float[] proximity = new float[(int)length];
-        for(int i = 0; i < numberJobs; i++ ) {
-            try {
-                DistanceMatrixComputationResult r = completionService.take().get();
-                if(i%100==0)
-                    LOGGER.info("Process job {} / {}", processedJobs, numberJobs);
-                LOGGER.debug("Process job {} / {}", processedJobs, numberJobs);
-                processedJobs++;
-                //insert
-                for(int k = 0; k < r.getResult().length; k++){
-                    double[] myrow = r.getResult()[k];
-                    long rowPos = r.getI() + k;
-                    for(int l = 0; l < myrow.length; l++){
-                        long columnPos = r.getJ()+l;
-                        if(rowPos >= columnPos){ //important because results arrive not in same order
-                            long x = length - (n-columnPos)*(n-columnPos+1)/2 + rowPos - columnPos;
-                            if(x >= length){
-                                LOGGER.error("Wrong position {}: row:{} ({} + {}) col:{} ({} + {}) ||  {}, {}", x,
-                                        rowPos,r.getI(), k, columnPos, r.getJ(), l, r.getResult().length, myrow.length);
-                                throw new IllegalArgumentException("Could not process result because index position is wrong.");
-                            }
-                            proximity[(int)x] = (float) myrow[l];
-                        }
-                    }
-                }
-            } catch (InterruptedException | ExecutionException ex) {
-                LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
-            }
+    }
+    
+    /**
+     * The linkage implementations of SMILE compute the index of the proximity array with integers which overflows for larger datasets.
+     */
+    private static void checkNumberOfInstances(int n){
+        if(n > 46340) {
+            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances. "
+                    + "Use ClustererELKI with a precomputed distance matrix instead.");
         }
-        exec.shutdown();
-        return proximity;
     }
 }
 /*
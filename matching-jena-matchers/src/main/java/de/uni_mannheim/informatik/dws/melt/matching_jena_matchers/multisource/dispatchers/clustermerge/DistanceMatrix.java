@@ -0,0 +1,294 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.HumanReadbleByteCount;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A symmetric distance matrix which only stores the lower triangular part (condensed distance matrix) with long indices.
+ * The layout is the same as the proximity array of the SMILE library (column wise, including the diagonal), thus a matrix stored on
+ * the heap can be directly used by SMILE (see {@link #getArray() }).
+ * Depending on the {@link DistanceMatrixStorage}, the values are stored in one float array or in chunks of off-heap or memory mapped storage.
+ * Thus the number of instances is not limited by the maximum array length.
+ * Different threads can set distinct entries concurrently.
+ * Call {@link #close() } to delete the temporary file of a memory mapped matrix.
+ */
+public class DistanceMatrix implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistanceMatrix.class);
+
+    /**
+     * Maximum length of a java array (some VMs reserve header words in an array).
+     */
+    private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /**
+     * Number of bits of the index within a chunk. Each chunk contains 2^27 floats which corresponds to 512 MB.
+     */
+    private static final int CHUNK_BITS = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final int numberOfInstances;
+    private final long length;
+    private final DistanceMatrixStorage storage;
+
+    /**
+     * The array in case of heap storage.
+     */
+    private float[] array;
+
+    /**
+     * The chunks in case of off-heap or memory mapped storage.
+     */
+    private FloatBuffer[] chunks;
+
+    /**
+     * The temporary file in case of memory mapped storage.
+     */
+    private File file;
+
+    /**
+     * Creates a new distance matrix where all distances are zero.
+     * @param numberOfInstances the number of instances (rows and columns of the matrix).
+     * @param storage the storage to use
+     * @throws IllegalArgumentException if heap storage is used for too many instances
+     * @throws IOException in case the memory mapped file could not be created
+     */
+    public DistanceMatrix(int numberOfInstances, DistanceMatrixStorage storage) throws IOException {
+        if(numberOfInstances < 0)
+            throw new IllegalArgumentException("Number of instances is negative.");
+        this.numberOfInstances = numberOfInstances;
+        long n = numberOfInstances;
+        this.length = n * (n + 1) / 2;
+        this.storage = storage;
+        switch(storage){
+            case HEAP:{
+                if(this.length > MAX_ARRAY_LENGTH)
+                    throw new IllegalArgumentException("The distance matrix for " + numberOfInstances
+                            + " instances does not fit into one array. Use off-heap or memory mapped storage.");
+                this.array = new float[(int) this.length];
+                break;
+            }
+            case OFF_HEAP:{
+                this.chunks = new FloatBuffer[getNumberOfChunks()];
+                for(int i = 0; i < this.chunks.length; i++){
+                    this.chunks[i] = ByteBuffer.allocateDirect(getChunkLength(i) * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+                }
+                break;
+            }
+            case MEMORY_MAPPED:{
+                this.file = File.createTempFile("melt-distance-matrix", ".bin");
+                this.file.deleteOnExit();
+                this.chunks = new FloatBuffer[getNumberOfChunks()];
+                try(RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw")){
+                    randomAccessFile.setLength(this.length * Float.BYTES);
+                    FileChannel channel = randomAccessFile.getChannel();
+                    for(int i = 0; i < this.chunks.length; i++){
+                        this.chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, (((long) i) << CHUNK_BITS) * Float.BYTES,
+                                getChunkLength(i) * (long) Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Storage not supported: " + storage);
+        }
+        LOGGER.debug("Created distance matrix for {} instances with {} entries stored {} (requires {}).",
+                numberOfInstances, this.length, storage, HumanReadbleByteCount.convert(this.length * Float.BYTES));
+    }
+
+    private int getNumberOfChunks(){
+        return (int) ((this.length + CHUNK_MASK) >>> CHUNK_BITS);
+    }
+
+    private int getChunkLength(int chunk){
+        return (int) Math.min(CHUNK_MASK + 1, this.length - (((long) chunk) << CHUNK_BITS));
+    }
+
+    /**
+     * Returns the position of the distance between instance i and j in the condensed matrix.
+     * @param i the first instance
+     * @param j the second instance
+     * @return the position
+     */
+    public long index(int i, int j){
+        if(i < j){
+            int tmp = i;
+            i = j;
+            j = tmp;
+        }
+        long nj = (long) this.numberOfInstances - j;
+        return this.length - nj * (nj + 1) / 2 + i - j;
+    }
+
+    /**
+     * Returns the distance between instance i and j.
+     * @param i the first instance
+     * @param j the second instance
+     * @return the distance
+     */
+    public float get(int i, int j){
+        if(i == j)
+            return 0f;
+        return get(index(i, j));
+    }
+
+    /**
+     * Sets the distance between instance i and j (which is the same as the distance between j and i).
+     * @param i the first instance
+     * @param j the second instance
+     * @param distance the distance
+     */
+    public void set(int i, int j, float distance){
+        set(index(i, j), distance);
+    }
+
+    /**
+     * Returns the value at the given position of the condensed matrix.
+     * @param index the position
+     * @return the value
+     */
+    public float get(long index){
+        if(this.array != null)
+            return this.array[(int) index];
+        return this.chunks[(int) (index >>> CHUNK_BITS)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * Sets the value at the given position of the condensed matrix.
+     * @param index the position
+     * @param value the value
+     */
+    public void set(long index, float value){
+        if(this.array != null){
+            this.array[(int) index] = value;
+        }else{
+            this.chunks[(int) (index >>> CHUNK_BITS)].put((int) (index & CHUNK_MASK), value);
+        }
+    }
+
+    public int getNumberOfInstances() {
+        return numberOfInstances;
+    }
+
+    /**
+     * Returns the number of entries of the condensed matrix (including the diagonal).
+     * @return the number of entries
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public DistanceMatrixStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Returns the condensed matrix as a float array which can be used e.g. as proximity for the SMILE library.
+     * In case of heap storage, the internal array is returned (not a copy).
+     * In all other cases, the values are copied in a new array.
+     * @return the condensed matrix as float array
+     * @throws IllegalArgumentException if the matrix is too large for an array
+     */
+    public float[] getArray(){
+        if(this.array != null)
+            return this.array;
+        if(this.length > MAX_ARRAY_LENGTH)
+            throw new IllegalArgumentException("The distance matrix is too large to be converted to an array.");
+        float[] copy = new float[(int) this.length];
+        int position = 0;
+        for(FloatBuffer chunk : this.chunks){
+            FloatBuffer view = chunk.duplicate();
+            view.rewind();
+            int chunkLength = view.remaining();
+            view.get(copy, position, chunkLength);
+            position += chunkLength;
+        }
+        return copy;
+    }
+
+    /**
+     * Releases the storage and deletes the temporary file of a memory mapped matrix.
+     * The matrix should not be used afterwards.
+     */
+    @Override
+    public void close() {
+        this.array = null;
+        this.chunks = null;
+        if(this.file != null){
+            //the mapping is released when the buffers are garbage collected - on some systems the file can only be deleted afterwards
+            if(this.file.delete() == false)
+                LOGGER.debug("Could not delete distance matrix file {} now. It will be deleted on exit.", this.file);
+            this.file = null;
+        }
+    }
+
+    /**
+     * Computes the distance matrix for the given features.
+     * The matrix is divided into blocks of numberOfExamplesPerBlock rows and columns which are computed in parallel
+     * and directly written into the matrix (see {@link DistanceMatrixComputationJob}).
+     * @param features the features (one row per instance)
+     * @param distance the distance function
+     * @param storage the storage of the resulting distance matrix
+     * @param numberOfThreads the number of threads (one or less to compute the matrix in the current thread)
+     * @param numberOfExamplesPerBlock number of examples (rows/columns) in each block
+     * @param useBLAS if true uses the BLAS component to calculate euclidean and squared euclidean distances (this might not be numerically stable).
+     * @return the distance matrix
+     * @throws IOException in case the memory mapped file could not be created
+     */
+    public static DistanceMatrix compute(double[][] features, ClusterDistance distance, DistanceMatrixStorage storage,
+            int numberOfThreads, int numberOfExamplesPerBlock, boolean useBLAS) throws IOException{
+        if(numberOfExamplesPerBlock < 1)
+            throw new IllegalArgumentException("numberOfExamplesPerBlock cannot be lower than one.");
+        DistanceMatrix matrix = new DistanceMatrix(features.length, storage);
+        List<DistanceMatrixComputationJob> jobs = new ArrayList<>();
+        for(int i = 0; i < features.length; i += numberOfExamplesPerBlock){
+            for(int j = 0; j <= i; j += numberOfExamplesPerBlock){
+                jobs.add(new DistanceMatrixComputationJob(features, i, j, numberOfExamplesPerBlock, matrix, distance, useBLAS));
+            }
+        }
+        if(numberOfThreads <= 1){
+            for(DistanceMatrixComputationJob job : jobs){
+                job.run();
+            }
+            return matrix;
+        }
+        LOGGER.info("Number of jobs created to compute the distance matrix: {}  ({} in parallel)", jobs.size(), numberOfThreads);
+        ExecutorService exec = Executors.newFixedThreadPool(numberOfThreads);
+        try{
+            List<Future<?>> futures = new ArrayList<>(jobs.size());
+            for(DistanceMatrixComputationJob job : jobs){
+                futures.add(exec.submit(job));
+            }
+            for(int i = 0; i < futures.size(); i++){
+                futures.get(i).get();
+                if(i % 1000 == 0)
+                    LOGGER.debug("Processed job {} / {}", i, futures.size());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            matrix.close();
+            throw new IllegalStateException("Interrupted while computing the distance matrix.", ex);
+        } catch (ExecutionException ex) {
+            matrix.close();
+            throw new IllegalStateException("Could not compute the distance matrix.", ex.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+        return matrix;
+    }
+}
@@ -1,60 +1,94 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge;
 
-import java.util.concurrent.Callable;
 import smile.math.blas.Transpose;
+import smile.math.distance.Distance;
 import smile.math.matrix.Matrix;
 
 /**
- * The job/callable to compute the distance matrix in parallel.
- * This is only for euclidean distance.
+ * The job to compute one block of the distance matrix in parallel.
+ * The block contains the distances between the rows [i, i + step) and the rows [j, j + step) of the features.
+ * The distances are directly written into the {@link DistanceMatrix} (different jobs write distinct entries).
+ * The euclidean distance (and squared euclidean distance) can be computed with BLAS (matrix multiplication).
  */
-public class DistanceMatrixComputationJob implements Callable<DistanceMatrixComputationResult> {
+public class DistanceMatrixComputationJob implements Runnable {
     private final double[][] fullArray;
     private final int i;
     private final int j;
     private final int step;
+    private final DistanceMatrix matrix;
+    private final ClusterDistance distance;
     /**
-     * if true, the euclidean distance is squared which means the square root is not computed.
+     * If true, BLAS is used for euclidean distances.
      */
-    private final boolean squared;
+    private final boolean useBLAS;
 
-    public DistanceMatrixComputationJob(double[][] fullArray, int i, int j, int step, boolean squared){
+    public DistanceMatrixComputationJob(double[][] fullArray, int i, int j, int step, DistanceMatrix matrix, ClusterDistance distance, boolean useBLAS){
         this.fullArray = fullArray;
         this.i = i;
         this.j = j;
         this.step = step;
-        this.squared = squared;
+        this.matrix = matrix;
+        this.distance = distance;
+        this.useBLAS = useBLAS;
     }
 
     @Override
-    public DistanceMatrixComputationResult call() throws Exception {
-        double[][] A = extractSubArray(fullArray, i, i + step);
-        double[][] B = extractSubArray(fullArray, j, j + step);
-        double[][] result = computeDistanceMatrix(A, B, this.squared);
-        return new DistanceMatrixComputationResult(i, j, result);
+    public void run() {
+        int iEnd = Math.min(fullArray.length, i + step);
+        int jEnd = Math.min(fullArray.length, j + step);
+        if(useBLAS && (distance == ClusterDistance.EUCLIDEAN || distance == ClusterDistance.SQUARED_EUCLIDEAN)){
+            boolean squared = distance == ClusterDistance.SQUARED_EUCLIDEAN;
+            Matrix result = computeSquaredDistances(toMatrix(fullArray, i, iEnd), toMatrix(fullArray, j, jEnd));
+            for (int r = 0; r < result.nrows(); r++) {
+                int rowPos = i + r;
+                for (int c = 0; c < result.ncols(); c++) {
+                    int columnPos = j + c;
+                    if(rowPos > columnPos) //in diagonal blocks, only the lower triangle is needed
+                        matrix.set(rowPos, columnPos, (float) toDistance(result.get(r, c), squared));
+                }
+            }
+        }else{
+            Distance<double[]> d = ClustererSmile.getSmileDistanceFunction(distance);
+            for (int rowPos = i; rowPos < iEnd; rowPos++) {
+                for (int columnPos = j; columnPos < Math.min(jEnd, rowPos); columnPos++) {
+                    matrix.set(rowPos, columnPos, (float) d.d(fullArray[rowPos], fullArray[columnPos]));
+                }
+            }
+        }
     }
-    
-    private static double[][] extractSubArray(double[][] from, int fromIndex, int toIndex){
-        int counter = 0;
-        
-        int to = Math.min(from.length, toIndex);
-        double[][] ret = new double[to-fromIndex][];       
-        
-        for(int i = fromIndex; i < to; i++){
-            ret[counter] = from[i];
-            counter++;
+
+    /**
+     * Creates a matrix which contains the rows [from, to) of the given array (without creating an intermediate array).
+     */
+    private static Matrix toMatrix(double[][] from, int fromIndex, int toIndex){
+        int columns = toIndex > fromIndex ? from[fromIndex].length : 0;
+        Matrix m = new Matrix(toIndex - fromIndex, columns);
+        for(int r = fromIndex; r < toIndex; r++){
+            double[] row = from[r];
+            for(int c = 0; c < columns; c++){
+                m.set(r - fromIndex, c, row[c]);
+            }
         }
-        return ret;        
+        return m;
     }
 
-    public static double[][] computeDistanceMatrix(double[][] A, double[][] B, boolean squared){
+    private static double toDistance(double squaredDistance, boolean squared){
+        if(squaredDistance <= 0){
+            return 0;
+        }else if(squared){
+            return squaredDistance;
+        }else{
+            return Math.sqrt(squaredDistance);
+        }
+    }
+
+    /**
+     * Computes the squared euclidean distances between all rows of a and b (which can be negative due to numerical instability).
+     */
+    private static Matrix computeSquaredDistances(Matrix a, Matrix b){
         //https://www.dabblingbadger.com/blog/2020/2/27/implementing-euclidean-distance-matrix-calculations-from-scratch-in-python
+        Matrix result = new Matrix(a.nrows(), b.nrows());
 
-        Matrix a = new Matrix(A);
-        Matrix b = new Matrix(B);
-        
-        Matrix result = new Matrix(a.nrows(), b.nrows());  
-        
         //A_dots to resuts matrix
         Matrix adots = a.clone();
         double[] sums = adots.mul(adots).rowSums();
@@ -63,7 +97,7 @@ public class DistanceMatrixComputationJob implements Callable<DistanceMatrixComp
                 result.set(r, c, sums[r]);
             }
         }
-        
+
         //add B_dots to result matrix
         Matrix bdots = b.clone();
         sums = bdots.mul(bdots).rowSums();
@@ -72,22 +106,27 @@ public class DistanceMatrixComputationJob implements Callable<DistanceMatrixComp
                 result.add(r, c, sums[c]);
             }
         }
-        
+
         //-2*A.dot(B.T) via BLAS level 3 gemm function
         a.mm(Transpose.NO_TRANSPOSE, Transpose.TRANSPOSE, -2.0, b, 1.0, result);
+        return result;
+    }
+
+    /**
+     * Computes the euclidean distances between all rows of A and B with BLAS.
+     * @param A the first matrix
+     * @param B the second matrix
+     * @param squared if true, the euclidean distance is squared which means the square root is not computed.
+     * @return the distance matrix with A.length rows and B.length columns
+     */
+    public static double[][] computeDistanceMatrix(double[][] A, double[][] B, boolean squared){
+        Matrix result = computeSquaredDistances(new Matrix(A), new Matrix(B));
 
         //convert to double[] and check negative values
         double[][] resultArray = new double[result.nrows()][result.ncols()];
         for (int r = 0; r < result.nrows(); r++) {
             for (int c = 0; c < result.ncols(); c++) {
-                double v = result.get(r, c);
-                if(v <= 0){
-                    resultArray[r][c] = 0;
-                }else if(squared){
-                    resultArray[r][c] = v;
-                }else{
-                    resultArray[r][c] = Math.sqrt(v);
-                }
+                resultArray[r][c] = toDistance(result.get(r, c), squared);
             }
         }
         return resultArray;
@@ -0,0 +1,25 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge;
+
+/**
+ * The storage of a {@link DistanceMatrix}.
+ */
+public enum DistanceMatrixStorage {
+
+    /**
+     * One float array on the java heap. This is the fastest storage but is limited to 65535 instances
+     * (the maximum length of a java array).
+     */
+    HEAP,
+
+    /**
+     * Chunks of direct (off-heap) memory. The size is not limited by the java heap but by the maximum direct memory
+     * (JVM parameter -XX:MaxDirectMemorySize).
+     */
+    OFF_HEAP,
+
+    /**
+     * Chunks of a memory mapped temporary file. The operating system decides which parts are kept in memory.
+     * This allows distance matrices which are larger than the available memory.
+     */
+    MEMORY_MAPPED
+}
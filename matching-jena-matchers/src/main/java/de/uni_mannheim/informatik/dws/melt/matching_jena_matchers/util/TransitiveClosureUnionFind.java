@@ -0,0 +1,317 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes a transitive closure in RAM with a union-find (disjoint set) data structure.
+ * It has the same interface as {@link TransitiveClosure} but scales to millions of elements:
+ * each element is mapped to an int id and the identity sets are represented by a parent array
+ * (with path compression and union by rank). Thus adding elements needs nearly constant time and does not copy any sets.
+ * The identity sets are only created when they are requested (e.g. by {@link #getClosure()}) and cached until the next add.
+ * Remove methods are not implemented (just create new instances of TransitiveClosureUnionFind).
+ * Example:
+ * <pre>{@code
+ * TransitiveClosureUnionFind<String> tc = new TransitiveClosureUnionFind<>();
+ * tc.add("A", "B");
+ * tc.add("B", "C", "D");
+ * tc.add("E", "F");
+ *
+ * tc.getClosure();
+ * //returns [ {"A", "B", "C", "D"}, {"E", "F"} ]
+ * }</pre>
+ * For alignments, use {@link #fromAlignment(java.lang.Iterable) }.
+ * @param <T> the type of elements
+ */
+public class TransitiveClosureUnionFind <T> {
+
+    /**
+     * Map from object to its int id.
+     */
+    private final Map<T, Integer> objectToId;
+
+    /**
+     * Map from int id to object.
+     */
+    private final List<T> idToObject;
+
+    /**
+     * Parent of each id. An id is the representative of its identity set if it is its own parent.
+     */
+    private int[] parent;
+
+    /**
+     * Upper bound for the height of the tree of each representative.
+     */
+    private byte[] rank;
+
+    /**
+     * The number of identity sets.
+     */
+    private int numberOfSets;
+
+    /**
+     * Cache of the identity sets (from representative id to set) - null if not computed or outdated.
+     */
+    private Map<Integer, Set<T>> closureCache;
+
+    /**
+     * Initialize an empty transitive closure.
+     */
+    public TransitiveClosureUnionFind(){
+        this(16);
+    }
+
+    /**
+     * Initialize an empty transitive closure.
+     * @param expectedNumberOfElements the expected number of elements (to avoid resizing the internal arrays).
+     */
+    public TransitiveClosureUnionFind(int expectedNumberOfElements){
+        int capacity = Math.max(expectedNumberOfElements, 16);
+        this.objectToId = new HashMap<>(capacity);
+        this.idToObject = new ArrayList<>(capacity);
+        this.parent = new int[capacity];
+        this.rank = new byte[capacity];
+        this.numberOfSets = 0;
+        this.closureCache = null;
+    }
+
+    /**
+     * Creates the transitive closure of all correspondences (regardless of the relation) in the given alignment.
+     * The correspondences are directly added without creating intermediate collections.
+     * @param alignment the alignment (or any other iterable of correspondences)
+     * @return the transitive closure of the URIs in the alignment
+     */
+    public static TransitiveClosureUnionFind<String> fromAlignment(Iterable<Correspondence> alignment){
+        int expectedSize = 16;
+        if(alignment instanceof Collection)
+            expectedSize = ((Collection<?>) alignment).size() * 2;
+        TransitiveClosureUnionFind<String> closure = new TransitiveClosureUnionFind<>(expectedSize);
+        for(Correspondence c : alignment){
+            closure.add(c.getEntityOne(), c.getEntityTwo());
+        }
+        return closure;
+    }
+
+    /**
+     * Adds two elements which are equal.
+     * @param one the first element
+     * @param two the second element
+     */
+    public void add(T one, T two){
+        union(getOrCreateId(one), getOrCreateId(two));
+    }
+
+    /**
+     * Adds elements to this transitive closure.
+     * All items in the elements parameter are assumed to be equal.
+     * Usually these are two elements (like A - B)
+     * @param elements iterable of items which are equal.
+     */
+    public void add(T... elements){
+        add(Arrays.asList(elements));
+    }
+
+    /**
+     * Adds elements to this transitive closure.
+     * All items in the elements parameter are assumed to be equal.
+     * Usually these are two elements (like A - B)
+     * @param elements iterable of items which are equal.
+     */
+    public void add(Iterable<T> elements){
+        Iterator<T> iterator = elements.iterator();
+        if(!iterator.hasNext())
+            return;
+        int first = getOrCreateId(iterator.next());
+        while(iterator.hasNext()){
+            union(first, getOrCreateId(iterator.next()));
+        }
+    }
+
+    /**
+     * Adds another transitive closure to this object.
+     * Only this object is modified. The parameter transitiveClosure is not modified.
+     * @param transitiveClosure other transitive closure which is added to this object
+     */
+    public void add(TransitiveClosureUnionFind<T> transitiveClosure){
+        for(int id = 0; id < transitiveClosure.idToObject.size(); id++){
+            add(transitiveClosure.idToObject.get(id), transitiveClosure.idToObject.get(transitiveClosure.find(id)));
+        }
+    }
+
+    /**
+     * Adds another transitive closure to this object.
+     * Only this object is modified. The parameter transitiveClosure is not modified.
+     * @param transitiveClosure other transitive closure which is added to this object
+     */
+    public void add(TransitiveClosure<T> transitiveClosure){
+        for(Set<T> identitySet : transitiveClosure.getClosure()){
+            add(identitySet);
+        }
+    }
+
+    /**
+     * Returns the transitive closure.
+     * This means a collections of identity sets auch that all elements in one set belong to one identity.
+     * The sets are computed on the first call after a modification.
+     * @return transitive closure
+     */
+    public Collection<Set<T>> getClosure(){
+        return getClosureMap().values();
+    }
+
+    /**
+     * Checks if the two given elements belong to the same identity set.
+     * @param one the first element
+     * @param two the second element
+     * @return true if both elements belong to the same identity set
+     */
+    public boolean belongToTheSameCluster(T one, T two){
+        Integer idOne = this.objectToId.get(one);
+        Integer idTwo = this.objectToId.get(two);
+        if(idOne == null || idTwo == null)
+            return false;
+        return find(idOne) == find(idTwo);
+    }
+
+    /**
+     * Checks if all given elements belong to the same identity set.
+     * Returns true if this is the case , false otherwise.
+     * @param elements all elements to check.
+     * @return true if all given elements belong to the same identity set
+     */
+    public boolean belongToTheSameCluster(T... elements){
+        return belongToTheSameCluster(Arrays.asList(elements));
+    }
+
+    /**
+     * Checks if all given elements belong to the same identity set.
+     * Returns true if this is the case , false otherwise.
+     * @param elements all elements to check.
+     * @return true if all given elements belong to the same identity set
+     */
+    public boolean belongToTheSameCluster(Iterable<T> elements){
+        int root = -1;
+        for(T element : elements){
+            Integer id = this.objectToId.get(element);
+            if(id == null)
+                return false;
+            int elementRoot = find(id);
+            if(root == -1){
+                root = elementRoot;
+            }else if(root != elementRoot){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the identity set in which the given object is stored.
+     * @param element the element to search the identiry set for
+     * @return the identity set
+     */
+    public Set<T> getIdentitySetForElement(T element){
+        Integer id = this.objectToId.get(element);
+        if(id == null){
+            return null;
+        }
+        return getClosureMap().get(find(id));
+    }
+
+    /**
+     * Returns the internal id which represents the identity set.
+     * Only use if an arbitrary id is fine for the caller.
+     * The id can change when new elements are added.
+     * @param element the element to look for the internal id.
+     * @return the internal id which represents the identity set.
+     */
+    public Integer getIdentityID(T element){
+        Integer id = this.objectToId.get(element);
+        if(id == null){
+            return null;
+        }
+        return find(id);
+    }
+
+    /**
+     * Returns the number of all elements in this transitive closure (regardless of their identity set).
+     * @return the number of all elements in this transitive closure.
+     */
+    public int countOfAllElements(){
+        return this.idToObject.size();
+    }
+
+    /**
+     * Returns the number of identity sets in this transitive closure.
+     * @return the number of identity sets.
+     */
+    public int countOfIdentitySets(){
+        return this.numberOfSets;
+    }
+
+    private Map<Integer, Set<T>> getClosureMap(){
+        if(this.closureCache == null){
+            Map<Integer, Set<T>> closure = new HashMap<>(this.numberOfSets * 2);
+            for(int id = 0; id < this.idToObject.size(); id++){
+                closure.computeIfAbsent(find(id), __ -> new HashSet<>()).add(this.idToObject.get(id));
+            }
+            this.closureCache = closure;
+        }
+        return this.closureCache;
+    }
+
+    private int getOrCreateId(T element){
+        Integer id = this.objectToId.get(element);
+        if(id != null)
+            return id;
+        int newId = this.idToObject.size();
+        if(newId == this.parent.length){
+            int newCapacity = this.parent.length * 2;
+            this.parent = Arrays.copyOf(this.parent, newCapacity);
+            this.rank = Arrays.copyOf(this.rank, newCapacity);
+        }
+        this.parent[newId] = newId;
+        this.idToObject.add(element);
+        this.objectToId.put(element, newId);
+        this.numberOfSets++;
+        this.closureCache = null;
+        return newId;
+    }
+
+    /**
+     * Returns the representative of the given id and compresses the path (path halving).
+     */
+    private int find(int id){
+        while(this.parent[id] != id){
+            this.parent[id] = this.parent[this.parent[id]];
+            id = this.parent[id];
+        }
+        return id;
+    }
+
+    private void union(int one, int two){
+        int rootOne = find(one);
+        int rootTwo = find(two);
+        if(rootOne == rootTwo)
+            return;
+        if(this.rank[rootOne] < this.rank[rootTwo]){
+            this.parent[rootOne] = rootTwo;
+        }else if(this.rank[rootOne] > this.rank[rootTwo]){
+            this.parent[rootTwo] = rootOne;
+        }else{
+            this.parent[rootTwo] = rootOne;
+            this.rank[rootOne]++;
+        }
+        this.numberOfSets--;
+        this.closureCache = null;
+    }
+}
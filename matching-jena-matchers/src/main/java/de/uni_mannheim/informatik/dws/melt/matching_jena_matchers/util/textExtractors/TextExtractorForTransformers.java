@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.textExtractors;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.PropertyVocabulary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.StringProcessing;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.URIUtil;
@@ -147,7 +148,7 @@ public class TextExtractorForTransformers implements TextExtractor {
         }
         
         //add annotation properties
-        for(String s : annotationExtractor.extract(r)){
+        for(String s : TextExtractorCache.extractWithActiveCache(annotationExtractor, r)){
             literals.add(new ProcessedLiteral(ProperyTypeFineGrained.ANNOTATION_PROP, s));
         }
         
@@ -147,4 +147,41 @@ public class ScalableStringProcessingMatcherTest {
         assertEquals(1, a.size());
         
     }
+    
+    @Test
+    void testParallelMatchesSequential() throws Exception {
+        OntModel source = ModelFactory.createOntologyModel();
+        OntModel target = ModelFactory.createOntologyModel();
+        for(int i = 0; i < 500; i++){
+            source.createIndividual("http://source.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, "Label " + (i % 97))
+                .addLiteral(SKOS.altLabel, "alt " + (i % 13));
+            target.createIndividual("http://target.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, "label " + (i % 89))
+                .addLiteral(SKOS.altLabel, "Alt " + (i % 11));
+        }
+        for(boolean earlyStopping : new boolean[]{true, false}){
+            for(boolean crossIndexMatch : new boolean[]{true, false}){
+                ScalableStringProcessingMatcher matcher = new ScalableStringProcessingMatcher(Arrays.asList(
+                    new PropertySpecificStringProcessing(text -> text, 1.0, RDFS.label),
+                    new PropertySpecificStringProcessing(text -> text.toLowerCase(), 0.9, RDFS.label),
+                    new PropertySpecificStringProcessing(text -> text.toLowerCase(), 0.7, SKOS.altLabel)
+                ), earlyStopping);
+                matcher.setCrossIndexMatch(crossIndexMatch);
+                Alignment sequential = matcher.match(source, target, new Alignment(), new Properties());
+                
+                matcher.setNumberOfThreads(4);
+                Alignment parallel = matcher.match(source, target, new Alignment(), new Properties());
+                
+                assertTrue(sequential.size() > 0);
+                assertEquals(sequential.size(), parallel.size());
+                for(Correspondence c : sequential){
+                    Correspondence p = parallel.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+                    assertNotNull(p);
+                    assertEquals(c.getConfidence(), p.getConfidence());
+                    assertEquals(c.getAdditionalConfidence(ScalableStringProcessingMatcher.class), p.getAdditionalConfidence(ScalableStringProcessingMatcher.class));
+                }
+            }
+        }
+    }
 }
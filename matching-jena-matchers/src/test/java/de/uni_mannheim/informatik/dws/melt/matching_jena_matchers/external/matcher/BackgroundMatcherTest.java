@@ -2,18 +2,28 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matc
 
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymBlockingKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModel;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModelTest;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wordNet.WordNetKnowledgeSource;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -190,6 +200,161 @@ class BackgroundMatcherTest {
         assertEquals(1.0, matcher.isTokenSetSynonymous(list7, list8).getValue1());
     }
 
+    @Test
+    void blockingGivesSameResultAsExhaustiveMatching() throws Exception {
+        for (int seed = 0; seed < 5; seed++) {
+            OntModel source = getRandomOntology("http://source.com/", new Random(seed));
+            OntModel target = getRandomOntology("http://target.com/", new Random(seed + 100));
+            for (SemanticWordRelationDictionary dictionary : Arrays.asList(new SmallDictionary(), new WordNetKnowledgeSource())) {
+                BackgroundMatcher exhaustive = new BackgroundMatcher(dictionary);
+                exhaustive.setVerboseLoggingOutput(false);
+                exhaustive.setUseBlocking(false);
+                Alignment expected = exhaustive.match(source, target, null, null);
+                assertTrue(expected.size() > 0);
+
+                BackgroundMatcher blocking = new BackgroundMatcher(dictionary);
+                blocking.setVerboseLoggingOutput(false);
+                assertTrue(blocking.isUseBlocking());
+                assertAlignmentEquals(expected, blocking.match(source, target, null, null));
+
+                if (dictionary instanceof SmallDictionary) {
+                    // only the small dictionary is thread safe
+                    blocking.setNumberOfThreads(4);
+                    assertAlignmentEquals(expected, blocking.match(source, target, null, null));
+                    exhaustive.setNumberOfThreads(4);
+                    assertAlignmentEquals(expected, exhaustive.match(source, target, null, null));
+                }
+            }
+        }
+    }
+
+    @Test
+    void setNumberOfThreads(){
+        BackgroundMatcher matcher = new BackgroundMatcher(new SmallDictionary());
+        assertEquals(1, matcher.getNumberOfThreads());
+        matcher.setNumberOfThreads(3);
+        assertEquals(3, matcher.getNumberOfThreads());
+        assertThrows(IllegalArgumentException.class, () -> matcher.setNumberOfThreads(0));
+    }
+
+    private static void assertAlignmentEquals(Alignment expected, Alignment actual){
+        assertEquals(expected.size(), actual.size());
+        for (Correspondence c : expected) {
+            Correspondence other = actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+            assertNotNull(other, "Missing correspondence " + c);
+            assertEquals(c.getConfidence(), other.getConfidence());
+            assertEquals(c.getExtensions(), other.getExtensions());
+        }
+    }
+
+    private static final String[] WORDS = {"car", "automobile", "auto", "person", "human", "man", "peace", "calm",
+            "red", "blue", "house", "home", "xyz", "conference", "paper", "article"};
+
+    private static OntModel getRandomOntology(String namespace, Random random){
+        OntModel model = ModelFactory.createOntologyModel();
+        for (int i = 0; i < 80; i++) {
+            OntClass clazz = model.createClass(namespace + i);
+            int numberOfLabels = 1 + random.nextInt(2);
+            for (int j = 0; j < numberOfLabels; j++) {
+                int numberOfWords = 1 + random.nextInt(3);
+                StringBuilder label = new StringBuilder();
+                for (int k = 0; k < numberOfWords; k++) {
+                    if (k > 0) label.append(" ");
+                    label.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                clazz.addLabel(label.toString(), "en");
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Small thread safe dictionary. "auto" has no blocking keys to test resources which are compared with all others.
+     */
+    private static class SmallDictionary extends SemanticWordRelationDictionary implements SynonymBlockingKeyCapability {
+
+        private static final Map<String, Set<String>> SYNONYMS = new HashMap<>();
+
+        static {
+            addSynonyms("car", "automobile", "auto");
+            addSynonyms("person", "human", "man");
+            addSynonyms("peace", "calm");
+            addSynonyms("house", "home");
+            addSynonyms("red");
+            addSynonyms("blue");
+            addSynonyms("paper", "article");
+        }
+
+        private static void addSynonyms(String... words){
+            for (String word : words) {
+                SYNONYMS.put(word, new HashSet<>(Arrays.asList(words)));
+            }
+        }
+
+        private final LabelToConceptLinker linker = new LabelToConceptLinker() {
+            @Override
+            public String linkToSingleConcept(String labelToBeLinked) {
+                String normalized = labelToBeLinked.trim().toLowerCase();
+                return SYNONYMS.containsKey(normalized) ? normalized : null;
+            }
+
+            @Override
+            public Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked) {
+                Set<String> result = new HashSet<>();
+                for (String token : labelToBeLinked.split(" ")) {
+                    String link = linkToSingleConcept(token);
+                    if (link == null) return null;
+                    result.add(link);
+                }
+                return result;
+            }
+
+            @Override
+            public String getNameOfLinker() {
+                return "SmallLinker";
+            }
+
+            @Override
+            public void setNameOfLinker(String nameOfLinker) {
+            }
+        };
+
+        @Override
+        public Set<String> getSynonymsLexical(String linkedConcept) {
+            Set<String> synonyms = SYNONYMS.get(linkedConcept);
+            return synonyms == null ? null : new HashSet<>(synonyms);
+        }
+
+        @Override
+        public Set<String> getSynonymBlockingKeys(String linkedConcept) {
+            if (linkedConcept.equals("auto")) return null;
+            Set<String> result = new HashSet<>();
+            Set<String> synonyms = getSynonymsLexical(linkedConcept);
+            if (synonyms != null) result.addAll(synonyms);
+            result.add(linkedConcept);
+            return result;
+        }
+
+        @Override
+        public Set<String> getHypernyms(String linkedConcept) {
+            return new HashSet<>();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public LabelToConceptLinker getLinker() {
+            return linker;
+        }
+
+        @Override
+        public String getName() {
+            return "SmallDictionary";
+        }
+    }
+
     @Test
     void strategyTest(){
         BackgroundMatcher matcher = new BackgroundMatcher(new WordNetKnowledgeSource(), ImplementedBackgroundMatchingStrategies.SYNONYMY, 0.0);
@@ -1,7 +1,13 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentMap;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PersistenceServiceTest {
@@ -35,4 +41,88 @@ class PersistenceServiceTest {
         service.closePersistenceService();
     }
 
-}
\ No newline at end of file
+    @Test
+    void writeBehindBuffer() throws IOException {
+        File directory = Files.createTempDirectory("persistence").toFile();
+        try {
+            PersistenceService service = PersistenceService.getService(directory.getAbsolutePath());
+            service.setWriteBehindBatchSize(1000);
+            service.setWriteBehindIntervalMs(0);
+            PersistenceService.PreconfiguredPersistences persistence = PersistenceService.PreconfiguredPersistences.WIKIDATA_ASK_BUFFER;
+
+            ConcurrentMap<String, Boolean> map = service.getMapDatabase(persistence);
+            assertSame(map, service.getMapDatabase(persistence));
+            map.put("a", true);
+            map.put("b", false);
+            assertTrue(map.get("a"));
+            assertNull(map.get("c"));
+
+            BufferedPersistentMap buffered = service.getBufferedMap(persistence);
+            assertEquals(2, buffered.getNumberOfPendingEntries());
+            assertEquals(0, buffered.getCommitCount());
+            assertEquals(1, buffered.getMemoryHitCount());
+            assertEquals(1, buffered.getMissCount());
+
+            // the buffered entries are written when the database is closed
+            service.closeDatabase(persistence);
+            assertEquals(0, buffered.getNumberOfPendingEntries());
+            assertEquals(1, buffered.getCommitCount());
+
+            // a closed map fails fast instead of dropping the entries
+            assertTrue(buffered.isClosed());
+            ConcurrentMap<String, Boolean> closedMap = map;
+            assertThrows(IllegalStateException.class, () -> closedMap.put("c", true));
+            assertThrows(IllegalStateException.class, () -> closedMap.get("a"));
+
+            map = service.getMapDatabase(persistence);
+            assertNotSame(buffered, map);
+            assertFalse(map.get("b"));
+            assertTrue(map.containsKey("a"));
+            assertEquals(2, service.getBufferedMap(persistence).getStoreHitCount());
+            assertEquals(2, map.size());
+
+            // commit durably writes the buffered entries
+            map.put("c", true);
+            service.commit(persistence);
+            assertEquals(0, service.getBufferedMap(persistence).getNumberOfPendingEntries());
+            assertEquals(1, service.getBufferedMap(persistence).getCommitCount());
+            service.closePersistenceService();
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void writeBehindBufferOverwritesDuringFlush() throws IOException {
+        File directory = Files.createTempDirectory("persistence").toFile();
+        try {
+            PersistenceService service = PersistenceService.getService(directory.getAbsolutePath());
+            service.setWriteBehindBatchSize(3);
+            service.setWriteBehindIntervalMs(0);
+            PersistenceService.PreconfiguredPersistences persistence = PersistenceService.PreconfiguredPersistences.WIKIDATA_ASK_BUFFER;
+
+            // the batch size is small, thus the keys are overwritten while the background flushes are running
+            ConcurrentMap<String, Boolean> map = service.getMapDatabase(persistence);
+            for (int i = 0; i < 1000; i++) {
+                map.put("key" + (i % 10), i % 3 == 0);
+                assertEquals(i % 3 == 0, map.get("key" + (i % 10)));
+            }
+            BufferedPersistentMap buffered = service.getBufferedMap(persistence);
+            // at most each key once in the running flush and once in the pending entries
+            assertTrue(buffered.getNumberOfPendingEntries() <= 20);
+
+            service.closeDatabase(persistence);
+            assertEquals(0, buffered.getNumberOfPendingEntries());
+
+            // the last value of each key is written
+            map = service.getMapDatabase(persistence);
+            for (int i = 990; i < 1000; i++) {
+                assertEquals(i % 3 == 0, map.get("key" + (i % 10)));
+            }
+            assertEquals(10, map.size());
+            service.closePersistenceService();
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql;
+
+import org.apache.jena.query.QueryFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparqlServicesTest {
+
+
+    @Test
+    void partition() {
+        List<List<Integer>> chunks = SparqlServices.partition(Arrays.asList(1, 2, 3, 4, 5), 2);
+        assertEquals(3, chunks.size());
+        assertEquals(Arrays.asList(1, 2), chunks.get(0));
+        assertEquals(Arrays.asList(5), chunks.get(2));
+        assertTrue(SparqlServices.partition(Arrays.asList(), 2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> SparqlServices.partition(Arrays.asList(1), 0));
+    }
+
+    @Test
+    void buildValuesClauses() {
+        String literals = SparqlServices.buildLiteralValuesClause("l", Arrays.asList("a \"quoted\" label", "b"), "en");
+        assertEquals("VALUES ?l { \"a \\\"quoted\\\" label\"@en \"b\"@en }\n", literals);
+        assertEquals("VALUES ?l { \"b\" }\n", SparqlServices.buildLiteralValuesClause("l", Arrays.asList("b"), null));
+
+        String uris = SparqlServices.buildUriValuesClause("c", Arrays.asList("<http://example.com/a>", "http://example.com/b"));
+        assertEquals("VALUES ?c { <http://example.com/a> <http://example.com/b> }\n", uris);
+
+        // the clauses must result in valid queries
+        assertNotNull(QueryFactory.create("SELECT ?c ?l WHERE { " + uris + literals + " ?c ?p ?l . }"));
+    }
+}
@@ -0,0 +1,111 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wikidata;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.testTools.TestOperations.deletePersistenceDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the bulk lookups against a small local model (instead of the public endpoint) and compares them with the
+ * individual lookups.
+ */
+class WikidataBulkLookupTest {
+
+
+    private static final String ENTITY = "http://www.wikidata.org/entity/";
+    private static final List<String> LABELS = Arrays.asList("bank", "financial institution", "FinancialInstitution",
+            "credit institute", "organization", "not in the model");
+
+    @BeforeAll
+    @AfterAll
+    static void setupAndTearDown() {
+        deletePersistenceDirectory();
+    }
+
+    @Test
+    void bulkLookupsEqualIndividualLookups() {
+        // bulk lookups
+        WikidataKnowledgeSource bulkSource = createKnowledgeSource();
+        WikidataLinker bulkLinker = (WikidataLinker) bulkSource.getLinker();
+        bulkLinker.preResolve(LABELS);
+        Map<String, Set<String>> bulkLinks = new HashMap<>();
+        for (String label : LABELS) {
+            String link = bulkLinker.linkToSingleConcept(label);
+            bulkLinks.put(label, link == null ? null : bulkLinker.getUris(link));
+        }
+        String bankLink = bulkLinker.linkToSingleConcept("bank");
+        Map<String, Boolean> bulkInDictionary = bulkSource.isInDictionary(LABELS, Language.ENGLISH);
+        Map<String, HashSet<String>> bulkSynonyms = bulkSource.getSynonyms(Arrays.asList(bankLink, ENTITY + "Q2"), Language.ENGLISH);
+        Map<String, Set<String>> closure = bulkSource.getHypernymClosure(Arrays.asList(bankLink), 2);
+        boolean bulkIsHypernym1 = bulkSource.isHypernym(ENTITY + "Q3", ENTITY + "Q1", 2);
+        boolean bulkIsHypernym2 = bulkSource.isHypernym(ENTITY + "Q4", ENTITY + "Q1", 1);
+
+        // individual lookups (new linker -> new in-memory buffer)
+        WikidataKnowledgeSource source = createKnowledgeSource();
+        WikidataLinker linker = (WikidataLinker) source.getLinker();
+        for (String label : LABELS) {
+            String link = linker.linkToSingleConcept(label);
+            assertEquals(bulkLinks.get(label), link == null ? null : linker.getUris(link), label);
+            assertEquals(source.isInDictionary(label, Language.ENGLISH), bulkInDictionary.get(label), label);
+        }
+        assertNull(bulkLinks.get("not in the model"));
+        assertEquals(2, bulkLinks.get("FinancialInstitution").size());
+        assertEquals(source.getSynonyms(bankLink, Language.ENGLISH), bulkSynonyms.get(bankLink));
+        assertEquals(source.getSynonyms(ENTITY + "Q2", Language.ENGLISH), bulkSynonyms.get(ENTITY + "Q2"));
+        assertTrue(bulkSynonyms.get(bankLink).contains("credit institute"));
+
+        assertTrue(closure.get(bankLink).contains(ENTITY + "Q3"));
+        assertFalse(closure.get(bankLink).contains(ENTITY + "Q4"));
+        assertEquals(source.isHypernym(ENTITY + "Q3", ENTITY + "Q1", 2), bulkIsHypernym1);
+        assertEquals(source.isHypernym(ENTITY + "Q4", ENTITY + "Q1", 1), bulkIsHypernym2);
+        assertTrue(bulkIsHypernym1);
+        assertFalse(bulkIsHypernym2);
+    }
+
+    private static WikidataKnowledgeSource createKnowledgeSource() {
+        WikidataKnowledgeSource source = new WikidataKnowledgeSource(false);
+        ((WikidataLinker) source.getLinker()).setDiskBufferEnabled(false);
+        source.setLocalModel(createModel());
+        source.setValuesChunkSize(2);
+        ((WikidataLinker) source.getLinker()).setRunAllStringModifications(true);
+        return source;
+    }
+
+    private static Model createModel() {
+        Model model = ModelFactory.createDefaultModel();
+        Property instanceOf = model.createProperty("http://www.wikidata.org/prop/direct/P31");
+        Property subclassOf = model.createProperty("http://www.wikidata.org/prop/direct/P279");
+        Resource bank = model.createResource(ENTITY + "Q1")
+                .addProperty(RDFS.label, "bank", "en")
+                .addProperty(SKOS.altLabel, "credit institute", "en")
+                .addProperty(SKOS.altLabel, "Bank", "de");
+        Resource institution = model.createResource(ENTITY + "Q2")
+                .addProperty(RDFS.label, "financial institution", "en");
+        model.createResource(ENTITY + "Q5")
+                .addProperty(SKOS.altLabel, "financial institution", "en");
+        Resource organization = model.createResource(ENTITY + "Q3")
+                .addProperty(RDFS.label, "organization", "en");
+        Resource entity = model.createResource(ENTITY + "Q4")
+                .addProperty(RDFS.label, "entity", "en");
+        bank.addProperty(subclassOf, institution);
+        institution.addProperty(instanceOf, organization);
+        organization.addProperty(subclassOf, entity);
+        return model;
+    }
+}
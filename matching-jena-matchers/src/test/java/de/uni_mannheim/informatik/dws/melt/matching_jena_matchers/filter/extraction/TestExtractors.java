@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extrac
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -121,6 +122,53 @@ public class TestExtractors {
         }
     }
     
+    @Test
+    void testSparseAssignmentExtractor() {
+        //same checks as in hungarian
+        for(int threads : Arrays.asList(1, 4)){
+            Alignment aFiltered = SparseAssignmentExtractor.filter(new Alignment(caseA), threads);
+            assertEquals(3, aFiltered.size());
+            assertTrue(aFiltered.containsAll(Arrays.asList(a1, a5, a10)));
+
+            Alignment bFiltered = SparseAssignmentExtractor.filter(new Alignment(caseB), threads);
+            assertEquals(2, bFiltered.size());//just check than it contains only two correspondences
+
+            Alignment cFiltered = SparseAssignmentExtractor.filter(new Alignment(caseC), threads);
+            assertEquals(2, cFiltered.size());
+            assertTrue(cFiltered.containsAll(Arrays.asList(c2, c3)));
+        }
+    }
+    
+    @Test
+    void testSparseAssignmentExtractorIgnoresOtherRelations() {
+        Alignment alignment = new Alignment(caseC);
+        alignment.add(new Correspondence("A", "Z", 1.0, CorrespondenceRelation.SUBSUMED));
+        alignment.add(new Correspondence("C", "X", 1.0, CorrespondenceRelation.INCOMPAT));
+        for(int threads : Arrays.asList(1, 4)){
+            Alignment filtered = SparseAssignmentExtractor.filter(new Alignment(alignment), threads);
+            assertEquals(2, filtered.size());
+            assertTrue(filtered.containsAll(Arrays.asList(c2, c3)));
+            assertEquals(HungarianExtractor.filter(new Alignment(alignment)), filtered);
+        }
+    }
+    
+    @Test
+    void testAlignmentComponents() {
+        Alignment alignment = new Alignment(caseC);
+        alignment.add("E", "F", 0.3);
+        alignment.add("F", "E", 0.4);//same URIs but different nodes (source and target)
+        alignment.add("G", "F", 0.5);
+        List<List<Correspondence>> components = AlignmentComponents.compute(alignment);
+        assertEquals(3, components.size());
+        assertEquals(4, components.get(0).size());
+        assertEquals(2, components.get(1).size());
+        assertEquals(1, components.get(2).size());
+        
+        Alignment sparse = SparseAssignmentExtractor.filter(new Alignment(alignment), 2);
+        assertEquals(4, sparse.size());
+        assertTrue(sparse.containsAll(Arrays.asList(c2, c3, new Correspondence("F", "E", 0.4), new Correspondence("G", "F", 0.5))));
+    }
+    
     @Test
     void testSpecialAlignments() throws Exception {
         //same checks as in hungarian
@@ -151,6 +199,15 @@ public class TestExtractors {
             Alignment mwbge = MaxWeightBipartiteExtractor.filter(new Alignment(caseE), init);
             assertEquals(hungarian, mwbge);
         }
+        
+        for(Alignment caseX : Arrays.asList(caseD, caseE)){
+            hungarian = HungarianExtractor.filter(new Alignment(caseX));
+            assertEquals(hungarian, SparseAssignmentExtractor.filter(new Alignment(caseX), 1));
+            assertEquals(hungarian, SparseAssignmentExtractor.filter(new Alignment(caseX), 4));
+            for(MwbInitHeuristic init : Arrays.asList(MwbInitHeuristic.NAIVE, MwbInitHeuristic.SIMPLE)){
+                assertEquals(hungarian, MaxWeightBipartiteExtractor.filter(new Alignment(caseX), init, 10000, 4));
+            }
+        }
     }
 
     // following NOT suitable for general test, but good to see if it works...
@@ -166,6 +223,7 @@ public class TestExtractors {
                 Alignment mwbgeRandom = MaxWeightBipartiteExtractor.filter(new Alignment(random), init);
                 assertEquals(hungarianRandom, mwbgeRandom);
             }
+            assertEquals(hungarianRandom, SparseAssignmentExtractor.filter(new Alignment(random)));
         }
     }
     
@@ -0,0 +1,137 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the precomputed signatures (and parallel scoring) of the instance filters give the same result
+ * as the computation per correspondence.
+ */
+public class SimilarNeighboursFilterTest {
+    private static final String namespaceSource = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String namespaceTarget = "http://melt.dws.informatik.uni-mannheim.de/target/";
+    private static final int numberOfIndividuals = 60;
+
+    @Test
+    void testSimilarNeighboursFilterPrecomputedSignatures() throws Exception {
+        OntModel source = generate(namespaceSource, new Random(42));
+        OntModel target = generate(namespaceTarget, new Random(43));
+
+        SimilarNeighboursFilter filter = new SimilarNeighboursFilter(0.3, SetSimilarity.JACCARD);
+        filter.setMinResourceConfidence(0.5);
+        filter.setAddNeighboursToCorrespondence(true);
+
+        filter.setPrecomputeSignatures(false);
+        Alignment expected = filter.match(source, target, generateAlignment(), new Properties());
+        filter.setPrecomputeSignatures(true);
+        Alignment actual = filter.match(source, target, generateAlignment(), new Properties());
+
+        assertTrue(expected.size() > 0 && expected.size() < generateAlignment().size(), "The test should filter some but not all correspondences");
+        assertSameResult(expected, actual, SimilarNeighboursFilter.class);
+    }
+
+    @Test
+    void testSimilarTypeFilterPrecomputedSignatures() throws Exception {
+        OntModel source = generate(namespaceSource, new Random(42));
+        OntModel target = generate(namespaceTarget, new Random(43));
+
+        SimilarTypeFilter filter = new SimilarTypeFilter(0.5, SetSimilarity.MIN);
+
+        filter.setPrecomputeSignatures(false);
+        Alignment expected = filter.match(source, target, generateAlignment(), new Properties());
+        filter.setPrecomputeSignatures(true);
+        Alignment actual = filter.match(source, target, generateAlignment(), new Properties());
+
+        assertTrue(expected.size() > 0 && expected.size() < generateAlignment().size(), "The test should filter some but not all correspondences");
+        assertSameResult(expected, actual, SimilarTypeFilter.class);
+    }
+
+    @Test
+    void testCommonPropertiesFilterPrecomputedSignatures() throws Exception {
+        OntModel source = generate(namespaceSource, new Random(42));
+        OntModel target = generate(namespaceTarget, new Random(43));
+
+        CommonPropertiesFilter filter = new CommonPropertiesFilter(0.5, SetSimilarity.JACCARD, false, 0.5);
+
+        filter.setPrecomputeSignatures(false);
+        Alignment expected = filter.filter(source, target, generateAlignment());
+        filter.setPrecomputeSignatures(true);
+        Alignment actual = filter.filter(source, target, generateAlignment());
+
+        assertTrue(expected.size() > 0 && expected.size() < generateAlignment().size(), "The test should filter some but not all correspondences");
+        assertSameResult(expected, actual, CommonPropertiesFilter.class);
+    }
+
+    private static void assertSameResult(Alignment expected, Alignment actual, Class<?> filterClass) {
+        assertEquals(toConfidenceMap(expected, filterClass), toConfidenceMap(actual, filterClass));
+        for (Correspondence c : expected) {
+            Correspondence other = actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+            assertEquals(c.getAdditionalExplanation(filterClass) == null, other.getAdditionalExplanation(filterClass) == null);
+        }
+    }
+
+    private static Map<String, Double> toConfidenceMap(Alignment alignment, Class<?> filterClass) {
+        Map<String, Double> map = new HashMap<>();
+        for (Correspondence c : alignment) {
+            map.put(c.getEntityOne() + " " + c.getEntityTwo(), c.getAdditionalConfidence(filterClass));
+        }
+        return map;
+    }
+
+    /**
+     * The alignment contains noisy instance, class and property correspondences (always generated with the same seed).
+     * @return the alignment
+     */
+    private static Alignment generateAlignment() {
+        Random random = new Random(7);
+        Alignment alignment = new Alignment();
+        for (int i = 0; i < numberOfIndividuals; i++) {
+            alignment.add(namespaceSource + "instance" + i, namespaceTarget + "instance" + i, random.nextDouble());
+            alignment.add(namespaceSource + "instance" + i, namespaceTarget + "instance" + random.nextInt(numberOfIndividuals), random.nextDouble());
+        }
+        for (int i = 0; i < 5; i++) {
+            alignment.add(namespaceSource + "Class" + i, namespaceTarget + "Class" + i, random.nextDouble());
+            alignment.add(namespaceSource + "Class" + i, namespaceTarget + "Class" + random.nextInt(5), random.nextDouble());
+            alignment.add(namespaceSource + "prop" + i, namespaceTarget + "prop" + i, random.nextDouble());
+            alignment.add(namespaceSource + "prop" + i, namespaceTarget + "prop" + random.nextInt(5), random.nextDouble());
+        }
+        return alignment;
+    }
+
+    private static OntModel generate(String namespace, Random random) {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass[] classes = new OntClass[5];
+        Property[] properties = new Property[5];
+        for (int i = 0; i < 5; i++) {
+            classes[i] = model.createClass(namespace + "Class" + i);
+            properties[i] = model.createProperty(namespace + "prop" + i);
+        }
+        Individual[] individuals = new Individual[numberOfIndividuals];
+        for (int i = 0; i < numberOfIndividuals; i++) {
+            individuals[i] = model.createIndividual(namespace + "instance" + i, classes[random.nextInt(5)]);
+            if (random.nextBoolean())
+                individuals[i].addRDFType(classes[random.nextInt(5)]);
+        }
+        for (int i = 0; i < numberOfIndividuals; i++) {
+            for (int j = 0; j < 4; j++) {
+                individuals[i].addProperty(properties[random.nextInt(5)], individuals[random.nextInt(numberOfIndividuals)]);
+            }
+            individuals[i].addProperty(properties[random.nextInt(5)], "label" + random.nextInt(20));
+        }
+        return model;
+    }
+}
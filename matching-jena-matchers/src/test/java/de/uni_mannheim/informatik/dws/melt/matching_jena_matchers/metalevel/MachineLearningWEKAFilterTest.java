@@ -0,0 +1,92 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.metalevel;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+
+public class MachineLearningWEKAFilterTest {
+
+    /**
+     * Positives have a high value for conf1, negatives a low one. conf2 is noise.
+     */
+    private static Alignment getTrainingAlignment(){
+        Random random = new Random(42);
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < 100; i++){
+            boolean positive = i % 2 == 0;
+            Correspondence c = new Correspondence("source" + i, "target" + i, 1.0,
+                    positive ? CorrespondenceRelation.EQUIVALENCE : CorrespondenceRelation.INCOMPAT);
+            c.addAdditionalConfidence("conf1", positive ? 0.6 + random.nextDouble() * 0.4 : random.nextDouble() * 0.4);
+            c.addAdditionalConfidence("conf2", random.nextDouble());
+            alignment.add(c);
+        }
+        return alignment;
+    }
+
+    @Test
+    void testFeatureMatrix() {
+        Correspondence a = new Correspondence("a", "a'");
+        a.addAdditionalConfidence("conf1", 0.7);
+        a.addAdditionalConfidence("conf2", 0.8);
+        Correspondence b = new Correspondence("b", "b'", 1.0, CorrespondenceRelation.INCOMPAT);
+        b.addAdditionalConfidence("conf1", 0.1);
+
+        WekaFeatureMatrix matrix = WekaFeatureMatrix.fromCorrespondences(Arrays.asList(a, b), Arrays.asList("conf1", "conf2"));
+        assertEquals(2, matrix.getNumberOfRows());
+        assertEquals(2, matrix.getNumberOfFeatures());
+        assertEquals(0.7, matrix.getValue(0, 0));
+        assertEquals(0.8, matrix.getValue(0, 1));
+        assertEquals(0.0, matrix.getValue(1, 1));
+        assertTrue(matrix.isPositive(0));
+        assertFalse(matrix.isPositive(1));
+
+        Instances instances = matrix.toInstances("Train");
+        assertEquals(2, instances.numInstances());
+        assertEquals(3, instances.numAttributes());
+        assertEquals(2, instances.classIndex());
+        assertEquals(1.0, instances.instance(0).classValue());
+        assertEquals(0, matrix.getHeader().numInstances());
+    }
+
+    @Test
+    void testStratifiedFolds() {
+        WekaFeatureMatrix matrix = new MachineLearningWEKAFilter().getFeatureMatrix(getTrainingAlignment());
+        int[] foldOfRow = matrix.stratifiedFolds(5, new Random(1));
+        int[] positives = new int[5];
+        int[] negatives = new int[5];
+        for(int row = 0; row < foldOfRow.length; row++){
+            if(matrix.isPositive(row))
+                positives[foldOfRow[row]]++;
+            else
+                negatives[foldOfRow[row]]++;
+        }
+        for(int fold = 0; fold < 5; fold++){
+            assertEquals(10, positives[fold]);
+            assertEquals(10, negatives[fold]);
+        }
+    }
+
+    @Test
+    void testTrainAndApplyModel() throws Exception {
+        for(int parallelJobs : Arrays.asList(1, 3)){
+            Alignment training = getTrainingAlignment(); // applyModel adds an additional confidence
+            MachineLearningWEKAFilter filter = new MachineLearningWEKAFilter(training, 5, parallelJobs);
+            File model = filter.trainModel(training);
+            assertNotNull(model);
+            assertEquals(Arrays.asList("conf1", "conf2"), filter.getConfidenceNames());
+
+            Alignment filtered = filter.applyModel(model, new Alignment(training));
+            assertTrue(filtered.size() >= 45 && filtered.size() <= 55, "Unexpected size: " + filtered.size());
+            for(Correspondence c : filtered){
+                assertTrue(c.getAdditionalConfidence("conf1") > 0.4);
+                assertTrue(c.getAdditionalConfidence(MachineLearningWEKAFilter.class) >= 0.5);
+            }
+        }
+    }
+}
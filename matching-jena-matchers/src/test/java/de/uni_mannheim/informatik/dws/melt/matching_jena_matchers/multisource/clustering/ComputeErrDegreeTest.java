@@ -0,0 +1,76 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.clustering;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComputeErrDegreeTest {
+
+    @Test
+    void compressedSparseRowGraph() {
+        CompressedSparseRowGraph.Builder builder = new CompressedSparseRowGraph.Builder();
+        builder.addEdge(2, 0, 1.0);
+        builder.addEdge(0, 1, 1.0);
+        builder.addEdge(0, 2, 0.5); //same as first edge
+        builder.addEdge(3, 3, 1.0); //reflexive
+        builder.addEdge(3, 1, 2.0);
+        assertEquals(4, builder.size());
+
+        CompressedSparseRowGraph graph = builder.build(4);
+        assertEquals(4, graph.getNumberOfNodes());
+        assertEquals(3, graph.getNumberOfEdges());
+        assertEquals(0, graph.getFirstEdge(0));
+        assertEquals(2, graph.getFirstEdge(1));
+        assertEquals(3, graph.getFirstEdge(2));
+        assertEquals(3, graph.getFirstEdge(4));
+        assertEquals(1, graph.getNeighbor(0));
+        assertEquals(2, graph.getNeighbor(1));
+        assertEquals(1.5, graph.getEdgeWeight(1));
+        assertEquals(3, graph.getNeighbor(2));
+
+        Network network = graph.toNetwork(null);
+        assertEquals(3, network.getNEdges());
+        assertArrayEquals(new int[]{1, 2}, network.getEdges(0));
+        assertArrayEquals(new int[]{0, 3}, network.getEdges(1));
+        assertArrayEquals(new double[]{1.0, 2.0}, network.getEdgeWeights(1));
+        assertEquals(4.5, network.getTotalEdgeWeight());
+    }
+
+    @Test
+    void computeLinkError() {
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.addEdge("a", "b");
+        errDegree.addEdge("b", "c");
+        errDegree.addEdge("c", "a");
+        errDegree.addEdge("d", "e");
+        errDegree.addEdge("e", "f");
+        errDegree.addEdge("f", "d");
+        errDegree.addEdge("c", "d");
+
+        Map<Entry<String,String>, Double> linkError = errDegree.computeLinkError();
+        assertEquals(7, linkError.size());
+        assertEquals(0.5, linkError.get(new SimpleEntry<>("a", "b")), 0.0001);
+        assertEquals(0.5, linkError.get(new SimpleEntry<>("e", "f")), 0.0001);
+        assertEquals(1.0 - (1.0 / 18.0), linkError.get(new SimpleEntry<>("c", "d")), 0.0001);
+    }
+
+    @Test
+    void parallelLinkErrorIsSameAsSequential() {
+        Random random = new Random(42);
+        ComputeErrDegree<Integer> sequential = new ComputeErrDegree<>();
+        ComputeErrDegree<Integer> parallel = new ComputeErrDegree<>();
+        parallel.setNumberOfThreads(4);
+        for(int i = 0; i < 3000; i++){
+            int source = random.nextInt(1000);
+            int target = random.nextInt(1000);
+            double weight = random.nextDouble();
+            sequential.addEdge(source, target, weight);
+            parallel.addEdge(source, target, weight);
+        }
+        assertEquals(sequential.computeLinkError(), parallel.computeLinkError());
+        assertThrows(IllegalArgumentException.class, () -> parallel.setNumberOfThreads(0));
+    }
+}
@@ -121,6 +121,52 @@ public class MultiSourceDispatcherIncrementalMergeTest {
         assertTrue(closure.belongToTheSameCluster(sameEntities));
         
     }
+    @Test
+    public void parallelMergeDoesNotWaitForOtherStages() throws Exception{
+        List<Set<Object>> models = new ArrayList<>();
+        for(int i = 0; i < 5; i++){
+            models.add(new HashSet<>(Arrays.asList(getModel("domain" + Integer.toString(i)))));
+        }
+        //merge 0 is slow, merge 2 only depends on merge 1 and should not wait for merge 0
+        int[][] tree = new int[][]{
+            {0,1},
+            {2,3},
+            {6,4},
+            {5,7}
+        };
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+        MatcherYAAAJena matcher = new MatcherYAAAJena() {
+            @Override
+            public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+                Resource slow = source.createResource("http://domain0/s");
+                if(source.containsResource(slow) || target.containsResource(slow)){
+                    Thread.sleep(500);
+                    finished.add("slow");
+                }else{
+                    finished.add("fast");
+                }
+                return new Alignment();
+            }
+        };
+        MultiSourceDispatcherIncrementalMerge merger = new MatcherFixedMergeTree(matcher, tree);
+        merger.setCopyMode(CopyMode.COPY_IN_MEMORY);
+        merger.setNumberOfThreads(2);
+        merger.setSavingIntermediateAlignments(true);
+        merger.match(models, null, null);
+        
+        assertEquals(Arrays.asList("fast", "fast", "slow", "slow"), finished);
+        assertEquals(4, merger.getIntermediateAlignments().size());
+        for(Alignment a : merger.getIntermediateAlignments()){
+            assertNotNull(a);
+        }
+    }
+    
+    @Test
+    public void estimatedSize() throws Exception{
+        assertEquals(1, MultiSourceDispatcherIncrementalMerge.getEstimatedSize(new HashSet<>(Arrays.asList(getModel("domain")))));
+        assertEquals(1, MultiSourceDispatcherIncrementalMerge.getEstimatedSize(new HashSet<>(Arrays.asList("not a model"))));
+    }
+    
     private static void assertContainsAnyDirection(Alignment a, String one, String two){
         assertTrue(a.contains(new Correspondence(one, two)) || 
                 a.contains(new Correspondence(two, one)));
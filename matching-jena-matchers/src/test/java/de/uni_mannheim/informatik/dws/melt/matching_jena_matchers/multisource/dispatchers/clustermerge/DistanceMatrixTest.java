@@ -0,0 +1,73 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.MergeOrder;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class DistanceMatrixTest {
+
+    @Test
+    void sameLayoutAsSmile() throws IOException {
+        double[][] features = getRandomDoubleMatrix(57, 10, 42);
+        float[] proximity = smile.clustering.linkage.Linkage.proximity(features);
+        for(DistanceMatrixStorage storage : DistanceMatrixStorage.values()){
+            try(DistanceMatrix matrix = DistanceMatrix.compute(features, ClusterDistance.EUCLIDEAN, storage, 1, 10, false)){
+                assertEquals(storage, matrix.getStorage());
+                assertEquals(proximity.length, matrix.getLength());
+                assertArrayEquals(proximity, matrix.getArray());
+                assertEquals(0f, matrix.get(3, 3));
+                assertEquals(matrix.get(3, 5), matrix.get(5, 3));
+            }
+        }
+    }
+
+    @Test
+    void parallelComputation() throws IOException {
+        double[][] features = getRandomDoubleMatrix(201, 20, 123);
+        for(ClusterDistance distance : ClusterDistance.values()){
+            try(DistanceMatrix sequential = DistanceMatrix.compute(features, distance, DistanceMatrixStorage.HEAP, 1, 700, false);
+                DistanceMatrix parallel = DistanceMatrix.compute(features, distance, DistanceMatrixStorage.OFF_HEAP, 3, 17, false);
+                DistanceMatrix blas = DistanceMatrix.compute(features, distance, DistanceMatrixStorage.MEMORY_MAPPED, 3, 17, true)){
+                for(int i = 0; i < features.length; i++){
+                    for(int j = 0; j < features.length; j++){
+                        assertEquals(sequential.get(i, j), parallel.get(i, j));
+                        assertEquals(sequential.get(i, j), blas.get(i, j), 0.0001f);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void heapStorageIsLimited() {
+        assertThrows(IllegalArgumentException.class, () -> new DistanceMatrix(70000, DistanceMatrixStorage.HEAP));
+    }
+
+    @Test
+    void elkiWithPrecomputedDistanceMatrix() {
+        double[][] features = getRandomDoubleMatrix(100, 20, 123);
+        for(ClusterLinkage linkage : new ClusterLinkage[]{ClusterLinkage.SINGLE, ClusterLinkage.COMPLETE, ClusterLinkage.WARD}){
+            for(ClusterDistance distance : new ClusterDistance[]{ClusterDistance.EUCLIDEAN, ClusterDistance.SQUARED_EUCLIDEAN}){
+                MergeOrder expected = new ClustererELKI().run(features, linkage, distance);
+                for(DistanceMatrixStorage storage : DistanceMatrixStorage.values()){
+                    MergeOrder actual = new ClustererELKI(false, storage, 2).run(features, linkage, distance);
+                    assertArrayEquals(expected.getTree(), actual.getTree(), linkage + " " + distance + " " + storage);
+                }
+            }
+        }
+    }
+
+    private static double[][] getRandomDoubleMatrix(int rows, int columns, long seed){
+        double[][] array = new double[rows][columns];
+        Random rnd = new Random(seed);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                array[i][j] = rnd.nextDouble();
+            }
+        }
+        return array;
+    }
+}
@@ -0,0 +1,132 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransitiveClosureUnionFindTest {
+
+    @Test
+    void testTransitiveClosure() {
+        TransitiveClosureUnionFind<String> tc = new TransitiveClosureUnionFind<>();
+        tc.add("a");
+        tc.add("b", "c");
+        tc.add("d", "e");
+        tc.add("f", "g");
+        tc.add("h");
+        assertEquals(5, tc.getClosure().size());
+        assertEquals(5, tc.countOfIdentitySets());
+
+        tc.add("a", "b", "d", "f", "h");
+        assertEquals(1, tc.getClosure().size());
+        assertEquals(1, tc.countOfIdentitySets());
+        assertEquals(8, tc.getClosure().iterator().next().size());
+        assertTrue(tc.getClosure().iterator().next().containsAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h")));
+
+        tc = new TransitiveClosureUnionFind<>();
+        tc.add("a", "b");
+        tc.add("c", "d", "b");
+        assertEquals(1, tc.getClosure().size());
+        assertEquals(4, tc.getClosure().iterator().next().size());
+        assertTrue(tc.getClosure().iterator().next().containsAll(Arrays.asList("a", "b", "c", "d")));
+    }
+
+    @Test
+    void getIdentitySetForElementTest() {
+        TransitiveClosureUnionFind<String> tc = new TransitiveClosureUnionFind<>();
+        tc.add("a", "b");
+        tc.add("b", "c");
+        tc.add("d", "e");
+
+        assertEquals(3, tc.getIdentitySetForElement("a").size());
+        assertEquals(2, tc.getIdentitySetForElement("d").size());
+        assertNull(tc.getIdentitySetForElement("x"));
+
+        assertEquals(tc.getIdentitySetForElement("a"), tc.getIdentitySetForElement("b"));
+        assertEquals(tc.getIdentitySetForElement("a"), tc.getIdentitySetForElement("c"));
+        assertEquals(tc.getIdentitySetForElement("d"), tc.getIdentitySetForElement("e"));
+        assertNotEquals(tc.getIdentitySetForElement("a"), tc.getIdentitySetForElement("d"));
+
+        assertEquals(tc.getIdentityID("a"), tc.getIdentityID("c"));
+        assertNotEquals(tc.getIdentityID("a"), tc.getIdentityID("d"));
+
+        //closure is recomputed after an add
+        tc.add("c", "d");
+        assertEquals(5, tc.getIdentitySetForElement("a").size());
+    }
+
+    @Test
+    void belongToTheSameClusterTest() {
+        TransitiveClosureUnionFind<Integer> tc = new TransitiveClosureUnionFind<>();
+        tc.add(1, 2);
+        tc.add(3, 4);
+        assertTrue(tc.belongToTheSameCluster(1, 2));
+        assertFalse(tc.belongToTheSameCluster(1, 3));
+        assertFalse(tc.belongToTheSameCluster(1, 5));
+        tc.add(2, 3);
+        assertTrue(tc.belongToTheSameCluster(1, 4));
+        assertTrue(tc.belongToTheSameCluster(1, 2, 3, 4));
+        assertFalse(tc.belongToTheSameCluster(1, 2, 5));
+    }
+
+    @Test
+    void testAdd() {
+        TransitiveClosureUnionFind<String> a = new TransitiveClosureUnionFind<>();
+        a.add("a", "b");
+        a.add("b", "c");
+        a.add("d", "e");
+
+        TransitiveClosureUnionFind<String> b = new TransitiveClosureUnionFind<>();
+        b.add("f", "g");
+        b.add("a", "x");
+
+        assertEquals(2, a.getClosure().size());
+        assertEquals(2, b.getClosure().size());
+
+        assertEquals(5, a.countOfAllElements());
+        assertEquals(4, b.countOfAllElements());
+
+        a.add(b);
+
+        assertEquals(8, a.countOfAllElements());
+        assertEquals(4, b.countOfAllElements());
+
+        assertEquals(3, a.getClosure().size()); //a,b,c,x  d,e   f,g
+        assertTrue(a.getIdentitySetForElement("a").contains("x"));
+    }
+
+    @Test
+    void fromAlignment() {
+        Alignment alignment = new Alignment();
+        alignment.add("a", "b");
+        alignment.add("c", "b");
+        alignment.add("d", "e");
+        TransitiveClosureUnionFind<String> tc = TransitiveClosureUnionFind.fromAlignment(alignment);
+        assertEquals(5, tc.countOfAllElements());
+        assertEquals(2, tc.countOfIdentitySets());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), tc.getIdentitySetForElement("c"));
+    }
+
+    @Test
+    void sameResultAsTransitiveClosure() {
+        Random random = new Random(1234);
+        TransitiveClosure<Integer> expected = new TransitiveClosure<>();
+        TransitiveClosureUnionFind<Integer> actual = new TransitiveClosureUnionFind<>();
+        for(int i = 0; i < 3000; i++){
+            int one = random.nextInt(5000);
+            int two = random.nextInt(5000);
+            expected.add(one, two);
+            actual.add(one, two);
+        }
+        assertEquals(expected.countOfAllElements(), actual.countOfAllElements());
+        assertEquals(expected.countOfIdentitySets(), actual.countOfIdentitySets());
+        assertEquals(new HashSet<>(expected.getClosure()), new HashSet<>(actual.getClosure()));
+        for(Set<Integer> identitySet : expected.getClosure()){
+            assertTrue(actual.belongToTheSameCluster(identitySet));
+        }
+    }
+}
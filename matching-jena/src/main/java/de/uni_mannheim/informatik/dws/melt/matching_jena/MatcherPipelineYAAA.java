@@ -1,5 +1,8 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageMeasurement;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,8 @@ public abstract class MatcherPipelineYAAA extends MatcherYAAA {
 
     protected List<MatcherYAAA> matchers = initializeMatchers();
 
+    protected PipelineInstrumentation instrumentation = new PipelineInstrumentation(getClass().getSimpleName());
+
     protected abstract List<MatcherYAAA> initializeMatchers();
 
     public List<MatcherYAAA> getMatchers() {
@@ -28,11 +33,26 @@ public abstract class MatcherPipelineYAAA extends MatcherYAAA {
 
     @Override
     public Alignment match(URL source, URL target, Alignment inputAlignment, Properties properties) throws Exception {
-        for (MatcherYAAA matcher : this.matchers) {
+        for (int i = 0; i < this.matchers.size(); i++) {
+            MatcherYAAA matcher = this.matchers.get(i);
             LOGGER.info("Matcher pipeline: Running now matcher '" + matcher.getClass().getName() + "'");
+            PipelineStageMeasurement measurement = this.instrumentation.startStage(i, matcher, inputAlignment);
             inputAlignment = matcher.match(source, target, inputAlignment, properties);
+            this.instrumentation.stopStage(measurement, inputAlignment);
         }
         LOGGER.info("Matcher pipeline completed.");
         return inputAlignment;
     }
+
+    /**
+     * Adds a listener which is notified after each matcher of this pipeline.
+     * @param listener the listener
+     */
+    public void addPipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.addListener(listener);
+    }
+
+    public void removePipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.removeListener(listener);
+    }
 }
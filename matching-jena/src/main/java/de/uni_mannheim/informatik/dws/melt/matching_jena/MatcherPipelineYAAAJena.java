@@ -1,10 +1,12 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageMeasurement;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 import java.util.List;
 import java.util.Properties;
-import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,13 +23,36 @@ public abstract class MatcherPipelineYAAAJena extends MatcherYAAAJena {
     
     protected abstract List<MatcherYAAAJena> initializeMatchers();    
     
+    /**
+     * The maximum number of entries of the text extractor cache which is shared by all matchers of one run (zero to disable it).
+     */
+    protected int textExtractorCacheSize = TextExtractorCache.DEFAULT_MAXIMUM_SIZE;
+    
+    protected PipelineInstrumentation instrumentation = new PipelineInstrumentation(getClass().getSimpleName());
+    
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        for(MatcherYAAAJena matcher : this.matchers){
-            //long startTime = System.nanoTime();
-            inputAlignment = matcher.match(source, target, inputAlignment, properties);
-            //long runTime = System.nanoTime() - startTime;
-            //LOGGER.info("Submatcher {} completed in {}.", matcher.getClass().getSimpleName(), DurationFormatUtils.formatDurationWords((long)(runTime/1_000_000), true, true));
+        TextExtractorCache previousCache = TextExtractorCache.getActiveCache();
+        TextExtractorCache cache = null;
+        if(previousCache == null && this.textExtractorCacheSize > 0){
+            //only the outermost pipeline creates a cache - nested pipelines (in the same thread) share it.
+            //The cache is always reset in the finally block, thus a non null cache can only come from an enclosing pipeline.
+            cache = new TextExtractorCache(this.textExtractorCacheSize);
+            TextExtractorCache.setActiveCache(cache);
+        }
+        try{
+            for(int i = 0; i < this.matchers.size(); i++){
+                MatcherYAAAJena matcher = this.matchers.get(i);
+                PipelineStageMeasurement measurement = this.instrumentation.startStage(i, matcher, inputAlignment);
+                inputAlignment = matcher.match(source, target, inputAlignment, properties);
+                this.instrumentation.stopStage(measurement, inputAlignment);
+            }
+        }finally{
+            if(cache != null){
+                TextExtractorCache.setActiveCache(previousCache);
+                LOGGER.info("Text extractor cache of matcher pipeline: {}", cache);
+                cache.clear(); // release the cached models
+            }
         }
         return inputAlignment;
     }
@@ -35,5 +60,29 @@ public abstract class MatcherPipelineYAAAJena extends MatcherYAAAJena {
     public List<MatcherYAAAJena> getMatchers() {
         return matchers;
     }
+
+    public int getTextExtractorCacheSize() {
+        return textExtractorCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of entries of the text extractor cache which is shared by all matchers of one run.
+     * @param textExtractorCacheSize the maximum number of entries or zero to disable the cache.
+     */
+    public void setTextExtractorCacheSize(int textExtractorCacheSize) {
+        this.textExtractorCacheSize = textExtractorCacheSize;
+    }
+
+    /**
+     * Adds a listener which is notified after each matcher of this pipeline.
+     * @param listener the listener
+     */
+    public void addPipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.addListener(listener);
+    }
+
+    public void removePipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.removeListener(listener);
+    }
     
 }
@@ -1,5 +1,8 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageMeasurement;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 import java.util.Arrays;
@@ -22,6 +25,13 @@ public class MatcherPipelineYAAAJenaConstructor extends MatcherYAAAJena {
 
     protected List<MatcherYAAAJena> matchers;
 
+    /**
+     * The maximum number of entries of the text extractor cache which is shared by all matchers of one run (zero to disable it).
+     */
+    protected int textExtractorCacheSize = TextExtractorCache.DEFAULT_MAXIMUM_SIZE;
+
+    protected PipelineInstrumentation instrumentation = new PipelineInstrumentation(getClass().getSimpleName());
+
     public MatcherPipelineYAAAJenaConstructor(List<MatcherYAAAJena> matchers) {
         this.matchers = matchers;
     }
@@ -32,9 +42,28 @@ public class MatcherPipelineYAAAJenaConstructor extends MatcherYAAAJena {
 
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        for (MatcherYAAAJena matcher : this.matchers) {
-            LOGGER.info("Matcher pipeline: Running now matcher '" + matcher.getClass().getName() + "'");
-            inputAlignment = matcher.match(source, target, inputAlignment, properties);
+        TextExtractorCache previousCache = TextExtractorCache.getActiveCache();
+        TextExtractorCache cache = null;
+        if (previousCache == null && this.textExtractorCacheSize > 0) {
+            //only the outermost pipeline creates a cache - nested pipelines (in the same thread) share it.
+            //The cache is always reset in the finally block, thus a non null cache can only come from an enclosing pipeline.
+            cache = new TextExtractorCache(this.textExtractorCacheSize);
+            TextExtractorCache.setActiveCache(cache);
+        }
+        try {
+            for (int i = 0; i < this.matchers.size(); i++) {
+                MatcherYAAAJena matcher = this.matchers.get(i);
+                LOGGER.info("Matcher pipeline: Running now matcher '" + matcher.getClass().getName() + "'");
+                PipelineStageMeasurement measurement = this.instrumentation.startStage(i, matcher, inputAlignment);
+                inputAlignment = matcher.match(source, target, inputAlignment, properties);
+                this.instrumentation.stopStage(measurement, inputAlignment);
+            }
+        } finally {
+            if (cache != null) {
+                TextExtractorCache.setActiveCache(previousCache);
+                LOGGER.info("Text extractor cache of matcher pipeline: {}", cache);
+                cache.clear(); // release the cached models
+            }
         }
         LOGGER.info("Matcher pipeline completed.");
         return inputAlignment;
@@ -43,4 +72,28 @@ public class MatcherPipelineYAAAJenaConstructor extends MatcherYAAAJena {
     public List<MatcherYAAAJena> getMatchers() {
         return matchers;
     }
+
+    public int getTextExtractorCacheSize() {
+        return textExtractorCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of entries of the text extractor cache which is shared by all matchers of one run.
+     * @param textExtractorCacheSize the maximum number of entries or zero to disable the cache.
+     */
+    public void setTextExtractorCacheSize(int textExtractorCacheSize) {
+        this.textExtractorCacheSize = textExtractorCacheSize;
+    }
+
+    /**
+     * Adds a listener which is notified after each matcher of this pipeline.
+     * @param listener the listener
+     */
+    public void addPipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.addListener(listener);
+    }
+
+    public void removePipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.removeListener(listener);
+    }
 }
@@ -2,11 +2,15 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.typetransformation.JenaTransformerHelper;
 import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.jena.graph.Graph;
 
 import org.apache.jena.ontology.OntModel;
@@ -19,11 +23,17 @@ import org.apache.jena.riot.RDFLanguages;
 import org.apache.jena.riot.RDFParser;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
 import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.tdb.store.GraphTDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Cache and reader for Jena ontologies.
+ * The cache is thread safe: different ontologies are loaded in parallel and concurrent requests for the same ontology
+ * wait for one single load. By default the cache is unbounded. With {@link #setMaximumNumberOfTriples(long) } the
+ * cache evicts the least recently used ontologies once the estimated number of cached triples exceeds the limit.
+ * With {@link EvictionPolicy#SOFT_REFERENCE} the garbage collector may additionally drop cached ontologies when memory runs low.
+ * Hit, miss, load time, and eviction counts are available via {@link #getStatistics() }.
  * @author Sven Hertling
  * @author Jan Portisch
  */
@@ -43,7 +53,32 @@ public class OntologyCacheJena {
     /**
      * The internal cache for ontologies that is dependent on the OntModelSpec.
      */
-    private static Map<String, OntModel> ontologyCache = new HashMap<>();
+    private static final Map<String, CacheEntry> ontologyCache = new ConcurrentHashMap<>();
+
+    /**
+     * Lock for evicting entries (only one thread evicts at a time).
+     */
+    private static final Object EVICTION_LOCK = new Object();
+
+    /**
+     * Logical clock for the least recently used eviction.
+     */
+    private static final AtomicLong ACCESS_CLOCK = new AtomicLong();
+
+    private static final AtomicLong HIT_COUNT = new AtomicLong();
+    private static final AtomicLong MISS_COUNT = new AtomicLong();
+    private static final AtomicLong LOAD_TIME = new AtomicLong();
+    private static final AtomicLong EVICTION_COUNT = new AtomicLong();
+
+    /**
+     * The maximum number of (estimated) triples which are held in the cache.
+     */
+    private static volatile long maximumNumberOfTriples = Long.MAX_VALUE;
+
+    /**
+     * How the cached models are referenced.
+     */
+    private static volatile EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
 
     /**
      * This flag indicates whether the cache is to be used (i.e., ontologies are held in memory).
@@ -72,28 +107,67 @@ public class OntologyCacheJena {
      * no recognized file extension, no recognized HTTP Content-Type provided).
      * @return OntModel reference.
      */
-    public static synchronized OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
-        if (useCache) {
-            String keyForCache = uri + "_" + spec.hashCode();
-            OntModel model = ontologyCache.get(keyForCache);            
-            if (model == null) {
-                // model not found in cache → read, put it there and return
-                LOGGER.info("Reading model into cache (" + uri + ")");
-                model = readOntModel(uri, spec, hintlang);
-                if(!isDeactivatedCache){
-                    ontologyCache.put(keyForCache, model);
-                }
-                return model;
-            } else {
-                //LOGGER.info("Returning model from cache.");
-                return model;
-            }
-        } else {
+    public static OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
+        if (useCache == false) {
             // → do not use cache
             // plain vanilla case: read ontology and return
             LOGGER.info("Reading model not cached (" + uri + ")");
             return readOntModel(uri, spec, hintlang);
         }
+        if (isDeactivatedCache) {
+            MISS_COUNT.incrementAndGet();
+            LOGGER.info("Reading model - cache is deactivated (" + uri + ")");
+            return readOntModelTimed(uri, spec, hintlang);
+        }
+        String keyForCache = uri + "_" + spec.hashCode();
+        while (true) {
+            CacheEntry entry = ontologyCache.get(keyForCache);
+            if (entry != null) {
+                OntModel model = entry.await();
+                if (model != null) {
+                    HIT_COUNT.incrementAndGet();
+                    return model;
+                }
+                // model was collected by the garbage collector (soft reference policy)
+                if (ontologyCache.remove(keyForCache, entry)) {
+                    EVICTION_COUNT.incrementAndGet();
+                }
+                continue;
+            }
+            CacheEntry newEntry = new CacheEntry();
+            if (ontologyCache.putIfAbsent(keyForCache, newEntry) != null) {
+                continue; // another thread started loading in the meantime
+            }
+            MISS_COUNT.incrementAndGet();
+            // model not found in cache → read, put it there and return
+            LOGGER.info("Reading model into cache (" + uri + ")");
+            OntModel model;
+            try {
+                model = readOntModelTimed(uri, spec, hintlang);
+            } catch (RuntimeException | Error e) {
+                ontologyCache.remove(keyForCache, newEntry);
+                if (newEntry.fail(e)) {
+                    throw e;
+                }
+                // the entry was completed by put in the meantime
+                return newEntry.await();
+            }
+            if (newEntry.complete(model) == false) {
+                // a model was put for this key while loading - all waiting threads already got the put model
+                return newEntry.await();
+            }
+            evictIfNecessary(newEntry);
+            return model;
+        }
+    }
+
+    private static OntModel readOntModelTimed(String uri, OntModelSpec spec, Lang hintLang){
+        long startTime = System.nanoTime();
+        try {
+            return readOntModel(uri, spec, hintLang);
+        } finally {
+            LOAD_TIME.addAndGet(System.nanoTime() - startTime);
+        }
     }
 
     /**
@@ -202,20 +276,39 @@ public class OntologyCacheJena {
     
     /**
      * Adds an ont model with a specified key to the cache.
+     * If the ontology with this key is currently loaded by another thread, the given model is also returned to all
+     * threads waiting for that load (the loaded model is discarded).
      * @param key key is usually uri + "_" + OntModelSpec.hashCode()
      * @param model the ontmodel
      */
     public static void put(String key, OntModel model) {
-        ontologyCache.put(key, model);
+        CacheEntry entry = new CacheEntry();
+        entry.complete(model);
+        CacheEntry previous = ontologyCache.put(key, entry);
+        if (previous != null) {
+            previous.complete(model);
+        }
+        evictIfNecessary(entry);
     }
     
 
 
+    /**
+     * Clears the soft references of all cached models as the garbage collector does when memory runs low (used in tests).
+     */
+    static void clearSoftReferences() {
+        for(CacheEntry entry : ontologyCache.values()){
+            Reference<OntModel> reference = entry.reference;
+            if(reference != null)
+                reference.clear();
+        }
+    }
+
     /**
      * Empties the cache.
      */
     public static void emptyCache() {
-        ontologyCache = new HashMap<>();
+        ontologyCache.clear();
     }
 
     public static boolean isDeactivatedCache() {
@@ -256,4 +349,281 @@ public class OntologyCacheJena {
     public static int numberOfCacheEntries(){
         return ontologyCache.size();
     }
+
+    /**
+     * Returns the estimated number of triples of all cached ontologies.
+     * Ontologies which are already collected by the garbage collector (soft reference policy) are not counted.
+     * @return estimated number of cached triples
+     */
+    public static long numberOfCachedTriples(){
+        long sum = 0;
+        for(CacheEntry entry : ontologyCache.values()){
+            sum += entry.getCachedNumberOfTriples();
+        }
+        return sum;
+    }
+
+    public static long getMaximumNumberOfTriples() {
+        return maximumNumberOfTriples;
+    }
+
+    /**
+     * Sets the maximum number of (estimated) triples which are held in the cache.
+     * If the limit is exceeded, the least recently used ontologies are removed from the cache.
+     * The most recently loaded ontology is always cached, even if it exceeds the limit on its own.
+     * Ontologies stored in a TDB dataset are not counted because they are not held in memory.
+     * @param maximumNumberOfTriples the maximum number of triples (Long.MAX_VALUE for an unbounded cache which is the default)
+     */
+    public static void setMaximumNumberOfTriples(long maximumNumberOfTriples) {
+        OntologyCacheJena.maximumNumberOfTriples = maximumNumberOfTriples;
+        evictIfNecessary(null);
+    }
+
+    public static EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Sets the eviction policy. It only applies to ontologies which are loaded afterwards.
+     * @param evictionPolicy the eviction policy
+     */
+    public static void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        if(evictionPolicy == null)
+            throw new IllegalArgumentException("The eviction policy must not be null.");
+        OntologyCacheJena.evictionPolicy = evictionPolicy;
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     * @return the cache statistics
+     */
+    public static Statistics getStatistics(){
+        return new Statistics(HIT_COUNT.get(), MISS_COUNT.get(), LOAD_TIME.get(), EVICTION_COUNT.get(),
+                numberOfCacheEntries(), numberOfCachedTriples());
+    }
+
+    /**
+     * Resets the hit, miss, load time, and eviction counters.
+     */
+    public static void resetStatistics(){
+        HIT_COUNT.set(0);
+        MISS_COUNT.set(0);
+        LOAD_TIME.set(0);
+        EVICTION_COUNT.set(0);
+    }
+
+    /**
+     * Removes the least recently used entries until the number of cached triples is below the maximum.
+     * @param keep the entry which should not be evicted (usually the one just loaded) - can be null
+     */
+    private static void evictIfNecessary(CacheEntry keep){
+        if(maximumNumberOfTriples == Long.MAX_VALUE)
+            return;
+        synchronized(EVICTION_LOCK){
+            //entries whose model was collected by the garbage collector only need to be removed
+            for(Map.Entry<String, CacheEntry> entry : ontologyCache.entrySet()){
+                if(entry.getValue().isCollected() && ontologyCache.remove(entry.getKey(), entry.getValue())){
+                    EVICTION_COUNT.incrementAndGet();
+                }
+            }
+            long cachedTriples = numberOfCachedTriples();
+            while(cachedTriples > maximumNumberOfTriples){
+                Map.Entry<String, CacheEntry> leastRecentlyUsed = null;
+                for(Map.Entry<String, CacheEntry> entry : ontologyCache.entrySet()){
+                    CacheEntry value = entry.getValue();
+                    if(value == keep || value.isLoaded() == false)
+                        continue;
+                    if(leastRecentlyUsed == null || value.lastAccess < leastRecentlyUsed.getValue().lastAccess)
+                        leastRecentlyUsed = entry;
+                }
+                if(leastRecentlyUsed == null)
+                    return;
+                long evictedTriples = leastRecentlyUsed.getValue().getCachedNumberOfTriples();
+                if(ontologyCache.remove(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue())){
+                    LOGGER.info("Evict model from cache ({}) with {} triples.", leastRecentlyUsed.getKey(), evictedTriples);
+                    EVICTION_COUNT.incrementAndGet();
+                    cachedTriples -= evictedTriples;
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of triples which are held in memory for the given model.
+     * @param model the model
+     * @return number of triples of the base graph or zero if the model is backed by TDB
+     */
+    private static long estimateNumberOfTriples(OntModel model){
+        Graph graph = model.getBaseModel().getGraph();
+        if(graph instanceof GraphTDB)
+            return 0;
+        return graph.size();
+    }
+
+    /**
+     * How the cache references the ontologies.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Ontologies are strongly referenced and only removed when the maximum number of triples is exceeded (least recently used first).
+         */
+        LRU,
+        /**
+         * Like {@link #LRU} but the ontologies are softly referenced, so the garbage collector can
+         * remove them before an OutOfMemoryError occurs. They are reloaded on the next request.
+         */
+        SOFT_REFERENCE
+    }
+
+    /**
+     * One entry of the cache. It is inserted before the ontology is loaded such that concurrent requests for the
+     * same ontology wait for the thread which is loading it.
+     */
+    private static class CacheEntry {
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile Reference<OntModel> reference;
+        private volatile OntModel strongReference;
+        private volatile Throwable failure;
+        private volatile long numberOfTriples;
+        private volatile long lastAccess;
+
+        /**
+         * Sets the model of this entry. Only the first call (of complete or fail) has an effect.
+         * @param model the model
+         * @return true if the model is set, false if the entry was already completed or failed
+         */
+        synchronized boolean complete(OntModel model){
+            if(isLoaded())
+                return false;
+            this.numberOfTriples = estimateNumberOfTriples(model);
+            if(evictionPolicy == EvictionPolicy.SOFT_REFERENCE){
+                this.reference = new SoftReference<>(model);
+            }else{
+                this.strongReference = model;
+            }
+            this.lastAccess = ACCESS_CLOCK.incrementAndGet();
+            this.loaded.countDown();
+            return true;
+        }
+
+        /**
+         * Marks the loading of this entry as failed. Only the first call (of complete or fail) has an effect.
+         * @param failure the cause
+         * @return true if the entry is marked as failed, false if the entry was already completed or failed
+         */
+        synchronized boolean fail(Throwable failure){
+            if(isLoaded())
+                return false;
+            this.failure = failure;
+            this.loaded.countDown();
+            return true;
+        }
+
+        /**
+         * Returns true if the model was collected by the garbage collector (soft reference policy).
+         * @return true if the model is not available anymore
+         */
+        boolean isCollected(){
+            return isLoaded() && this.failure == null && this.strongReference == null && this.reference.get() == null;
+        }
+
+        /**
+         * Returns the estimated number of triples which this entry holds in memory.
+         * @return zero if the model is not loaded yet or already collected, otherwise the number of triples
+         */
+        long getCachedNumberOfTriples(){
+            if(isLoaded() == false || this.failure != null || isCollected())
+                return 0;
+            return this.numberOfTriples;
+        }
+
+        boolean isLoaded(){
+            return this.loaded.getCount() == 0;
+        }
+
+        /**
+         * Waits until the model is loaded.
+         * @return the model or null if it was already collected by the garbage collector
+         */
+        OntModel await(){
+            boolean interrupted = false;
+            while(true){
+                try {
+                    this.loaded.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted)
+                Thread.currentThread().interrupt();
+            if(this.failure != null)
+                throw new IllegalStateException("Loading the ontology failed in another thread.", this.failure);
+            this.lastAccess = ACCESS_CLOCK.incrementAndGet();
+            OntModel model = this.strongReference;
+            if(model != null)
+                return model;
+            return this.reference.get();
+        }
+    }
+
+    /**
+     * Statistics of the ontology cache.
+     */
+    public static class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long totalLoadTime;
+        private final long evictionCount;
+        private final int numberOfEntries;
+        private final long numberOfTriples;
+
+        public Statistics(long hitCount, long missCount, long totalLoadTime, long evictionCount, int numberOfEntries, long numberOfTriples) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.totalLoadTime = totalLoadTime;
+            this.evictionCount = evictionCount;
+            this.numberOfEntries = numberOfEntries;
+            this.numberOfTriples = numberOfTriples;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the time spent for loading ontologies (in nanoseconds).
+         * @return load time in nanoseconds
+         */
+        public long getTotalLoadTime() {
+            return totalLoadTime;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getNumberOfEntries() {
+            return numberOfEntries;
+        }
+
+        public long getNumberOfTriples() {
+            return numberOfTriples;
+        }
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{hits=" + hitCount + ", misses=" + missCount + ", loadTime=" + totalLoadTime / 1_000_000 +
+                    "ms, evictions=" + evictionCount + ", entries=" + numberOfEntries + ", triples=" + numberOfTriples + '}';
+        }
+    }
 }
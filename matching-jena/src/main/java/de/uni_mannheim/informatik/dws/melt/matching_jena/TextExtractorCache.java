@@ -0,0 +1,278 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * A bounded cache for the texts extracted by a {@link TextExtractor} or {@link TextExtractorMap}.
+ * The key is the model (compared by identity), the URI of the resource and the extractor (compared with equals - thus
+ * two instances of the same extractor class share their entries if the extractor implements equals).
+ * Blank nodes are not cached. If the maximum number of entries is exceeded, the least recently used entries are evicted.
+ * The cache returns copies of the cached values, thus callers are free to modify them.
+ * <p>
+ * A cache can be activated for the current thread with {@link #setActiveCache(TextExtractorCache) }.
+ * Matchers use the active cache via {@link #extractWithActiveCache(TextExtractor, Resource) } which allows to share the extracted
+ * texts between all matchers in a {@link MatcherPipelineYAAAJena}. The pipeline activates the cache only during its run and
+ * deactivates it afterwards. The active cache is not inherited by other threads (like pool threads which outlive the run),
+ * they extract the texts without the cache.
+ * This class is thread safe.
+ */
+public class TextExtractorCache {
+
+    /**
+     * Default maximum number of cached entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+
+    private static final ThreadLocal<TextExtractorCache> ACTIVE_CACHE = new ThreadLocal<>();
+
+    private final LinkedHashMap<CacheKey, Object> cache;
+    private int maximumSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TextExtractorCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param maximumSize the maximum number of cached entries.
+     */
+    public TextExtractorCache(int maximumSize) {
+        //access order = true -> LRU
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Extracts the texts of the given resource or returns them from the cache.
+     * @param extractor the extractor to use
+     * @param r the resource
+     * @return the extracted texts (a modifiable copy)
+     */
+    public Set<String> extract(TextExtractor extractor, Resource r) {
+        CacheKey key = CacheKey.create(r, extractor);
+        if (key == null)
+            return extractor.extract(r);
+        @SuppressWarnings("unchecked")
+        Set<String> cached = (Set<String>) get(key);
+        if (cached == null) {
+            cached = new HashSet<>(extractor.extract(r));
+            put(key, cached);
+        }
+        return new HashSet<>(cached);
+    }
+
+    /**
+     * Extracts the texts of the given resource or returns them from the cache.
+     * @param extractor the extractor to use
+     * @param r the resource
+     * @return the extracted texts (a modifiable copy)
+     */
+    public Map<String, Set<String>> extract(TextExtractorMap extractor, Resource r) {
+        CacheKey key = CacheKey.create(r, extractor);
+        if (key == null)
+            return extractor.extract(r);
+        @SuppressWarnings("unchecked")
+        Map<String, Set<String>> cached = (Map<String, Set<String>>) get(key);
+        if (cached == null) {
+            cached = copy(extractor.extract(r));
+            put(key, cached);
+        }
+        return copy(cached);
+    }
+
+    /**
+     * Returns a text extractor which uses this cache.
+     * @param extractor the extractor to decorate
+     * @return the cached text extractor
+     */
+    public TextExtractor decorate(TextExtractor extractor) {
+        return r -> extract(extractor, r);
+    }
+
+    /**
+     * Returns a text extractor map which uses this cache.
+     * @param extractor the extractor to decorate
+     * @return the cached text extractor map
+     */
+    public TextExtractorMap decorate(TextExtractorMap extractor) {
+        return r -> extract(extractor, r);
+    }
+
+    private synchronized Object get(CacheKey key) {
+        Object value = this.cache.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    private synchronized void put(CacheKey key, Object value) {
+        this.cache.put(key, value);
+        evict();
+    }
+
+    private void evict() {
+        while (this.cache.size() > maximumSize && this.cache.isEmpty() == false) {
+            this.cache.remove(this.cache.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    private static Map<String, Set<String>> copy(Map<String, Set<String>> map) {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Entry<String, Set<String>> entry : map.entrySet()) {
+            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        this.cache.clear();
+    }
+
+    public synchronized int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of cached entries. If the cache is currently larger, the least recently used entries are evicted.
+     * @param maximumSize the maximum number of cached entries.
+     */
+    public synchronized void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        evict();
+    }
+
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the ratio of cache hits to all requests (zero if there was no request so far).
+     * @return the hit rate between zero and one
+     */
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("TextExtractorCache(size: %d/%d, hits: %d, misses: %d, evictions: %d, hit rate: %.2f%%)",
+                this.cache.size(), maximumSize, hits, misses, evictions, getHitRate() * 100);
+    }
+
+    /**
+     * Returns the cache which is active for the current thread.
+     * @return the active cache or null if no cache is active
+     */
+    public static TextExtractorCache getActiveCache() {
+        return ACTIVE_CACHE.get();
+    }
+
+    /**
+     * Sets the cache which is active for the current thread (only this thread - it is not inherited by threads created by it).
+     * The caller is responsible to deactivate (or restore) the cache afterwards, usually in a finally block,
+     * because otherwise the thread keeps the cache (and thus the cached models) alive.
+     * @param cache the cache or null to deactivate the cache
+     */
+    public static void setActiveCache(TextExtractorCache cache) {
+        if (cache == null) {
+            ACTIVE_CACHE.remove();
+        } else {
+            ACTIVE_CACHE.set(cache);
+        }
+    }
+
+    /**
+     * Extracts the texts with the active cache or directly with the extractor if no cache is active.
+     * @param extractor the extractor to use
+     * @param r the resource
+     * @return the extracted texts
+     */
+    public static Set<String> extractWithActiveCache(TextExtractor extractor, Resource r) {
+        TextExtractorCache cache = ACTIVE_CACHE.get();
+        if (cache == null)
+            return extractor.extract(r);
+        return cache.extract(extractor, r);
+    }
+
+    /**
+     * Extracts the texts with the active cache or directly with the extractor if no cache is active.
+     * @param extractor the extractor to use
+     * @param r the resource
+     * @return the extracted texts
+     */
+    public static Map<String, Set<String>> extractWithActiveCache(TextExtractorMap extractor, Resource r) {
+        TextExtractorCache cache = ACTIVE_CACHE.get();
+        if (cache == null)
+            return extractor.extract(r);
+        return cache.extract(extractor, r);
+    }
+
+    /**
+     * The key of the cache: model (compared by identity), URI of the resource and the extractor.
+     */
+    private static class CacheKey {
+        private final Model model;
+        private final String uri;
+        private final Object extractor;
+        private final int hash;
+
+        private CacheKey(Model model, String uri, Object extractor) {
+            this.model = model;
+            this.uri = uri;
+            this.extractor = extractor;
+            this.hash = 31 * (31 * System.identityHashCode(model) + uri.hashCode()) + extractor.hashCode();
+        }
+
+        static CacheKey create(Resource r, Object extractor) {
+            if (r.isURIResource() == false)
+                return null;
+            return new CacheKey(r.getModel(), r.getURI(), extractor);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            final CacheKey other = (CacheKey) obj;
+            return this.model == other.model && this.uri.equals(other.uri) && Objects.equals(this.extractor, other.extractor);
+        }
+    }
+}
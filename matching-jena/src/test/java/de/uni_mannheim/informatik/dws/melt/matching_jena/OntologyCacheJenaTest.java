@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import com.sun.net.httpserver.HttpServer;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
@@ -7,8 +8,17 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.jena.rdf.model.ModelFactory;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,9 +112,124 @@ class OntologyCacheJenaTest {
         assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
     }
 
+    @Test
+    void concurrentLoadsAreDeduplicated() throws Exception {
+        OntologyCacheJena.resetStatistics();
+        String uri = new File("./src/test/resources/cmt.owl").toURI().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OntModel>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> OntologyCacheJena.get(uri)));
+            }
+            OntModel first = futures.get(0).get();
+            for (Future<OntModel> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        OntologyCacheJena.Statistics statistics = OntologyCacheJena.getStatistics();
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(15, statistics.getHitCount());
+        assertEquals(1, statistics.getNumberOfEntries());
+        assertTrue(statistics.getNumberOfTriples() > 0);
+        assertTrue(statistics.getTotalLoadTime() > 0);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        OntologyCacheJena.resetStatistics();
+        String cmt = new File("./src/test/resources/cmt.owl").toURI().toString();
+        OntModel model = OntologyCacheJena.get(cmt, OntModelSpec.OWL_DL_MEM);
+        long triples = OntologyCacheJena.numberOfCachedTriples();
+        assertEquals(model.getBaseModel().getGraph().size(), triples);
+
+        // room for exactly one model
+        OntologyCacheJena.setMaximumNumberOfTriples(triples);
+        OntologyCacheJena.get(cmt, OntModelSpec.OWL_DL_MEM_RDFS_INF);
+        assertEquals(1, OntologyCacheJena.numberOfCacheEntries());
+        assertEquals(1, OntologyCacheJena.getStatistics().getEvictionCount());
+
+        // the evicted model is loaded again
+        assertNotSame(model, OntologyCacheJena.get(cmt, OntModelSpec.OWL_DL_MEM));
+        assertEquals(3, OntologyCacheJena.getStatistics().getMissCount());
+    }
+
+    @Test
+    void softReferencePolicy() {
+        OntologyCacheJena.setEvictionPolicy(OntologyCacheJena.EvictionPolicy.SOFT_REFERENCE);
+        String cmt = new File("./src/test/resources/cmt.owl").toURI().toString();
+        OntModel model = OntologyCacheJena.get(cmt);
+        assertSame(model, OntologyCacheJena.get(cmt));
+        assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
+    }
+
+    @Test
+    void collectedModelsAreNotCounted() {
+        OntologyCacheJena.resetStatistics();
+        OntologyCacheJena.setEvictionPolicy(OntologyCacheJena.EvictionPolicy.SOFT_REFERENCE);
+        String cmt = new File("./src/test/resources/cmt.owl").toURI().toString();
+        OntologyCacheJena.get(cmt, OntModelSpec.OWL_DL_MEM);
+        long triples = OntologyCacheJena.numberOfCachedTriples();
+        assertTrue(triples > 0);
+
+        OntologyCacheJena.clearSoftReferences();
+        assertEquals(0, OntologyCacheJena.numberOfCachedTriples());
+
+        // the collected entry does not take the room of the next model
+        OntologyCacheJena.setMaximumNumberOfTriples(triples);
+        assertEquals(0, OntologyCacheJena.numberOfCacheEntries());
+        OntologyCacheJena.get(cmt, OntModelSpec.OWL_DL_MEM_RDFS_INF);
+        assertEquals(1, OntologyCacheJena.numberOfCacheEntries());
+        assertEquals(triples, OntologyCacheJena.numberOfCachedTriples());
+        assertEquals(1, OntologyCacheJena.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void putWhileLoadingIsNotLost() throws Exception {
+        byte[] content = Files.readAllBytes(new File("./src/test/resources/cmt.owl").toPath());
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/cmt.owl", exchange -> {
+            requested.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        });
+        server.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            String uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/cmt.owl";
+            Future<OntModel> loading = executor.submit(() -> OntologyCacheJena.get(uri, OntModelSpec.OWL_DL_MEM));
+            requested.await();
+
+            OntModel putModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+            OntologyCacheJena.put(uri + "_" + OntModelSpec.OWL_DL_MEM.hashCode(), putModel);
+            release.countDown();
+
+            assertSame(putModel, loading.get());
+            assertSame(putModel, OntologyCacheJena.get(uri, OntModelSpec.OWL_DL_MEM));
+            assertEquals(1, OntologyCacheJena.numberOfCacheEntries());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            server.stop(0);
+        }
+    }
+
     @AfterEach
     void teardown(){
         OntologyCacheJena.emptyCache();
+        OntologyCacheJena.setMaximumNumberOfTriples(Long.MAX_VALUE);
+        OntologyCacheJena.setEvictionPolicy(OntologyCacheJena.EvictionPolicy.LRU);
     }
 
 }
\ No newline at end of file
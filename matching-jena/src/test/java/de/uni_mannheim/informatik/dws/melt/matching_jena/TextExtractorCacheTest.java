@@ -0,0 +1,140 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+public class TextExtractorCacheTest {
+
+    @Test
+    void cacheIsBoundedAndCountsHits() {
+        AtomicInteger calls = new AtomicInteger();
+        TextExtractor extractor = r -> {
+            calls.incrementAndGet();
+            return new HashSet<>(Arrays.asList(r.getProperty(RDFS.label).getString()));
+        };
+        OntModel model = ModelFactory.createOntologyModel();
+        Resource a = model.createResource("http://example.com/a").addProperty(RDFS.label, "a");
+        Resource b = model.createResource("http://example.com/b").addProperty(RDFS.label, "b");
+        Resource c = model.createResource("http://example.com/c").addProperty(RDFS.label, "c");
+
+        TextExtractorCache cache = new TextExtractorCache(2);
+        TextExtractor cached = cache.decorate(extractor);
+        assertEquals(new HashSet<>(Arrays.asList("a")), cached.extract(a));
+        assertEquals(new HashSet<>(Arrays.asList("a")), cached.extract(a));
+        cached.extract(a).add("modified");
+        assertEquals(new HashSet<>(Arrays.asList("a")), cached.extract(a));
+        assertEquals(1, calls.get());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cached.extract(b);
+        cached.extract(a); // a is now the most recently used one
+        cached.extract(c);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cached.extract(a);
+        assertEquals(3, calls.get());
+        cached.extract(b);
+        assertEquals(4, calls.get());
+        assertEquals(5.0 / 9.0, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void differentModelsAndBlankNodesAreNotShared() {
+        TextExtractor extractor = r -> new HashSet<>(Arrays.asList(r.getModel().listStatements().toList().size() + ""));
+        Model one = ModelFactory.createDefaultModel();
+        Model two = ModelFactory.createDefaultModel();
+        Resource first = one.createResource("http://example.com/a");
+        Resource second = two.createResource("http://example.com/a").addProperty(RDFS.label, "x");
+
+        TextExtractorCache cache = new TextExtractorCache();
+        assertEquals(new HashSet<>(Arrays.asList("0")), cache.extract(extractor, first));
+        assertEquals(new HashSet<>(Arrays.asList("1")), cache.extract(extractor, second));
+        cache.extract(extractor, one.createResource());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void pipelineSharesCacheBetweenMatchers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        TextExtractor extractor = r -> {
+            calls.incrementAndGet();
+            return new HashSet<>();
+        };
+        List<TextExtractorCache> usedCaches = Arrays.asList(new TextExtractorCache[2]);
+        MatcherYAAAJena first = new ExtractingMatcher(extractor, usedCaches, 0);
+        MatcherYAAAJena second = new ExtractingMatcher(extractor, usedCaches, 1);
+        MatcherPipelineYAAAJenaConstructor pipeline = new MatcherPipelineYAAAJenaConstructor(first, second);
+
+        OntModel source = ModelFactory.createOntologyModel();
+        source.createClass("http://example.com/a");
+        source.createClass("http://example.com/b");
+        pipeline.match(source, ModelFactory.createOntologyModel(), new Alignment(), new Properties());
+        assertEquals(2, calls.get());
+        assertNotNull(usedCaches.get(0));
+        assertSame(usedCaches.get(0), usedCaches.get(1));
+        assertEquals(2, usedCaches.get(0).getHitCount());
+        assertNull(TextExtractorCache.getActiveCache());
+
+        pipeline.setTextExtractorCacheSize(0);
+        pipeline.match(source, ModelFactory.createOntologyModel(), new Alignment(), new Properties());
+        assertEquals(6, calls.get());
+        assertNull(usedCaches.get(0));
+    }
+
+    @Test
+    void activeCacheIsNotInheritedByOtherThreads() throws Exception {
+        List<TextExtractorCache> usedCaches = Arrays.asList(new TextExtractorCache[2]);
+        MatcherYAAAJena matcher = new MatcherYAAAJena() {
+            @Override
+            public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+                usedCaches.set(0, TextExtractorCache.getActiveCache());
+                Thread thread = new Thread(() -> usedCaches.set(1, TextExtractorCache.getActiveCache()));
+                thread.start();
+                thread.join();
+                return inputAlignment;
+            }
+        };
+        new MatcherPipelineYAAAJenaConstructor(matcher).match(
+                ModelFactory.createOntologyModel(), ModelFactory.createOntologyModel(), new Alignment(), new Properties());
+        assertNotNull(usedCaches.get(0));
+        assertNull(usedCaches.get(1));
+        assertEquals(0, usedCaches.get(0).size());
+        assertNull(TextExtractorCache.getActiveCache());
+    }
+
+    private static class ExtractingMatcher extends MatcherYAAAJena {
+        private final TextExtractor extractor;
+        private final List<TextExtractorCache> usedCaches;
+        private final int position;
+
+        ExtractingMatcher(TextExtractor extractor, List<TextExtractorCache> usedCaches, int position) {
+            this.extractor = extractor;
+            this.usedCaches = usedCaches;
+            this.position = position;
+        }
+
+        @Override
+        public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+            usedCaches.set(position, TextExtractorCache.getActiveCache());
+            for(Resource r : source.listClasses().toList()){
+                Set<String> texts = TextExtractorCache.extractWithActiveCache(extractor, r);
+                assertNotNull(texts);
+            }
+            return inputAlignment;
+        }
+    }
+}
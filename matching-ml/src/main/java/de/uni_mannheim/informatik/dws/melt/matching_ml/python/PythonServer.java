@@ -29,6 +29,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -95,9 +98,14 @@ public class PythonServer {
     private static boolean isShutDown = true;
 
     /**
-     * Local vector cache.
+     * Local vector cache (bounded, see {@link #getVectorCache()}).
      */
-    private HashMap<String, Double[]> vectorCache;
+    private final VectorCache vectorCache = new VectorCache();
+
+    /**
+     * The maximum number of concepts which are requested with one batch request in {@link #getVectors(Collection, String)}.
+     */
+    private static final int VECTOR_BATCH_SIZE = 10000;
 
     /**
      * Indicates whether the shutdown hook has been initialized.
@@ -767,8 +775,8 @@ public class PythonServer {
     public double getSimilarity(String concept1, String concept2, String modelOrVectorPath) {
         if (isVectorCaching) {
             // caching is enabled: do not use gensim library but cache vectors and calculate in java on demand
-            Double[] v1 = getVector(concept1, modelOrVectorPath);
-            Double[] v2 = getVector(concept2, modelOrVectorPath);
+            float[] v1 = getFloatVector(concept1, modelOrVectorPath);
+            float[] v2 = getFloatVector(concept2, modelOrVectorPath);
             if (v1 != null && v2 != null) {
                 return cosineSimilarity(v1, v2);
             }
@@ -804,11 +812,31 @@ public class PythonServer {
      * @return The vector for the specified concept.
      */
     public Double[] getVector(String concept, String modelOrVectorPath) {
+        float[] vector = getFloatVector(concept, modelOrVectorPath);
+        if (vector == null) {
+            return null;
+        }
+        Double[] result = new Double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = (double) vector[i];
+        }
+        return result;
+    }
 
-        String v1key = concept + "-" + modelOrVectorPath;
+    /**
+     * Returns the vector of a concept as primitive float array (this is the precision of the vectors in gensim).
+     * The returned array is shared with the vector cache and must not be modified.
+     *
+     * @param concept           The concept for which the vector shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return The vector for the specified concept or null if the concept is not in the vocabulary.
+     */
+    public float[] getFloatVector(String concept, String modelOrVectorPath) {
+        String v1key = getVectorCacheKey(concept, modelOrVectorPath);
         if (isVectorCaching) {
-            if (vectorCache.containsKey(v1key)) {
-                return vectorCache.get(v1key);
+            float[] cached = vectorCache.get(v1key);
+            if (cached != null || vectorCache.isCachedAsMissing(v1key)) {
+                return cached;
             }
         }
 
@@ -816,6 +844,7 @@ public class PythonServer {
         request.addHeader("concept", concept);
         addModelToRequest(request, modelOrVectorPath);
 
+        float[] result = null;
         try (CloseableHttpResponse response = httpClient.execute(request)) {
             HttpEntity entity = response.getEntity();
             if (entity == null) {
@@ -826,33 +855,156 @@ public class PythonServer {
                 if (resultString.startsWith("ERROR") || resultString.contains("500 Internal Server Error")) {
                     LOGGER.error(resultString);
                 } else {
-                    String[] tokenizedResult = resultString.split(" ");
-                    Double[] result = new Double[tokenizedResult.length];
-                    for (int i = 0; i < result.length; i++) {
-                        try {
-                            result[i] = Double.parseDouble(tokenizedResult[i]);
-                        } catch (NumberFormatException nfe) {
-                            LOGGER.error("Number format exception occurred on token: " + tokenizedResult[i], nfe);
-                            // cannot return vector
-                            if (isVectorCaching) {
-                                vectorCache.put(v1key, null);
-                            }
-                            return null;
-                        }
-                    }
-                    if (isVectorCaching) {
-                        vectorCache.put(v1key, result);
-                    }
-                    return result;
+                    result = parseVector(resultString);
                 }
             }
         } catch (IOException ioe) {
             LOGGER.error("Problem with http request.", ioe);
         }
         if (isVectorCaching) {
-            vectorCache.put(v1key, null);
+            vectorCache.put(v1key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the vectors of multiple concepts. Only concepts which are not already cached are requested from the
+     * python server. They are transferred in batches in a binary format (no text parsing is involved).
+     * Use this method before computing similarities of many concepts to avoid one HTTP request per concept.
+     *
+     * @param concepts          The concepts for which the vectors shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return A map from concept to vector. Concepts which are not in the vocabulary are not contained.
+     * The arrays are shared with the vector cache and must not be modified.
+     */
+    public Map<String, float[]> getVectors(Collection<String> concepts, String modelOrVectorPath) {
+        Map<String, float[]> result = new HashMap<>();
+        List<String> toBeRequested = new ArrayList<>();
+        for (String concept : new LinkedHashSet<>(concepts)) {
+            if (concept == null)
+                continue;
+            if (isVectorCaching) {
+                String key = getVectorCacheKey(concept, modelOrVectorPath);
+                float[] cached = vectorCache.get(key);
+                if (cached != null) {
+                    result.put(concept, cached);
+                    continue;
+                } else if (vectorCache.isCachedAsMissing(key)) {
+                    continue;
+                }
+            }
+            toBeRequested.add(concept);
+        }
+        for (int i = 0; i < toBeRequested.size(); i += VECTOR_BATCH_SIZE) {
+            List<String> batch = toBeRequested.subList(i, Math.min(i + VECTOR_BATCH_SIZE, toBeRequested.size()));
+            float[][] vectors = requestVectors(batch, modelOrVectorPath);
+            if (vectors == null) {
+                continue; // error already logged - do not cache anything
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                if (vectors[j] != null) {
+                    result.put(batch.get(j), vectors[j]);
+                }
+                if (isVectorCaching) {
+                    vectorCache.put(getVectorCacheKey(batch.get(j), modelOrVectorPath), vectors[j]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Requests the vectors of the given concepts with one request.
+     *
+     * @param concepts          The concepts for which the vectors shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return An array with the same size as the concepts (null entries for concepts which are not in the vocabulary)
+     * or null in case of an error.
+     */
+    private float[][] requestVectors(List<String> concepts, String modelOrVectorPath) {
+        HttpPost request = new HttpPost(serverUrl + "/get-vectors");
+        addModelToRequest(request, modelOrVectorPath);
+        try {
+            request.setEntity(new StringEntity(JSON_MAPPER.writeValueAsString(concepts), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException ex) {
+            LOGGER.error("Could not serialize the concepts.", ex);
+            return null;
+        }
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                LOGGER.error("No server response.");
+                return null;
+            }
+            byte[] content = EntityUtils.toByteArray(entity);
+            if (entity.getContentType() == null || !entity.getContentType().getValue().startsWith("application/octet-stream")) {
+                LOGGER.error(new String(content, StandardCharsets.UTF_8));
+                return null;
+            }
+            return parseVectors(content, concepts.size());
+        } catch (IOException ioe) {
+            LOGGER.error("Problem with http request.", ioe);
+            return null;
+        }
+    }
+
+    /**
+     * Parses the binary format of the get-vectors endpoint (big endian): number of concepts (int), vector dimension (int),
+     * one byte per concept (1 if in vocabulary, else 0), and the float vectors of all concepts in the vocabulary.
+     *
+     * @param content            The binary content.
+     * @param expectedNumberOfConcepts The number of requested concepts.
+     * @return An array of vectors (null if the concept is not in the vocabulary).
+     * @throws IOException If the content does not follow the format.
+     */
+    static float[][] parseVectors(byte[] content, int expectedNumberOfConcepts) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        try {
+            int numberOfConcepts = buffer.getInt();
+            int dimension = buffer.getInt();
+            if (numberOfConcepts != expectedNumberOfConcepts) {
+                throw new IOException("The server returned " + numberOfConcepts + " vectors instead of " + expectedNumberOfConcepts);
+            }
+            byte[] found = new byte[numberOfConcepts];
+            buffer.get(found);
+            float[][] vectors = new float[numberOfConcepts][];
+            for (int i = 0; i < numberOfConcepts; i++) {
+                if (found[i] != 0) {
+                    float[] vector = new float[dimension];
+                    buffer.asFloatBuffer().get(vector);
+                    ((Buffer) buffer).position(buffer.position() + 4 * dimension);
+                    vectors[i] = vector;
+                }
+            }
+            return vectors;
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("The binary vector response is truncated.", ex);
         }
-        return null;
+    }
+
+    /**
+     * Parses a vector which is given as whitespace separated numbers.
+     *
+     * @param vector The vector as text.
+     * @return The vector or null if a number could not be parsed.
+     */
+    private static float[] parseVector(String vector) {
+        String[] tokenizedResult = vector.split(" ");
+        float[] result = new float[tokenizedResult.length];
+        for (int i = 0; i < result.length; i++) {
+            try {
+                result[i] = Float.parseFloat(tokenizedResult[i]);
+            } catch (NumberFormatException nfe) {
+                LOGGER.error("Number format exception occurred on token: " + tokenizedResult[i], nfe);
+                // cannot return vector
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static String getVectorCacheKey(String concept, String modelOrVectorPath) {
+        return concept + "-" + modelOrVectorPath;
     }
 
     /**
@@ -1002,7 +1154,7 @@ public class PythonServer {
      * @param request           The request to which the model/vector file shall be added to.
      * @param modelOrVectorPath The path to the model/vector file.
      */
-    private void addModelToRequest(HttpGet request, String modelOrVectorPath) {
+    private void addModelToRequest(HttpUriRequest request, String modelOrVectorPath) {
         if (modelOrVectorPath.endsWith(".kv")) {
             request.addHeader("vector_path", getCanonicalPath(modelOrVectorPath));
         } else request.addHeader("model_path", getCanonicalPath(modelOrVectorPath));
@@ -1302,7 +1454,7 @@ public class PythonServer {
         } catch (InterruptedException e) {
             LOGGER.error("Could not wait for python server.", e);
         }
-        vectorCache = new HashMap<>();
+        vectorCache.clear();
 
         // now: add shutdown hook in case the JVM is terminating
         if (!isHookStarted) {
@@ -1415,6 +1567,46 @@ public class PythonServer {
         return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
     }
 
+    /**
+     * Calculate The cosine similarity between two vectors without any boxing.
+     *
+     * @param vector1 First vector.
+     * @param vector2 Second vector.
+     * @return Cosine similarity as double.
+     */
+    public static double cosineSimilarity(float[] vector1, float[] vector2) {
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+        for (int i = 0; i < vector1.length; i++) {
+            double a = vector1[i];
+            double b = vector2[i];
+            dotProduct += a * b;
+            norm1 += a * a;
+            norm2 += b * b;
+        }
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
+    /**
+     * Calculate The cosine similarity between two vectors without any boxing.
+     *
+     * @param vector1 First vector.
+     * @param vector2 Second vector.
+     * @return Cosine similarity as double.
+     */
+    public static double cosineSimilarity(double[] vector1, double[] vector2) {
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+        for (int i = 0; i < vector1.length; i++) {
+            dotProduct += vector1[i] * vector2[i];
+            norm1 += vector1[i] * vector1[i];
+            norm2 += vector2[i] * vector2[i];
+        }
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
     /**
      * Writes the vectors to a human-readable text file.
      *
@@ -1568,6 +1760,16 @@ public class PythonServer {
         isVectorCaching = vectorCaching;
     }
 
+    /**
+     * Returns the local vector cache. It can be used to change the maximum size
+     * ({@link VectorCache#setMaximumNumberOfFloats(long)}) or to get statistics.
+     *
+     * @return The vector cache.
+     */
+    public VectorCache getVectorCache() {
+        return vectorCache;
+    }
+
     public static int getPort() {
         return port;
     }
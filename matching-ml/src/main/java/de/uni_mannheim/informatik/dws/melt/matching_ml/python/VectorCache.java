@@ -0,0 +1,154 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache for embedding vectors which are stored as primitive float arrays.
+ * The size is bounded by the total number of floats (not the number of vectors) because the vector dimension depends on the model.
+ * A concept which is not in the vocabulary counts as one float.
+ * If the bound is exceeded, the least recently used vectors are evicted.
+ * Concepts which are not in the vocabulary are cached as well (see {@link #isCachedAsMissing(java.lang.String) }).
+ * This class is thread safe.
+ */
+public class VectorCache {
+
+    /**
+     * Marker for concepts which are not in the vocabulary.
+     */
+    private static final float[] MISSING = new float[0];
+
+    /**
+     * Default maximum number of floats: 256 million floats which corresponds to 1 GB.
+     */
+    public static final long DEFAULT_MAXIMUM_NUMBER_OF_FLOATS = 256L * 1024 * 1024;
+
+    private final LinkedHashMap<String, float[]> cache;
+    private long maximumNumberOfFloats;
+    private long numberOfFloats;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public VectorCache() {
+        this(DEFAULT_MAXIMUM_NUMBER_OF_FLOATS);
+    }
+
+    /**
+     * Constructor
+     * @param maximumNumberOfFloats the maximum number of floats of all cached vectors.
+     */
+    public VectorCache(long maximumNumberOfFloats) {
+        //access order = true -> LRU
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.maximumNumberOfFloats = maximumNumberOfFloats;
+        this.numberOfFloats = 0;
+    }
+
+    /**
+     * Returns the cached vector.
+     * @param key the key (concept and model)
+     * @return the vector or null if it is not cached or the concept is not in the vocabulary
+     *  (use {@link #contains(java.lang.String) } to distinguish both cases).
+     */
+    public synchronized float[] get(String key) {
+        float[] vector = this.cache.get(key);
+        if (vector == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return vector == MISSING ? null : vector;
+    }
+
+    /**
+     * Returns true if there is an entry for the given key (a vector or the information that the concept is not in the vocabulary).
+     * @param key the key (concept and model)
+     * @return true if the key is cached
+     */
+    public synchronized boolean contains(String key) {
+        return this.cache.containsKey(key);
+    }
+
+    /**
+     * Returns true if the given key is cached as not in the vocabulary.
+     * @param key the key (concept and model)
+     * @return true if the concept is cached as not in the vocabulary.
+     */
+    public synchronized boolean isCachedAsMissing(String key) {
+        return this.cache.get(key) == MISSING;
+    }
+
+    /**
+     * Adds a vector to the cache.
+     * @param key the key (concept and model)
+     * @param vector the vector or null in case the concept is not in the vocabulary.
+     */
+    public synchronized void put(String key, float[] vector) {
+        float[] value = vector == null ? MISSING : vector;
+        float[] old = this.cache.put(key, value);
+        if (old != null)
+            numberOfFloats -= weight(old);
+        numberOfFloats += weight(value);
+        evict();
+    }
+
+    /**
+     * Removes all vectors.
+     */
+    public synchronized void clear() {
+        this.cache.clear();
+        this.numberOfFloats = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, float[]>> iterator = this.cache.entrySet().iterator();
+        while (numberOfFloats > maximumNumberOfFloats && iterator.hasNext()) {
+            numberOfFloats -= weight(iterator.next().getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static int weight(float[] vector) {
+        return Math.max(1, vector.length);
+    }
+
+    public synchronized long getMaximumNumberOfFloats() {
+        return maximumNumberOfFloats;
+    }
+
+    /**
+     * Sets the maximum number of floats of all cached vectors. If the cache is currently larger, the least recently used vectors are evicted.
+     * @param maximumNumberOfFloats the maximum number of floats.
+     */
+    public synchronized void setMaximumNumberOfFloats(long maximumNumberOfFloats) {
+        this.maximumNumberOfFloats = maximumNumberOfFloats;
+        evict();
+    }
+
+    /**
+     * Returns the number of cached entries (including concepts which are not in the vocabulary).
+     * @return number of cached entries
+     */
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public synchronized long getNumberOfFloats() {
+        return numberOfFloats;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+}
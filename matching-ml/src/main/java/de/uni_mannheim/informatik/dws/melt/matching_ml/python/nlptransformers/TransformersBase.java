@@ -4,6 +4,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.FileUtil;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import java.io.File;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorMap;
 import java.io.BufferedWriter;
 import java.io.FileInputStream;
@@ -338,10 +339,10 @@ public abstract class TransformersBase extends MatcherYAAAJena {
             return cacheResult;
         Map<String, Set<String>> texts = new HashMap<>();
         if(this.multipleTextsToMultipleExamples){
-            texts = this.extractor.extract(r);
+            texts = TextExtractorCache.extractWithActiveCache(this.extractor, r);
         }else{
             StringBuilder sb = new StringBuilder();
-            for(Map.Entry<String, Set<String>> groupedText : this.extractor.extract(r).entrySet()){
+            for(Map.Entry<String, Set<String>> groupedText : TextExtractorCache.extractWithActiveCache(this.extractor, r).entrySet()){
                 for(String text : groupedText.getValue()){
                     sb.append(text.trim()).append(" ");
                 }
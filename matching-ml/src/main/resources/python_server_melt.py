@@ -1,4 +1,4 @@
-from flask import Flask, request, jsonify
+from flask import Flask, request, jsonify, Response
 from gensim import corpora, models, similarities, matutils
 from scipy import linalg
 from scipy.special import softmax
@@ -353,6 +353,41 @@ def get_vector_given_model():
         return "ERROR " + traceback.format_exc()
 
 
+@app.route("/get-vectors", methods=["POST"])
+def get_vectors_given_model():
+    """Returns the vectors of multiple concepts (JSON list in the body) in one binary response (big endian):
+    int32 number of concepts, int32 vector dimension, one byte per concept (1 if it is in the vocabulary, else 0)
+    followed by the float32 vectors of all concepts which are in the vocabulary (in the order of the request).
+
+    Returns
+    -------
+        binary vectors or a string starting with ERROR
+    """
+    try:
+        concepts = request.get_json()
+        model_path = request.headers.get("model_path")
+        vector_path = request.headers.get("vector_path")
+        vectors = get_vectors(model_path=model_path, vector_path=vector_path)
+
+        if vectors is None:
+            message = "ERROR! Could not instantiate vectors."
+            app.logger.error(message)
+            return message
+
+        found = [concept in vectors.key_to_index for concept in concepts]
+        found_concepts = [concept for concept, is_found in zip(concepts, found) if is_found]
+        header = np.asarray([len(concepts), vectors.vector_size], dtype=">i4").tobytes()
+        flags = np.asarray(found, dtype=np.uint8).tobytes()
+        if len(found_concepts) > 0:
+            matrix = np.asarray([vectors.get_vector(concept) for concept in found_concepts], dtype=">f4").tobytes()
+        else:
+            matrix = b""
+        return Response(header + flags + matrix, mimetype="application/octet-stream")
+    except Exception as e:
+        import traceback
+        return "ERROR " + traceback.format_exc()
+
+
 # Doc2vec models
 
 
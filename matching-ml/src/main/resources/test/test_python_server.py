@@ -50,6 +50,20 @@ def test_get_vector():
     assert len(result.content.decode("utf-8").split(" ")) == 100
 
 
+def test_get_vectors():
+    test_model_vectors = "../../test/resources/test_model_vectors.kv"
+    result = requests.post(
+        uri_prefix + "get-vectors",
+        headers={"vector_path": test_model_vectors},
+        json=["Europe", "AABBCCDDEEFF", "united"],
+    )
+    content = result.content
+    assert int.from_bytes(content[0:4], "big") == 3
+    assert int.from_bytes(content[4:8], "big") == 100
+    assert list(content[8:11]) == [1, 0, 1]
+    assert len(content) == 11 + 2 * 100 * 4
+
+
 def test_is_in_vocabulary():
     test_model = "../../test/resources/test_model"
     test_vectors = "../../test/resources/test_model_vectors.kv"
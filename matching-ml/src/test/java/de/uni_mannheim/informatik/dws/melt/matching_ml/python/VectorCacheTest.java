@@ -0,0 +1,68 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class VectorCacheTest {
+    
+    @Test
+    public void testEviction() {
+        VectorCache cache = new VectorCache(10);
+        cache.put("a", new float[]{1, 2, 3, 4});
+        cache.put("b", new float[]{1, 2, 3, 4});
+        cache.put("missing", null);
+        assertEquals(9, cache.getNumberOfFloats());
+        assertTrue(cache.isCachedAsMissing("missing"));
+        assertNull(cache.get("missing"));
+        
+        //access a -> b is the least recently used
+        assertNotNull(cache.get("a"));
+        cache.put("c", new float[]{1, 2, 3, 4});
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("a"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.getNumberOfFloats() <= 10);
+        assertTrue(cache.getEvictionCount() > 0);
+        
+        cache.setMaximumNumberOfFloats(4);
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains("c"));
+    }
+    
+    @Test
+    public void testParseVectors() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(3);
+        out.writeInt(2);
+        out.write(new byte[]{1, 0, 1});
+        out.writeFloat(0.5f);
+        out.writeFloat(-1.0f);
+        out.writeFloat(2.0f);
+        out.writeFloat(3.0f);
+        out.flush();
+        
+        float[][] vectors = PythonServer.parseVectors(bytes.toByteArray(), 3);
+        assertArrayEquals(new float[]{0.5f, -1.0f}, vectors[0]);
+        assertNull(vectors[1]);
+        assertArrayEquals(new float[]{2.0f, 3.0f}, vectors[2]);
+        
+        assertThrows(IOException.class, () -> PythonServer.parseVectors(bytes.toByteArray(), 4));
+        byte[] truncated = new byte[bytes.size() - 4];
+        System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> PythonServer.parseVectors(truncated, 3));
+    }
+    
+    @Test
+    public void testCosineSimilarity() {
+        Double[] boxed1 = new Double[]{1.0, 2.0, 3.0};
+        Double[] boxed2 = new Double[]{-1.0, 0.5, 2.0};
+        double expected = PythonServer.cosineSimilarity(boxed1, boxed2);
+        assertEquals(expected, PythonServer.cosineSimilarity(new double[]{1.0, 2.0, 3.0}, new double[]{-1.0, 0.5, 2.0}), 1e-12);
+        assertEquals(expected, PythonServer.cosineSimilarity(new float[]{1.0f, 2.0f, 3.0f}, new float[]{-1.0f, 0.5f, 2.0f}), 1e-6);
+    }
+}
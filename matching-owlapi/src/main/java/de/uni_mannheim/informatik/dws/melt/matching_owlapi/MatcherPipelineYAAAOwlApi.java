@@ -1,5 +1,8 @@
 package de.uni_mannheim.informatik.dws.melt.matching_owlapi;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineInstrumentation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageListener;
+import de.uni_mannheim.informatik.dws.melt.matching_base.instrumentation.PipelineStageMeasurement;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 import java.util.List;
@@ -16,10 +19,15 @@ public abstract class MatcherPipelineYAAAOwlApi extends MatcherYAAAOwlApi {
     
     protected abstract List<MatcherYAAAOwlApi> initializeMatchers();    
     
+    protected PipelineInstrumentation instrumentation = new PipelineInstrumentation(getClass().getSimpleName());
+    
     @Override
     public Alignment match(OWLOntology source, OWLOntology target, Alignment inputAlignment, Properties p) throws Exception {
-        for(MatcherYAAAOwlApi matcher : this.matchers){
-             inputAlignment = matcher.match(source, target, inputAlignment, p);
+        for(int i = 0; i < this.matchers.size(); i++){
+            MatcherYAAAOwlApi matcher = this.matchers.get(i);
+            PipelineStageMeasurement measurement = this.instrumentation.startStage(i, matcher, inputAlignment);
+            inputAlignment = matcher.match(source, target, inputAlignment, p);
+            this.instrumentation.stopStage(measurement, inputAlignment);
         }
         return inputAlignment;
     }
@@ -27,4 +35,16 @@ public abstract class MatcherPipelineYAAAOwlApi extends MatcherYAAAOwlApi {
     public List<MatcherYAAAOwlApi> getMatchers() {
         return matchers;
     }
+    
+    /**
+     * Adds a listener which is notified after each matcher of this pipeline.
+     * @param listener the listener
+     */
+    public void addPipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.addListener(listener);
+    }
+    
+    public void removePipelineStageListener(PipelineStageListener listener) {
+        this.instrumentation.removeListener(listener);
+    }
 }
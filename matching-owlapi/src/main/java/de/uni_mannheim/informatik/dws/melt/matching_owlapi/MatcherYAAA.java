@@ -11,6 +11,12 @@ import java.util.Properties;
 
 /**
  * A matcher template for matchers that are based on the YAAA Framework.
+ * <p>
+ * {@link de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller} calls this matcher with the
+ * file based methods, thus the input alignment is parsed from a file and the properties are always empty.
+ * To be called in memory (e.g. in a pipeline), a subclass can additionally implement
+ * <code>IMatcher&lt;URL, Alignment, Properties&gt;</code> - then {@link #match(URL, URL, Alignment, Properties)}
+ * is called directly with the given input alignment and parameters.
  */
 public abstract class MatcherYAAA extends MatcherFile {
 
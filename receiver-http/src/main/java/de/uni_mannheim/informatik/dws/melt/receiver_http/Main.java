@@ -1,10 +1,8 @@
 package de.uni_mannheim.informatik.dws.melt.receiver_http;
 
+import com.google.gson.Gson;
+import de.uni_mannheim.informatik.dws.melt.matching_base.external.http.MatcherHTTPCall;
 import de.uni_mannheim.informatik.dws.melt.matching_base.receiver.MainMatcherClassExtractor;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -17,23 +15,32 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.rmi.ServerException;
 import java.security.SecureRandom;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
 import org.eclipse.jetty.server.Server;
-import org.eclipse.jetty.servlet.DefaultServlet;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
-import org.eclipse.jetty.servlets.QoSFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,28 +59,67 @@ public class Main {
         //parameters:
         int port = getPort();
         int maxParallelRequests = getMaxParallelRequests();
+        //the queue of waiting requests is unbounded by default (as before) - a bound is opt-in and rejects requests with 503
+        int maxQueueSize = getIntFromEnvironment("MELT_MAX_QUEUE_SIZE", 0);
+        //warm matcher instances are opt-in: by default a new matcher instance is created for each request (as before)
+        int poolSize = getIntFromEnvironment("MELT_MATCHER_POOL_SIZE", 0);
+        int jobRetentionMinutes = getIntFromEnvironment("MELT_JOB_RETENTION_MINUTES", 60);
+        int uploadCacheSizeMB = getIntFromEnvironment("MELT_UPLOAD_CACHE_SIZE_MB", 1024);
+        
+        //the main class is extracted only once and the matchers are created before the server accepts requests
+        String mainClass = MainMatcherClassExtractor.extractMainClass();
+        MatcherPool matcherPool = new MatcherPool(mainClass, poolSize);
+        MatchingJobQueue jobQueue = new MatchingJobQueue(matcherPool, maxParallelRequests, maxQueueSize, jobRetentionMinutes);
+        //content addressed cache of uploaded files (zero to disable it)
+        UploadCache uploadCache = null;
+        if(uploadCacheSizeMB > 0)
+            uploadCache = new UploadCache(new File(LOCATION, "upload-cache"), uploadCacheSizeMB * 1024L * 1024L);
        
         Server server = new Server(port);
         
         ServletContextHandler context = new ServletContextHandler();
         context.setContextPath("/");
-        context.addFilter(getQoSFilter(maxParallelRequests), "/match", EnumSet.of(DispatcherType.REQUEST));
-        server.setHandler(context);
+        context.addFilter(new FilterHolder(new CapabilitiesFilter(uploadCache != null)), "/*", EnumSet.of(DispatcherType.REQUEST));
+        
+        //compress the responses (the alignments) if the client accepts it
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setIncludedMethods("GET", "POST");
+        gzipHandler.setHandler(context);
+        server.setHandler(gzipHandler);
         
-        //first servlet which takes care about the match method and run the actual matcher
-        ServletHolder uploadHolder = context.addServlet(MatcherServlet.class, "/match");
         //the last number which is one means that all files are written on disk and that no in memory caching applies
-        uploadHolder.getRegistration().setMultipartConfig(new MultipartConfigElement(LOCATION.getAbsolutePath(), -1, -1, 1));
+        MultipartConfigElement multipartConfig = new MultipartConfigElement(LOCATION.getAbsolutePath(), -1, -1, 1);
+        
+        //first servlet which takes care about the match method and run the actual matcher (synchronous)
+        ServletHolder uploadHolder = new ServletHolder(new MatcherServlet(jobQueue, uploadCache));
+        uploadHolder.getRegistration().setMultipartConfig(multipartConfig);
+        context.addServlet(uploadHolder, "/match");
         
-        LOGGER.info("Matching service runs at: http://localhost:{}/match", port);
+        //second servlet for the asynchronous job API
+        ServletHolder jobHolder = new ServletHolder(new JobServlet(jobQueue, uploadCache));
+        jobHolder.getRegistration().setMultipartConfig(multipartConfig);
+        context.addServlet(jobHolder, "/jobs/*");
+        
+        LOGGER.info("Matching service runs at: http://localhost:{}/match (asynchronous job API at http://localhost:{}/jobs)", port, port);
         
         server.start();
         server.join();
     }
 
+    /**
+     * Servlet for the synchronous matching. The request is answered as soon as the matching is finished.
+     */
     public static class MatcherServlet extends HttpServlet {
         private static final String HTML_CODE = getHtmlCode();
         private static final long serialVersionUID = 1L;
+        
+        private final transient MatchingJobQueue jobQueue;
+        private final transient UploadCache uploadCache;
+
+        public MatcherServlet(MatchingJobQueue jobQueue, UploadCache uploadCache) {
+            this.jobQueue = jobQueue;
+            this.uploadCache = uploadCache;
+        }
 
         @Override
         protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
@@ -85,81 +131,319 @@ public class Main {
         
         @Override
         protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-            // we expect a source and a target
-            if(isMultipartContent(request)){
-                LOGGER.info("Got multipart request - start matching");
-                Part source = request.getPart("source");            
-                if(source == null){
+            MatchingJob job = createJob(request, response, uploadCache);
+            if(job == null || submitJob(job, jobQueue, response) == false)
+                return;
+            try {
+                job.awaitCompletion();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                jobQueue.removeJob(job.getId());
+                throw new ServletException("Interrupted while waiting for the matcher.", ex);
+            }
+            jobQueue.forgetJob(job.getId());
+            if(job.getStatus() == MatchingJob.Status.FAILED){
+                throw new ServletException(job.getErrorMessage());
+            }
+            sendResult(job, response, true);
+            LOGGER.info("Finished matching");
+        }
+    }
+    
+    /**
+     * Servlet for the asynchronous job API:
+     * <ul>
+     * <li>POST /jobs - submit a job (same parameters as /match). Returns 202 with the job id.</li>
+     * <li>GET /jobs/{id} - status of the job as JSON</li>
+     * <li>GET /jobs/{id}/result - the resulting alignment (409 if the job is not finished yet)</li>
+     * <li>DELETE /jobs/{id} - cancel the job and delete all its files</li>
+     * </ul>
+     */
+    public static class JobServlet extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+        private static final Gson GSON = new Gson();
+        
+        private final transient MatchingJobQueue jobQueue;
+        private final transient UploadCache uploadCache;
+
+        public JobServlet(MatchingJobQueue jobQueue, UploadCache uploadCache) {
+            this.jobQueue = jobQueue;
+            this.uploadCache = uploadCache;
+        }
+        
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String pathInfo = request.getPathInfo();
+            if(pathInfo != null && pathInfo.equals("/") == false){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            MatchingJob job = createJob(request, response, uploadCache);
+            if(job == null || submitJob(job, jobQueue, response) == false)
+                return;
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            response.setHeader("Location", request.getContextPath() + "/jobs/" + job.getId());
+            writeJson(job, response);
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String[] path = getPathSegments(request);
+            if(path.length == 0 || path.length > 2 || (path.length == 2 && path[1].equals("result") == false)){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            MatchingJob job = jobQueue.getJob(path[0]);
+            if(job == null){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "No job with id " + path[0]);
+                return;
+            }
+            if(path.length == 1){
+                writeJson(job, response);
+                return;
+            }
+            switch(job.getStatus()){
+                case FINISHED:
+                    sendResult(job, response, false);
+                    return;
+                case FAILED:
+                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    writeJson(job, response);
+                    return;
+                default:
+                    response.setStatus(HttpServletResponse.SC_CONFLICT);
+                    writeJson(job, response);
+            }
+        }
+
+        @Override
+        protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String[] path = getPathSegments(request);
+            if(path.length != 1){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            MatchingJob job = jobQueue.removeJob(path[0]);
+            if(job == null){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "No job with id " + path[0]);
+                return;
+            }
+            writeJson(job, response);
+        }
+        
+        private static String[] getPathSegments(HttpServletRequest request){
+            String pathInfo = request.getPathInfo();
+            if(pathInfo == null)
+                return new String[0];
+            return Arrays.stream(pathInfo.split("/")).filter(s -> s.isEmpty() == false).toArray(String[]::new);
+        }
+        
+        private static void writeJson(MatchingJob job, HttpServletResponse response) throws IOException{
+            response.setContentType("application/json");
+            response.setCharacterEncoding("utf-8");
+            response.getWriter().write(GSON.toJson(job.toMap()));
+        }
+    }
+    
+    /**
+     * Creates a matching job out of a request. The request is either a multipart request (with uploaded files)
+     * or contains URLs as parameters.
+     * For multipart requests, files can also be referenced by their content hash if they are in the upload cache.
+     * If a referenced file is not in the cache, the response is set to 412 (Precondition Failed) and null is returned.
+     * @param request the request
+     * @param response the response (used to transfer the content hashes which are cached)
+     * @param uploadCache the upload cache (can be null if no cache is used)
+     * @return the job (not yet submitted) or null if the response is already sent
+     * @throws ServletException if a required parameter is missing
+     * @throws IOException if the uploaded files can not be written
+     */
+    private static MatchingJob createJob(HttpServletRequest request, HttpServletResponse response, UploadCache uploadCache) throws ServletException, IOException {
+        // we expect a source and a target
+        if(isMultipartContent(request)){
+            LOGGER.info("Got multipart request");
+            List<File> uploadedFiles = new ArrayList<>();
+            Set<String> cachedHashes = new LinkedHashSet<>();
+            Set<String> missingHashes = new LinkedHashSet<>();
+            File sourceFile, targetFile, inputAlignmentFile, parametersFile;
+            try{
+                sourceFile = receiveFile(request, "source", uploadCache, uploadedFiles, cachedHashes, missingHashes);
+                targetFile = receiveFile(request, "target", uploadCache, uploadedFiles, cachedHashes, missingHashes);
+                inputAlignmentFile = receiveFile(request, "inputAlignment", uploadCache, uploadedFiles, cachedHashes, missingHashes);
+                parametersFile = receiveFile(request, "parameters", uploadCache, uploadedFiles, cachedHashes, missingHashes);
+                if(missingHashes.isEmpty() == false){
+                    LOGGER.info("Content with hash(es) {} is not in the upload cache. Request the full content.", missingHashes);
+                    deleteFiles(uploadedFiles);
+                    response.setHeader(MatcherHTTPCall.HEADER_MISSING_CONTENT, String.join(",", missingHashes));
+                    response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+                    response.getWriter().write("Content is not available on the server. Send the full content.");
+                    return null;
+                }
+                if(sourceFile == null){
                     throw new ServletException("No multipart parameter source");
                 }
-                Part target = request.getPart("target");
-                if(target == null){
+                if(targetFile == null){
                     throw new ServletException("No multipart parameter target");
                 }
-                Part inputAlignment = request.getPart("inputAlignment");
-                Part parameters = request.getPart("parameters");
-                
-                File sourceFile = getFile(source, "source");
-                File targetFile = getFile(target, "target");
                 if(sourceFile.length() == 0){
                     throw new ServletException("Source file is empty");
                 }
                 if(targetFile.length() == 0){
                     throw new ServletException("Target file is empty");
                 }
-                File inputAlignmentFile = getFile(inputAlignment, "inputAlignment");
-                File parametersFile = getFile(parameters, "parameters");
-                
-                URL inputAlignmentURL = null;
-                if(inputAlignmentFile != null)
-                    inputAlignmentURL = inputAlignmentFile.toURI().toURL();
-                
-                URL parametersURL = null;
-                if(parametersFile != null)
-                    parametersURL = parametersFile.toURI().toURL();
-                    
-                URL resultURL = runTool(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL);
-                
-                sourceFile.delete();
-                targetFile.delete();
-                if(inputAlignmentFile != null)
-                    inputAlignmentFile.delete();
-                if(parametersFile != null)
-                    parametersFile.delete();
-                
-                if(resultURL != null){
-                    sendFileContent(resultURL, response);
-                }
+            }catch(ServletException | IOException ex){
+                deleteFiles(uploadedFiles);
+                throw ex;
+            }
+            if(cachedHashes.isEmpty() == false){
+                response.setHeader(MatcherHTTPCall.HEADER_CACHED_CONTENT, String.join(",", cachedHashes));
+            }
+            
+            URL inputAlignmentURL = null;
+            if(inputAlignmentFile != null)
+                inputAlignmentURL = inputAlignmentFile.toURI().toURL();
+            
+            URL parametersURL = null;
+            if(parametersFile != null)
+                parametersURL = parametersFile.toURI().toURL();
+            
+            return new MatchingJob(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL, uploadedFiles);
+        }else{
+            LOGGER.info("Got URL request");
+            String sourceParam = request.getParameter("source");
+            if(sourceParam == null ){
+                throw new ServerException("No parameter source");
+            }
+            String targetParam = request.getParameter("target");
+            if(targetParam == null ){
+                throw new ServerException("No parameter target");
+            }
+            URL inputAlignment = null;
+            String inputAlignmentStr = request.getParameter("inputAlignment");
+            if(inputAlignmentStr != null)
+                inputAlignment = new URL(inputAlignmentStr);
+            
+            URL parameters = null;
+            String parametersStr = request.getParameter("parameters");
+            if(parametersStr != null)
+                parameters = new URL(parametersStr);
+            
+            return new MatchingJob(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters, null);
+        }
+    }
+    
+    /**
+     * Receives one file of a multipart request. The file is either uploaded (and optionally gzip compressed)
+     * or referenced by its content hash (in the field name + "Hash") if the server holds it in the upload cache.
+     * Uploaded files with a content hash are added to the cache.
+     * @param request the request
+     * @param name the name of the part
+     * @param uploadCache the upload cache (can be null)
+     * @param uploadedFiles all received files are added to this list
+     * @param cachedHashes the hashes of the files which are in the upload cache are added to this set
+     * @param missingHashes the hashes of the referenced files which are not in the upload cache are added to this set
+     * @return the received file or null if the part is not given or missing in the cache
+     * @throws ServletException if the part can not be read
+     * @throws IOException if the file can not be written
+     */
+    private static File receiveFile(HttpServletRequest request, String name, UploadCache uploadCache, 
+            List<File> uploadedFiles, Set<String> cachedHashes, Set<String> missingHashes) throws ServletException, IOException{
+        String hash = null;
+        if(uploadCache != null){
+            hash = getPartAsString(request.getPart(name + MatcherHTTPCall.CONTENT_HASH_SUFFIX));
+            if(hash != null && UploadCache.isValidHash(hash) == false){
+                LOGGER.warn("Ignore invalid content hash for {}", name);
+                hash = null;
+            }
+        }
+        Part part = request.getPart(name);
+        if(part == null){
+            if(hash == null)
+                return null;
+            File cachedFile = uploadCache.provide(hash, LOCATION, name, getRandomNumber());
+            if(cachedFile == null){
+                missingHashes.add(hash);
+                return null;
+            }
+            LOGGER.info("Use cached content for {}", name);
+            uploadedFiles.add(cachedFile);
+            cachedHashes.add(hash);
+            return cachedFile;
+        }
+        File file = getFile(part, name);
+        uploadedFiles.add(file);
+        if(hash != null){
+            String actualHash;
+            try(InputStream in = new FileInputStream(file)){
+                actualHash = MatcherHTTPCall.computeContentHash(in);
+            }
+            if(actualHash.equals(hash)){
+                uploadCache.put(hash, file, getFilenameExtension(file.getName(), "rdf"));
+                cachedHashes.add(hash);
             }else{
-                LOGGER.info("Got URL request - start matching");
-                String sourceParam = request.getParameter("source");
-                if(sourceParam == null ){
-                    throw new ServerException("No parameter source");
-                }
-                String targetParam = request.getParameter("target");
-                if(targetParam == null ){
-                    throw new ServerException("No parameter target");
-                }
-                URL inputAlignment = null;
-                String inputAlignmentStr = request.getParameter("inputAlignment");
-                if(inputAlignmentStr != null)
-                    inputAlignment = new URL(inputAlignmentStr);
-                
-                URL parameters = null;
-                String parametersStr = request.getParameter("parameters");
-                if(parametersStr != null)
-                    parameters = new URL(parametersStr);
-                        
-                URL resultURL = runTool(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters);
-                
-                if(resultURL != null)
-                    response.getWriter().write(resultURL.toString());
+                LOGGER.warn("The content hash of {} does not match the uploaded content. The file is not cached.", name);
             }
-            LOGGER.info("Finished matching");
+        }
+        return file;
+    }
+    
+    private static String getPartAsString(Part part) throws IOException{
+        if(part == null)
+            return null;
+        try(InputStream in = part.getInputStream()){
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int length; (length = in.read(buffer)) != -1; ) {
+                result.write(buffer, 0, length);
+            }
+            return result.toString(StandardCharsets.UTF_8.name()).trim();
+        }
+    }
+    
+    private static void deleteFiles(List<File> files){
+        for(File f : files)
+            f.delete();
+    }
+    
+    /**
+     * Submits the job. If the queue is full, the response is set to 503 (Service Unavailable).
+     * @param job the job to submit
+     * @param jobQueue the queue
+     * @param response the response
+     * @return true if the job is submitted, false if the queue is full
+     * @throws IOException if the response can not be written
+     */
+    private static boolean submitJob(MatchingJob job, MatchingJobQueue jobQueue, HttpServletResponse response) throws IOException{
+        try{
+            jobQueue.submit(job);
+            return true;
+        }catch(RejectedExecutionException ex){
+            LOGGER.warn("Matching queue is full - reject request.");
+            response.setHeader("Retry-After", "60");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The matching queue is full. Try again later.");
+            return false;
         }
     }
     
-    private static void sendFileContent(URL url, HttpServletResponse response){
+    /**
+     * Sends the result of a finished job. For uploaded ontologies, the content of the alignment file is sent.
+     * Otherwise only the URL of the alignment is returned.
+     * @param job the finished job
+     * @param response the response
+     * @param deleteFile true if the result file should be deleted after it is sent
+     * @throws IOException if the response can not be written
+     */
+    private static void sendResult(MatchingJob job, HttpServletResponse response, boolean deleteFile) throws IOException{
+        URL resultURL = job.getResult();
+        if(resultURL == null)
+            return;
+        if(job.isUploaded()){
+            sendFileContent(resultURL, response, deleteFile);
+        }else{
+            response.getWriter().write(resultURL.toString());
+        }
+    }
+    
+    private static void sendFileContent(URL url, HttpServletResponse response, boolean deleteFile){
         File mappingFile;
         try {
             mappingFile = new File(url.toURI());
@@ -188,52 +472,13 @@ public class Main {
         } catch (IOException ex) {
             LOGGER.error("Could not send the mapping file.", ex);
         }finally{
-            mappingFile.delete();
+            if(deleteFile)
+                mappingFile.delete();
         }
     }
     
-    
-    private static URL runTool(URL source, URL target, URL inputAlignment, URL parameters) throws ServletException{
-        String mainClass;
-        try {
-            mainClass = MainMatcherClassExtractor.extractMainClass();
-        } catch (IOException ex) {
-            LOGGER.error("Could not extract Main class name. Do nothing." + ex.getMessage());
-            return null;
-        }
-        //mainClass = "de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.BaselineStringMatcher";
-        
-        LOGGER.info("Server starts matcher class {} for task:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}", 
-                mainClass, source, target, inputAlignment, parameters);
-        
-        AlignmentAndParameters result = null;
-        try {
-            result = GenericMatcherCaller.runMatcher(mainClass, source, target, inputAlignment, parameters);
-        } catch (Exception ex) {
-            LOGGER.error("Exception during matching.", ex);
-            throw new ServletException(ex);
-        }
-        if(result.getAlignment() == null){
-            LOGGER.error("The resulting alignment of the matcher is null.");
-            throw new ServletException("The resulting alignment of the matcher is null.");
-        }
-        try {
-            return TypeTransformerRegistry.getTransformedObject(result.getAlignment(), URL.class);
-        } catch (TypeTransformationException ex) {
-            LOGGER.error("Cannot transform the alignment to a URL and then to a file.", ex);
-            throw new ServletException("Cannot transform the alignment to a URL and then to a file.");
-        }
-    }
-    
-    
-    
-    private static FilterHolder getQoSFilter(int maxRequests){
-        FilterHolder holder = new FilterHolder(new QoSFilter());
-        holder.setInitParameter("maxRequests", String.valueOf(maxRequests));
-        return holder;
-    }
-    
     private static final String MULTIPART = "multipart/";
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
     
     /**
      * Determines whether the request contains multipart content.
@@ -270,13 +515,28 @@ public class Main {
     
     private static final SecureRandom random = new SecureRandom();
 
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("[A-Za-z0-9]+");
+    
+    private static String getRandomNumber(){
+        long n = random.nextLong();
+        n = (n == Long.MIN_VALUE) ? 0 : Math.abs(n);
+        return Long.toString(n);
+    }
+
     private static File getFile(Part part, String prefix) throws IOException{
         if(part == null)
             return null;
-        long n = random.nextLong();
-        n = (n == Long.MIN_VALUE) ? 0 : Math.abs(n);
-        
-        String filename = prefix + "-" + Long.toString(n) + "." + getFilenameExtension(part.getSubmittedFileName(), "rdf");
+        String filename = prefix + "-" + getRandomNumber() + "." + getFilenameExtension(part.getSubmittedFileName(), "rdf");
+        String contentType = part.getContentType();
+        if(contentType != null && contentType.toLowerCase().startsWith(GZIP_CONTENT_TYPE)){
+            //compressed by the client - store it uncompressed because the matcher expects the plain file
+            File file = new File(LOCATION, filename);
+            try(InputStream in = new GZIPInputStream(part.getInputStream())){
+                Files.copy(in, file.toPath());
+            }
+            part.delete();
+            return file;
+        }
         part.write(filename);
         return new File(LOCATION, filename);
     }
@@ -288,9 +548,40 @@ public class Main {
         final int index = filename.lastIndexOf('.');
         if (index == -1) {
             return defaultValue;
-        } else {
-            return filename.substring(index + 1);
         }
+        String extension = filename.substring(index + 1);
+        //the extension is part of the filename on the server - thus only allow simple extensions
+        if (EXTENSION_PATTERN.matcher(extension).matches() == false) {
+            return defaultValue;
+        }
+        return extension;
+    }
+    
+    /**
+     * Filter which announces the capabilities of this server (see {@link MatcherHTTPCall#HEADER_CAPABILITIES}) in every response.
+     */
+    private static class CapabilitiesFilter implements Filter {
+        private final String capabilities;
+
+        CapabilitiesFilter(boolean uploadCacheEnabled) {
+            this.capabilities = uploadCacheEnabled ? 
+                    MatcherHTTPCall.CAPABILITY_GZIP_PARTS + "," + MatcherHTTPCall.CAPABILITY_CONTENT_HASH : 
+                    MatcherHTTPCall.CAPABILITY_GZIP_PARTS;
+        }
+
+        @Override
+        public void init(FilterConfig filterConfig) throws ServletException { }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if(response instanceof HttpServletResponse){
+                ((HttpServletResponse) response).setHeader(MatcherHTTPCall.HEADER_CAPABILITIES, capabilities);
+            }
+            chain.doFilter(request, response);
+        }
+
+        @Override
+        public void destroy() { }
     }
     
     private static int getPort(){
@@ -307,16 +598,19 @@ public class Main {
     }
     
     private static int getMaxParallelRequests(){
-        int maxRequests = 1;
-        String max = System.getenv("MELT_MAX_REQUESTS");
-        if(max != null){
+        return getIntFromEnvironment("MELT_MAX_REQUESTS", 1);
+    }
+    
+    private static int getIntFromEnvironment(String name, int defaultValue){
+        String value = System.getenv(name);
+        if(value != null){
             try{
-                maxRequests = Integer.parseInt(max);
+                return Integer.parseInt(value);
             }catch(NumberFormatException e){
-                LOGGER.warn("could not parse MELT_MAX_REQUESTS - using default value of 1");
+                LOGGER.warn("could not parse {} - using default value of {}", name, defaultValue);
             }
         }
-        return maxRequests;
+        return defaultValue;
     }
     
     private static File getLocation(){
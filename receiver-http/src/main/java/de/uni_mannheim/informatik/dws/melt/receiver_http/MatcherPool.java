@@ -0,0 +1,82 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of matcher instances which are created once when the server starts.
+ * Thus the time for loading models etc. in the constructor of the matcher is only paid once and not for every request.
+ * Each instance is used by only one request at a time, but the same instance is used for multiple requests one after the other.
+ * If the size of the pool is zero, a new matcher instance is created for each request.
+ */
+public class MatcherPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatcherPool.class);
+
+    private final String mainClass;
+    private final int size;
+    private final BlockingQueue<Object> idleMatchers;
+
+    /**
+     * Constructor which directly creates all matcher instances.
+     * @param mainClass the fully qualified name of the matcher class
+     * @param size the number of matcher instances (zero to create a new instance for each request)
+     * @throws ReflectiveOperationException in case the matcher can not be instantiated
+     */
+    public MatcherPool(String mainClass, int size) throws ReflectiveOperationException {
+        this.mainClass = mainClass;
+        this.size = Math.max(0, size);
+        this.idleMatchers = new ArrayBlockingQueue<>(Math.max(1, this.size));
+        if (this.size > 0) {
+            LOGGER.info("Create {} instance(s) of matcher class {}", this.size, mainClass);
+            long startTime = System.nanoTime();
+            Class<?> clazz = Class.forName(mainClass);
+            for (int i = 0; i < this.size; i++) {
+                this.idleMatchers.add(clazz.getDeclaredConstructor().newInstance());
+            }
+            LOGGER.info("Created matcher instance(s) in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
+    /**
+     * Runs a matcher of the pool. If all instances are in use, this method blocks until one is available.
+     * @param source the source ontology / knowledge graph
+     * @param target the target ontology / knowledge graph
+     * @param inputAlignment the input alignment (can be null)
+     * @param parameters the parameters (can be null)
+     * @return the alignment and parameters returned by the matcher
+     * @throws Exception in case the matcher throws an exception
+     */
+    public AlignmentAndParameters runMatcher(URL source, URL target, URL inputAlignment, URL parameters) throws Exception {
+        if (this.size == 0) {
+            return GenericMatcherCaller.runMatcher(mainClass, source, target, inputAlignment, parameters);
+        }
+        Object matcher = this.idleMatchers.take();
+        try {
+            return GenericMatcherCaller.runMatcher(matcher, source, target, inputAlignment, parameters);
+        } finally {
+            this.idleMatchers.add(matcher);
+        }
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of matcher instances which are currently not in use.
+     * @return the number of idle matchers
+     */
+    public int getIdleCount() {
+        return this.idleMatchers.size();
+    }
+}
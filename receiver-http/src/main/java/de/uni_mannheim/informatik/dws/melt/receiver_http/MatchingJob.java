@@ -0,0 +1,205 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One matching task which is executed by the {@link MatchingJobQueue}.
+ * It contains the inputs (as URLs), the state and the result of the matching.
+ * Uploaded files are owned by the job and deleted as soon as the matching is finished.
+ */
+public class MatchingJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatchingJob.class);
+
+    /**
+     * The state of a job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, FINISHED, FAILED
+    }
+
+    private final String id;
+    private final URL source;
+    private final URL target;
+    private final URL inputAlignment;
+    private final URL parameters;
+    private final List<File> uploadedFiles;
+    private final boolean uploaded;
+    private final CountDownLatch done;
+
+    private volatile Status status;
+    private volatile URL result;
+    private volatile String errorMessage;
+    private final long submitTime;
+    private volatile long startTime;
+    private volatile long finishTime;
+
+    /**
+     * Constructor
+     * @param source the source ontology / knowledge graph
+     * @param target the target ontology / knowledge graph
+     * @param inputAlignment the input alignment (can be null)
+     * @param parameters the parameters (can be null)
+     * @param uploadedFiles the files which are uploaded for this job and should be deleted after matching (empty if URLs are given).
+     */
+    public MatchingJob(URL source, URL target, URL inputAlignment, URL parameters, List<File> uploadedFiles) {
+        this.id = UUID.randomUUID().toString();
+        this.source = source;
+        this.target = target;
+        this.inputAlignment = inputAlignment;
+        this.parameters = parameters;
+        this.uploadedFiles = uploadedFiles == null ? new ArrayList<>() : uploadedFiles;
+        this.uploaded = this.uploadedFiles.isEmpty() == false;
+        this.done = new CountDownLatch(1);
+        this.status = Status.QUEUED;
+        this.submitTime = System.currentTimeMillis();
+    }
+
+    void started() {
+        this.startTime = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+    }
+
+    void finished(URL result) {
+        this.result = result;
+        this.finishTime = System.currentTimeMillis();
+        this.status = Status.FINISHED;
+        deleteUploadedFiles();
+        this.done.countDown();
+    }
+
+    void failed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishTime = System.currentTimeMillis();
+        this.status = Status.FAILED;
+        deleteUploadedFiles();
+        this.done.countDown();
+    }
+
+    /**
+     * Waits until the job is finished or failed.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        this.done.await();
+    }
+
+    /**
+     * Returns true if the job is finished or failed.
+     * @return true if the job is done
+     */
+    public boolean isDone() {
+        return this.status == Status.FINISHED || this.status == Status.FAILED;
+    }
+
+    private void deleteUploadedFiles() {
+        for (File f : this.uploadedFiles) {
+            if (f.exists() && f.delete() == false) {
+                LOGGER.warn("Could not delete uploaded file {}", f);
+            }
+        }
+    }
+
+    /**
+     * Deletes all files of this job (uploaded files and the result file).
+     */
+    void deleteFiles() {
+        deleteUploadedFiles();
+        File resultFile = getResultFile();
+        if (resultFile != null && resultFile.exists() && resultFile.delete() == false) {
+            LOGGER.warn("Could not delete result file {}", resultFile);
+        }
+    }
+
+    /**
+     * Returns the result as a local file.
+     * @return the result file or null if the job has no result or the result is not a local file
+     */
+    public File getResultFile() {
+        URL r = this.result;
+        if (r == null || "file".equals(r.getProtocol()) == false) {
+            return null;
+        }
+        try {
+            return new File(r.toURI());
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a map which describes the state of this job (used for the JSON representation).
+     * @return the state of this job
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", this.id);
+        map.put("status", this.status.name());
+        map.put("submitTime", this.submitTime);
+        if (this.startTime > 0) {
+            map.put("startTime", this.startTime);
+        }
+        if (this.finishTime > 0) {
+            map.put("finishTime", this.finishTime);
+            map.put("runtimeMs", this.finishTime - this.startTime);
+        }
+        if (this.errorMessage != null) {
+            map.put("error", this.errorMessage);
+        }
+        return map;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public URL getSource() {
+        return source;
+    }
+
+    public URL getTarget() {
+        return target;
+    }
+
+    public URL getInputAlignment() {
+        return inputAlignment;
+    }
+
+    public URL getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns true if the ontologies are uploaded as files (multipart request) and false if only URLs are given.
+     * @return true if the ontologies are uploaded
+     */
+    public boolean isUploaded() {
+        return uploaded;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public URL getResult() {
+        return result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getFinishTime() {
+        return finishTime;
+    }
+}
@@ -0,0 +1,191 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes matching jobs with a fixed number of workers and a queue of waiting jobs.
+ * By default the queue is unbounded. If a maximum queue size is given and the queue is full, new jobs are rejected
+ * (the servlets answer with 503 Service Unavailable and the client retries later) instead of letting the requests pile up in the server.
+ * Finished jobs are kept for a retention time such that the result can be fetched asynchronously.
+ */
+public class MatchingJobQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatchingJobQueue.class);
+
+    private final MatcherPool matcherPool;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService cleaner;
+    private final Map<String, MatchingJob> jobs;
+    private final Map<String, Future<?>> futures;
+    private final long retentionMillis;
+
+    /**
+     * Constructor
+     * @param matcherPool the pool of matchers which executes the jobs
+     * @param workers the number of jobs which are executed in parallel
+     * @param maxQueueSize the maximum number of jobs which wait for execution (zero or less for an unbounded queue)
+     * @param retentionMinutes the number of minutes a finished job (and its result) is kept
+     */
+    public MatchingJobQueue(MatcherPool matcherPool, int workers, int maxQueueSize, long retentionMinutes) {
+        this.matcherPool = matcherPool;
+        int numberOfWorkers = Math.max(1, workers);
+        this.executor = new ThreadPoolExecutor(numberOfWorkers, numberOfWorkers, 0L, TimeUnit.MILLISECONDS,
+                maxQueueSize > 0 ? new ArrayBlockingQueue<>(maxQueueSize) : new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("melt-matching-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.jobs = new ConcurrentHashMap<>();
+        this.futures = new ConcurrentHashMap<>();
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(Math.max(0, retentionMinutes));
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("melt-job-cleaner"));
+        this.cleaner.scheduleWithFixedDelay(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Submits a job for execution.
+     * @param job the job
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void submit(MatchingJob job) {
+        this.jobs.put(job.getId(), job);
+        //register the future before the execution starts, otherwise a fast job could remove it before it is added
+        FutureTask<Void> future = new FutureTask<>(() -> execute(job), null);
+        this.futures.put(job.getId(), future);
+        try {
+            this.executor.execute(future);
+        } catch (RejectedExecutionException ex) {
+            this.futures.remove(job.getId());
+            this.jobs.remove(job.getId());
+            job.failed("The matching queue is full.");
+            throw ex;
+        }
+        LOGGER.info("Submitted job {} (queued jobs: {})", job.getId(), this.executor.getQueue().size());
+    }
+
+    private void execute(MatchingJob job) {
+        job.started();
+        LOGGER.info("Start job {} with matcher class {}:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}",
+                job.getId(), matcherPool.getMainClass(), job.getSource(), job.getTarget(), job.getInputAlignment(), job.getParameters());
+        try {
+            AlignmentAndParameters result = this.matcherPool.runMatcher(job.getSource(), job.getTarget(), job.getInputAlignment(), job.getParameters());
+            if (result.getAlignment() == null) {
+                LOGGER.error("The resulting alignment of the matcher is null.");
+                job.failed("The resulting alignment of the matcher is null.");
+                return;
+            }
+            job.finished(TypeTransformerRegistry.getTransformedObject(result.getAlignment(), URL.class));
+            LOGGER.info("Finished job {}", job.getId());
+        } catch (TypeTransformationException ex) {
+            LOGGER.error("Cannot transform the alignment to a URL and then to a file.", ex);
+            job.failed("Cannot transform the alignment to a URL and then to a file.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.failed("The job was cancelled.");
+        } catch (Exception ex) {
+            LOGGER.error("Exception during matching.", ex);
+            job.failed("Exception during matching: " + ex.getMessage());
+        } finally {
+            this.futures.remove(job.getId());
+        }
+    }
+
+    /**
+     * Returns the job with the given id.
+     * @param id the job id
+     * @return the job or null if there is no such job (or it is already removed)
+     */
+    public MatchingJob getJob(String id) {
+        return this.jobs.get(id);
+    }
+
+    /**
+     * Removes the job with the given id. A queued job is cancelled, a running job is interrupted.
+     * All files of the job (including the result) are deleted.
+     * @param id the job id
+     * @return the removed job or null if there is no such job
+     */
+    public MatchingJob removeJob(String id) {
+        MatchingJob job = this.jobs.remove(id);
+        if (job == null) {
+            return null;
+        }
+        Future<?> future = this.futures.remove(id);
+        if (future != null && future.cancel(true) && job.isDone() == false) {
+            job.failed("The job was cancelled.");
+        }
+        job.deleteFiles();
+        return job;
+    }
+
+    /**
+     * Removes a job from the list of jobs without deleting its files.
+     * This is used for synchronous requests which take care of the result file on their own.
+     * @param id the job id
+     */
+    void forgetJob(String id) {
+        this.jobs.remove(id);
+    }
+
+    private void removeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        Iterator<MatchingJob> iterator = this.jobs.values().iterator();
+        while (iterator.hasNext()) {
+            MatchingJob job = iterator.next();
+            if (job.isDone() && now - job.getFinishTime() > this.retentionMillis) {
+                LOGGER.info("Remove expired job {}", job.getId());
+                iterator.remove();
+                job.deleteFiles();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of jobs which wait for execution.
+     * @return the number of queued jobs
+     */
+    public int getQueuedCount() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Stops the workers and the cleanup.
+     */
+    public void shutdown() {
+        this.cleaner.shutdownNow();
+        this.executor.shutdownNow();
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
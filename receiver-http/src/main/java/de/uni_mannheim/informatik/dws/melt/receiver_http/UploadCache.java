@@ -0,0 +1,185 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A content addressed cache of uploaded files.
+ * The key is the content hash (SHA-256) computed by the client (see MatcherHTTPCall) and verified by the server.
+ * Thus a client which sends the same ontology in many test cases only needs to upload it once.
+ * If the cache exceeds its maximum size, the least recently used files are removed.
+ * Each job gets its own copy (a hard link if possible) of the cached file, thus the eviction does not affect running jobs.
+ * This class is thread safe.
+ */
+public class UploadCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadCache.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final File directory;
+    private final long maxBytes;
+    /**
+     * Map from content hash to the cached file (in access order for the LRU eviction).
+     */
+    private final LinkedHashMap<String, File> entries;
+    private long currentBytes;
+
+    /**
+     * Constructor. Files which are already in the directory (from a previous run) are reused.
+     * @param directory the directory where the cached files are stored
+     * @param maxBytes the maximum number of bytes of all cached files
+     */
+    public UploadCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.currentBytes = 0;
+        this.directory.mkdirs();
+        File[] existingFiles = this.directory.listFiles(File::isFile);
+        if (existingFiles != null) {
+            Arrays.sort(existingFiles, Comparator.comparingLong(File::lastModified));
+            for (File f : existingFiles) {
+                String hash = getHash(f.getName());
+                if (isValidHash(hash)) {
+                    this.entries.put(hash, f);
+                    this.currentBytes += f.length();
+                }
+            }
+            evict();
+            if (this.entries.isEmpty() == false) {
+                LOGGER.info("Reuse {} file(s) of the upload cache in {}", this.entries.size(), this.directory);
+            }
+        }
+    }
+
+    /**
+     * Adds an uploaded file to the cache. The file itself is not modified (the cache uses its own hard link or copy).
+     * @param hash the content hash of the file (already verified)
+     * @param file the uploaded file
+     * @param extension the file extension (without dot) which is used when the file is provided again
+     */
+    public synchronized void put(String hash, File file, String extension) {
+        if (isValidHash(hash) == false) {
+            return;
+        }
+        if (this.entries.containsKey(hash)) {
+            this.entries.get(hash); // update access order
+            return;
+        }
+        File cacheFile = new File(this.directory, hash + "." + extension);
+        try {
+            linkOrCopy(file, cacheFile);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not add file {} to the upload cache.", file, ex);
+            return;
+        }
+        this.entries.put(hash, cacheFile);
+        this.currentBytes += cacheFile.length();
+        evict();
+    }
+
+    /**
+     * Provides the cached content with the given hash as a new file (hard link or copy) which is owned by the caller.
+     * @param hash the content hash
+     * @param targetDirectory the directory of the new file
+     * @param prefix the prefix of the filename
+     * @param randomPart a random part of the filename which makes it unique
+     * @return the new file or null if the content is not in the cache
+     */
+    public synchronized File provide(String hash, File targetDirectory, String prefix, String randomPart) {
+        File cacheFile = this.entries.get(hash);
+        if (cacheFile == null) {
+            return null;
+        }
+        if (cacheFile.exists() == false) {
+            this.entries.remove(hash);
+            return null;
+        }
+        File target = new File(targetDirectory, prefix + "-" + randomPart + "." + getExtension(cacheFile.getName()));
+        try {
+            linkOrCopy(cacheFile, target);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not provide file {} of the upload cache.", cacheFile, ex);
+            return null;
+        }
+        return target;
+    }
+
+    /**
+     * Returns true if the content with the given hash is in the cache.
+     * @param hash the content hash
+     * @return true if it is cached
+     */
+    public synchronized boolean contains(String hash) {
+        return this.entries.containsKey(hash);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, File>> iterator = this.entries.entrySet().iterator();
+        while (this.currentBytes > this.maxBytes && iterator.hasNext()) {
+            Map.Entry<String, File> eldest = iterator.next();
+            File f = eldest.getValue();
+            this.currentBytes -= f.length();
+            iterator.remove();
+            LOGGER.debug("Remove {} from the upload cache", f);
+            if (f.delete() == false) {
+                LOGGER.warn("Could not delete file {} of the upload cache.", f);
+            }
+        }
+    }
+
+    private static void linkOrCopy(File source, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (IOException | UnsupportedOperationException ex) {
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Checks if the given string is a valid content hash (lowercase hex SHA-256).
+     * This also ensures that the hash can be safely used as a filename.
+     * @param hash the hash to check
+     * @return true if it is valid
+     */
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    private static String getHash(String filename) {
+        int index = filename.indexOf('.');
+        return index < 0 ? filename : filename.substring(0, index);
+    }
+
+    private static String getExtension(String filename) {
+        int index = filename.indexOf('.');
+        return index < 0 ? "rdf" : filename.substring(index + 1);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the number of bytes of all cached files.
+     * @return the current size in bytes
+     */
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+}
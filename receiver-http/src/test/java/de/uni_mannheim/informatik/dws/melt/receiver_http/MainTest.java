@@ -0,0 +1,134 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainTest {
+
+    private static final String SOURCE = "http://example.com/source.rdf";
+    private static final String TARGET = "http://example.com/target.rdf";
+
+    private Server server;
+    private MatchingJobQueue jobQueue;
+
+    @AfterEach
+    void stopServer() throws Exception {
+        CountDownLatch latch = TestURLMatcher.block;
+        if (latch != null) {
+            latch.countDown();
+        }
+        TestURLMatcher.block = null;
+        if (server != null) {
+            server.stop();
+        }
+        if (jobQueue != null) {
+            jobQueue.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitAndPollJob() throws Exception {
+        String base = startServer(0);
+
+        HttpURLConnection submit = post(base + "/jobs");
+        assertEquals(202, submit.getResponseCode());
+        Map<?, ?> job = new Gson().fromJson(readAll(submit.getInputStream()), Map.class);
+        String id = (String) job.get("id");
+        assertEquals("/jobs/" + id, submit.getHeaderField("Location"));
+
+        String status = null;
+        for (int i = 0; i < 100; i++) {
+            HttpURLConnection poll = (HttpURLConnection) new URL(base + "/jobs/" + id).openConnection();
+            assertEquals(200, poll.getResponseCode());
+            status = (String) new Gson().fromJson(readAll(poll.getInputStream()), Map.class).get("status");
+            if (status.equals("FINISHED") || status.equals("FAILED")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertEquals("FINISHED", status);
+
+        HttpURLConnection result = (HttpURLConnection) new URL(base + "/jobs/" + id + "/result").openConnection();
+        assertEquals(200, result.getResponseCode());
+        assertEquals(SOURCE, readAll(result.getInputStream()));
+
+        HttpURLConnection delete = (HttpURLConnection) new URL(base + "/jobs/" + id).openConnection();
+        delete.setRequestMethod("DELETE");
+        assertEquals(200, delete.getResponseCode());
+        assertEquals(404, ((HttpURLConnection) new URL(base + "/jobs/" + id).openConnection()).getResponseCode());
+    }
+
+    @Test
+    void testFullQueueAnswersServiceUnavailable() throws Exception {
+        TestURLMatcher.block = new CountDownLatch(1);
+        String base = startServer(1);
+        //one running and one queued job
+        MatchingJob running = new MatchingJob(new URL(SOURCE), new URL(TARGET), null, null, null);
+        MatchingJob queued = new MatchingJob(new URL(SOURCE), new URL(TARGET), null, null, null);
+        jobQueue.submit(running);
+        jobQueue.submit(queued);
+
+        HttpURLConnection rejected = post(base + "/match");
+        assertEquals(503, rejected.getResponseCode());
+        assertEquals("60", rejected.getHeaderField("Retry-After"));
+
+        TestURLMatcher.block.countDown();
+        running.awaitCompletion();
+        queued.awaitCompletion();
+        HttpURLConnection accepted = post(base + "/match");
+        assertEquals(200, accepted.getResponseCode());
+        assertEquals(SOURCE, readAll(accepted.getInputStream()));
+    }
+
+    private String startServer(int maxQueueSize) throws Exception {
+        jobQueue = new MatchingJobQueue(new MatcherPool(TestURLMatcher.class.getName(), 0), 1, maxQueueSize, 60);
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/");
+        context.addServlet(new ServletHolder(new Main.MatcherServlet(jobQueue, null)), "/match");
+        context.addServlet(new ServletHolder(new Main.JobServlet(jobQueue, null)), "/jobs/*");
+        server.setHandler(context);
+        server.start();
+        return "http://127.0.0.1:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+    }
+
+    private static HttpURLConnection post(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        String body = "source=" + URLEncoder.encode(SOURCE, "UTF-8") + "&target=" + URLEncoder.encode(TARGET, "UTF-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int length; (length = input.read(buffer)) != -1; ) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
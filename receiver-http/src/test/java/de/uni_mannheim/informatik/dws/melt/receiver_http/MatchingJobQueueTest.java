@@ -0,0 +1,114 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingJobQueueTest {
+
+    @AfterEach
+    void releaseMatchers() {
+        CountDownLatch latch = TestURLMatcher.block;
+        if (latch != null) {
+            latch.countDown();
+        }
+        TestURLMatcher.block = null;
+    }
+
+    @Test
+    void testSubmitAndPoll() throws Exception {
+        MatchingJobQueue queue = new MatchingJobQueue(new MatcherPool(TestURLMatcher.class.getName(), 0), 1, 0, 60);
+        try {
+            MatchingJob job = createJob();
+            queue.submit(job);
+            assertSame(job, queue.getJob(job.getId()));
+            job.awaitCompletion();
+            assertEquals(MatchingJob.Status.FINISHED, job.getStatus());
+            assertEquals(job.getSource(), job.getResult());
+            assertEquals("FINISHED", queue.getJob(job.getId()).toMap().get("status"));
+
+            assertSame(job, queue.removeJob(job.getId()));
+            assertNull(queue.getJob(job.getId()));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testFullQueueRejectsJobs() throws Exception {
+        TestURLMatcher.block = new CountDownLatch(1);
+        MatchingJobQueue queue = new MatchingJobQueue(new MatcherPool(TestURLMatcher.class.getName(), 0), 1, 1, 60);
+        try {
+            MatchingJob running = createJob();
+            MatchingJob queued = createJob();
+            queue.submit(running);
+            queue.submit(queued);
+            MatchingJob rejected = createJob();
+            assertThrows(RejectedExecutionException.class, () -> queue.submit(rejected));
+            assertEquals(MatchingJob.Status.FAILED, rejected.getStatus());
+            assertNull(queue.getJob(rejected.getId()));
+
+            TestURLMatcher.block.countDown();
+            running.awaitCompletion();
+            queued.awaitCompletion();
+            assertEquals(MatchingJob.Status.FINISHED, running.getStatus());
+            assertEquals(MatchingJob.Status.FINISHED, queued.getStatus());
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testQueueIsUnboundedByDefault() throws Exception {
+        TestURLMatcher.block = new CountDownLatch(1);
+        MatchingJobQueue queue = new MatchingJobQueue(new MatcherPool(TestURLMatcher.class.getName(), 0), 1, 0, 60);
+        try {
+            List<MatchingJob> jobs = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                MatchingJob job = createJob();
+                queue.submit(job);
+                jobs.add(job);
+            }
+            TestURLMatcher.block.countDown();
+            for (MatchingJob job : jobs) {
+                job.awaitCompletion();
+                assertEquals(MatchingJob.Status.FINISHED, job.getStatus());
+            }
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testMatcherPoolIsOptIn() throws Exception {
+        URL source = new URL("http://example.com/source.rdf");
+        URL target = new URL("http://example.com/target.rdf");
+
+        //no pool: a new instance for each request
+        MatcherPool noPool = new MatcherPool(TestURLMatcher.class.getName(), 0);
+        int before = TestURLMatcher.INSTANCES.get();
+        assertEquals(source, noPool.runMatcher(source, target, null, null).getAlignment());
+        assertEquals(source, noPool.runMatcher(source, target, null, null).getAlignment());
+        assertEquals(before + 2, TestURLMatcher.INSTANCES.get());
+
+        //pool: the instances are created up front and reused
+        before = TestURLMatcher.INSTANCES.get();
+        MatcherPool pool = new MatcherPool(TestURLMatcher.class.getName(), 2);
+        assertEquals(before + 2, TestURLMatcher.INSTANCES.get());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(source, pool.runMatcher(source, target, null, null).getAlignment());
+        }
+        assertEquals(before + 2, TestURLMatcher.INSTANCES.get());
+        assertEquals(2, pool.getIdleCount());
+    }
+
+    private static MatchingJob createJob() throws Exception {
+        return new MatchingJob(new URL("http://example.com/source.rdf"), new URL("http://example.com/target.rdf"), null, null, null);
+    }
+}
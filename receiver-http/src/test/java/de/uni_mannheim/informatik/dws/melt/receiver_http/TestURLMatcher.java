@@ -0,0 +1,29 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matcher which returns the source URL as alignment.
+ * It counts its instances and can be blocked until a latch is released.
+ */
+public class TestURLMatcher implements IMatcher<URL, URL, URL> {
+
+    static final AtomicInteger INSTANCES = new AtomicInteger();
+    static volatile CountDownLatch block = null;
+
+    public TestURLMatcher() {
+        INSTANCES.incrementAndGet();
+    }
+
+    @Override
+    public URL match(URL source, URL target, URL inputAlignment, URL parameters) throws Exception {
+        CountDownLatch latch = block;
+        if (latch != null) {
+            latch.await();
+        }
+        return source;
+    }
+}
@@ -8,7 +8,6 @@ import static com.googlecode.cqengine.query.QueryFactory.noQueryOptions;
 import com.googlecode.cqengine.resultset.ResultSet;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -79,19 +78,21 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
     }
     
     public Alignment(URL url) throws SAXException, IOException{
-	this(AlignmentParser.getInputStreamFromURL(url), true, true, true, true);
+	this(url, true, true, true, true);
     }
     
     public Alignment(URL url, boolean indexSource, boolean indexTarget, boolean indexRelation, boolean indexConfidence) throws SAXException, IOException{
-	this(AlignmentParser.getInputStreamFromURL(url), indexSource, indexTarget, indexRelation, indexConfidence);
+        init(indexSource, indexTarget, indexRelation, indexConfidence);
+        AlignmentParser.parse(url, this);
     }
     
     public Alignment(File f) throws SAXException, IOException{
-	this(new FileInputStream(f), true, true, true, true);
+	this(f, true, true, true, true);
     }
     
     public Alignment(File f, boolean indexSource, boolean indexTarget, boolean indexRelation, boolean indexConfidence) throws SAXException, IOException{
-	this(new FileInputStream(f), indexSource, indexTarget, indexRelation, indexConfidence);
+        init(indexSource, indexTarget, indexRelation, indexConfidence);
+        AlignmentParser.parse(f, this);
     }
     
      public Alignment(String text) throws SAXException, IOException{
@@ -128,7 +129,9 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
      * @param copyCorrespondences if true copies all information, if false copies all but no correspondences
      */
     public Alignment(Alignment alignment, boolean copyCorrespondences) {
-        init(alignment.indexSource != null, alignment.indexTarget != null, alignment.indexRelation != null, alignment.indexConfidence != null);
+        boolean allIndexes = alignment.isCopiedWithAllIndexes();
+        init(allIndexes || alignment.indexSource != null, allIndexes || alignment.indexTarget != null, 
+                allIndexes || alignment.indexRelation != null, allIndexes || alignment.indexConfidence != null);
         this.method = alignment.method;
         this.type = alignment.type;
         this.level = alignment.level;
@@ -875,6 +878,16 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
         return list.get(list.size() - 1).getConfidence();
     }
     
+    /**
+     * Returns true if a copy of this alignment (see {@link #Alignment(Alignment, boolean) }) should have all indexes,
+     * regardless of the indexes which exist in this alignment.
+     * Subclasses which do not use the CQEngine indexes at all (like {@link CompactAlignment}) override it.
+     * @return true if the copy should have all indexes.
+     */
+    protected boolean isCopiedWithAllIndexes(){
+        return false;
+    }
+    
     public void assertIndexOnSource(){
         if(this.indexSource == null){
             this.indexSource = HashIndex.onAttribute(Correspondence.SOURCE);
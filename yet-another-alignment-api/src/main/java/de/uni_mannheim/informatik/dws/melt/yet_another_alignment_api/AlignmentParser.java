@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -12,9 +13,12 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -93,18 +97,64 @@ public class AlignmentParser {
     }
     
     public static Alignment parse(URL url) throws SAXException, IOException{
-        return parse(getInputStreamFromURL(url));
+        Alignment m = new Alignment();
+        parse(url, m);
+        return m;
+    }
+
+    /**
+     * Parses the alignment behind the given URL and adds all correspondences and alignment information to the given alignment.
+     * Local files in the binary format (see {@link BinaryAlignmentSerializer}) are detected and read without XML parsing.
+     * @param url the URL of the alignment
+     * @param m the alignment which receives the correspondences
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static void parse(URL url, Alignment m) throws SAXException, IOException{
+        if(url.getProtocol().equalsIgnoreCase("file")){
+            try {
+                File file = new File(url.toURI());
+                if(BinaryAlignment.isBinaryAlignmentFile(file)){
+                    BinaryAlignment.open(file).toAlignment(m);
+                    return;
+                }
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                LOGGER.debug("Could not convert URL to file. Parse it as XML.", ex);
+            }
+        }
+        parse(getInputStreamFromURL(url), m);
     }
 
     /**
      * Parses the given file as alignment.
+     * Files in the binary format (see {@link BinaryAlignmentSerializer}) are detected and read without XML parsing.
      * @param fileToBeParsed The file that shall be parsed.
      * @return Parsed alignment instance.
      * @throws SAXException A SAXException.
      * @throws IOException An IOException.
      */
     public static Alignment parse(File fileToBeParsed) throws SAXException, IOException {
-	return parse(new FileInputStream(fileToBeParsed));
+        Alignment m = new Alignment();
+        parse(fileToBeParsed, m);
+        return m;
+    }
+
+    /**
+     * Parses the given file and adds all correspondences and alignment information to the given alignment.
+     * Files in the binary format (see {@link BinaryAlignmentSerializer}) are detected and read without XML parsing.
+     * @param fileToBeParsed The file that shall be parsed.
+     * @param m the alignment which receives the correspondences
+     * @throws SAXException A SAXException.
+     * @throws IOException An IOException.
+     */
+    public static void parse(File fileToBeParsed, Alignment m) throws SAXException, IOException {
+        if(BinaryAlignment.isBinaryAlignmentFile(fileToBeParsed)){
+            BinaryAlignment.open(fileToBeParsed).toAlignment(m);
+            return;
+        }
+        try(InputStream in = new FileInputStream(fileToBeParsed)){
+            parse(in, m);
+        }
     }
     
     public static Alignment parse(InputStream s) throws SAXException, IOException {
@@ -118,6 +168,80 @@ public class AlignmentParser {
         AlignmentHandler p = new AlignmentHandler(m);
         threadLocal.get().parse(s, p);
     }
+
+    /**
+     * Parses the alignment in a streaming fashion: the returned reader yields one correspondence after the other
+     * without keeping them in memory. The reader should be closed after usage (e.g. with try-with-resources).
+     * @param s the stream containing the alignment (it is closed by the returned reader)
+     * @return a reader which iterates over all correspondences
+     * @throws SAXException Parsing exception.
+     */
+    public static AlignmentStreamReader parseStreaming(InputStream s) throws SAXException {
+        return new AlignmentStreamReader(s);
+    }
+
+    /**
+     * Parses the alignment in a streaming fashion: the returned reader yields one correspondence after the other
+     * without keeping them in memory. The reader should be closed after usage (e.g. with try-with-resources).
+     * @param fileToBeParsed The file that shall be parsed.
+     * @return a reader which iterates over all correspondences
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static AlignmentStreamReader parseStreaming(File fileToBeParsed) throws SAXException, IOException {
+        return new AlignmentStreamReader(new BufferedInputStream(new FileInputStream(fileToBeParsed)));
+    }
+
+    /**
+     * Parses the alignment and only keeps the correspondences which are accepted by the filter.
+     * The correspondences are read in a streaming fashion, thus the rejected ones are never stored.
+     * @param s the stream containing the alignment (it will be closed)
+     * @param filter the filter which returns true for all correspondences which should be kept
+     * @return Parsed alignment instance.
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static Alignment parse(InputStream s, Predicate<Correspondence> filter) throws SAXException, IOException {
+        Alignment m = new Alignment();
+        parse(s, m, filter);
+        return m;
+    }
+
+    /**
+     * Parses the alignment and adds all correspondences which are accepted by the filter to the given alignment.
+     * The information on alignment level (ontologies, extensions etc) is also set in the given alignment.
+     * The correspondences are read in a streaming fashion, thus the rejected ones are never stored.
+     * @param s the stream containing the alignment (it will be closed)
+     * @param m the alignment which receives the correspondences
+     * @param filter the filter which returns true for all correspondences which should be kept
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static void parse(InputStream s, Alignment m, Predicate<Correspondence> filter) throws SAXException, IOException {
+        try(AlignmentStreamReader reader = new AlignmentStreamReader(s, m)){
+            while(reader.hasNext()){
+                Correspondence c = reader.nextChecked();
+                if(filter.test(c))
+                    m.add(c);
+            }
+        }
+    }
+
+    /**
+     * Parses the alignment and calls the consumer for each correspondence (in the order they appear in the file).
+     * The correspondences are read in a streaming fashion and are not stored.
+     * @param s the stream containing the alignment (it will be closed)
+     * @param consumer the callback which is called for each correspondence
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static void forEachCorrespondence(InputStream s, Consumer<Correspondence> consumer) throws SAXException, IOException {
+        try(AlignmentStreamReader reader = new AlignmentStreamReader(s)){
+            while(reader.hasNext()){
+                consumer.accept(reader.nextChecked());
+            }
+        }
+    }
     
     
     public static InputStream getInputStreamFromURL(URL url) throws IOException{
@@ -1,10 +1,15 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
 import com.google.gson.Gson;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -77,11 +82,39 @@ public class AlignmentSerializer {
      * @throws IOException Exception that occurred while serializing the alignment.
      */
     public static void serialize(Alignment alignment, OutputStream stream) throws IOException {
-        stream.write(getXmlIntro(alignment).getBytes(ENCODING));
-        for(Correspondence cell : alignment){
-            stream.write(getXmlMappingCellMultiLine(cell).getBytes(ENCODING));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, ENCODING));
+        serialize(alignment, writer);
+        writer.flush();
+    }
+    
+    /**
+     * Method to write the specified alignment to the specified writer in the <a href="https://moex.gitlabpages.inria.fr/alignapi/format.html">default XML format</a>.
+     * The correspondences are directly encoded into the writer without building intermediate strings.
+     * Thus the writer should be buffered.
+     * @param alignment The alignment that shall be written.
+     * @param writer the writer where the serialized alignment should be written to (the writer is neither flushed nor closed)
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serialize(Alignment alignment, Writer writer) throws IOException {
+        serialize(alignment, alignment, writer);
+    }
+    
+    /**
+     * Method to write the specified correspondences to the specified writer in the <a href="https://moex.gitlabpages.inria.fr/alignapi/format.html">default XML format</a>.
+     * The information on alignment level (ontologies, extensions etc) is taken from the given alignment and the correspondences
+     * from the given iterable. This allows to write correspondences which are never materialized in an alignment
+     * (e.g. when combined with {@link AlignmentStreamReader}).
+     * @param alignmentInfo the alignment which provides the information on alignment level (its correspondences are not written)
+     * @param correspondences the correspondences to write
+     * @param writer the writer where the serialized alignment should be written to (the writer is neither flushed nor closed)
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serialize(Alignment alignmentInfo, Iterable<Correspondence> correspondences, Writer writer) throws IOException {
+        writer.write(getXmlIntro(alignmentInfo));
+        for(Correspondence cell : correspondences){
+            writeXmlMappingCellMultiLine(cell, writer);
         }
-        stream.write(getXmlOutro().getBytes(ENCODING));
+        writer.write(getXmlOutro());
     }
 
     /**
@@ -90,13 +123,14 @@ public class AlignmentSerializer {
      * @return Alignment as String.
      */
     public static String serialize(Alignment alignment) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(getXmlIntro(alignment));
-        for(Correspondence cell : alignment){
-            sb.append(getXmlMappingCellMultiLine(cell));
+        StringWriter writer = new StringWriter();
+        try {
+            serialize(alignment, writer);
+        } catch (IOException ex) {
+            //does not happen for a StringWriter
+            throw new UncheckedIOException(ex);
         }
-        sb.append(getXmlOutro());
-        return sb.toString();
+        return writer.toString();
     }
 
     /**
@@ -129,25 +163,49 @@ public class AlignmentSerializer {
     }
     
     private static final Gson GSON = new Gson();
-    private static String getXmlMappingCellMultiLine(Correspondence cell){
-        StringBuilder sb = new StringBuilder();
-        sb.append("  <map>\n");
-        if(isBlank(cell.getIdentifier())) sb.append("    <Cell>\n");
-        else sb.append("    <Cell rdf:about=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getIdentifier())).append(">\n");
-        sb.append("      <entity1 rdf:resource=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getEntityOne())).append("\"/>\n");
-        sb.append("      <entity2 rdf:resource=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getEntityTwo())).append("\"/>\n");
-        sb.append("      <relation>").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getRelation().toString())).append("</relation>\n");
-        sb.append("      <measure rdf:datatype=\"xsd:float\">").append(cell.getConfidence()).append("</measure>\n");
+    private static void writeXmlMappingCellMultiLine(Correspondence cell, Writer writer) throws IOException{
+        writer.write("  <map>\n");
+        if(isBlank(cell.getIdentifier())) writer.write("    <Cell>\n");
+        else {
+            writer.write("    <Cell rdf:about=\"");
+            writeEscaped(cell.getIdentifier(), writer);
+            writer.write("\">\n");
+        }
+        writer.write("      <entity1 rdf:resource=\"");
+        writeEscaped(cell.getEntityOne(), writer);
+        writer.write("\"/>\n      <entity2 rdf:resource=\"");
+        writeEscaped(cell.getEntityTwo(), writer);
+        writer.write("\"/>\n      <relation>");
+        writeEscaped(cell.getRelation().toString(), writer);
+        writer.write("</relation>\n      <measure rdf:datatype=\"xsd:float\">");
+        writer.write(Double.toString(cell.getConfidence()));
+        writer.write("</measure>\n");
         if(cell.getExtensions() != null){
             for(HashMap.Entry<String, Object> extension : cell.getExtensions().entrySet()){
                 String extensionLabel = getExtensionLabel(extension.getKey());
-                sb.append("      <alignapilocalns:" + extensionLabel + " xmlns:alignapilocalns=\"" + getExtensionBaseUri(extension.getKey()) + "\">")
-                        .append(ESCAPE_XML_TEXT.translate(GSON.toJson(extension.getValue())) + "</alignapilocalns:" + extensionLabel + ">\n");//
+                writer.write("      <alignapilocalns:" + extensionLabel + " xmlns:alignapilocalns=\"" + getExtensionBaseUri(extension.getKey()) + "\">");
+                ESCAPE_XML_TEXT.translate(GSON.toJson(extension.getValue()), writer);
+                writer.write("</alignapilocalns:" + extensionLabel + ">\n");
             }
         }
-        sb.append("    </Cell>\n");
-        sb.append("  </map>\n");
-        return sb.toString();
+        writer.write("    </Cell>\n  </map>\n");
+    }
+    
+    /**
+     * Writes the XML 1.0 escaped text to the writer.
+     * Most URIs do not contain any character which needs to be escaped, thus they are written directly.
+     * @param text the text to escape
+     * @param writer the writer
+     */
+    private static void writeEscaped(String text, Writer writer) throws IOException{
+        for(int i = 0; i < text.length(); i++){
+            char c = text.charAt(i);
+            if(c < 0x20 || c > 0x7e || c == '&' || c == '<' || c == '>' || c == '"' || c == '\''){
+                StringEscapeUtils.ESCAPE_XML10.translate(text, writer);
+                return;
+            }
+        }
+        writer.write(text);
     }
 
 
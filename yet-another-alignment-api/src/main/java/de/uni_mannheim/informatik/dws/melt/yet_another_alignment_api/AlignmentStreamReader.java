@@ -0,0 +1,342 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * A pull based (StAX) reader for alignment files in the
+ * <a href="http://alignapi.gforge.inria.fr/format.html">Alignment Format</a>.
+ * In contrast to {@link AlignmentParser#parse(java.io.InputStream) } the correspondences are not collected in an alignment
+ * but returned one after the other. Thus only one correspondence is in memory at a time which allows to process
+ * very large alignment files (e.g. from the knowledge graph track).
+ * The information on alignment level (ontologies, type, level, and extensions) is written to the alignment
+ * returned by {@link #getAlignmentInfo() } as soon as it is read (usually before the first correspondence).
+ * The reader closes the underlying stream when the end of the document is reached or {@link #close() } is called.
+ * <pre>{@code
+ * try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(file)){
+ *     while(reader.hasNext()){
+ *         Correspondence c = reader.next();
+ *         ...
+ *     }
+ * }
+ * }</pre>
+ */
+public class AlignmentStreamReader implements Iterator<Correspondence>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlignmentStreamReader.class);
+
+    private static final String ALIGNMENT = "http://knowledgeweb.semanticweb.org/heterogeneity/alignment";
+    private static final String SOAP_ENV = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final String EDOAL = "http://ns.inria.org/edoal/1.0/#";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+    private static final Gson GSON = new Gson();
+
+    private final InputStream stream;
+    private final XMLStreamReader reader;
+    private final Alignment alignmentInfo;
+
+    private StringBuilder content;
+    private Correspondence cell;
+    private OntoInfo currentOntoInfo;
+    private boolean inCorrespondence;
+
+    /**
+     * The correspondence which is returned by the next call to {@link #next() } or null if the end is reached.
+     */
+    private Correspondence nextCorrespondence;
+
+    /**
+     * Constructor which reads the alignment from the given stream.
+     * @param stream the stream containing the alignment (it is closed by this reader)
+     * @throws SAXException in case the alignment is not well formed
+     */
+    public AlignmentStreamReader(InputStream stream) throws SAXException {
+        this(stream, new Alignment(false, false, false, false));
+    }
+
+    /**
+     * Constructor which reads the alignment from the given stream.
+     * @param stream the stream containing the alignment (it is closed by this reader)
+     * @param alignmentInfo the alignment which receives the information on alignment level like ontologies and extensions.
+     *  The correspondences are NOT added to this alignment.
+     * @throws SAXException in case the alignment is not well formed
+     */
+    public AlignmentStreamReader(InputStream stream, Alignment alignmentInfo) throws SAXException {
+        this.stream = stream;
+        this.alignmentInfo = alignmentInfo;
+        this.content = null;
+        this.cell = new Correspondence();
+        this.currentOntoInfo = new OntoInfo();
+        this.inCorrespondence = false;
+        try {
+            this.reader = FACTORY.createXMLStreamReader(stream);
+            this.nextCorrespondence = readNext();
+        } catch (XMLStreamException ex) {
+            closeQuietly();
+            throw new SAXException("Could not parse the alignment: " + ex.getMessage(), ex);
+        } catch (SAXException ex) {
+            closeQuietly();
+            throw ex;
+        }
+        if(this.nextCorrespondence == null)
+            closeQuietly();
+    }
+
+    /**
+     * Returns the alignment which holds the information on alignment level (ontologies, type, level, and extensions).
+     * It does not contain any correspondences.
+     * @return the alignment with the alignment level information
+     */
+    public Alignment getAlignmentInfo() {
+        return alignmentInfo;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.nextCorrespondence != null;
+    }
+
+    /**
+     * Returns the next correspondence.
+     * @return the next correspondence
+     * @throws IllegalStateException in case the remaining part of the alignment file is not well formed
+     */
+    @Override
+    public Correspondence next() {
+        if(this.nextCorrespondence == null)
+            throw new NoSuchElementException();
+        Correspondence current = this.nextCorrespondence;
+        try {
+            this.nextCorrespondence = readNext();
+        } catch (XMLStreamException | SAXException ex) {
+            closeQuietly();
+            throw new IllegalStateException("Could not parse the alignment: " + ex.getMessage(), ex);
+        }
+        if(this.nextCorrespondence == null)
+            closeQuietly();
+        return current;
+    }
+
+    /**
+     * Same as {@link #next() } but throws checked exceptions in case the remaining part of the alignment file is not well formed.
+     * @return the next correspondence
+     * @throws SAXException in case the remaining part of the alignment file is not well formed
+     */
+    Correspondence nextChecked() throws SAXException {
+        try {
+            return next();
+        } catch (IllegalStateException ex) {
+            if(ex.getCause() instanceof SAXException)
+                throw (SAXException) ex.getCause();
+            throw new SAXException(ex.getMessage(), (Exception) ex.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.nextCorrespondence = null;
+        try {
+            if(this.reader != null)
+                this.reader.close();
+        } catch (XMLStreamException ex) {
+            throw new IOException("Could not close the xml reader", ex);
+        } finally {
+            this.stream.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ex) {
+            LOGGER.warn("Could not close the alignment stream.", ex);
+        }
+    }
+
+    /**
+     * Reads the XML events until the next valid correspondence is complete.
+     * @return the next correspondence or null if the end of the document is reached
+     */
+    private Correspondence readNext() throws XMLStreamException, SAXException {
+        while(this.reader.hasNext()){
+            switch(this.reader.next()){
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if(this.content != null)
+                        this.content.append(this.reader.getTextCharacters(), this.reader.getTextStart(), this.reader.getTextLength());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    Correspondence c = endElement();
+                    if(c != null)
+                        return c;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    private void startElement() throws SAXException {
+        String namespaceURI = getNamespaceURI();
+        String name = this.reader.getLocalName();
+        if(namespaceURI.equals(ALIGNMENT + "#") || namespaceURI.equals(ALIGNMENT)){
+            switch(name){
+                case "entity2":
+                    this.cell.setEntityTwo(this.reader.getAttributeValue(RDF, "resource"));
+                    break;
+                case "entity1":
+                    this.cell.setEntityOne(this.reader.getAttributeValue(RDF, "resource"));
+                    break;
+                case "Cell":
+                    this.inCorrespondence = true;
+                    this.cell = new Correspondence();
+                    String id = this.reader.getAttributeValue(RDF, "ID");
+                    if(id == null)
+                        id = this.reader.getAttributeValue(RDF, "about");
+                    if(id != null)
+                        this.cell.setIdentifier(id);
+                    break;
+                case "Formalism":
+                    String uri = this.reader.getAttributeValue(null, "uri");
+                    if(uri != null){
+                        this.currentOntoInfo.setFormalismURI(uri);
+                    } else {
+                        String formalismName = this.reader.getAttributeValue(null, "name");
+                        if(formalismName != null)
+                            this.currentOntoInfo.setFormalism(formalismName);
+                    }
+                    break;
+                case "Ontology":
+                    String about = this.reader.getAttributeValue(RDF, "about");
+                    if(about != null)
+                        this.currentOntoInfo.setOntoID(about);
+                    break;
+                case "onto2":
+                    this.currentOntoInfo = this.alignmentInfo.getOnto2();
+                    break;
+                case "onto1":
+                    this.currentOntoInfo = this.alignmentInfo.getOnto1();
+                    break;
+                default:
+                    break;
+            }
+        } else {
+            checkNamespace(namespaceURI, name);
+        }
+        this.content = new StringBuilder();
+    }
+
+    private Correspondence endElement() throws SAXException {
+        String namespaceURI = getNamespaceURI();
+        String name = this.reader.getLocalName();
+        String text = this.content == null ? "" : this.content.toString();
+        if(namespaceURI.equals(ALIGNMENT + "#") || namespaceURI.equals(ALIGNMENT)){
+            switch(name){
+                case "relation":
+                    this.cell.setRelation(CorrespondenceRelation.parse(text));
+                    break;
+                case "measure":
+                    this.cell.setConfidence(Double.parseDouble(text));
+                    break;
+                case "Cell":
+                    this.inCorrespondence = false;
+                    if(this.cell.getEntityOne() == null || this.cell.getEntityTwo() == null) {
+                        LOGGER.warn("(cell voided), missing entity {} {}", this.cell.getEntityOne(), this.cell.getEntityTwo());
+                        return null;
+                    }
+                    return this.cell;
+                case "uri1":
+                    this.alignmentInfo.getOnto1().setOntoLocation(text);
+                    break;
+                case "uri2":
+                    this.alignmentInfo.getOnto2().setOntoLocation(text);
+                    break;
+                case "location":
+                    this.currentOntoInfo.setOntoLocation(text);
+                    break;
+                case "onto1":
+                case "onto2":
+                    if(this.currentOntoInfo.getOntoLocation().equals("") && !text.equals("")) {
+                        this.currentOntoInfo.setOntoLocation(text);
+                        if(this.currentOntoInfo.getOntoID().equals(""))
+                            this.currentOntoInfo.setOntoID(text);
+                    }
+                    this.currentOntoInfo = null;
+                    break;
+                case "type":
+                    this.alignmentInfo.setType(text);
+                    break;
+                case "level":
+                    if(text.startsWith("2"))
+                        throw new SAXException("Cannot parse Level 2 alignments (so far).");
+                    this.alignmentInfo.setLevel(text);
+                    break;
+                default:
+                    break;
+            }
+        } else if(namespaceURI.equals(SOAP_ENV) || namespaceURI.equals(RDF) || namespaceURI.equals(EDOAL)) {
+            checkNamespace(namespaceURI, name);
+        } else {
+            // we are parsing an extension
+            if(this.inCorrespondence) {
+                this.cell.addExtensionValue(namespaceURI + name, parseJSON(text));
+            } else {
+                this.alignmentInfo.addExtensionValue(namespaceURI + name, parseJSON(text));
+            }
+        }
+        return null;
+    }
+
+    private static void checkNamespace(String namespaceURI, String name) throws SAXException {
+        if(namespaceURI.equals(SOAP_ENV)) {
+            // Ignore SOAP namespace
+            if(!name.equals("Envelope") && !name.equals("Body"))
+                throw new SAXException("[XMLParser] unknown element name: " + name);
+        } else if(namespaceURI.equals(RDF)) {
+            if(!name.equals("RDF"))
+                throw new SAXException("[XMLParser] unknown element name: " + name);
+        } else if(namespaceURI.equals(EDOAL)) {
+            throw new SAXException("[XMLParser] EDOAL alignment must have type EDOAL: " + name);
+        }
+    }
+
+    private String getNamespaceURI(){
+        String namespaceURI = this.reader.getNamespaceURI();
+        return namespaceURI == null ? "" : namespaceURI;
+    }
+
+    private static Object parseJSON(String jsonText){
+        try{
+            return GSON.fromJson(jsonText, Object.class);
+        }catch(JsonSyntaxException e){
+            return jsonText;
+        }
+    }
+
+    private static XMLInputFactory createFactory(){
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
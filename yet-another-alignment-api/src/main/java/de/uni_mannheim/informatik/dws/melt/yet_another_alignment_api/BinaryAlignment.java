@@ -0,0 +1,324 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read only view on an alignment stored in the binary format (see {@link BinaryAlignmentSerializer}).
+ * The file is memory mapped: opening it only reads the header and every cell can be accessed randomly
+ * without parsing the whole file. Strings are decoded lazily on first access.
+ * This makes it possible to open thousands of alignments (e.g. system results of many test cases) quickly.
+ * Use {@link #toAlignment() } to get a modifiable {@link Alignment}.
+ * Binary alignment files are limited to 2GB (see {@link BinaryAlignmentSerializer#MAX_FILE_SIZE}).
+ * Instances are thread safe.
+ */
+public class BinaryAlignment implements Iterable<Correspondence> {
+
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+    private static final Gson GSON = new Gson();
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int numberOfCells;
+    private final int infoPosition;
+    private final int dictionaryPosition;
+    private final int stringDataPosition;
+    private final int cellPosition;
+    private final int extensionPosition;
+
+    /**
+     * Decoded strings - filled lazily. Concurrent decoding of the same string is harmless.
+     */
+    private final String[] strings;
+
+    private BinaryAlignment(File file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if(buffer.limit() < BinaryAlignmentSerializer.HEADER_SIZE || buffer.getInt(0) != BinaryAlignmentSerializer.MAGIC)
+            throw new IOException("File " + file + " is not a binary alignment file.");
+        int version = buffer.getInt(4);
+        if(version != BinaryAlignmentSerializer.VERSION)
+            throw new IOException("Binary alignment file " + file + " has unsupported version " + version);
+        int numberOfStrings = buffer.getInt(8);
+        this.numberOfCells = buffer.getInt(12);
+        this.infoPosition = getPosition(buffer, 16, file);
+        this.dictionaryPosition = getPosition(buffer, 24, file);
+        this.cellPosition = getPosition(buffer, 32, file);
+        this.extensionPosition = getPosition(buffer, 40, file);
+        if(numberOfStrings < 0 || this.numberOfCells < 0 ||
+                this.dictionaryPosition + 4L * (numberOfStrings + 1) > this.cellPosition ||
+                this.cellPosition + (long) BinaryAlignmentSerializer.CELL_SIZE * this.numberOfCells > this.extensionPosition)
+            throw new IOException("Binary alignment file " + file + " has an invalid header.");
+        this.stringDataPosition = this.dictionaryPosition + 4 * (numberOfStrings + 1);
+        this.strings = new String[numberOfStrings];
+    }
+
+    /**
+     * Reads a block position from the header and checks that it is within the file.
+     * Positions are stored as long values but files are limited to {@link BinaryAlignmentSerializer#MAX_FILE_SIZE} bytes.
+     */
+    private static int getPosition(ByteBuffer buffer, int headerOffset, File file) throws IOException {
+        long position = buffer.getLong(headerOffset);
+        if(position < BinaryAlignmentSerializer.HEADER_SIZE || position > buffer.limit())
+            throw new IOException("Binary alignment file " + file + " has an invalid block position: " + position);
+        return (int) position;
+    }
+
+    /**
+     * Opens the given binary alignment file (memory mapped).
+     * @param file the binary alignment file
+     * @return the binary alignment
+     * @throws IOException if the file can not be read or is not a binary alignment file
+     */
+    public static BinaryAlignment open(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size > BinaryAlignmentSerializer.MAX_FILE_SIZE)
+                throw new IOException("Binary alignment files larger than 2GB are not supported: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            //the mapping stays valid after closing the channel
+            return new BinaryAlignment(file, buffer);
+        }
+    }
+
+    /**
+     * Checks if the given file starts with the magic number of the binary alignment format.
+     * @param file the file to check
+     * @return true, if the file is a binary alignment file
+     */
+    public static boolean isBinaryAlignmentFile(File file) {
+        if(!file.isFile() || file.length() < BinaryAlignmentSerializer.HEADER_SIZE)
+            return false;
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+            return in.readInt() == BinaryAlignmentSerializer.MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the file this binary alignment is read from.
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of correspondences.
+     * @return the number of correspondences
+     */
+    public int size(){
+        return this.numberOfCells;
+    }
+
+    public String getEntityOne(int index){
+        return getString(this.buffer.getInt(getCellOffset(index)));
+    }
+
+    public String getEntityTwo(int index){
+        return getString(this.buffer.getInt(getCellOffset(index) + 4));
+    }
+
+    public String getIdentifier(int index){
+        int id = this.buffer.getInt(getCellOffset(index) + 8);
+        return id < 0 ? null : getString(id);
+    }
+
+    public double getConfidence(int index){
+        return this.buffer.getDouble(getCellOffset(index) + 16);
+    }
+
+    public CorrespondenceRelation getRelation(int index){
+        return RELATIONS[this.buffer.get(getCellOffset(index) + 24)];
+    }
+
+    /**
+     * Returns the extensions of the correspondence at the given index.
+     * @param index the index of the correspondence
+     * @return a new (modifiable) map containing the extensions
+     */
+    public Map<String, Object> getExtensions(int index){
+        int offset = this.buffer.getInt(getCellOffset(index) + 12);
+        Map<String, Object> extensions = new HashMap<>();
+        if(offset < 0)
+            return extensions;
+        int position = this.extensionPosition + offset;
+        int numberOfExtensions = this.buffer.getInt(position);
+        position += 4;
+        for(int i = 0; i < numberOfExtensions; i++){
+            String key = getString(this.buffer.getInt(position));
+            int length = this.buffer.getInt(position + 4);
+            extensions.put(key, parseJSON(decode(position + 8, length)));
+            position += 8 + length;
+        }
+        return extensions;
+    }
+
+    /**
+     * Returns a new correspondence object for the given index.
+     * @param index the index of the correspondence
+     * @return the correspondence
+     */
+    public Correspondence getCorrespondence(int index){
+        int offset = getCellOffset(index);
+        return new Correspondence(
+                getString(this.buffer.getInt(offset)),
+                getString(this.buffer.getInt(offset + 4)),
+                this.buffer.getDouble(offset + 16),
+                RELATIONS[this.buffer.get(offset + 24)],
+                getExtensions(index),
+                getIdentifier(index));
+    }
+
+    @Override
+    public Iterator<Correspondence> iterator() {
+        return new Iterator<Correspondence>() {
+            private int current = 0;
+
+            @Override
+            public boolean hasNext() {
+                return current < numberOfCells;
+            }
+
+            @Override
+            public Correspondence next() {
+                if(current >= numberOfCells)
+                    throw new NoSuchElementException();
+                return getCorrespondence(current++);
+            }
+        };
+    }
+
+    /**
+     * Copies all correspondences and the alignment information (ontologies, extensions etc) into a new alignment.
+     * @return a new alignment
+     */
+    public Alignment toAlignment(){
+        Alignment alignment = new Alignment();
+        toAlignment(alignment);
+        return alignment;
+    }
+
+    /**
+     * Adds all correspondences and the alignment information (ontologies, extensions etc) to the given alignment.
+     * @param alignment the alignment which receives the correspondences (e.g. a {@link CompactAlignment})
+     */
+    public void toAlignment(Alignment alignment){
+        readAlignmentInfo(alignment);
+        for(int i = 0; i < this.numberOfCells; i++){
+            alignment.add(getCorrespondence(i));
+        }
+    }
+
+    /**
+     * Returns a new (empty) alignment which only contains the information on alignment level
+     * (ontologies, type, level, and extensions) but no correspondences.
+     * Together with this object as iterable of correspondences, it can be written in the XML format
+     * with {@link AlignmentSerializer#serialize(Alignment, Iterable, java.io.Writer) } without materializing the alignment.
+     * @return the alignment information
+     */
+    public Alignment getAlignmentInfo(){
+        Alignment alignment = new Alignment(false, false, false, false);
+        readAlignmentInfo(alignment);
+        return alignment;
+    }
+
+    private void readAlignmentInfo(Alignment alignment){
+        int[] position = new int[]{this.infoPosition};
+        readOntoInfo(alignment.getOnto1(), position);
+        readOntoInfo(alignment.getOnto2(), position);
+        String type = readString(position);
+        if(type != null)
+            alignment.setType(type);
+        String level = readString(position);
+        if(level != null)
+            alignment.setLevel(level);
+        int numberOfExtensions = readInt(position);
+        for(int i = 0; i < numberOfExtensions; i++){
+            String key = readString(position);
+            alignment.addExtensionValue(key, parseJSON(readString(position)));
+        }
+    }
+
+    private void readOntoInfo(OntoInfo info, int[] position){
+        String ontoID = readString(position);
+        if(ontoID != null)
+            info.setOntoID(ontoID);
+        String ontoLocation = readString(position);
+        if(ontoLocation != null)
+            info.setOntoLocation(ontoLocation);
+        String formalism = readString(position);
+        if(formalism != null)
+            info.setFormalism(formalism);
+        String formalismURI = readString(position);
+        if(formalismURI != null)
+            info.setFormalismURI(formalismURI);
+        int numberOfExtensions = readInt(position);
+        for(int i = 0; i < numberOfExtensions; i++){
+            info.addExtensionValue(readString(position), readString(position));
+        }
+    }
+
+    private int readInt(int[] position){
+        int value = this.buffer.getInt(position[0]);
+        position[0] += 4;
+        return value;
+    }
+
+    private String readString(int[] position){
+        int length = readInt(position);
+        if(length < 0)
+            return null;
+        String text = decode(position[0], length);
+        position[0] += length;
+        return text;
+    }
+
+    private int getCellOffset(int index){
+        if(index < 0 || index >= this.numberOfCells)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.numberOfCells);
+        return this.cellPosition + index * BinaryAlignmentSerializer.CELL_SIZE;
+    }
+
+    private String getString(int id){
+        String s = this.strings[id];
+        if(s == null){
+            int start = this.buffer.getInt(this.dictionaryPosition + 4 * id);
+            int end = this.buffer.getInt(this.dictionaryPosition + 4 * (id + 1));
+            s = decode(this.stringDataPosition + start, end - start);
+            this.strings[id] = s;
+        }
+        return s;
+    }
+
+    private String decode(int position, int length){
+        byte[] bytes = new byte[length];
+        ByteBuffer view = this.buffer.duplicate();
+        ((Buffer) view).position(position);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Object parseJSON(String jsonText){
+        try{
+            return GSON.fromJson(jsonText, Object.class);
+        }catch(JsonSyntaxException e){
+            return jsonText;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.google.gson.Gson;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes an {@link Alignment} in a compact binary format which can be read with {@link BinaryAlignment}.
+ * In contrast to the XML format, the binary file can be memory mapped and accessed without parsing.
+ * <p>
+ * The file layout is (all numbers in big endian):
+ * <ul>
+ * <li>header: magic number, version, number of strings, number of cells, and the positions of the following blocks</li>
+ * <li>alignment info: ontologies, type, level, and alignment extensions</li>
+ * <li>string dictionary: offsets of each string followed by the UTF-8 encoded strings.
+ * All URIs, identifiers, and extension keys are stored only once.</li>
+ * <li>cell table: fixed width rows (source id, target id, identifier id, extension offset, confidence, relation)</li>
+ * <li>extension block (optional): the JSON encoded extensions of those cells which have some</li>
+ * </ul>
+ * The whole file is memory mapped with one buffer and is thus limited to {@link #MAX_FILE_SIZE} bytes.
+ * Larger alignments are rejected when writing (use the XML format or a {@link CompactAlignment} for them).
+ */
+public class BinaryAlignmentSerializer {
+
+    /**
+     * The usual file extension for binary alignment files.
+     */
+    public static final String FILE_EXTENSION = ".yaab";
+
+    /**
+     * Magic number at the beginning of each binary alignment file ("YAAB").
+     */
+    static final int MAGIC = 0x59414142;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    /**
+     * Size of one row in the cell table: source, target, identifier, extension offset (each int), confidence (double), relation (byte) and 3 padding bytes.
+     */
+    static final int CELL_SIZE = 28;
+    /**
+     * Maximum size of a binary alignment file in bytes (the maximum size of one memory mapped buffer).
+     */
+    public static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Method to write the specified alignment to the specified file in the binary format.
+     * @param alignment The alignment that shall be written.
+     * @param file The file to which the alignment shall be written.
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serialize(Alignment alignment, File file) throws IOException {
+        if (file.exists()) {
+            if (file.isDirectory()) {
+                throw new IOException("File '" + file + "' exists but is a directory");
+            }
+        } else {
+            File parent = file.getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+        }
+
+        //first pass: collect all strings
+        UriDictionary dictionary = new UriDictionary(alignment.size() * 2 + 16);
+        int numberOfCells = 0;
+        for(Correspondence c : alignment){
+            dictionary.getOrAddId(c.getEntityOne());
+            dictionary.getOrAddId(c.getEntityTwo());
+            if(c.getIdentifier() != null)
+                dictionary.getOrAddId(c.getIdentifier());
+            if(c.getExtensions() != null){
+                for(String key : c.getExtensions().keySet()){
+                    dictionary.getOrAddId(key);
+                }
+            }
+            numberOfCells++;
+        }
+
+        int numberOfStrings = dictionary.size();
+        byte[][] encodedStrings = new byte[numberOfStrings][];
+        long stringDataSize = 0;
+        for(int i = 0; i < numberOfStrings; i++){
+            encodedStrings[i] = dictionary.getUri(i).getBytes(StandardCharsets.UTF_8);
+            stringDataSize += encodedStrings[i].length;
+        }
+        byte[] info = getAlignmentInfo(alignment);
+
+        long infoPosition = HEADER_SIZE;
+        long dictionaryPosition = infoPosition + info.length;
+        long cellPosition = dictionaryPosition + 4L * (numberOfStrings + 1) + stringDataSize;
+        long extensionPosition = cellPosition + (long) CELL_SIZE * numberOfCells;
+        if(extensionPosition > MAX_FILE_SIZE)
+            throw new IOException("The alignment is too large to be stored in the binary format (more than " + MAX_FILE_SIZE + " bytes).");
+
+        ByteArrayOutputStream extensionBytes = new ByteArrayOutputStream();
+        DataOutputStream extensionOut = new DataOutputStream(extensionBytes);
+        boolean success = false;
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numberOfStrings);
+            out.writeInt(numberOfCells);
+            out.writeLong(infoPosition);
+            out.writeLong(dictionaryPosition);
+            out.writeLong(cellPosition);
+            out.writeLong(extensionPosition);
+
+            out.write(info);
+
+            int offset = 0;
+            for(byte[] s : encodedStrings){
+                out.writeInt(offset);
+                offset += s.length;
+            }
+            out.writeInt(offset);
+            for(byte[] s : encodedStrings){
+                out.write(s);
+            }
+
+            //second pass: write the cell table
+            for(Correspondence c : alignment){
+                out.writeInt(dictionary.getId(c.getEntityOne()));
+                out.writeInt(dictionary.getId(c.getEntityTwo()));
+                out.writeInt(c.getIdentifier() == null ? -1 : dictionary.getId(c.getIdentifier()));
+                if(c.getExtensions() == null || c.getExtensions().isEmpty()){
+                    out.writeInt(-1);
+                }else{
+                    out.writeInt(extensionBytes.size());
+                    extensionOut.writeInt(c.getExtensions().size());
+                    for(Map.Entry<String, Object> extension : c.getExtensions().entrySet()){
+                        extensionOut.writeInt(dictionary.getId(extension.getKey()));
+                        writeString(extensionOut, GSON.toJson(extension.getValue()));
+                    }
+                    extensionOut.flush();
+                    //checked after each cell such that the int offsets of the extension block never overflow
+                    if(extensionPosition + extensionBytes.size() > MAX_FILE_SIZE)
+                        throw new IOException("The alignment is too large to be stored in the binary format (more than " + MAX_FILE_SIZE + " bytes).");
+                }
+                out.writeDouble(c.getConfidence());
+                out.writeByte(c.getRelation().ordinal());
+                out.writeByte(0);
+                out.writeShort(0);
+            }
+            extensionOut.flush();
+            extensionBytes.writeTo(out);
+            success = true;
+        } finally {
+            if(!success)
+                file.delete();
+        }
+    }
+
+    private static byte[] getAlignmentInfo(Alignment alignment) throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeOntoInfo(out, alignment.getOnto1());
+        writeOntoInfo(out, alignment.getOnto2());
+        writeString(out, alignment.getType());
+        writeString(out, alignment.getLevel());
+        Map<String, Object> extensions = alignment.getExtensions();
+        if(extensions == null){
+            out.writeInt(0);
+        }else{
+            out.writeInt(extensions.size());
+            for(Map.Entry<String, Object> extension : extensions.entrySet()){
+                writeString(out, extension.getKey());
+                writeString(out, GSON.toJson(extension.getValue()));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeOntoInfo(DataOutputStream out, OntoInfo info) throws IOException{
+        writeString(out, info.getOntoID());
+        writeString(out, info.getOntoLocation());
+        writeString(out, info.getFormalism());
+        writeString(out, info.getFormalismURI());
+        Map<String, String> extensions = info.getExtensions();
+        if(extensions == null){
+            out.writeInt(0);
+        }else{
+            out.writeInt(extensions.size());
+            for(Map.Entry<String, String> extension : extensions.entrySet()){
+                writeString(out, extension.getKey());
+                writeString(out, extension.getValue());
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException{
+        if(text == null){
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
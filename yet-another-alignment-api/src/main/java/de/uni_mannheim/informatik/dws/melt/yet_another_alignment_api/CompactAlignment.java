@@ -0,0 +1,1002 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.googlecode.cqengine.index.support.CloseableIterator;
+import com.googlecode.cqengine.query.Query;
+import com.googlecode.cqengine.query.option.QueryOptions;
+import static com.googlecode.cqengine.query.QueryFactory.noQueryOptions;
+import com.googlecode.cqengine.resultset.ResultSet;
+import com.googlecode.cqengine.resultset.stored.StoredSetBasedResultSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.xml.sax.SAXException;
+
+/**
+ * A memory efficient alignment which stores the correspondences in columns instead of one object per correspondence.
+ * The URIs are stored in a {@link UriDictionary} (which can be shared between multiple alignments) and are referenced by int ids.
+ * The confidence is stored in a double array, the relation in a byte array and the extensions only for
+ * correspondences which actually have extensions.
+ * Instead of the CQEngine indexes, primitive indexes from URI id to the list of rows are used for source and target lookups.
+ * <p>
+ * All methods of {@link Alignment} can be used as usual. The correspondences which are returned (e.g. by iterating over the alignment)
+ * are lightweight views on one row. Changes of the confidence, identifier and extensions of these views are directly written to the columns.
+ * In contrast to the default alignment, changes to a correspondence object after it was added with {@link #add(Correspondence) }
+ * are not reflected. Use the returned correspondence of {@link #addOrModify(Correspondence) } or {@link #getCorrespondence(String, String, CorrespondenceRelation) }
+ * to modify it. Source, target and relation of a view can not be changed (remove and add the correspondence instead).
+ * <p>
+ * Removed rows are freed (extensions and identifier) but their slots are only reclaimed by {@link #compact() } which is also
+ * called automatically by the bulk operations (removeAll, retainAll) when more than half of the rows are removed.
+ * Views which were created before a compaction locate their row again on the next access.
+ * A view of a correspondence which is no longer contained in the alignment keeps source, target, relation and the last read confidence.
+ * <p>
+ * Modifications are synchronized, iteration is weakly consistent as long as the alignment is not compacted
+ * (a compaction during an iteration results in a {@link ConcurrentModificationException}).
+ */
+public class CompactAlignment extends Alignment {
+
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+
+    private final UriDictionary dictionary;
+
+    private int[] sourceColumn;
+    private int[] targetColumn;
+    private double[] confidenceColumn;
+    private byte[] relationColumn;
+    private Map<String, Object>[] extensionColumn;
+    private Map<Integer, String> identifiers;
+
+    /**
+     * Rows which are removed. Rows are only moved by {@link #compact() }.
+     */
+    private final BitSet removed;
+    private int rowCount;
+    private int size;
+    /**
+     * Number of compactions so far. Views and iterators use it to detect that the rows were moved.
+     */
+    private int epoch;
+
+    private final IntListIndex sourceIndex;
+    private final IntListIndex targetIndex;
+
+    public CompactAlignment() {
+        this(new UriDictionary(), 16);
+    }
+
+    /**
+     * Creates a compact alignment which uses the given dictionary.
+     * @param dictionary the dictionary which can be shared with other compact alignments.
+     */
+    public CompactAlignment(UriDictionary dictionary) {
+        this(dictionary, 16);
+    }
+
+    /**
+     * Creates a compact alignment which uses the given dictionary.
+     * @param dictionary the dictionary which can be shared with other compact alignments.
+     * @param initialCapacity the number of correspondences which can be stored without growing the columns.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactAlignment(UriDictionary dictionary, int initialCapacity) {
+        super(false, false, false, false);
+        this.dictionary = dictionary;
+        int capacity = Math.max(1, initialCapacity);
+        this.sourceColumn = new int[capacity];
+        this.targetColumn = new int[capacity];
+        this.confidenceColumn = new double[capacity];
+        this.relationColumn = new byte[capacity];
+        this.extensionColumn = new Map[capacity];
+        this.identifiers = new HashMap<>();
+        this.removed = new BitSet();
+        this.rowCount = 0;
+        this.size = 0;
+        this.sourceIndex = new IntListIndex();
+        this.targetIndex = new IntListIndex();
+    }
+
+    public CompactAlignment(Iterable<Correspondence> correspondences) {
+        this();
+        for(Correspondence c : correspondences)
+            this.add(c);
+    }
+
+    public CompactAlignment(URL url) throws SAXException, IOException{
+        this();
+        AlignmentParser.parse(url, this);
+    }
+
+    public CompactAlignment(File f) throws SAXException, IOException{
+        this();
+        AlignmentParser.parse(f, this);
+    }
+
+    public CompactAlignment(InputStream s) throws SAXException, IOException{
+        this();
+        AlignmentParser.parse(s, this);
+    }
+
+    /**
+     * Copy constructor which copies all information stores in alignment as well as all correspondences.
+     * If the given alignment is also a compact alignment, the dictionary is shared.
+     * @param alignment The alignment which shall be copied.
+     */
+    public CompactAlignment(Alignment alignment) {
+        this(alignment, true);
+    }
+
+    /**
+     * Copy constructor which copies all information stores in alignment as well as all correspondences (depending on attribute copyCorrespondences).
+     * If the given alignment is also a compact alignment, the dictionary is shared.
+     * Important: the extensions (on alignment and correspondence level) are copied only shallow.
+     * @param alignment The alignment which shall be copied.
+     * @param copyCorrespondences if true copies all information, if false copies all but no correspondences
+     */
+    public CompactAlignment(Alignment alignment, boolean copyCorrespondences) {
+        this(alignment instanceof CompactAlignment ? ((CompactAlignment)alignment).dictionary : new UriDictionary(),
+                copyCorrespondences ? alignment.size() : 16);
+        this.method = alignment.method;
+        this.type = alignment.type;
+        this.level = alignment.level;
+        this.onto1 = new OntoInfo(alignment.onto1);
+        this.onto2 = new OntoInfo(alignment.onto2);
+        this.extensions = new HashMap<>(alignment.extensions);
+        if(copyCorrespondences) {
+            for(Correspondence c : alignment){
+                add(new Correspondence(c));
+            }
+        }
+    }
+
+    /**
+     * Returns the dictionary which is used by this alignment.
+     * It can be used to create further compact alignments which share the same URIs.
+     * @return the dictionary
+     */
+    public UriDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**************************
+     * Row access
+     ***************************/
+
+    private int findRow(int source, int target, byte relation){
+        if(source < 0 || target < 0)
+            return -1;
+        IntListIndex index = this.sourceIndex;
+        int[] rows = index.getList(source);
+        int length = index.getSize(source);
+        for(int i = 0; i < length; i++){
+            int row = rows[i];
+            if(this.targetColumn[row] == target && this.relationColumn[row] == relation)
+                return row;
+        }
+        return -1;
+    }
+
+    private int findRow(String source, String target, CorrespondenceRelation relation){
+        if(relation == null)
+            return -1;
+        return findRow(this.dictionary.getId(source), this.dictionary.getId(target), (byte)relation.ordinal());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ensureCapacity(int minCapacity){
+        int capacity = this.sourceColumn.length;
+        if(minCapacity <= capacity)
+            return;
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        this.sourceColumn = Arrays.copyOf(this.sourceColumn, newCapacity);
+        this.targetColumn = Arrays.copyOf(this.targetColumn, newCapacity);
+        this.confidenceColumn = Arrays.copyOf(this.confidenceColumn, newCapacity);
+        this.relationColumn = Arrays.copyOf(this.relationColumn, newCapacity);
+        this.extensionColumn = Arrays.copyOf(this.extensionColumn, newCapacity);
+    }
+
+    private int appendRow(Correspondence c){
+        int source = this.dictionary.getOrAddId(c.getEntityOne());
+        int target = this.dictionary.getOrAddId(c.getEntityTwo());
+        byte relation = (byte)c.getRelation().ordinal();
+        if(findRow(source, target, relation) >= 0)
+            return -1;
+        int row = this.rowCount;
+        ensureCapacity(row + 1);
+        this.sourceColumn[row] = source;
+        this.targetColumn[row] = target;
+        this.confidenceColumn[row] = c.getConfidence();
+        this.relationColumn[row] = relation;
+        this.extensionColumn[row] = copyExtensions(c);
+        if(c.getIdentifier() != null)
+            this.identifiers.put(row, c.getIdentifier());
+        this.sourceIndex.add(source, row);
+        this.targetIndex.add(target, row);
+        this.rowCount++;
+        this.size++;
+        return row;
+    }
+
+    private Map<String, Object> copyExtensions(Correspondence c){
+        Map<String, Object> ext = (c instanceof RowCorrespondence) ? ((RowCorrespondence)c).getStoredExtensions() : c.getExtensions();
+        if(ext == null || ext.isEmpty())
+            return null;
+        return new HashMap<>(ext);
+    }
+
+    private void removeRow(int row){
+        this.sourceIndex.remove(this.sourceColumn[row], row);
+        this.targetIndex.remove(this.targetColumn[row], row);
+        this.removed.set(row);
+        this.extensionColumn[row] = null;
+        this.identifiers.remove(row);
+        this.size--;
+    }
+
+    /**
+     * Compacts the alignment if more than half of the rows are removed.
+     */
+    private void compactIfSparse(){
+        int removedRows = this.rowCount - this.size;
+        if(removedRows > 64 && removedRows > this.size)
+            compact();
+    }
+
+    /**
+     * Moves all rows which are not removed to the front of the columns and trims the columns.
+     * Thus the memory of removed correspondences is reclaimed.
+     * Views on correspondences of this alignment stay valid, iterators which are not yet finished are not
+     * (they throw a {@link ConcurrentModificationException}).
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void compact(){
+        if(this.size == this.rowCount)
+            return;
+        Map<Integer, String> newIdentifiers = new HashMap<>();
+        this.sourceIndex.clear();
+        this.targetIndex.clear();
+        int newRow = 0;
+        for(int row = this.removed.nextClearBit(0); row < this.rowCount; row = this.removed.nextClearBit(row + 1)){
+            this.sourceColumn[newRow] = this.sourceColumn[row];
+            this.targetColumn[newRow] = this.targetColumn[row];
+            this.confidenceColumn[newRow] = this.confidenceColumn[row];
+            this.relationColumn[newRow] = this.relationColumn[row];
+            this.extensionColumn[newRow] = this.extensionColumn[row];
+            String identifier = this.identifiers.get(row);
+            if(identifier != null)
+                newIdentifiers.put(newRow, identifier);
+            this.sourceIndex.add(this.sourceColumn[newRow], newRow);
+            this.targetIndex.add(this.targetColumn[newRow], newRow);
+            newRow++;
+        }
+        int capacity = Math.max(1, newRow);
+        this.sourceColumn = Arrays.copyOf(this.sourceColumn, capacity);
+        this.targetColumn = Arrays.copyOf(this.targetColumn, capacity);
+        this.confidenceColumn = Arrays.copyOf(this.confidenceColumn, capacity);
+        this.relationColumn = Arrays.copyOf(this.relationColumn, capacity);
+        this.extensionColumn = Arrays.copyOf(this.extensionColumn, capacity);
+        this.identifiers = newIdentifiers;
+        this.removed.clear();
+        this.rowCount = newRow;
+        this.size = newRow;
+        this.epoch++;
+    }
+
+    private Correspondence view(int row){
+        return new RowCorrespondence(this, row);
+    }
+
+    private List<Correspondence> views(IntListIndex index, int id, CorrespondenceRelation relation){
+        if(id < 0)
+            return new ArrayList<>();
+        synchronized(this){
+            int[] rows = index.getList(id);
+            int length = index.getSize(id);
+            List<Correspondence> list = new ArrayList<>(length);
+            for(int i = 0; i < length; i++){
+                int row = rows[i];
+                if(relation == null || this.relationColumn[row] == relation.ordinal())
+                    list.add(view(row));
+            }
+            return list;
+        }
+    }
+
+    synchronized Map<String, Object> getExtensionsOfRow(int row, boolean create){
+        Map<String, Object> ext = this.extensionColumn[row];
+        if(ext == null && create){
+            ext = new HashMap<>();
+            this.extensionColumn[row] = ext;
+        }
+        return ext;
+    }
+
+    /**************************
+     * Collection methods
+     ***************************/
+
+    @Override
+    public synchronized boolean add(Correspondence c) {
+        return appendRow(c) >= 0;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends Correspondence> c) {
+        ensureCapacity(this.rowCount + c.size());
+        boolean modified = false;
+        for(Correspondence correspondence : c){
+            if(appendRow(correspondence) >= 0)
+                modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        if(o instanceof Correspondence == false)
+            return false;
+        Correspondence c = (Correspondence)o;
+        int row = findRow(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+        if(row < 0)
+            return false;
+        removeRow(row);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> c) {
+        boolean modified = false;
+        for(Object o : c){
+            if(remove(o))
+                modified = true;
+        }
+        compactIfSparse();
+        return modified;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+        boolean modified = false;
+        Iterator<Correspondence> it = iterator();
+        while(it.hasNext()){
+            if(c.contains(it.next()) == false){
+                it.remove();
+                modified = true;
+            }
+        }
+        compactIfSparse();
+        return modified;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.removed.get(row) == false)
+                removeRow(row);
+        }
+        compact();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        if(o instanceof Correspondence == false)
+            return false;
+        Correspondence c = (Correspondence)o;
+        return findRow(c.getEntityOne(), c.getEntityTwo(), c.getRelation()) >= 0;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for(Object o : c){
+            if(contains(o) == false)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toList().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return toList().toArray(a);
+    }
+
+    private List<Correspondence> toList(){
+        List<Correspondence> list = new ArrayList<>(this.size);
+        for(Correspondence c : this){
+            list.add(c);
+        }
+        return list;
+    }
+
+    @Override
+    public CloseableIterator<Correspondence> iterator() {
+        return new RowIterator();
+    }
+
+    @Override
+    public ResultSet<Correspondence> retrieve(Query<Correspondence> query) {
+        return retrieve(query, noQueryOptions());
+    }
+
+    /**
+     * Evaluates the query by scanning all rows. For lookups by source and target, use the specific methods like
+     * {@link #getCorrespondencesSource(java.lang.String) } which make use of the indexes.
+     * @param query the query
+     * @param queryOptions the query options
+     * @return the matching correspondences
+     */
+    @Override
+    public ResultSet<Correspondence> retrieve(Query<Correspondence> query, QueryOptions queryOptions) {
+        Set<Correspondence> result = new LinkedHashSet<>();
+        for(Correspondence c : this){
+            if(query.matches(c, queryOptions))
+                result.add(c);
+        }
+        return new StoredSetBasedResultSet<>(result);
+    }
+
+    @Override
+    public boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd) {
+        return update(objectsToRemove, objectsToAdd, noQueryOptions());
+    }
+
+    @Override
+    public synchronized boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd, QueryOptions queryOptions) {
+        boolean modified = false;
+        for(Correspondence c : objectsToRemove){
+            if(remove(c))
+                modified = true;
+        }
+        for(Correspondence c : objectsToAdd){
+            if(add(c))
+                modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this)
+            return true;
+        if(o instanceof Set == false)
+            return false;
+        Set<?> other = (Set<?>) o;
+        if(other.size() != this.size())
+            return false;
+        return containsAll(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for(Correspondence c : this){
+            hash += c.hashCode();
+        }
+        return hash;
+    }
+
+    /**************************
+     * Alignment methods
+     ***************************/
+
+    @Override
+    public synchronized Correspondence addOrModify(Correspondence correspondence) {
+        int row = findRow(correspondence.getEntityOne(), correspondence.getEntityTwo(), correspondence.getRelation());
+        if(row < 0){
+            return view(appendRow(correspondence));
+        }
+        Map<String, Object> ext = correspondence.getExtensions();
+        if(ext != null && ext.isEmpty() == false)
+            getExtensionsOfRow(row, true).putAll(ext);
+        this.confidenceColumn[row] = correspondence.getConfidence();
+        return view(row);
+    }
+
+    @Override
+    public synchronized Correspondence addOrUseHighestConfidence(Correspondence c) {
+        int row = findRow(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+        if(row < 0){
+            return view(appendRow(c));
+        }
+        Map<String, Object> ext = c.getExtensions();
+        if(ext != null && ext.isEmpty() == false)
+            getExtensionsOfRow(row, true).putAll(ext);
+        if(c.getConfidence() > this.confidenceColumn[row])
+            this.confidenceColumn[row] = c.getConfidence();
+        return view(row);
+    }
+
+    @Override
+    public synchronized Correspondence getCorrespondence(String source, String target, CorrespondenceRelation relation) {
+        int row = findRow(source, target, relation);
+        if(row < 0)
+            return null;
+        return view(row);
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesSourceTarget(String source, String target) {
+        int targetId = this.dictionary.getId(target);
+        List<Correspondence> list = new ArrayList<>();
+        for(Correspondence c : views(this.sourceIndex, this.dictionary.getId(source), null)){
+            if(this.dictionary.getId(c.getEntityTwo()) == targetId)
+                list.add(c);
+        }
+        return list;
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesSource(String source) {
+        return views(this.sourceIndex, this.dictionary.getId(source), null);
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesSourceRelation(String source, CorrespondenceRelation relation) {
+        return views(this.sourceIndex, this.dictionary.getId(source), relation);
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesTarget(String target) {
+        return views(this.targetIndex, this.dictionary.getId(target), null);
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesTargetRelation(String target, CorrespondenceRelation relation) {
+        return views(this.targetIndex, this.dictionary.getId(target), relation);
+    }
+
+    @Override
+    public boolean isSourceContained(String source) {
+        int id = this.dictionary.getId(source);
+        return id >= 0 && this.sourceIndex.getSize(id) > 0;
+    }
+
+    @Override
+    public boolean isTargetContained(String target) {
+        int id = this.dictionary.getId(target);
+        return id >= 0 && this.targetIndex.getSize(id) > 0;
+    }
+
+    @Override
+    public Iterable<Correspondence> getCorrespondencesRelation(CorrespondenceRelation relation) {
+        List<Correspondence> list = new ArrayList<>();
+        for(Correspondence c : this){
+            if(c.getRelation() == relation)
+                list.add(c);
+        }
+        return list;
+    }
+
+    @Override
+    public Alignment cut(double threshold){
+        CompactAlignment m = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            if(c.getConfidence() >= threshold)
+                m.add(c);
+        }
+        return m;
+    }
+
+    @Override
+    public int cutSize(double threshold){
+        int count = 0;
+        for(Correspondence c : this){
+            if(c.getConfidence() >= threshold)
+                count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Alignment sample(int n, Random rnd){
+        if(n > this.size() || n < 0) {
+            throw new IllegalArgumentException("Parameter n is out of range (smaller zero or greater than the size " +
+                    "of current alignment.");
+        }
+        List<Correspondence> correspondenceList = toList();
+        Collections.shuffle(correspondenceList, rnd);
+        CompactAlignment samples = new CompactAlignment(this, false);
+        samples.addAll(correspondenceList.subList(0, n));
+        return samples;
+    }
+
+    @Override
+    public Alignment reverseWithoutRelationChange() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverseWithoutRelationChange());
+        }
+        return result;
+    }
+
+    @Override
+    public Alignment reverse() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverse());
+        }
+        return result;
+    }
+
+    /**
+     * Does nothing because the compact alignment always maintains its own source index.
+     */
+    @Override
+    public void assertIndexOnSource(){ }
+
+    /**
+     * Does nothing because the compact alignment always maintains its own target index.
+     */
+    @Override
+    public void assertIndexOnTarget(){ }
+
+    /**
+     * Does nothing because relations are stored in a compact column and are scanned.
+     */
+    @Override
+    public void assertIndexOnRelation(){ }
+
+    /**
+     * Does nothing because confidences are stored in a compact column and are scanned.
+     */
+    @Override
+    public void assertIndexOnConfidence(){ }
+
+    @Override
+    protected boolean isCopiedWithAllIndexes(){
+        return true; // a compact alignment has no CQEngine indexes but should be copied to a fully indexed alignment
+    }
+
+    @Override
+    public Iterable<String> getDistinctSources(){
+        return distinctKeys(this.sourceIndex);
+    }
+
+    @Override
+    public Iterable<String> getDistinctTargets(){
+        return distinctKeys(this.targetIndex);
+    }
+
+    @Override
+    public Set<String> getDistinctSourceAndTargetsAsSet(){
+        Set<String> uniqueElements = distinctKeys(this.sourceIndex);
+        uniqueElements.addAll(distinctKeys(this.targetIndex));
+        return uniqueElements;
+    }
+
+    private synchronized Set<String> distinctKeys(IntListIndex index){
+        Set<String> keys = new HashSet<>();
+        for(int id = 0; id < index.getNumberOfKeys(); id++){
+            if(index.getSize(id) > 0)
+                keys.add(this.dictionary.getUri(id));
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized Iterable<CorrespondenceRelation> getDistinctRelations(){
+        Set<CorrespondenceRelation> relations = new HashSet<>();
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.removed.get(row) == false)
+                relations.add(RELATIONS[this.relationColumn[row]]);
+        }
+        return relations;
+    }
+
+    @Override
+    public synchronized Iterable<Double> getDistinctConfidences(){
+        Set<Double> confidences = new HashSet<>();
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.removed.get(row) == false)
+                confidences.add(this.confidenceColumn[row]);
+        }
+        return confidences;
+    }
+
+    /**************************
+     * Helper classes
+     ***************************/
+
+    private class RowIterator implements CloseableIterator<Correspondence> {
+        private final int expectedEpoch;
+        private int nextRow;
+        private int lastRow;
+
+        RowIterator() {
+            this.expectedEpoch = epoch;
+            this.lastRow = -1;
+            this.nextRow = advance(0);
+        }
+
+        private int advance(int from){
+            if(epoch != this.expectedEpoch)
+                throw new ConcurrentModificationException("The compact alignment was compacted during the iteration.");
+            int row = removed.nextClearBit(from);
+            return row < rowCount ? row : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextRow >= 0;
+        }
+
+        @Override
+        public Correspondence next() {
+            if(this.nextRow < 0)
+                throw new NoSuchElementException();
+            this.lastRow = this.nextRow;
+            this.nextRow = advance(this.nextRow + 1);
+            return view(this.lastRow);
+        }
+
+        @Override
+        public void remove() {
+            if(this.lastRow < 0)
+                throw new IllegalStateException();
+            synchronized(CompactAlignment.this){
+                if(epoch != this.expectedEpoch)
+                    throw new ConcurrentModificationException("The compact alignment was compacted during the iteration.");
+                if(removed.get(this.lastRow) == false)
+                    removeRow(this.lastRow);
+            }
+            this.lastRow = -1;
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    /**
+     * A correspondence which is a view on one row of the compact alignment.
+     * Confidence, identifier and extensions are read from and written to the columns.
+     * The row is located again after a compaction. If the correspondence is no longer contained in the alignment,
+     * the values of the correspondence object itself are used.
+     */
+    private static class RowCorrespondence extends Correspondence {
+        private final CompactAlignment alignment;
+        private int row;
+        private int epoch;
+
+        RowCorrespondence(CompactAlignment alignment, int row) {
+            super(alignment.dictionary.getUri(alignment.sourceColumn[row]),
+                  alignment.dictionary.getUri(alignment.targetColumn[row]),
+                  alignment.confidenceColumn[row],
+                  RELATIONS[alignment.relationColumn[row]],
+                  null,
+                  alignment.identifiers.get(row));
+            this.alignment = alignment;
+            this.row = row;
+            this.epoch = alignment.epoch;
+            this.extensions = new RowExtensionMap(this);
+        }
+
+        /**
+         * Returns the current row of this correspondence. Has to be called while holding the lock of the alignment.
+         * @return the row or -1 if the correspondence is no longer contained in the alignment.
+         */
+        private int currentRow(){
+            if(this.epoch != this.alignment.epoch || (this.row >= 0 && this.alignment.removed.get(this.row))){
+                this.row = this.alignment.findRow(this.entityOne, this.entityTwo, this.relation);
+                this.epoch = this.alignment.epoch;
+            }
+            return this.row;
+        }
+
+        Map<String, Object> getStoredExtensions(){
+            synchronized(this.alignment){
+                int r = currentRow();
+                return r < 0 ? null : this.alignment.getExtensionsOfRow(r, false);
+            }
+        }
+
+        Map<String, Object> getOrCreateStoredExtensions(){
+            synchronized(this.alignment){
+                int r = currentRow();
+                if(r < 0)
+                    throw new IllegalStateException("The correspondence is no longer contained in the compact alignment: " + this.toString());
+                return this.alignment.getExtensionsOfRow(r, true);
+            }
+        }
+
+        @Override
+        public double getConfidence() {
+            synchronized(this.alignment){
+                int r = currentRow();
+                if(r >= 0)
+                    this.confidence = this.alignment.confidenceColumn[r];
+                return this.confidence;
+            }
+        }
+
+        @Override
+        public void setConfidence(double confidence) {
+            synchronized(this.alignment){
+                this.confidence = confidence;
+                int r = currentRow();
+                if(r >= 0)
+                    this.alignment.confidenceColumn[r] = confidence;
+            }
+        }
+
+        @Override
+        public String getIdentifier() {
+            synchronized(this.alignment){
+                int r = currentRow();
+                if(r >= 0)
+                    this.identifier = this.alignment.identifiers.get(r);
+                return this.identifier;
+            }
+        }
+
+        @Override
+        public void setIdentifier(String identifier) {
+            synchronized(this.alignment){
+                this.identifier = identifier;
+                int r = currentRow();
+                if(r < 0)
+                    return;
+                if(identifier == null)
+                    this.alignment.identifiers.remove(r);
+                else
+                    this.alignment.identifiers.put(r, identifier);
+            }
+        }
+
+        @Override
+        public void setEntityOne(String entityOne) {
+            throw new UnsupportedOperationException("The source of a correspondence in a CompactAlignment can not be changed. Remove and add it instead.");
+        }
+
+        @Override
+        public void setEntityTwo(String entityTwo) {
+            throw new UnsupportedOperationException("The target of a correspondence in a CompactAlignment can not be changed. Remove and add it instead.");
+        }
+
+        @Override
+        public void setRelation(CorrespondenceRelation relation) {
+            throw new UnsupportedOperationException("The relation of a correspondence in a CompactAlignment can not be changed. Remove and add it instead.");
+        }
+    }
+
+    /**
+     * Extension map of one row which only allocates a map for the row when a value is actually written.
+     */
+    private static class RowExtensionMap extends AbstractMap<String, Object> {
+        private final RowCorrespondence correspondence;
+
+        RowExtensionMap(RowCorrespondence correspondence) {
+            this.correspondence = correspondence;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            return ext == null ? null : ext.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            return ext != null && ext.containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return this.correspondence.getOrCreateStoredExtensions().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            return ext == null ? null : ext.remove(key);
+        }
+
+        @Override
+        public int size() {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            return ext == null ? 0 : ext.size();
+        }
+
+        @Override
+        public void clear() {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            if(ext != null)
+                ext.clear();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> ext = this.correspondence.getStoredExtensions();
+            return ext == null ? Collections.emptySet() : ext.entrySet();
+        }
+    }
+
+    /**
+     * Primitive index from an int key (URI id) to a list of int values (rows).
+     */
+    private static class IntListIndex {
+        private static final int[] EMPTY = new int[0];
+        private int[][] lists = new int[16][];
+        private int[] sizes = new int[16];
+
+        void add(int key, int value){
+            if(key >= this.lists.length){
+                int newLength = Math.max(key + 1, this.lists.length + (this.lists.length >> 1));
+                this.lists = Arrays.copyOf(this.lists, newLength);
+                this.sizes = Arrays.copyOf(this.sizes, newLength);
+            }
+            int[] list = this.lists[key];
+            int s = this.sizes[key];
+            if(list == null){
+                list = new int[2];
+            }else if(s == list.length){
+                list = Arrays.copyOf(list, s * 2);
+            }
+            list[s] = value;
+            this.lists[key] = list;
+            this.sizes[key] = s + 1;
+        }
+
+        void remove(int key, int value){
+            int[] list = this.lists[key];
+            int s = this.sizes[key];
+            for(int i = 0; i < s; i++){
+                if(list[i] == value){
+                    System.arraycopy(list, i + 1, list, i, s - i - 1);
+                    this.sizes[key] = s - 1;
+                    return;
+                }
+            }
+        }
+
+        int[] getList(int key){
+            if(key < 0 || key >= this.lists.length || this.lists[key] == null)
+                return EMPTY;
+            return this.lists[key];
+        }
+
+        int getSize(int key){
+            if(key < 0 || key >= this.sizes.length)
+                return 0;
+            return this.sizes[key];
+        }
+
+        int getNumberOfKeys(){
+            return this.lists.length;
+        }
+
+        void clear(){
+            Arrays.fill(this.lists, null);
+            Arrays.fill(this.sizes, 0);
+        }
+    }
+}
@@ -151,9 +151,9 @@ public class Correspondence implements Comparable<Correspondence> {
     public Correspondence(Correspondence other) {
         this.entityOne = other.entityOne;
         this.entityTwo = other.entityTwo;
-        this.confidence = other.confidence;
+        this.confidence = other.getConfidence();
         this.relation = other.relation;
-        this.identifier = other.identifier;
+        this.identifier = other.getIdentifier();
         if(other.extensions == null){
             this.extensions = null;
         } else{
@@ -178,7 +178,7 @@ public class Correspondence implements Comparable<Correspondence> {
      * @return New reversed correspondence.
      */
     public Correspondence reverseWithoutRelationChange(){
-        return new Correspondence(entityTwo, entityOne, confidence, relation, new HashMap<>(extensions), identifier);
+        return new Correspondence(entityTwo, entityOne, getConfidence(), relation, new HashMap<>(extensions), getIdentifier());
     }
     
     /**
@@ -188,7 +188,7 @@ public class Correspondence implements Comparable<Correspondence> {
      * @return New reversed correspondence.
      */
     public Correspondence reverse(){
-        return new Correspondence(entityTwo, entityOne, confidence, relation.reverse(), new HashMap<>(extensions), identifier);
+        return new Correspondence(entityTwo, entityOne, getConfidence(), relation.reverse(), new HashMap<>(extensions), getIdentifier());
     }
 
     /**
@@ -497,6 +497,14 @@ public class Correspondence implements Comparable<Correspondence> {
         return hash;
     }
 
+    /**
+     * Two correspondences are equal if source, target and relation are equal (confidence, identifier and extensions are not compared).
+     * Subclasses (like the row views returned by {@link CompactAlignment}) are equal to a plain correspondence with the same
+     * source, target, and relation. Otherwise an alignment could not find a correspondence which was copied from
+     * (or to) another alignment implementation. Subclasses must not override equals and hashCode to keep this symmetric.
+     * @param obj the other object
+     * @return true if the objects are equal
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -505,7 +513,7 @@ public class Correspondence implements Comparable<Correspondence> {
         if (obj == null) {
             return false;
         }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Correspondence)) {
             return false;
         }
         final Correspondence other = (Correspondence) obj;
@@ -523,15 +531,15 @@ public class Correspondence implements Comparable<Correspondence> {
 
     @Override
     public String toString() {
-        return "<" + entityOne + "," + entityTwo + "," + confidence + "," + relation + ">";
+        return "<" + entityOne + "," + entityTwo + "," + getConfidence() + "," + relation + ">";
     }
         
     public String toStringWithExtensions() {
-        return "<" + entityOne + "," + entityTwo + "," + confidence + "," + relation + "," + this.extensions.toString() + ">";
+        return "<" + entityOne + "," + entityTwo + "," + getConfidence() + "," + relation + "," + this.extensions.toString() + ">";
     }
     
     public static Comparator<Correspondence> comparingByConfidence() {
-        return (Comparator<Correspondence>) (c1, c2) -> Double.compare(c1.confidence, c2.confidence);
+        return (Comparator<Correspondence>) (c1, c2) -> Double.compare(c1.getConfidence(), c2.getConfidence());
     }
     
     public static final Attribute<Correspondence, String> SOURCE = new SimpleAttribute<Correspondence, String>("source") {
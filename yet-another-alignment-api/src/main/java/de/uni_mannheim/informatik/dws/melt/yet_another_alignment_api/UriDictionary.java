@@ -0,0 +1,89 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary which maps URIs (strings) to dense int ids and back.
+ * It is used by {@link CompactAlignment} to store each URI only once.
+ * One dictionary can be shared by multiple compact alignments (e.g. all candidate alignments of one test case)
+ * such that the URIs are only stored once across all of them.
+ * The dictionary never removes URIs. Lookups are lock free, adding new URIs is synchronized.
+ */
+public class UriDictionary {
+
+    private final Map<String, Integer> uriToId;
+    private volatile String[] idToUri;
+    private int size;
+
+    public UriDictionary() {
+        this(16);
+    }
+
+    public UriDictionary(int initialCapacity) {
+        this.uriToId = new ConcurrentHashMap<>(initialCapacity);
+        this.idToUri = new String[Math.max(1, initialCapacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the id of the given URI or -1 if the URI is not contained in this dictionary.
+     * @param uri the URI
+     * @return the id of the URI or -1 if not contained
+     */
+    public int getId(String uri){
+        if(uri == null)
+            return -1;
+        Integer id = this.uriToId.get(uri);
+        if(id == null)
+            return -1;
+        return id;
+    }
+
+    /**
+     * Returns the id of the given URI. If the URI is not contained, a new id is assigned.
+     * @param uri the URI
+     * @return the id of the URI
+     */
+    public int getOrAddId(String uri){
+        if(uri == null)
+            throw new IllegalArgumentException("The URI should not be null.");
+        Integer id = this.uriToId.get(uri);
+        if(id != null)
+            return id;
+        synchronized(this){
+            id = this.uriToId.get(uri);
+            if(id != null)
+                return id;
+            int newId = this.size;
+            String[] uris = this.idToUri;
+            if(newId >= uris.length){
+                uris = Arrays.copyOf(uris, uris.length + (uris.length >> 1) + 1);
+            }
+            uris[newId] = uri;
+            this.idToUri = uris;
+            this.size++;
+            //publish the id only after the URI is stored in the array
+            this.uriToId.put(uri, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Returns the URI for the given id.
+     * @param id the id (which is returned by {@link #getOrAddId(java.lang.String) })
+     * @return the URI
+     */
+    public String getUri(int id){
+        return this.idToUri[id];
+    }
+
+    /**
+     * Returns the number of URIs in this dictionary.
+     * @return the number of URIs
+     */
+    public int size(){
+        return this.uriToId.size();
+    }
+}
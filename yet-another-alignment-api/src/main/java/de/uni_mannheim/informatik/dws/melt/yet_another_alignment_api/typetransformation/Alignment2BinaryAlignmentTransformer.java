@@ -0,0 +1,34 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.basetransformers.TypeTransformerHelper;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignmentSerializer;
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Writes an alignment in the binary format to a (temporary) file and opens it memory mapped.
+ */
+public class Alignment2BinaryAlignmentTransformer extends AbstractTypeTransformer<Alignment, BinaryAlignment>{
+
+    private static final String FILE_PREFIX = "alignment";
+
+    public Alignment2BinaryAlignmentTransformer() {
+        super(Alignment.class, BinaryAlignment.class);
+    }
+
+    @Override
+    public BinaryAlignment transform(Alignment value, Properties parameters) throws TypeTransformationException {
+        try{
+            File serializationFile = TypeTransformerHelper.getRandomSerializationFile(parameters, FILE_PREFIX, BinaryAlignmentSerializer.FILE_EXTENSION);
+            BinaryAlignmentSerializer.serialize(value, serializationFile);
+            return BinaryAlignment.open(serializationFile);
+        }catch(IOException e){
+            throw new TypeTransformationException("Could not transform Alignment to BinaryAlignment", e);
+        }
+    }
+}
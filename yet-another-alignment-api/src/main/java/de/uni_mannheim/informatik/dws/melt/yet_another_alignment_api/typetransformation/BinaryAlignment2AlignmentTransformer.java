@@ -0,0 +1,22 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignment;
+import java.util.Properties;
+
+/**
+ * Copies all correspondences of a memory mapped binary alignment into a new alignment.
+ */
+public class BinaryAlignment2AlignmentTransformer extends AbstractTypeTransformer<BinaryAlignment, Alignment>{
+
+    public BinaryAlignment2AlignmentTransformer() {
+        super(BinaryAlignment.class, Alignment.class);
+    }
+
+    @Override
+    public Alignment transform(BinaryAlignment value, Properties parameters) throws TypeTransformationException {
+        return value.toAlignment();
+    }
+}
@@ -0,0 +1,44 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.basetransformers.TypeTransformerHelper;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignment;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Writes the binary alignment in the XML format of the alignment API and returns the URL of this file.
+ * An alignment URL is always expected to point to this format (e.g. by external, SEALS, and HTTP matchers or the evaluation),
+ * thus the binary file itself is never returned. The correspondences are streamed from the memory mapped file.
+ */
+public class BinaryAlignment2URLTransformer extends AbstractTypeTransformer<BinaryAlignment, URL>{
+
+    private static final String FILE_PREFIX = "alignment";
+    private static final String FILE_SUFFIX = ".rdf";
+
+    public BinaryAlignment2URLTransformer() {
+        super(BinaryAlignment.class, URL.class);
+    }
+
+    @Override
+    public URL transform(BinaryAlignment value, Properties parameters) throws TypeTransformationException {
+        try {
+            File serializationFile = TypeTransformerHelper.getRandomSerializationFile(parameters, FILE_PREFIX, FILE_SUFFIX);
+            try(Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(serializationFile), StandardCharsets.UTF_8))){
+                AlignmentSerializer.serialize(value.getAlignmentInfo(), value, writer);
+            }
+            return serializationFile.toURI().toURL();
+        } catch (IOException e) {
+            throw new TypeTransformationException("Could not transform BinaryAlignment to URL", e);
+        }
+    }
+}
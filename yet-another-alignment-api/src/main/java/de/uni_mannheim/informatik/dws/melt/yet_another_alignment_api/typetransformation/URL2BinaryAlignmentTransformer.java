@@ -0,0 +1,44 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.basetransformers.TypeTransformerHelper;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentParser;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.BinaryAlignmentSerializer;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Properties;
+import org.xml.sax.SAXException;
+
+/**
+ * Opens a binary alignment file memory mapped.
+ * If the URL does not point to a local binary alignment file, it is parsed (e.g. as XML)
+ * and written to a (temporary) binary file.
+ */
+public class URL2BinaryAlignmentTransformer extends AbstractTypeTransformer<URL, BinaryAlignment> {
+
+    private static final String FILE_PREFIX = "alignment";
+
+    public URL2BinaryAlignmentTransformer() {
+        super(URL.class, BinaryAlignment.class);
+    }
+
+    @Override
+    public BinaryAlignment transform(URL value, Properties parameters) throws TypeTransformationException {
+        try {
+            if(value.getProtocol().equalsIgnoreCase("file")){
+                File file = new File(value.toURI());
+                if(BinaryAlignment.isBinaryAlignmentFile(file))
+                    return BinaryAlignment.open(file);
+            }
+            File serializationFile = TypeTransformerHelper.getRandomSerializationFile(parameters, FILE_PREFIX, BinaryAlignmentSerializer.FILE_EXTENSION);
+            BinaryAlignmentSerializer.serialize(AlignmentParser.parse(value), serializationFile);
+            return BinaryAlignment.open(serializationFile);
+        } catch (URISyntaxException | SAXException | IOException e) {
+            throw new TypeTransformationException("Could not transform URL to BinaryAlignment", e);
+        }
+    }
+}
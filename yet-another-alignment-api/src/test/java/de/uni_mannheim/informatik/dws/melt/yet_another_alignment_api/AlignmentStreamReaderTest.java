@@ -0,0 +1,98 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlignmentStreamReaderTest {
+
+    @Test
+    void testSameResultAsSaxParser() throws Exception {
+        for(String resource : new String[]{"LogMap-cmt-conference.rdf", "alignment_extension_test.rdf"}){
+            Alignment sax = AlignmentParser.parse(getResource(resource));
+            Alignment streamed = new Alignment();
+            try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(getResource(resource))){
+                while(reader.hasNext()){
+                    streamed.add(reader.next());
+                }
+                assertEquals(sax.getOnto1().getOntoID(), reader.getAlignmentInfo().getOnto1().getOntoID());
+                assertEquals(sax.getOnto2().getOntoLocation(), reader.getAlignmentInfo().getOnto2().getOntoLocation());
+                assertEquals(sax.getExtensions(), reader.getAlignmentInfo().getExtensions());
+                assertTrue(reader.getAlignmentInfo().isEmpty());
+            }
+            assertEquals(sax, streamed);
+            for(Correspondence c : sax){
+                Correspondence s = streamed.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+                assertEquals(c.getConfidence(), s.getConfidence());
+                assertEquals(c.getExtensions(), s.getExtensions());
+            }
+        }
+    }
+
+    @Test
+    void testFilterAndCallback() throws Exception {
+        Alignment all = AlignmentParser.parse(getResource("LogMap-cmt-conference.rdf"));
+        Alignment filtered = AlignmentParser.parse(getResource("LogMap-cmt-conference.rdf"), c -> c.getConfidence() > 0.8);
+        assertEquals(all.cut(0.8).size(), filtered.size());
+        assertEquals(all.getOnto1().getOntoID(), filtered.getOnto1().getOntoID());
+
+        List<Correspondence> collected = new ArrayList<>();
+        AlignmentParser.forEachCorrespondence(getResource("LogMap-cmt-conference.rdf"), collected::add);
+        assertEquals(all, new Alignment(collected));
+    }
+
+    @Test
+    void testEmptyAndUnparsable() throws Exception {
+        String empty = AlignmentSerializer.serialize(new Alignment());
+        try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(new ByteArrayInputStream(empty.getBytes(StandardCharsets.UTF_8)))){
+            assertFalse(reader.hasNext());
+        }
+        assertThrows(SAXException.class, () -> {
+            AlignmentParser.forEachCorrespondence(getResource("unparsable_alignment.rdf"), c -> {});
+        });
+    }
+
+    @Test
+    void testWriterSerialization() throws Exception {
+        Alignment a = new Alignment();
+        a.add("http://source.com/A", "http://target.com/B", 0.5);
+        a.add("http://source.com/C?x=1&y=<2>", "http://target.com/ä", 0.9, CorrespondenceRelation.SUBSUME);
+        Correspondence c = new Correspondence("http://source.com/E", "http://target.com/F", 0.3);
+        c.setIdentifier("http://id.com/1");
+        c.addExtensionValue("http://www.extension.com#label", "a \"quoted\" & <escaped> value");
+        a.add(c);
+        a.getOnto1().setOntoID("http://source.com");
+        a.addExtensionValue("http://www.extension.com#alignmentLabel", "test");
+
+        StringWriter writer = new StringWriter();
+        AlignmentSerializer.serialize(a, writer);
+        assertEquals(AlignmentSerializer.serialize(a), writer.toString());
+
+        Alignment parsed = AlignmentParser.parseFromText(writer.toString());
+        assertEquals(a, parsed);
+        Correspondence parsedCell = parsed.getCorrespondence("http://source.com/E", "http://target.com/F", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals("http://id.com/1", parsedCell.getIdentifier());
+        assertEquals("a \"quoted\" & <escaped> value", parsedCell.getExtensionValue("http://www.extension.com#label"));
+        assertEquals("test", parsed.getExtensionValue("http://www.extension.com#alignmentLabel"));
+
+        //stream through: read, filter, and write without materializing the alignment
+        StringWriter filtered = new StringWriter();
+        try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(new ByteArrayInputStream(writer.toString().getBytes(StandardCharsets.UTF_8)))){
+            Iterator<Correspondence> it = reader;
+            AlignmentSerializer.serialize(reader.getAlignmentInfo(), () -> it, filtered);
+        }
+        assertEquals(a, AlignmentParser.parseFromText(filtered.toString()));
+    }
+
+    private static InputStream getResource(String name){
+        return AlignmentStreamReaderTest.class.getClassLoader().getResourceAsStream(name);
+    }
+}
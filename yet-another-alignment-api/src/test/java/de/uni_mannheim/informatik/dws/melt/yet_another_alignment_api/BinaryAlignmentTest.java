@@ -0,0 +1,123 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.Alignment2BinaryAlignmentTransformer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.BinaryAlignment2URLTransformer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.URL2BinaryAlignmentTransformer;
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryAlignmentTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testRoundTrip() throws Exception {
+        Alignment a = new Alignment();
+        a.add("http://source.com/A", "http://target.com/B", 0.5);
+        a.add("http://source.com/A", "http://target.com/ü", 0.75, CorrespondenceRelation.SUBSUME);
+        Correspondence c = new Correspondence("http://source.com/C", "http://target.com/D", 0.3);
+        c.setIdentifier("http://id.com/1");
+        c.addExtensionValue("http://www.extension.com#label", "value");
+        c.addExtensionValue("http://www.extension.com#list", Arrays.asList("one", "two"));
+        a.add(c);
+        a.getOnto1().setOntoID("http://source.com");
+        a.getOnto2().setOntoLocation("http://target.com/onto.owl");
+        a.setLevel("0");
+        a.addExtensionValue("http://www.extension.com#alignmentLabel", "test");
+
+        File file = new File(tempDir, "alignment" + BinaryAlignmentSerializer.FILE_EXTENSION);
+        BinaryAlignmentSerializer.serialize(a, file);
+        assertTrue(BinaryAlignment.isBinaryAlignmentFile(file));
+
+        BinaryAlignment binary = BinaryAlignment.open(file);
+        assertEquals(3, binary.size());
+        Alignment loaded = binary.toAlignment();
+        assertEquals(a, loaded);
+        assertEquals("http://source.com", loaded.getOnto1().getOntoID());
+        assertEquals("http://target.com/onto.owl", loaded.getOnto2().getOntoLocation());
+        assertEquals("test", loaded.getExtensionValue("http://www.extension.com#alignmentLabel"));
+
+        Correspondence loadedCell = loaded.getCorrespondence("http://source.com/C", "http://target.com/D", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals("http://id.com/1", loadedCell.getIdentifier());
+        assertEquals(0.3, loadedCell.getConfidence());
+        assertEquals("value", loadedCell.getExtensionValue("http://www.extension.com#label"));
+        assertEquals(Arrays.asList("one", "two"), loadedCell.getExtensionValue("http://www.extension.com#list"));
+        assertEquals(0.75, loaded.getCorrespondence("http://source.com/A", "http://target.com/ü", CorrespondenceRelation.SUBSUME).getConfidence());
+
+        //random access
+        for(int i = 0; i < binary.size(); i++){
+            assertTrue(a.contains(binary.getCorrespondence(i)));
+            assertEquals(binary.getCorrespondence(i).getConfidence(), binary.getConfidence(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> binary.getEntityOne(3));
+
+        //parser detects binary files
+        assertEquals(a, AlignmentParser.parse(file));
+        assertEquals(a, AlignmentParser.parse(file.toURI().toURL()));
+        assertEquals(a, new Alignment(file));
+        assertEquals(a, new Alignment(file.toURI().toURL()));
+        assertEquals(a, new CompactAlignment(file));
+        assertEquals("test", new Alignment(file).getExtensionValue("http://www.extension.com#alignmentLabel"));
+    }
+
+    @Test
+    void testInvalidHeader() throws Exception {
+        File file = new File(tempDir, "invalid" + BinaryAlignmentSerializer.FILE_EXTENSION);
+        try(java.io.DataOutputStream out = new java.io.DataOutputStream(new java.io.FileOutputStream(file))){
+            out.writeInt(BinaryAlignmentSerializer.MAGIC);
+            out.writeInt(BinaryAlignmentSerializer.VERSION);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeLong(BinaryAlignmentSerializer.HEADER_SIZE);
+            out.writeLong(BinaryAlignmentSerializer.HEADER_SIZE);
+            out.writeLong(BinaryAlignmentSerializer.HEADER_SIZE);
+            out.writeLong(1L << 40); //position larger than the file
+        }
+        assertTrue(BinaryAlignment.isBinaryAlignmentFile(file));
+        assertThrows(java.io.IOException.class, () -> BinaryAlignment.open(file));
+    }
+
+    @Test
+    void testEmptyAndNonBinary() throws Exception {
+        File file = new File(tempDir, "empty" + BinaryAlignmentSerializer.FILE_EXTENSION);
+        BinaryAlignmentSerializer.serialize(new Alignment(), file);
+        BinaryAlignment binary = BinaryAlignment.open(file);
+        assertEquals(0, binary.size());
+        assertFalse(binary.iterator().hasNext());
+        assertTrue(binary.toAlignment().isEmpty());
+
+        File xml = new File(tempDir, "alignment.rdf");
+        AlignmentSerializer.serialize(AlignmentGenerator.generateRandomAlignment(10), xml);
+        assertFalse(BinaryAlignment.isBinaryAlignmentFile(xml));
+        assertThrows(java.io.IOException.class, () -> BinaryAlignment.open(xml));
+    }
+
+    @Test
+    void testTypeTransformers() throws Exception {
+        Alignment a = AlignmentGenerator.generateRandomAlignment(100);
+        Properties p = new Properties();
+        BinaryAlignment binary = new Alignment2BinaryAlignmentTransformer().transform(a, p);
+        assertEquals(a, binary.toAlignment());
+
+        //the URL points to the XML format which is understood by all matchers
+        URL url = new BinaryAlignment2URLTransformer().transform(binary, p);
+        assertFalse(BinaryAlignment.isBinaryAlignmentFile(new File(url.toURI())));
+        try(AlignmentStreamReader reader = AlignmentParser.parseStreaming(url.openStream())){
+            Alignment streamed = new Alignment();
+            reader.forEachRemaining(streamed::add);
+            assertEquals(a, streamed);
+        }
+        assertEquals(a, new URL2BinaryAlignmentTransformer().transform(url, p).toAlignment());
+
+        File xml = new File(tempDir, "alignment.rdf");
+        AlignmentSerializer.serialize(a, xml);
+        assertEquals(a, new URL2BinaryAlignmentTransformer().transform(xml.toURI().toURL(), p).toAlignment());
+    }
+}
@@ -0,0 +1,260 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactAlignmentTest {
+
+    @Test
+    void testAddAndContains(){
+        Alignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("A", "C", 0.6, CorrespondenceRelation.SUBSUMED);
+        a.add("A", "B", 0.9); //already contained -> not modified
+        assertEquals(2, a.size());
+        assertTrue(a.contains(new Correspondence("A", "B")));
+        assertTrue(a.contains(new Correspondence("A", "C", CorrespondenceRelation.SUBSUMED)));
+        assertFalse(a.contains(new Correspondence("A", "C")));
+        assertFalse(a.contains(new Correspondence("X", "Y")));
+        assertEquals(0.5, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+    }
+
+    @Test
+    void testEmpty(){
+        Alignment alignment = new CompactAlignment();
+        Iterator<Correspondence> i = alignment.iterator();
+        assertFalse(i.hasNext());
+        assertThrows(NoSuchElementException.class, () -> {alignment.iterator().next();});
+        assertTrue(alignment.isEmpty());
+    }
+
+    @Test
+    void testSourceAndTargetLookup(){
+        Alignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("A", "C", 0.6);
+        a.add("A", "D", 0.7, CorrespondenceRelation.SUBSUME);
+        a.add("E", "B", 0.7);
+
+        assertEquals(3, Alignment.iterableSize(a.getCorrespondencesSource("A")));
+        assertEquals(2, Alignment.iterableSize(a.getCorrespondencesTarget("B")));
+        assertEquals(1, Alignment.iterableSize(a.getCorrespondencesSourceRelation("A", CorrespondenceRelation.SUBSUME)));
+        assertEquals(1, Alignment.iterableSize(a.getCorrespondencesSourceTarget("E", "B")));
+        assertEquals(0, Alignment.iterableSize(a.getCorrespondencesSource("X")));
+        assertTrue(a.isSourceContained("E"));
+        assertFalse(a.isSourceContained("B"));
+        assertTrue(a.isTargetContained("D"));
+
+        assertEquals(new HashSet<>(Arrays.asList("A", "E")), a.getDistinctSourcesAsSet());
+        assertEquals(new HashSet<>(Arrays.asList("B", "C", "D")), a.getDistinctTargetsAsSet());
+
+        a.removeCorrespondencesSource("A");
+        assertEquals(1, a.size());
+        assertFalse(a.isSourceContained("A"));
+        assertEquals(new HashSet<>(Arrays.asList("E")), a.getDistinctSourcesAsSet());
+    }
+
+    @Test
+    void testModificationIsWrittenToColumns(){
+        Alignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+
+        Correspondence c = a.addOrUseHighestConfidence("A", "B", 0.8);
+        c.addAdditionalConfidence("foo", 0.3);
+        Correspondence stored = a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.8, stored.getConfidence());
+        assertEquals(0.3, stored.getAdditionalConfidence("foo"));
+
+        a.addOrUseHighestConfidence("A", "B", 0.2);
+        assertEquals(0.8, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        for(Correspondence corr : a){
+            corr.setConfidence(0.1);
+        }
+        assertEquals(0.1, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        a.addOrModify(new Correspondence("A", "B", 0.4, CorrespondenceRelation.EQUIVALENCE, "key", "value"));
+        stored = a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.4, stored.getConfidence());
+        assertEquals("value", stored.getExtensionValue("key"));
+        assertEquals(0.3, stored.getAdditionalConfidence("foo"));
+
+        assertThrows(UnsupportedOperationException.class, () -> {
+            a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).setEntityOne("X");
+        });
+    }
+
+    @Test
+    void testRemoveAndReAdd(){
+        Alignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("C", "D", 0.5);
+        assertTrue(a.remove(new Correspondence("A", "B")));
+        assertFalse(a.remove(new Correspondence("A", "B")));
+        assertEquals(1, a.size());
+        a.add("A", "B", 0.7);
+        assertEquals(2, a.size());
+        assertEquals(0.7, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        Iterator<Correspondence> it = a.iterator();
+        while(it.hasNext()){
+            if(it.next().getEntityOne().equals("C"))
+                it.remove();
+        }
+        assertEquals(1, a.size());
+        a.clear();
+        assertTrue(a.isEmpty());
+    }
+
+    @Test
+    void testSameResultAsDefaultAlignment(){
+        Alignment a = new Alignment();
+        a.add("A", "B", 0.5);
+        a.add("A", "C", 0.6);
+        a.add("A", "D", 0.7);
+        a.add("E", "B", 0.8, CorrespondenceRelation.SUBSUMED);
+        a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).addExtensionValue("http://test.com/ext", "value");
+
+        CompactAlignment compact = new CompactAlignment(a);
+        assertEquals(a, compact);
+        assertEquals(compact, a);
+        assertEquals(a.hashCode(), compact.hashCode());
+        assertEquals("value", compact.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://test.com/ext"));
+
+        assertEquals(a.cut(0.6), compact.cut(0.6));
+        assertEquals(a.cutSize(0.65), compact.cutSize(0.65));
+        assertEquals(a.reverse(), compact.reverse());
+        assertEquals(a.getDistinctRelationsAsSet(), compact.getDistinctRelationsAsSet());
+        assertEquals(a.getDistinctConfidencesAsSet(), compact.getDistinctConfidencesAsSet());
+        assertEquals(a.getDistinctSourceAndTargetsAsSet(), compact.getDistinctSourceAndTargetsAsSet());
+        assertEquals(2, compact.sample(2, 1234).size());
+
+        //copy back to a default alignment
+        Alignment copy = new Alignment(compact);
+        assertEquals(a, copy);
+        assertEquals(1, Alignment.iterableSize(copy.getCorrespondencesSource("E")));
+    }
+
+    @Test
+    void testSharedDictionary(){
+        UriDictionary dictionary = new UriDictionary();
+        CompactAlignment one = new CompactAlignment(dictionary);
+        one.add("A", "B");
+        CompactAlignment two = new CompactAlignment(dictionary);
+        two.add("A", "C");
+        assertEquals(3, dictionary.size());
+        assertTrue(one.isSourceContained("A"));
+        assertFalse(one.isTargetContained("C"));
+        assertTrue(two.isTargetContained("C"));
+        assertFalse(two.isTargetContained("B"));
+    }
+
+    @Test
+    void testSerializationRoundTrip() throws Exception{
+        Alignment a = new CompactAlignment();
+        a.add("http://source.com/A", "http://target.com/B", 0.5);
+        a.add("http://source.com/C", "http://target.com/D", 0.9, CorrespondenceRelation.SUBSUME);
+        String text = a.serialize();
+        CompactAlignment parsed = new CompactAlignment(new java.io.ByteArrayInputStream(text.getBytes("UTF-8")));
+        assertEquals(a, parsed);
+        assertEquals(0.9, parsed.getCorrespondence("http://source.com/C", "http://target.com/D", CorrespondenceRelation.SUBSUME).getConfidence());
+    }
+
+    @Test
+    void testViewIsUpdatedByAddOrModify(){
+        CompactAlignment a = new CompactAlignment();
+        Correspondence view = a.addOrModify(new Correspondence("A", "B", 0.5));
+        a.addOrModify(new Correspondence("A", "B", 0.8));
+        assertEquals(0.8, view.getConfidence());
+        assertTrue(view.toString().contains("0.8"));
+        assertEquals(0.8, view.reverse().getConfidence());
+        assertEquals(0.8, view.reverseWithoutRelationChange().getConfidence());
+        assertEquals(0.8, new Correspondence(view).getConfidence());
+        assertTrue(Correspondence.comparingByConfidence().compare(view, new Correspondence("X", "Y", 0.7)) > 0);
+    }
+
+    @Test
+    void testEqualityWithPlainCorrespondence(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        Correspondence view = a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE);
+        Correspondence plain = new Correspondence("A", "B", 0.9);
+        assertEquals(view, plain);
+        assertEquals(plain, view);
+        assertEquals(plain.hashCode(), view.hashCode());
+        Alignment defaultAlignment = new Alignment();
+        defaultAlignment.add(plain);
+        assertTrue(defaultAlignment.contains(view));
+        assertTrue(new HashSet<>(Arrays.asList(view)).contains(plain));
+    }
+
+    @Test
+    void testExtensionsAreCopied(){
+        CompactAlignment a = new CompactAlignment();
+        Correspondence c = new Correspondence("A", "B", 0.5);
+        c.addExtensionValue("http://example.com#key", "value");
+        a.add(c);
+        c.addExtensionValue("http://example.com#key", "changed");
+        assertEquals("value", a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getExtensionValueAsString("http://example.com#key"));
+    }
+
+    @Test
+    void testRemoveFreesRowAndCompact(){
+        CompactAlignment a = new CompactAlignment();
+        for(int i = 0; i < 200; i++){
+            Correspondence c = new Correspondence("A" + i, "B" + i, i / 200.0);
+            c.setIdentifier("id" + i);
+            c.addExtensionValue("http://example.com#key", "value" + i);
+            a.add(c);
+        }
+        Correspondence kept = a.getCorrespondence("A150", "B150", CorrespondenceRelation.EQUIVALENCE);
+        Correspondence removed = a.getCorrespondence("A10", "B10", CorrespondenceRelation.EQUIVALENCE);
+        a.remove(removed);
+        assertNull(removed.getExtensionValue("http://example.com#key"));
+        assertEquals("id10", removed.getIdentifier());
+        assertEquals(0.05, removed.getConfidence());
+
+        Iterator<Correspondence> it = a.iterator();
+        a.retainAll(new ArrayList<>(a.cut(0.7))); // more than half of the rows are removed -> compacted
+        assertEquals(60, a.size());
+        assertThrows(java.util.ConcurrentModificationException.class, () -> it.next());
+
+        //views created before the compaction are still valid
+        assertEquals("value150", kept.getExtensionValueAsString("http://example.com#key"));
+        assertEquals("id150", kept.getIdentifier());
+        kept.setConfidence(0.1);
+        assertEquals(0.1, a.getCorrespondence("A150", "B150", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        a.removeAll(Arrays.asList(new Correspondence("A150", "B150")));
+        a.compact();
+        assertEquals(59, a.size());
+        assertEquals(0.1, kept.getConfidence());
+        assertNull(kept.getExtensionValue("http://example.com#key"));
+        for(Correspondence c : a){
+            assertEquals("id" + c.getEntityOne().substring(1), c.getIdentifier());
+            assertEquals("value" + c.getEntityOne().substring(1), c.getExtensionValueAsString("http://example.com#key"));
+        }
+        assertTrue(a.getCorrespondencesSource("A199").iterator().hasNext());
+        a.clear();
+        assertTrue(a.isEmpty());
+        a.add("A1", "B1", 0.5);
+        assertEquals(1, a.size());
+    }
+
+    @Test
+    void testCopyToDefaultAlignmentHasAllIndexes(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        Alignment copy = new Alignment(a);
+        assertEquals(1, copy.size());
+        assertNotNull(copy.indexSource);
+        assertNotNull(copy.indexTarget);
+        assertNotNull(copy.indexRelation);
+        assertNotNull(copy.indexConfidence);
+    }
+}